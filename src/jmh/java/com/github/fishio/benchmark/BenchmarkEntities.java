@@ -0,0 +1,120 @@
+package com.github.fishio.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.github.fishio.CollisionMask;
+import com.github.fishio.EnemyFish;
+import com.github.fishio.Entity;
+import com.github.fishio.ISpriteData;
+import com.github.fishio.PlayerFish;
+import com.github.fishio.SpriteStore;
+import com.github.fishio.Vec2d;
+import com.github.fishio.multiplayer.server.MultiplayerServerPlayingField;
+
+/**
+ * Creates the entities and playing fields the benchmarks run on.<br>
+ * <br>
+ * Everything is created from a seed, so that every run of a benchmark
+ * starts from the same positions, sizes and speeds.
+ */
+public final class BenchmarkEntities {
+	/**
+	 * The width and height of the playing fields.
+	 */
+	public static final int FIELD_SIZE = 10000;
+
+	/**
+	 * The amount of players in the playing fields.
+	 */
+	public static final int PLAYERS = 4;
+
+	/**
+	 * The seed used by all benchmarks.
+	 */
+	public static final long SEED = 42L;
+
+	private static final int SPRITES = 28;
+	private static final int MIN_SIZE = 20;
+	private static final int MAX_SIZE = 120;
+
+	private BenchmarkEntities() { }
+
+	/**
+	 * Creates an enemy fish with a random sprite, size, position and speed.
+	 *
+	 * @param random
+	 * 		the random to use.
+	 *
+	 * @return
+	 * 		the new enemy fish.
+	 */
+	public static EnemyFish createEnemy(Random random) {
+		String sprite = "sprites/fish/fish" + random.nextInt(SPRITES) + ".png";
+		ISpriteData data = SpriteStore.getSpriteDataOrLoad(sprite);
+
+		double width = MIN_SIZE + random.nextDouble() * (MAX_SIZE - MIN_SIZE);
+		double height = width * data.getHeight() / data.getWidth();
+		Vec2d center = new Vec2d(random.nextDouble() * FIELD_SIZE, random.nextDouble() * FIELD_SIZE);
+
+		double vx = (1 + random.nextDouble() * 3) * (random.nextBoolean() ? 1 : -1);
+		double vy = random.nextDouble() * 2 - 1;
+		return new EnemyFish(new CollisionMask(center, width, height, data), sprite, vx, vy);
+	}
+
+	/**
+	 * Creates the given amount of enemy fish and {@link #PLAYERS} players.
+	 *
+	 * @param count
+	 * 		the amount of enemy fish.
+	 *
+	 * @return
+	 * 		the entities.
+	 */
+	public static List<Entity> createEntities(int count) {
+		Random random = new Random(SEED);
+		ISpriteData data = SpriteStore.getSpriteDataOrLoad(PlayerFish.SPRITE_LOCATION);
+
+		List<Entity> entities = new ArrayList<>(count + PLAYERS);
+		for (int i = 0; i < count; i++) {
+			entities.add(createEnemy(random));
+		}
+
+		for (int i = 0; i < PLAYERS; i++) {
+			Vec2d center = new Vec2d(random.nextDouble() * FIELD_SIZE, random.nextDouble() * FIELD_SIZE);
+			PlayerFish player = new PlayerFish(new CollisionMask(center, 60, 30, data), null);
+			player.setInvincible(Long.MAX_VALUE);
+			entities.add(player);
+		}
+
+		return entities;
+	}
+
+	/**
+	 * Creates a headless playing field with the given amount of enemy
+	 * fish and {@link #PLAYERS} players. No new enemies are spawned.
+	 *
+	 * @param count
+	 * 		the amount of enemy fish.
+	 * @param deterministic
+	 * 		if the field should run in deterministic mode, seeded with
+	 * 		{@link #SEED}.
+	 *
+	 * @return
+	 * 		the new playing field.
+	 */
+	public static MultiplayerServerPlayingField createField(int count, boolean deterministic) {
+		MultiplayerServerPlayingField field = new MultiplayerServerPlayingField(FIELD_SIZE, FIELD_SIZE);
+		field.getEnemyFishSpawner().setMaxEnemies(0);
+		if (deterministic) {
+			field.setSeed(SEED);
+		}
+
+		for (Entity entity : createEntities(count)) {
+			field.add(entity);
+		}
+
+		return field;
+	}
+}
@@ -0,0 +1,109 @@
+package com.github.fishio.benchmark;
+
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.fishio.BitMask;
+import com.github.fishio.CollisionMask;
+import com.github.fishio.ISpriteData;
+import com.github.fishio.PlayerFish;
+import com.github.fishio.SpriteStore;
+import com.github.fishio.Vec2d;
+
+/**
+ * Benchmarks for building the pixel masks of a {@link CollisionMask} and
+ * checking two masks for collisions.<br>
+ * <br>
+ * Entities move every tick, which invalidates their masks, so the mask
+ * benchmarks move the mask before getting it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionMaskBenchmark {
+	/**
+	 * The width of the fish, in pixels.
+	 */
+	@Param({"60", "240"})
+	public int size;
+
+	/**
+	 * The rotation of the fish, in degrees.
+	 */
+	@Param({"0", "30"})
+	public double rotation;
+
+	private CollisionMask mask;
+	private CollisionMask overlapping;
+	private CollisionMask far;
+
+	/**
+	 * Creates a fish, a fish that overlaps it and a fish far away.
+	 */
+	@Setup
+	public void setUp() {
+		SpriteStore.setHeadless(true);
+		ISpriteData data = SpriteStore.getSpriteDataOrLoad(PlayerFish.SPRITE_LOCATION);
+
+		mask = new CollisionMask(new Vec2d(1000, 1000), size, size / 2D, data);
+		mask.setRotation(rotation);
+
+		overlapping = new CollisionMask(new Vec2d(1000 + size / 3D, 1000 + size / 8D), size, size / 2D, data);
+		overlapping.setRotation(rotation + 15);
+
+		far = new CollisionMask(new Vec2d(5000, 5000), size, size / 2D, data);
+	}
+
+	/**
+	 * @return
+	 * 		the rebuilt set of pixels.
+	 */
+	@Benchmark
+	public HashSet<Vec2d> getMask() {
+		mask.move(new Vec2d(0, 0));
+		return mask.getMask();
+	}
+
+	/**
+	 * @return
+	 * 		the BitMask from the MaskCache, which moving does not invalidate.
+	 */
+	@Benchmark
+	public BitMask getLocalBitMask() {
+		mask.move(new Vec2d(0, 0));
+		return mask.getLocalBitMask();
+	}
+
+	/**
+	 * @return
+	 * 		if two overlapping fish have pixels in common.
+	 */
+	@Benchmark
+	public boolean intersects() {
+		return mask.intersects(overlapping);
+	}
+
+	/**
+	 * @return
+	 * 		if two fish far apart collide, which the bounding boxes reject.
+	 */
+	@Benchmark
+	public boolean intersectsFar() {
+		return mask.intersects(far);
+	}
+}
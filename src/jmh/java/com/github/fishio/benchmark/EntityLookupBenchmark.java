@@ -0,0 +1,87 @@
+package com.github.fishio.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.fishio.Entity;
+import com.github.fishio.PlayingField;
+import com.github.fishio.SpriteStore;
+import com.github.fishio.multiplayer.server.MultiplayerServerPlayingField;
+
+/**
+ * Benchmarks for finding the entities of a snapshot by their id: a scan
+ * over all entities of the field for every id, as the client did before,
+ * compared to {@link PlayingField#getEntity(int)}.<br>
+ * <br>
+ * Every invocation looks up every entity of the field once, like
+ * applying one snapshot does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityLookupBenchmark {
+	/**
+	 * The amount of enemy fish.
+	 */
+	@Param({"50", "200", "1000"})
+	public int entities;
+
+	private MultiplayerServerPlayingField field;
+	private int[] ids;
+
+	/**
+	 * Creates the field and collects the ids of its entities.
+	 */
+	@Setup
+	public void setUp() {
+		SpriteStore.setHeadless(true);
+		field = BenchmarkEntities.createField(entities, false);
+		ids = field.getEntities().stream().mapToInt(Entity::getEntityId).toArray();
+	}
+
+	/**
+	 * Finds every entity by scanning all entities of the field.
+	 *
+	 * @param bh
+	 * 		the blackhole to consume the entities.
+	 */
+	@Benchmark
+	public void scan(Blackhole bh) {
+		for (int id : ids) {
+			for (Entity entity : field.getEntities()) {
+				if (entity.getEntityId() == id) {
+					bh.consume(entity);
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds every entity with {@link PlayingField#getEntity(int)}.
+	 *
+	 * @param bh
+	 * 		the blackhole to consume the entities.
+	 */
+	@Benchmark
+	public void getEntity(Blackhole bh) {
+		for (int id : ids) {
+			bh.consume(field.getEntity(id));
+		}
+	}
+}
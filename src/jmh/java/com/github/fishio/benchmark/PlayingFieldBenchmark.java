@@ -0,0 +1,83 @@
+package com.github.fishio.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.fishio.PlayingField;
+import com.github.fishio.SpriteStore;
+import com.github.fishio.multiplayer.server.MultiplayerServerPlayingField;
+
+/**
+ * Benchmarks for the parts of a game tick that run over all entities:
+ * {@link PlayingField#moveMovables()} and
+ * {@link PlayingField#checkPlayerCollisions()}.<br>
+ * <br>
+ * Fish die when they swim out of the field or are eaten, so every
+ * iteration starts with a new field and runs {@value #TICKS} ticks. The
+ * scores are the time of those ticks together. In deterministic mode,
+ * the entities are updated one by one in a fixed order instead of in
+ * parallel.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10, batchSize = PlayingFieldBenchmark.TICKS)
+@Measurement(iterations = 20, batchSize = PlayingFieldBenchmark.TICKS)
+@Fork(1)
+public class PlayingFieldBenchmark {
+	/**
+	 * The amount of ticks in one iteration.
+	 */
+	public static final int TICKS = 100;
+
+	/**
+	 * The amount of enemy fish.
+	 */
+	@Param({"50", "200", "1000"})
+	public int entities;
+
+	/**
+	 * If the field runs in deterministic mode.
+	 */
+	@Param({"false", "true"})
+	public boolean deterministic;
+
+	private MultiplayerServerPlayingField field;
+
+	/**
+	 * Creates a new field for every iteration.
+	 */
+	@Setup(Level.Iteration)
+	public void setUp() {
+		SpriteStore.setHeadless(true);
+		field = BenchmarkEntities.createField(entities, deterministic);
+	}
+
+	/**
+	 * Moves all entities by one tick.
+	 */
+	@Benchmark
+	public void moveMovables() {
+		field.moveMovables();
+	}
+
+	/**
+	 * Checks the players for collisions with all other entities.
+	 */
+	@Benchmark
+	public void checkPlayerCollisions() {
+		field.checkPlayerCollisions();
+	}
+}
@@ -0,0 +1,150 @@
+package com.github.fishio.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.fishio.Entity;
+import com.github.fishio.SpriteStore;
+import com.github.fishio.multiplayer.codec.EntityCodec;
+import com.github.fishio.multiplayer.codec.EntitySnapshot;
+import com.github.fishio.multiplayer.codec.SnapshotDelta;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Benchmarks for turning the entities into bytes for the clients: with
+ * Java serialization of all entities, with the {@link EntityCodec}, and
+ * as a {@link SnapshotDelta} after one tick.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+	/**
+	 * The amount of enemy fish.
+	 */
+	@Param({"50", "200", "1000"})
+	public int entities;
+
+	private List<Entity> list;
+	private EntitiesMessage message;
+	private EntitySnapshot baseline;
+	private EntitySnapshot current;
+	private ByteBuf buffer;
+
+	/**
+	 * Creates the entities, and a snapshot before and after one tick.
+	 */
+	@Setup
+	public void setUp() {
+		SpriteStore.setHeadless(true);
+		list = BenchmarkEntities.createEntities(entities);
+		message = new EntitiesMessage(list.toArray(new Entity[0]));
+
+		baseline = EntitySnapshot.capture(1, list);
+		for (Entity entity : list) {
+			entity.getBoundingArea().move(entity.getBehaviour().getSpeedVector());
+		}
+		current = EntitySnapshot.capture(2, list);
+
+		buffer = Unpooled.buffer();
+	}
+
+	/**
+	 * Releases the buffer.
+	 */
+	@TearDown
+	public void tearDown() {
+		buffer.release();
+	}
+
+	/**
+	 * @return
+	 * 		the serialized message.
+	 *
+	 * @throws IOException
+	 * 		never.
+	 */
+	@Benchmark
+	public byte[] javaSerialization() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(message);
+		}
+
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * @return
+	 * 		the amount of bytes of the encoded entities.
+	 */
+	@Benchmark
+	public int codecEncode() {
+		buffer.clear();
+		for (Entity entity : list) {
+			EntityCodec.write(entity, buffer);
+		}
+
+		return buffer.readableBytes();
+	}
+
+	/**
+	 * @return
+	 * 		the captured snapshot.
+	 */
+	@Benchmark
+	public EntitySnapshot snapshotCapture() {
+		return EntitySnapshot.capture(2, list);
+	}
+
+	/**
+	 * @return
+	 * 		the amount of bytes of the delta between two snapshots.
+	 */
+	@Benchmark
+	public int snapshotDelta() {
+		buffer.clear();
+		SnapshotDelta.write(current, baseline, buffer);
+		return buffer.readableBytes();
+	}
+
+	/**
+	 * All entities in one serializable message, like the server used to
+	 * send before the {@link EntityCodec}.
+	 */
+	private static final class EntitiesMessage implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final Entity[] entities;
+
+		/**
+		 * @param entities
+		 * 		the entities to put in this message.
+		 */
+		EntitiesMessage(Entity[] entities) {
+			this.entities = entities;
+		}
+	}
+}
@@ -0,0 +1,287 @@
+package com.github.fishio;
+
+/**
+ * A rectangular grid of pixels, stored as rows of bits.<br>
+ * <br>
+ * Every row is stored as a number of <code>long</code> words, where bit
+ * <code>i</code> of word <code>k</code> represents the pixel at
+ * <code>originX + 64 * k + i</code>. This allows two masks to be
+ * compared 64 pixels at a time.
+ */
+public final class BitMask {
+	private static final int WORD_BITS = 64;
+	private static final int WORD_SHIFT = 6;
+	private static final int WORD_MASK = WORD_BITS - 1;
+
+	private final int originX;
+	private final int originY;
+	private final int width;
+	private final int height;
+	private final int wordsPerRow;
+	private final long[] words;
+
+	/**
+	 * Creates a new, empty BitMask.
+	 *
+	 * @param originX
+	 * 		the x coordinate of the leftmost column of this mask.
+	 * @param originY
+	 * 		the y coordinate of the topmost row of this mask.
+	 * @param width
+	 * 		the amount of columns of this mask.
+	 * @param height
+	 * 		the amount of rows of this mask.
+	 */
+	public BitMask(int originX, int originY, int width, int height) {
+		this.originX = originX;
+		this.originY = originY;
+		this.width = Math.max(width, 0);
+		this.height = Math.max(height, 0);
+		this.wordsPerRow = (this.width + WORD_MASK) >>> WORD_SHIFT;
+		this.words = new long[this.wordsPerRow * this.height];
+	}
+
+	/**
+	 * Marks the pixel at the given coordinates as set.<br>
+	 * <br>
+	 * Pixels outside of this mask are ignored.
+	 *
+	 * @param x
+	 * 		the x coordinate of the pixel.
+	 * @param y
+	 * 		the y coordinate of the pixel.
+	 */
+	public void set(int x, int y) {
+		int lx = x - originX;
+		int ly = y - originY;
+		if (lx < 0 || ly < 0 || lx >= width || ly >= height) {
+			return;
+		}
+
+		words[ly * wordsPerRow + (lx >>> WORD_SHIFT)] |= 1L << (lx & WORD_MASK);
+	}
+
+	/**
+	 * @param x
+	 * 		the x coordinate of the pixel.
+	 * @param y
+	 * 		the y coordinate of the pixel.
+	 *
+	 * @return
+	 * 		<code>true</code> if the pixel at the given coordinates is set,
+	 * 		<code>false</code> otherwise.
+	 */
+	public boolean get(int x, int y) {
+		int lx = x - originX;
+		int ly = y - originY;
+		if (lx < 0 || ly < 0 || lx >= width || ly >= height) {
+			return false;
+		}
+
+		return (words[ly * wordsPerRow + (lx >>> WORD_SHIFT)] & (1L << (lx & WORD_MASK))) != 0;
+	}
+
+	/**
+	 * @return
+	 * 		the amount of pixels that are set in this mask.
+	 */
+	public int cardinality() {
+		int count = 0;
+		for (long word : words) {
+			count += Long.bitCount(word);
+		}
+
+		return count;
+	}
+
+	/**
+	 * @return
+	 * 		the x coordinate of the leftmost column of this mask.
+	 */
+	public int getOriginX() {
+		return originX;
+	}
+
+	/**
+	 * @return
+	 * 		the y coordinate of the topmost row of this mask.
+	 */
+	public int getOriginY() {
+		return originY;
+	}
+
+	/**
+	 * @return
+	 * 		the amount of columns of this mask.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return
+	 * 		the amount of rows of this mask.
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Checks if this mask and the given mask have at least one pixel in
+	 * common.
+	 *
+	 * @param other
+	 * 		the mask to check with.
+	 *
+	 * @return
+	 * 		<code>true</code> if there is a pixel that is set in both masks,
+	 * 		<code>false</code> otherwise.
+	 */
+	public boolean intersects(BitMask other) {
+		return overlap(0, 0, other, 0, 0, true) != 0;
+	}
+
+	/**
+	 * Counts the amount of pixels that are set in both this mask and the
+	 * given mask.
+	 *
+	 * @param other
+	 * 		the mask to compare with.
+	 *
+	 * @return
+	 * 		the amount of pixels set in both masks.
+	 */
+	public int countOverlap(BitMask other) {
+		return overlap(0, 0, other, 0, 0, false);
+	}
+
+	/**
+	 * Checks if this mask, translated by (tx, ty), and the given mask,
+	 * translated by (otx, oty), have at least one pixel in common.
+	 *
+	 * @param tx
+	 * 		the horizontal translation of this mask.
+	 * @param ty
+	 * 		the vertical translation of this mask.
+	 * @param other
+	 * 		the mask to check with.
+	 * @param otx
+	 * 		the horizontal translation of the other mask.
+	 * @param oty
+	 * 		the vertical translation of the other mask.
+	 *
+	 * @return
+	 * 		<code>true</code> if there is a pixel that is set in both
+	 * 		(translated) masks, <code>false</code> otherwise.
+	 */
+	public boolean intersects(int tx, int ty, BitMask other, int otx, int oty) {
+		return overlap(tx, ty, other, otx, oty, true) != 0;
+	}
+
+	/**
+	 * Compares only the rows the two masks have in common, 64 pixels at a
+	 * time.
+	 *
+	 * @param tx
+	 * 		the horizontal translation of this mask.
+	 * @param ty
+	 * 		the vertical translation of this mask.
+	 * @param other
+	 * 		the mask to compare with.
+	 * @param otx
+	 * 		the horizontal translation of the other mask.
+	 * @param oty
+	 * 		the vertical translation of the other mask.
+	 * @param firstOnly
+	 * 		if <code>true</code>, stop at the first word that overlaps.
+	 *
+	 * @return
+	 * 		the amount of overlapping pixels, or a positive number smaller
+	 * 		than that if firstOnly is <code>true</code>.
+	 */
+	private int overlap(int tx, int ty, BitMask other, int otx, int oty, boolean firstOnly) {
+		int ax = originX + tx;
+		int ay = originY + ty;
+		int bx = other.originX + otx;
+		int by = other.originY + oty;
+
+		//Determine the area both masks cover
+		int minX = Math.max(ax, bx);
+		int maxX = Math.min(ax + width, bx + other.width);
+		int minY = Math.max(ay, by);
+		int maxY = Math.min(ay + height, by + other.height);
+		if (minX >= maxX || minY >= maxY) {
+			return 0;
+		}
+
+		//Columns of this mask that are in the shared area
+		int firstCol = minX - ax;
+		int lastCol = maxX - ax - 1;
+		int firstWord = firstCol >>> WORD_SHIFT;
+		int lastWord = lastCol >>> WORD_SHIFT;
+		long firstMask = -1L << (firstCol & WORD_MASK);
+		long lastMask = -1L >>> (WORD_MASK - (lastCol & WORD_MASK));
+
+		//Offset of the columns of the other mask relative to ours.
+		int dx = ax - bx;
+
+		int count = 0;
+		for (int y = minY; y < maxY; y++) {
+			int rowA = (y - ay) * wordsPerRow;
+			int rowB = (y - by) * other.wordsPerRow;
+
+			for (int w = firstWord; w <= lastWord; w++) {
+				long bits = words[rowA + w];
+				if (w == firstWord) {
+					bits &= firstMask;
+				}
+				if (w == lastWord) {
+					bits &= lastMask;
+				}
+				if (bits == 0) {
+					continue;
+				}
+
+				bits &= other.extract(rowB, (w << WORD_SHIFT) + dx);
+				if (bits != 0) {
+					if (firstOnly) {
+						return 1;
+					}
+
+					count += Long.bitCount(bits);
+				}
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * Extracts 64 bits from the given row, starting at the given column.
+	 * Columns outside of this mask are treated as not set.
+	 *
+	 * @param row
+	 * 		the index of the first word of the row.
+	 * @param col
+	 * 		the column of the first bit to extract (can be negative).
+	 *
+	 * @return
+	 * 		the 64 bits starting at the given column.
+	 */
+	private long extract(int row, int col) {
+		int word = col >> WORD_SHIFT;
+		int shift = col & WORD_MASK;
+
+		long lo = 0L;
+		if (word >= 0 && word < wordsPerRow) {
+			lo = words[row + word] >>> shift;
+		}
+
+		long hi = 0L;
+		if (shift != 0 && word + 1 >= 0 && word + 1 < wordsPerRow) {
+			hi = words[row + word + 1] << (WORD_BITS - shift);
+		}
+
+		return lo | hi;
+	}
+}
@@ -1,9 +1,9 @@
 package com.github.fishio;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
-import javafx.scene.shape.Rectangle;
-
 /**
  * Class to represent an (Axis Aligned) Bounding Box.
  */
@@ -16,7 +16,8 @@ public class BoundingBox implements ICollisionArea, Serializable {
 	private double width;
 	private double rotation;
 	
-	private transient volatile Rectangle box;
+	private transient volatile double extentX;
+	private transient volatile double extentY;
 
 	/**
 	 * Creates a new Bounding Box with the given coordinates.
@@ -38,6 +39,7 @@ public class BoundingBox implements ICollisionArea, Serializable {
 		double yyMin = Math.min(ymin, ymax);
 		this.center = new Vec2d(xxMin + 0.5 * width, yyMin + 0.5 * height);
 		this.rotation = 0;
+		updateExtents();
 	}
 
 	/**
@@ -55,24 +57,9 @@ public class BoundingBox implements ICollisionArea, Serializable {
 		this.width = width;
 		this.height = height;
 		this.rotation = 0;
+		updateExtents();
 	}
 	
-	@Override
-	public Rectangle getBox() {
-		//Don't recreate the box every time, simply update it.
-		if (box == null) {
-			box = new Rectangle();
-		}
-		
-		box.setX(getCenterX() - 0.5 * getWidth());
-		box.setY(getCenterY() - 0.5 * getHeight());
-		box.setWidth(getWidth());
-		box.setHeight(getHeight());
-		box.setRotate(getRotation());
-		
-		return box;
-	}
-
 	/**
 	 * @return 
 	 * 		The offsets to the top right and bottom left corner as seen from the center 
@@ -167,6 +154,7 @@ public class BoundingBox implements ICollisionArea, Serializable {
 
 		width += a;
 		height += b;
+		updateExtents();
 	}
 
 
@@ -224,15 +212,47 @@ public class BoundingBox implements ICollisionArea, Serializable {
 
 	@Override
 	public double setRotation(double angle) {
-		rotation = angle % 180;	//get rid of upside down boxes
+		double newRotation = angle % 180;	//get rid of upside down boxes
+		if (newRotation != rotation) {
+			rotation = newRotation;
+			updateExtents();
+		}
+		
 		return rotation;
 	}
+	
+	@Override
+	public double getExtentX() {
+		return extentX;
+	}
+	
+	@Override
+	public double getExtentY() {
+		return extentY;
+	}
+	
+	/**
+	 * Recalculates the extents of the axis aligned box around this
+	 * BoundingBox. This is done by the thread that changes the size or
+	 * rotation, so threads that only read the extents never store extents
+	 * of an old size or rotation.
+	 */
+	private void updateExtents() {
+		extentX = IOrientedBox.getExtentX(width, height, rotation);
+		extentY = IOrientedBox.getExtentY(width, height, rotation);
+	}
+	
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		updateExtents();
+	}
 
 	@Override
 	public void setSize(double size) {
 		double r = width / height;
 		height = Math.sqrt(size / r);
 		width = height * r;
+		updateExtents();
 	}
 	
 	@Override
@@ -247,6 +267,7 @@ public class BoundingBox implements ICollisionArea, Serializable {
 		this.width = box.width;
 		this.height = box.height;
 		this.rotation = box.rotation;
+		updateExtents();
 	}
 	
 	/**
@@ -256,6 +277,7 @@ public class BoundingBox implements ICollisionArea, Serializable {
 	 */
 	public void setHeight(double newValue) {
 		height = newValue;
+		updateExtents();
 	}
 	
 	/**
@@ -265,6 +287,7 @@ public class BoundingBox implements ICollisionArea, Serializable {
 	 */
 	public void setWidth(double newValue) {
 		width = newValue;
+		updateExtents();
 	}
 	
 	/**
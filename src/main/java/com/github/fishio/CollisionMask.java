@@ -6,13 +6,13 @@ import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.HashSet;
 
+import com.github.fishio.CollisionStatistics.Stage;
 import com.github.fishio.logging.Log;
 import com.github.fishio.logging.LogLevel;
 import com.github.fishio.settings.Settings;
 
 import javafx.scene.image.Image;
 import javafx.scene.image.PixelReader;
-import javafx.scene.shape.Rectangle;
 
 /**
  * Class for checking collisions of sprites.
@@ -30,9 +30,11 @@ public class CollisionMask implements ICollisionArea, Serializable {
 	private double alphaRatio;
 	private transient boolean[][] data;
 
-	private transient volatile Rectangle box;
 	private transient volatile HashSet<Vec2d> mask;
 	private transient boolean changeMask;
+	
+	private transient volatile double extentX;
+	private transient volatile double extentY;
 
 	/**
 	 * Creates a new CollisionMask.
@@ -44,9 +46,9 @@ public class CollisionMask implements ICollisionArea, Serializable {
 	 * @param height
 	 *            The height of the collisionMask.
 	 * @param maskedImage
-	 *            The {@link Sprite} to get the pixeldata and alpha ratio from.
+	 *            The {@link ISpriteData} to get the pixeldata and alpha ratio from.
 	 */
-	public CollisionMask(Vec2d center, double width, double height, Sprite maskedImage) {
+	public CollisionMask(Vec2d center, double width, double height, ISpriteData maskedImage) {
 		this(center, width, height, maskedImage.getPixelData(), maskedImage.getAlphaRatio());
 	}
 	
@@ -70,6 +72,7 @@ public class CollisionMask implements ICollisionArea, Serializable {
 		this.height = height;
 
 		this.rotation = 0;
+		updateExtents();
 
 		this.data = data;
 		this.alphaRatio = alphaRatio;
@@ -122,22 +125,6 @@ public class CollisionMask implements ICollisionArea, Serializable {
 		return ((double) res) / (data.length * data[0].length);
 	}
 	
-	@Override
-	public Rectangle getBox() {
-		//Don't recreate the box every time, simply update it.
-		if (box == null) {
-			box = new Rectangle();
-		}
-		
-		box.setX(getCenterX() - 0.5 * getWidth());
-		box.setY(getCenterY() - 0.5 * getHeight());
-		box.setWidth(getWidth());
-		box.setHeight(getHeight());
-		box.setRotate(getRotation());
-		
-		return box;
-	}
-
 	@Override
 	public double getCenterX() {
 		return center.x;
@@ -163,11 +150,20 @@ public class CollisionMask implements ICollisionArea, Serializable {
 		return (width * height) * alphaRatio;
 	}
 	
+	/**
+	 * @return
+	 * 		the ratio between opaque and transparent pixels of this mask.
+	 */
+	public double getAlphaRatio() {
+		return alphaRatio;
+	}
+	
 	@Override
 	public void setSize(double size) {
 		double r = width / height;
 		height = Math.sqrt(size / (alphaRatio * r));
 		width = height * r;
+		updateExtents();
 		
 		change();
 	}
@@ -177,6 +173,7 @@ public class CollisionMask implements ICollisionArea, Serializable {
 		double r = width / height;
 		height = Math.sqrt((getSize() + delta) / (alphaRatio * r));
 		width = height * r;
+		updateExtents();
 		
 		change();
 	}
@@ -188,12 +185,46 @@ public class CollisionMask implements ICollisionArea, Serializable {
 	
 	@Override
 	public double setRotation(double angle) {
-		rotation = angle % 360;
+		double newRotation = angle % 360;
+		if (newRotation != rotation) {
+			rotation = newRotation;
+			updateExtents();
+		}
 		
 		change();
 		
 		return rotation;
 	}
+	
+	@Override
+	public double getExtentX() {
+		return extentX;
+	}
+	
+	@Override
+	public double getExtentY() {
+		return extentY;
+	}
+	
+	/**
+	 * @return
+	 * 		half the diagonal of this CollisionMask.
+	 */
+	private double getRadius() {
+		return 0.5 * Math.sqrt(width * width + height * height);
+	}
+	
+	/**
+	 * Recalculates the extents of the axis aligned box around this
+	 * CollisionMask. Moving does not change these extents, so this only
+	 * has to be done when the size or rotation changes. It is done by the
+	 * thread that changes them, so threads that only read the extents
+	 * never store extents of an old size or rotation.
+	 */
+	private void updateExtents() {
+		extentX = IOrientedBox.getExtentX(width, height, rotation);
+		extentY = IOrientedBox.getExtentY(width, height, rotation);
+	}
 
 	/**
 	 * Builds a hashSet containing all the (screen) pixels filled by the sprite.
@@ -203,7 +234,6 @@ public class CollisionMask implements ICollisionArea, Serializable {
 	public HashSet<Vec2d> getMask() {
 		double width = this.width;
 		double height = this.height;
-		double rotation = this.rotation;
 		
 		synchronized (this) {
 			if (!changeMask) {
@@ -212,6 +242,88 @@ public class CollisionMask implements ICollisionArea, Serializable {
 		}
 		
 		HashSet<Vec2d> mask = new HashSet<Vec2d>();
+		rasterise((px, py) -> mask.add(new Vec2d(px, py)));
+		
+		if (width != this.width || height != this.height) {
+			Log.getLogger().log(LogLevel.DEBUG, "[CollisionMask] Size changed while creating mask!");
+		}
+		
+		synchronized (this) {
+			this.mask = mask;
+			this.changeMask = false;
+		}
+		
+		return new HashSet<Vec2d>(mask);
+	}
+	
+	/**
+	 * Gets the pixels filled by the sprite relative to the center of this
+	 * CollisionMask from the {@link MaskCache}. The size and rotation are
+	 * rounded, so these pixels can differ slightly from those in
+	 * {@link #getMask()}.
+	 * 
+	 * @return
+	 * 		a shared BitMask with its origin relative to the center of this
+	 * 		CollisionMask, which should not be modified.
+	 */
+	public BitMask getLocalBitMask() {
+		return MaskCache.getInstance().getMask(data, width, height, rotation, isReversed());
+	}
+	
+	/**
+	 * Checks if this CollisionMask and the given CollisionMask have pixels
+	 * in common, using the cached {@link #getLocalBitMask() local masks}.
+	 * 
+	 * @param other
+	 * 		the CollisionMask to check with.
+	 * 
+	 * @return
+	 * 		<code>true</code> if the masks have at least one pixel in common,
+	 * 		<code>false</code> otherwise.
+	 */
+	public boolean pixelsIntersect(CollisionMask other) {
+		return getLocalBitMask().intersects(
+				(int) Math.floor(center.x), (int) Math.floor(center.y),
+				other.getLocalBitMask(),
+				(int) Math.floor(other.center.x), (int) Math.floor(other.center.y));
+	}
+	
+	/**
+	 * Calculates all the (screen) pixels filled by the sprite, and passes
+	 * them to the given consumer. Pixels can be passed more than once.
+	 * 
+	 * @param consumer
+	 * 		the consumer to pass the pixels to.
+	 */
+	private void rasterise(PixelConsumer consumer) {
+		rasterise(data, width, height, rotation, isReversed(), center.x, center.y, consumer);
+	}
+	
+	/**
+	 * Calculates all the (screen) pixels filled by a sprite with the given
+	 * pixel data, size, rotation and center, and passes them to the given
+	 * consumer. Pixels can be passed more than once.
+	 * 
+	 * @param data
+	 * 		the pixel data of the sprite.
+	 * @param width
+	 * 		the width of the sprite on screen.
+	 * @param height
+	 * 		the height of the sprite on screen.
+	 * @param rotation
+	 * 		the rotation of the sprite in degrees.
+	 * @param reversed
+	 * 		if the sprite is flipped upside down, see
+	 * 		{@link IOrientedBox#isReversed()}.
+	 * @param centerX
+	 * 		the x coordinate of the center of the sprite.
+	 * @param centerY
+	 * 		the y coordinate of the center of the sprite.
+	 * @param consumer
+	 * 		the consumer to pass the pixels to.
+	 */
+	static void rasterise(boolean[][] data, double width, double height, double rotation, boolean reversed,
+			double centerX, double centerY, PixelConsumer consumer) {
 		int lx, ly; // location of the pixel in the image
 		double cosa, sina;
 		double rx, ry; // relative positions after rotation
@@ -229,7 +341,7 @@ public class CollisionMask implements ICollisionArea, Serializable {
 				int datay = (int) (y * scaley);
 				
 				//Flip y
-				if (isReversed()) {
+				if (reversed) {
 					datay = data[0].length - 1 - datay;
 				}
 				
@@ -240,23 +352,12 @@ public class CollisionMask implements ICollisionArea, Serializable {
 					rx = cosa * lx - sina * ly;
 					ry = sina * lx + cosa * ly;
 
-					px = (int) (rx + center.x);
-					py = (int) (ry + center.y);
-					mask.add(new Vec2d(px, py));
+					px = (int) (rx + centerX);
+					py = (int) (ry + centerY);
+					consumer.accept(px, py);
 				}
 			}
 		}
-		
-		if (width != this.width || height != this.height) {
-			Log.getLogger().log(LogLevel.DEBUG, "[CollisionMask] Size changed while creating mask!");
-		}
-		
-		synchronized (this) {
-			this.mask = mask;
-			this.changeMask = false;
-		}
-		
-		return new HashSet<Vec2d>(mask);
 	}
 	
 	@Override
@@ -326,20 +427,34 @@ public class CollisionMask implements ICollisionArea, Serializable {
 	 *      pixel-perfect sprite collision</a>
 	 */
 	public boolean intersects(ICollisionArea other) {
+		CollisionStatistics stats = CollisionStatistics.getInstance();
+		
 		// check normal bounding
-		if (boxIntersects(other)) { // use normal
-			if (other instanceof BoundingBox) {
+		if (!stats.record(Stage.BOX, boxIntersects(other))) {
+			return false;
+		}
+		
+		boolean pixelPerfect = other instanceof CollisionMask
+				&& Settings.getInstance().getBoolean("PIXEL_PERFECT_COLLISIONS");
+		
+		// check rotated bounding, with some room for rounding if pixels are checked next
+		double margin = 0.0;
+		if (pixelPerfect) {
+			margin = MaskCache.getMaxError(Math.max(getRadius(), ((CollisionMask) other).getRadius()));
+		}
+		if (!stats.record(Stage.ORIENTED_BOX, orientedBoxIntersects(other, margin))) {
+			return false;
+		}
+		
+		if (other instanceof BoundingBox) {
+			return true;
+		}
+		if (other instanceof CollisionMask) { // do pixel perfect
+			if (!pixelPerfect) {
 				return true;
 			}
-			if (other instanceof CollisionMask) { // do pixel perfect
-				if (!Settings.getInstance().getBoolean("PIXEL_PERFECT_COLLISIONS")) {
-					return true;
-				}
-				CollisionMask o = (CollisionMask) other;
-				HashSet<Vec2d> mask = o.getMask();
-				mask.retainAll(this.getMask());
-				return mask.size() > 0;
-			}
+			CollisionMask o = (CollisionMask) other;
+			return stats.record(Stage.PIXEL, pixelsIntersect(o));
 		}
 		return false;
 	}
@@ -364,6 +479,32 @@ public class CollisionMask implements ICollisionArea, Serializable {
 		this.width = mask.width;
 		this.height = mask.height;
 		this.rotation = mask.rotation;
+		updateExtents();
+		
+		change();
+	}
+	
+	/**
+	 * Updates the position, size and rotation of this CollisionMask.
+	 * 
+	 * @param centerX
+	 * 		the new x coordinate of the center.
+	 * @param centerY
+	 * 		the new y coordinate of the center.
+	 * @param width
+	 * 		the new width.
+	 * @param height
+	 * 		the new height.
+	 * @param rotation
+	 * 		the new rotation, in degrees.
+	 */
+	public void updateTo(double centerX, double centerY, double width, double height, double rotation) {
+		this.center.x = centerX;
+		this.center.y = centerY;
+		this.width = width;
+		this.height = height;
+		this.rotation = rotation;
+		updateExtents();
 		
 		change();
 	}
@@ -389,7 +530,22 @@ public class CollisionMask implements ICollisionArea, Serializable {
 		this.width = in.readDouble();
 		this.rotation = in.readDouble();
 		this.alphaRatio = in.readDouble();
+		updateExtents();
 		
 		change();
 	}
+	
+	/**
+	 * Receives the pixels calculated by
+	 * {@link CollisionMask#rasterise(boolean[][], double, double, double, boolean, double, double, PixelConsumer)}.
+	 */
+	interface PixelConsumer {
+		/**
+		 * @param x
+		 * 		the x coordinate of the pixel.
+		 * @param y
+		 * 		the y coordinate of the pixel.
+		 */
+		void accept(int x, int y);
+	}
 }
@@ -0,0 +1,130 @@
+package com.github.fishio;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Singleton class that counts how many collision checks are done in every
+ * stage of {@link CollisionMask#intersects(ICollisionArea)}, and how many
+ * of them pass on to the next stage.
+ */
+public final class CollisionStatistics {
+	private static CollisionStatistics instance = new CollisionStatistics();
+
+	/**
+	 * The stages of a collision check, from cheap to expensive.
+	 */
+	public enum Stage {
+		/**
+		 * Comparing the axis aligned boxes around both areas.
+		 */
+		BOX,
+
+		/**
+		 * Comparing the rotated boxes of both areas.
+		 */
+		ORIENTED_BOX,
+
+		/**
+		 * Comparing the pixels of both areas.
+		 */
+		PIXEL
+	}
+
+	private final LongAdder[] tests = new LongAdder[Stage.values().length];
+	private final LongAdder[] hits = new LongAdder[Stage.values().length];
+
+	private CollisionStatistics() {
+		for (int i = 0; i < tests.length; i++) {
+			tests[i] = new LongAdder();
+			hits[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * @return
+	 * 		the CollisionStatistics instance.
+	 */
+	public static CollisionStatistics getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Records the result of a check in the given stage.
+	 *
+	 * @param stage
+	 * 		the stage of the check.
+	 * @param hit
+	 * 		if the check found an intersection.
+	 *
+	 * @return
+	 * 		the given hit value.
+	 */
+	public boolean record(Stage stage, boolean hit) {
+		tests[stage.ordinal()].increment();
+		if (hit) {
+			hits[stage.ordinal()].increment();
+		}
+
+		return hit;
+	}
+
+	/**
+	 * @param stage
+	 * 		the stage.
+	 *
+	 * @return
+	 * 		the amount of checks done in the given stage.
+	 */
+	public long getTests(Stage stage) {
+		return tests[stage.ordinal()].sum();
+	}
+
+	/**
+	 * @param stage
+	 * 		the stage.
+	 *
+	 * @return
+	 * 		the amount of checks in the given stage that found an
+	 * 		intersection.
+	 */
+	public long getHits(Stage stage) {
+		return hits[stage.ordinal()].sum();
+	}
+
+	/**
+	 * @param stage
+	 * 		the stage.
+	 *
+	 * @return
+	 * 		the amount of checks in the given stage that did not find an
+	 * 		intersection.
+	 */
+	public long getMisses(Stage stage) {
+		return getTests(stage) - getHits(stage);
+	}
+
+	/**
+	 * Resets all counters to 0.
+	 */
+	public void reset() {
+		for (int i = 0; i < tests.length; i++) {
+			tests[i].reset();
+			hits[i].reset();
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("CollisionStatistics [");
+		for (Stage stage : Stage.values()) {
+			if (stage.ordinal() > 0) {
+				sb.append(", ");
+			}
+
+			sb.append(stage).append(": ")
+				.append(getHits(stage)).append('/').append(getTests(stage));
+		}
+
+		return sb.append(']').toString();
+	}
+}
@@ -47,6 +47,19 @@ public class EnemyFish extends Entity implements IEatable {
 				+ ca.getWidth() + "],[Vx = " + startvx + "],[Vy = " + startvy + "]}.");
 	}
 
+	/**
+	 * @return
+	 * 		the location of the sprite of this enemy fish.
+	 */
+	public String getSpriteLocation() {
+		return spriteLocation;
+	}
+
+	@Override
+	public Image getSprite() {
+		return sprite;
+	}
+
 	@Override
 	public void render(GraphicsContext gc) {
 		//Don't render if dead.
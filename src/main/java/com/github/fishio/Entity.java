@@ -6,6 +6,7 @@ import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.github.fishio.achievements.AchievementObserver;
@@ -37,6 +38,7 @@ public abstract class Entity implements ICollidable, IDrawable, Subject, Seriali
 	private SimpleBooleanProperty deathProperty = new SimpleBooleanProperty();
 	private CollisionMask boundingArea;
 	private IMoveBehaviour behaviour;
+	private transient Random random;
 	
 	/**
 	 * This constructor creates an entity in the game.
@@ -69,6 +71,20 @@ public abstract class Entity implements ICollidable, IDrawable, Subject, Seriali
 		return entityId;
 	}
 	
+	/**
+	 * Sets the entity id of this entity.<br>
+	 * <br>
+	 * This should only be used for entities received from the server,
+	 * which have to keep the id the server gave them, and by playing fields
+	 * in deterministic mode, which number their own entities.
+	 * 
+	 * @param entityId
+	 * 		the new entity id.
+	 */
+	public void setEntityId(int entityId) {
+		this.entityId = entityId;
+	}
+	
 	@Override
 	public abstract void onCollide(ICollidable other);
 	
@@ -123,6 +139,34 @@ public abstract class Entity implements ICollidable, IDrawable, Subject, Seriali
 	 */
 	public void setBehaviour(IMoveBehaviour behaviour) {
 		this.behaviour = behaviour;
+		if (random != null) {
+			behaviour.setRandom(random);
+		}
+	}
+	
+	/**
+	 * @return
+	 * 		the random used by this entity and its behaviour, or
+	 * 		<code>null</code> if this entity has not been added to a
+	 * 		playing field.
+	 */
+	public Random getRandom() {
+		return random;
+	}
+	
+	/**
+	 * Sets the random used by this entity and its behaviour. This is
+	 * done by the playing field the entity is added to, so that all
+	 * randomness of a field comes from one (possibly seeded) random.
+	 * 
+	 * @param random
+	 * 		the random to use.
+	 */
+	public void setRandom(Random random) {
+		this.random = random;
+		if (behaviour != null) {
+			behaviour.setRandom(random);
+		}
 	}
 	
 	@Override
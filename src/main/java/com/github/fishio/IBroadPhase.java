@@ -0,0 +1,35 @@
+package com.github.fishio;
+
+import java.util.Collection;
+
+/**
+ * A broad phase quickly determines which collidables could possibly
+ * collide with a certain area, so that the (more expensive) exact
+ * collision checks only have to be done for those collidables.
+ */
+public interface IBroadPhase {
+	
+	/**
+	 * Updates this broad phase to the current positions of the given
+	 * collidables. Collidables that were added in a previous update but
+	 * are not in the given collection are removed.
+	 * 
+	 * @param collidables
+	 * 		all the collidables that should be considered.
+	 */
+	void update(Collection<? extends ICollidable> collidables);
+	
+	/**
+	 * Adds all collidables that could collide with the given area to
+	 * the given collection. Every collidable is added at most once.<br>
+	 * <br>
+	 * The results are based on the positions at the last
+	 * {@link #update(Collection)}.
+	 * 
+	 * @param area
+	 * 		the area to find the candidates for.
+	 * @param result
+	 * 		the collection to add the candidates to.
+	 */
+	void query(ICollisionArea area, Collection<? super ICollidable> result);
+}
@@ -2,43 +2,85 @@ package com.github.fishio;
 
 import com.github.fishio.behaviours.IMoveBehaviour;
 
-import javafx.geometry.Bounds;
-import javafx.scene.shape.Rectangle;
-
 /**
  * Interface used to represent collision areas of entities.
  */
-public interface ICollisionArea {
+public interface ICollisionArea extends IOrientedBox {
 	
 	/**
-	 * Calculates if a box intersection occurred between this and another CollisionArea.
+	 * Calculates if a box intersection occurred between this and another CollisionArea.<br>
+	 * <br>
+	 * The axis aligned boxes around both (rotated) areas are compared.
+	 * 
 	 * @param other 
 	 * 		The other collisionArea
 	 * @return
 	 * 		True if they collide, false otherwise.
 	 */
 	default boolean boxIntersects(ICollisionArea other) {
-		Rectangle myBox = getBox();
-		Rectangle otherBox = other.getBox();
-		
-		return myBox.intersects(otherBox.getBoundsInParent());
+		return getMinX() <= other.getMaxX() && other.getMinX() <= getMaxX()
+				&& getMinY() <= other.getMaxY() && other.getMinY() <= getMaxY();
 	}
 	
 	/**
+	 * Calculates if the rotated boxes of this and another CollisionArea
+	 * intersect, using the separating axis theorem.<br>
+	 * <br>
+	 * The axes of both boxes are the same as the ones used by
+	 * {@link #getTopLeft()} and the other corner methods.
+	 *
+	 * @param other
+	 * 		the other collisionArea.
+	 * @param margin
+	 * 		the distance by which both boxes are grown in every direction
+	 * 		before checking.
+	 *
 	 * @return
-	 * 		a rectangular box around this ICollisionArea.
-	 */
-	default Rectangle getBox() {
-		Rectangle tbr = new Rectangle(
-				getCenterX() - 0.5 * getWidth(),
-				getCenterY() - 0.5 * getHeight(),
-				getWidth(),
-				getHeight());
-		
-		tbr.setRotate(getRotation());
-		return tbr;
+	 * 		<code>true</code> if the rotated boxes intersect, <code>false</code>
+	 * 		otherwise.
+	 */
+	default boolean orientedBoxIntersects(ICollisionArea other, double margin) {
+		double a = Math.toRadians(getRotation());
+		double ca = Math.cos(a);
+		double sa = Math.sin(a);
+		double hwa = 0.5 * getWidth() + margin;
+		double hha = 0.5 * getHeight() + margin;
+
+		double b = Math.toRadians(other.getRotation());
+		double cb = Math.cos(b);
+		double sb = Math.sin(b);
+		double hwb = 0.5 * other.getWidth() + margin;
+		double hhb = 0.5 * other.getHeight() + margin;
+
+		double dx = other.getCenterX() - getCenterX();
+		double dy = other.getCenterY() - getCenterY();
+
+		//The width axis is (cos, -sin) and the height axis is (sin, cos).
+		//Dot products between the axes of this box and the other box.
+		double uu = ca * cb + sa * sb;
+		double uv = ca * sb - sa * cb;
+		double vu = sa * cb - ca * sb;
+		double vv = sa * sb + ca * cb;
+
+		//Width axis of this box
+		if (Math.abs(dx * ca - dy * sa) > hwa + hwb * Math.abs(uu) + hhb * Math.abs(uv)) {
+			return false;
+		}
+
+		//Height axis of this box
+		if (Math.abs(dx * sa + dy * ca) > hha + hwb * Math.abs(vu) + hhb * Math.abs(vv)) {
+			return false;
+		}
+
+		//Width axis of the other box
+		if (Math.abs(dx * cb - dy * sb) > hwb + hwa * Math.abs(uu) + hha * Math.abs(vu)) {
+			return false;
+		}
+
+		//Height axis of the other box
+		return Math.abs(dx * sb + dy * cb) <= hhb + hwa * Math.abs(uv) + hha * Math.abs(vv);
 	}
-	
+
 	/**
 	 * @param minX
 	 * 		the minimal X coordinate.
@@ -54,86 +96,13 @@ public interface ICollisionArea {
 	 * 		outside the given coordinates. <code>false</code> otherwise.
 	 */
 	default boolean isOutside(double minX, double minY, double maxX, double maxY) {
-		Bounds b = getBox().getBoundsInParent();
-		return b.getMinX() <= minX || b.getMaxX() >= maxX || b.getMinY() <= minY || b.getMaxY() >= maxY;
+		double ex = getExtentX();
+		double ey = getExtentY();
+		double x = getCenterX();
+		double y = getCenterY();
+		return x - ex <= minX || x + ex >= maxX || y - ey <= minY || y + ey >= maxY;
 	}
 	
-	/**
-	 * @return
-	 * 		if the collision area should be flipped upside down.
-	 */
-	default boolean isReversed() {
-		return getRotation() > 90 && getRotation() < 270;
-	}
-
-	
-	/**
-	 * A method which gives back the top left coordinate of the Bounding Box.
-	 * 
-	 * @return the top left coordinate.
-	 */
-	Vec2d getTopLeft();
-	
-	/**
-	 * A method which gives back the to right coordinate of the Bounding Box.
-	 * 
-	 * @return the top right coordinate.
-	 */
-	Vec2d getTopRight();
-	
-	/**
-	 * A method which gives back the bottom left coordinate of the Bounding Box.
-	 * 
-	 * @return the bottom left coordinate.
-	 */
-	Vec2d getBottomLeft();
-	
-	/**
-	 * A method which gives back the bottom right coordinate of the Bounding Box.
-	 * 
-	 * @return the bottom right coordinate.
-	 */
-	Vec2d getBottomRight();
-	
-	/**
-	 * A method which returns the x coordinate of the centre of the Bounding
-	 * Box.
-	 * 
-	 * @return the x coordinate of the centre of this bounding box
-	 */
-	double getCenterX();
-	
-	/**
-	 * A method which returns the y coordinate of the centre of the Bounding
-	 * Box.
-	 * 
-	 * @return the y coordinate of the centre of this bounding box
-	 */
-	double getCenterY();
-	
-	/**
-	 * A method which gives the width of the bounding box. The width is given
-	 * along the length of the fish.
-	 * 
-	 * @return the width of this Bounding Box.
-	 */
-	double getWidth();
-	
-	/**
-	 * A method which gives the height of the bounding box. The height is given
-	 * along the height of the fish.
-	 * 
-	 * @return the height of this Bounding Box.
-	 */
-	double getHeight();
-	
-	/**
-	 * Method which returns the area or size of the Bounding Box.
-	 * 
-	 * @return the size (width times height) of the BoundingBox
-	 */
-	double getSize();
-	
 	/**
 	 * Set the size of the collisionArea.
 	 * 
@@ -195,12 +164,6 @@ public interface ICollisionArea {
 		}
 	}
 	
-	/**
-	 * @return
-	 * 		the rotation of the boundingArea in degrees.
-	 */
-	double getRotation();
-	
 	/**
 	 * Sets the rotation of the CollisionArea.
 	 * @param angle
@@ -215,7 +178,7 @@ public interface ICollisionArea {
 	 * 		the largest x coordinate of this ICollisionArea.
 	 */
 	default double getMaxX() {
-		return getBox().getBoundsInParent().getMaxX();
+		return getCenterX() + getExtentX();
 	}
 	
 	/**
@@ -223,7 +186,7 @@ public interface ICollisionArea {
 	 * 		the smallest x coordinate of this ICollisionArea.
 	 */
 	default double getMinX() {
-		return getBox().getBoundsInParent().getMinX();
+		return getCenterX() - getExtentX();
 	}
 	
 	/**
@@ -231,7 +194,7 @@ public interface ICollisionArea {
 	 * 		the largest y coordinate of this ICollisionArea.
 	 */
 	default double getMaxY() {
-		return getBox().getBoundsInParent().getMaxY();
+		return getCenterY() + getExtentY();
 	}
 	
 	/**
@@ -239,7 +202,7 @@ public interface ICollisionArea {
 	 * 		the smallest y coordinate of this ICollisionArea.
 	 */
 	default double getMinY() {
-		return getBox().getBoundsInParent().getMinY();
+		return getCenterY() - getExtentY();
 	}
 	
 	/**
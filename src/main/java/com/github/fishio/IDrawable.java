@@ -2,6 +2,7 @@ package com.github.fishio;
 
 import java.util.HashSet;
 
+import com.github.fishio.gui.SpriteAtlas;
 import com.github.fishio.settings.Settings;
 
 import javafx.scene.canvas.GraphicsContext;
@@ -21,18 +22,53 @@ public interface IDrawable {
 	 * 		the {@link GraphicsContext} to render on.
 	 */
 	void render(GraphicsContext gc);
+	
+	/**
+	 * @return
+	 * 		the sprite this object is drawn with, or <code>null</code> if it
+	 * 		does not have one. This is used to draw the object from a
+	 * 		{@link com.github.fishio.gui.RenderSnapshot RenderSnapshot}.
+	 */
+	default Image getSprite() {
+		return null;
+	}
 
 	/**
-	 * Draw a rotated image on the given {@link GraphicsContext}.
+	 * Draw a rotated image on the given {@link GraphicsContext}.<br>
+	 * <br>
+	 * If the SPRITE_ATLAS setting is enabled, a pre-rotated variant of the
+	 * image from the {@link SpriteAtlas} is drawn where possible.
 	 * 
 	 * @param gc
 	 * 		The {@link GraphicsContext} to draw on.
 	 * @param image
 	 * 		The image to draw.
 	 * @param collisionArea
-	 * 		The CollisionArea of the sprite
+	 * 		The (rotated) box to draw the image in.
 	 */
-	default void drawRotatedImage(GraphicsContext gc, Image image, ICollisionArea collisionArea) {
+	default void drawRotatedImage(GraphicsContext gc, Image image, IOrientedBox collisionArea) {
+		Settings settings = Settings.getInstance();
+		if (!settings.getBoolean("SPRITE_ATLAS") || !SpriteAtlas.getInstance().draw(gc, image, collisionArea)) {
+			drawTransformedImage(gc, image, collisionArea);
+		}
+
+		if (settings.getBoolean("DEBUG_DRAW")) {
+			debugDraw(gc, collisionArea);
+		}
+	}
+	
+	/**
+	 * Draw a rotated image on the given {@link GraphicsContext}, by
+	 * transforming the GraphicsContext.
+	 * 
+	 * @param gc
+	 * 		The {@link GraphicsContext} to draw on.
+	 * @param image
+	 * 		The image to draw.
+	 * @param collisionArea
+	 * 		The (rotated) box to draw the image in.
+	 */
+	default void drawTransformedImage(GraphicsContext gc, Image image, IOrientedBox collisionArea) {
 		double angle = collisionArea.getRotation();
 		double cx = collisionArea.getCenterX();
 		double cy = collisionArea.getCenterY();
@@ -50,10 +86,6 @@ public interface IDrawable {
 
 		gc.drawImage(image, cx - 0.5 * width, cy - 0.5 * height, width, height);
 		gc.restore();
-
-		if (Settings.getInstance().getBoolean("DEBUG_DRAW")) {
-			debugDraw(gc, collisionArea);
-		}
 	}
 
 	/**
@@ -65,7 +97,7 @@ public interface IDrawable {
 	 * @param collisionArea
 	 * 		the collision area to render.
 	 */
-	default void debugDraw(GraphicsContext gc, ICollisionArea collisionArea) {
+	default void debugDraw(GraphicsContext gc, IOrientedBox collisionArea) {
 		double angle = collisionArea.getRotation();
 		double cx = collisionArea.getCenterX();
 		double cy = collisionArea.getCenterY();
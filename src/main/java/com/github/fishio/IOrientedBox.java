@@ -0,0 +1,141 @@
+package com.github.fishio;
+
+/**
+ * A rotated box that can only be read: its position, size and rotation.
+ * This is all that is needed to draw a sprite in it.
+ */
+public interface IOrientedBox {
+	
+	/**
+	 * A method which gives back the top left coordinate of the Bounding Box.
+	 * 
+	 * @return the top left coordinate.
+	 */
+	Vec2d getTopLeft();
+	
+	/**
+	 * A method which gives back the to right coordinate of the Bounding Box.
+	 * 
+	 * @return the top right coordinate.
+	 */
+	Vec2d getTopRight();
+	
+	/**
+	 * A method which gives back the bottom left coordinate of the Bounding Box.
+	 * 
+	 * @return the bottom left coordinate.
+	 */
+	Vec2d getBottomLeft();
+	
+	/**
+	 * A method which gives back the bottom right coordinate of the Bounding Box.
+	 * 
+	 * @return the bottom right coordinate.
+	 */
+	Vec2d getBottomRight();
+	
+	/**
+	 * A method which returns the x coordinate of the centre of the Bounding
+	 * Box.
+	 * 
+	 * @return the x coordinate of the centre of this bounding box
+	 */
+	double getCenterX();
+	
+	/**
+	 * A method which returns the y coordinate of the centre of the Bounding
+	 * Box.
+	 * 
+	 * @return the y coordinate of the centre of this bounding box
+	 */
+	double getCenterY();
+	
+	/**
+	 * A method which gives the width of the bounding box. The width is given
+	 * along the length of the fish.
+	 * 
+	 * @return the width of this Bounding Box.
+	 */
+	double getWidth();
+	
+	/**
+	 * A method which gives the height of the bounding box. The height is given
+	 * along the height of the fish.
+	 * 
+	 * @return the height of this Bounding Box.
+	 */
+	double getHeight();
+	
+	/**
+	 * Method which returns the area or size of the Bounding Box.
+	 * 
+	 * @return the size (width times height) of the BoundingBox
+	 */
+	double getSize();
+	
+	/**
+	 * @return
+	 * 		the rotation of the boundingArea in degrees.
+	 */
+	double getRotation();
+	
+	/**
+	 * @return
+	 * 		if the box should be flipped upside down.
+	 */
+	default boolean isReversed() {
+		return getRotation() > 90 && getRotation() < 270;
+	}
+	
+	/**
+	 * @return
+	 * 		half the width of the axis aligned box around this (rotated)
+	 * 		box.
+	 */
+	default double getExtentX() {
+		return getExtentX(getWidth(), getHeight(), getRotation());
+	}
+	
+	/**
+	 * @return
+	 * 		half the height of the axis aligned box around this (rotated)
+	 * 		box.
+	 */
+	default double getExtentY() {
+		return getExtentY(getWidth(), getHeight(), getRotation());
+	}
+	
+	/**
+	 * @param width
+	 * 		the width of the rectangle.
+	 * @param height
+	 * 		the height of the rectangle.
+	 * @param rotation
+	 * 		the rotation of the rectangle in degrees.
+	 * 
+	 * @return
+	 * 		half the width of the axis aligned box around a rectangle with
+	 * 		the given dimensions, rotated around its center.
+	 */
+	static double getExtentX(double width, double height, double rotation) {
+		double a = Math.toRadians(rotation);
+		return 0.5 * (Math.abs(width * Math.cos(a)) + Math.abs(height * Math.sin(a)));
+	}
+	
+	/**
+	 * @param width
+	 * 		the width of the rectangle.
+	 * @param height
+	 * 		the height of the rectangle.
+	 * @param rotation
+	 * 		the rotation of the rectangle in degrees.
+	 * 
+	 * @return
+	 * 		half the height of the axis aligned box around a rectangle with
+	 * 		the given dimensions, rotated around its center.
+	 */
+	static double getExtentY(double width, double height, double rotation) {
+		double a = Math.toRadians(rotation);
+		return 0.5 * (Math.abs(width * Math.sin(a)) + Math.abs(height * Math.cos(a)));
+	}
+}
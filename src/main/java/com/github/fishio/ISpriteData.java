@@ -0,0 +1,34 @@
+package com.github.fishio;
+
+/**
+ * Interface for the collision data of a sprite.<br>
+ * <br>
+ * This data is all a {@link CollisionMask} needs, so it can be used
+ * without loading an image for the screen.
+ */
+public interface ISpriteData {
+	/**
+	 * @return
+	 * 		a boolean matrix with true for pixels that are part of the mask,
+	 * 		and false for all pixels that are not.
+	 */
+	boolean[][] getPixelData();
+
+	/**
+	 * @return
+	 * 		the ratio between opaque and non-opaque pixels.
+	 */
+	double getAlphaRatio();
+
+	/**
+	 * @return
+	 * 		the width of the sprite in pixels.
+	 */
+	double getWidth();
+
+	/**
+	 * @return
+	 * 		the height of the sprite in pixels.
+	 */
+	double getHeight();
+}
@@ -0,0 +1,241 @@
+package com.github.fishio;
+
+import java.util.Arrays;
+
+/**
+ * A hash map with primitive int keys.<br>
+ * <br>
+ * Keys and values are stored in two arrays with open addressing and
+ * linear probing, so lookups do not box the key and do not follow any
+ * pointers until the value is found. Removed entries are filled by
+ * shifting the following entries back, so no tombstones are needed.<br>
+ * <br>
+ * This class is not thread safe.
+ *
+ * @param <V>
+ * 		the type of the values.
+ */
+public class IntHashMap<V> {
+	private static final int MIN_CAPACITY = 16;
+
+	private int[] keys;
+	private Object[] values;
+	private int size;
+	private int mask;
+
+	/**
+	 * Creates a new, empty IntHashMap.
+	 */
+	public IntHashMap() {
+		this(MIN_CAPACITY);
+	}
+
+	/**
+	 * Creates a new, empty IntHashMap.
+	 *
+	 * @param expected
+	 * 		the expected amount of entries.
+	 */
+	public IntHashMap(int expected) {
+		int capacity = MIN_CAPACITY;
+		while (capacity < expected * 2) {
+			capacity <<= 1;
+		}
+
+		allocate(capacity);
+	}
+
+	/**
+	 * @param capacity
+	 * 		the new capacity, a power of two.
+	 */
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		values = new Object[capacity];
+		mask = capacity - 1;
+	}
+
+	/**
+	 * @param key
+	 * 		a key.
+	 *
+	 * @return
+	 * 		the slot at which the search for the given key starts.
+	 */
+	private int slot(int key) {
+		//Entity ids are sequential, so spread them over the table.
+		int h = key * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+	/**
+	 * @param key
+	 * 		a key.
+	 *
+	 * @return
+	 * 		the index of the given key, or -1 if it is not in this map.
+	 */
+	private int indexOf(int key) {
+		int i = slot(key);
+		while (values[i] != null) {
+			if (keys[i] == key) {
+				return i;
+			}
+
+			i = (i + 1) & mask;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * @param key
+	 * 		the key.
+	 *
+	 * @return
+	 * 		the value of the given key, or <code>null</code> if it is not in
+	 * 		this map.
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(int key) {
+		int i = indexOf(key);
+		return i < 0 ? null : (V) values[i];
+	}
+
+	/**
+	 * @param key
+	 * 		the key.
+	 *
+	 * @return
+	 * 		<code>true</code> if this map contains the given key.
+	 */
+	public boolean containsKey(int key) {
+		return indexOf(key) >= 0;
+	}
+
+	/**
+	 * Associates the given value with the given key.
+	 *
+	 * @param key
+	 * 		the key.
+	 * @param value
+	 * 		the value, not <code>null</code>.
+	 *
+	 * @return
+	 * 		the previous value of the key, or <code>null</code> if there was
+	 * 		none.
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(int key, V value) {
+		if (value == null) {
+			throw new NullPointerException("IntHashMap does not support null values");
+		}
+
+		int i = slot(key);
+		while (values[i] != null) {
+			if (keys[i] == key) {
+				V old = (V) values[i];
+				values[i] = value;
+				return old;
+			}
+
+			i = (i + 1) & mask;
+		}
+
+		keys[i] = key;
+		values[i] = value;
+		if (++size * 2 > keys.length) {
+			rehash(keys.length << 1);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Removes the given key from this map.
+	 *
+	 * @param key
+	 * 		the key.
+	 *
+	 * @return
+	 * 		the value of the key, or <code>null</code> if it was not in this
+	 * 		map.
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(int key) {
+		int i = indexOf(key);
+		if (i < 0) {
+			return null;
+		}
+
+		V old = (V) values[i];
+		size--;
+
+		//Shift back following entries that would no longer be found.
+		int gap = i;
+		int j = i;
+		while (true) {
+			j = (j + 1) & mask;
+			if (values[j] == null) {
+				break;
+			}
+
+			int home = slot(keys[j]);
+			//Move the entry if its home is not between the gap and j (cyclically).
+			if (((j - home) & mask) >= ((j - gap) & mask)) {
+				keys[gap] = keys[j];
+				values[gap] = values[j];
+				gap = j;
+			}
+		}
+
+		values[gap] = null;
+		return old;
+	}
+
+	/**
+	 * @param capacity
+	 * 		the new capacity, a power of two.
+	 */
+	private void rehash(int capacity) {
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+		allocate(capacity);
+
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldValues[i] != null) {
+				int j = slot(oldKeys[i]);
+				while (values[j] != null) {
+					j = (j + 1) & mask;
+				}
+
+				keys[j] = oldKeys[i];
+				values[j] = oldValues[i];
+			}
+		}
+	}
+
+	/**
+	 * @return
+	 * 		the amount of entries in this map.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return
+	 * 		<code>true</code> if this map has no entries.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes all entries from this map.
+	 */
+	public void clear() {
+		Arrays.fill(values, null);
+		size = 0;
+	}
+}
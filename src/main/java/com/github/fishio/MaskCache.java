@@ -0,0 +1,360 @@
+package com.github.fishio;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of collision masks in local space (relative to the
+ * center of the mask).<br>
+ * <br>
+ * Masks are keyed by their pixel data, their size rounded to whole pixels,
+ * their rotation rounded to {@link #ROTATION_STEP} degrees and whether
+ * they are flipped. The flip is part of the key because it depends on the
+ * exact rotation: a fish at 90.3 degrees is flipped, while the bucket of 90
+ * degrees it is rounded to is not. All fish
+ * that use the same sprite at about the same size and rotation therefore
+ * share one mask, and moving a fish does not require a new mask.<br>
+ * <br>
+ * Looking up a mask does not lock and does not allocate, so the collision
+ * checks that run in parallel do not wait for each other. Recency is only
+ * approximated, with the CLOCK algorithm: a lookup marks the mask as
+ * referenced, which is only written if the mask was not marked yet. When
+ * the cache is full, a clock hand goes over the masks from where it
+ * stopped the last time. It unmarks referenced masks, and evicts the
+ * first mask that was not referenced since the hand last passed it.
+ */
+public final class MaskCache {
+	/**
+	 * The default maximum amount of masks in the cache.
+	 */
+	public static final int DEFAULT_MAX_ENTRIES = 2048;
+
+	/**
+	 * The size of a rotation bucket, in degrees.
+	 */
+	public static final double ROTATION_STEP = 1.0;
+
+	/**
+	 * The distance a cached pixel can be away from the exact rotated box,
+	 * not counting the rotation error. Pixels are rounded down twice while
+	 * rasterising (1 + sqrt(2)), translated by a rounded center (sqrt(2))
+	 * and the size is rounded to whole pixels (0.5).
+	 */
+	private static final double BASE_ERROR = 1 + 2 * Math.sqrt(2) + 0.5;
+
+	/**
+	 * The distance a pixel can be moved per pixel of radius by rounding the
+	 * rotation.
+	 */
+	private static final double ROTATION_ERROR = Math.toRadians(0.5 * ROTATION_STEP);
+
+	private static MaskCache instance = new MaskCache(DEFAULT_MAX_ENTRIES);
+
+	private final int maxEntries;
+	private final ConcurrentHashMap<Key, Entry> masks = new ConcurrentHashMap<>();
+	private Iterator<Map.Entry<Key, Entry>> hand;
+	private final ThreadLocal<Key> lookupKey = ThreadLocal.withInitial(Key::new);
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * Creates a new, empty MaskCache.
+	 *
+	 * @param maxEntries
+	 * 		the maximum amount of masks in this cache.
+	 */
+	public MaskCache(int maxEntries) {
+		if (maxEntries <= 0) {
+			throw new IllegalArgumentException("The cache has to be able to hold at least one mask!");
+		}
+
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * @return
+	 * 		the MaskCache shared by all CollisionMasks.
+	 */
+	public static MaskCache getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Gets the mask for the given pixel data, size and rotation from the
+	 * cache, or creates it if it is not cached.
+	 *
+	 * @param data
+	 * 		the pixel data of the sprite.
+	 * @param width
+	 * 		the width of the mask.
+	 * @param height
+	 * 		the height of the mask.
+	 * @param rotation
+	 * 		the rotation of the mask, in degrees.
+	 * @param reversed
+	 * 		if the mask is flipped upside down, see
+	 * 		{@link IOrientedBox#isReversed()}.
+	 *
+	 * @return
+	 * 		a mask with its origin relative to the center. The returned mask
+	 * 		is shared and should not be modified.
+	 */
+	public BitMask getMask(boolean[][] data, double width, double height, double rotation, boolean reversed) {
+		//Look up with a key owned by this thread, so no key is allocated.
+		Key key = lookupKey.get().set(data, bucketSize(width), bucketSize(height), bucketRotation(rotation),
+				reversed);
+		Entry entry = masks.get(key);
+		if (entry != null) {
+			//Only write if needed, so hot masks are not written by every thread.
+			if (!entry.referenced) {
+				entry.referenced = true;
+			}
+			hits.increment();
+			return entry.mask;
+		}
+
+		misses.increment();
+
+		//Create the mask from the rounded values.
+		int w = key.width;
+		int h = key.height;
+		double radius = 0.5 * Math.sqrt(w * w + h * h);
+		int origin = (int) Math.floor(-radius) - 1;
+		int size = (int) Math.ceil(2 * radius) + 3;
+
+		BitMask mask = new BitMask(origin, origin, size, size);
+		CollisionMask.rasterise(data, w, h, key.rotation * ROTATION_STEP, key.reversed, 0, 0, mask::set);
+
+		//The lookup key is reused, so store a copy of it.
+		Key copy = key.copy();
+		entry = new Entry(mask);
+		Entry existing = masks.putIfAbsent(copy, entry);
+		if (existing != null) {
+			existing.referenced = true;
+			return existing.mask;
+		}
+
+		evict(copy);
+		return mask;
+	}
+
+	/**
+	 * Moves the clock hand until this cache holds at most its maximum
+	 * amount of masks. Referenced masks are unmarked, the first unmarked
+	 * mask is evicted. This only happens when a mask is created, so it is
+	 * synchronized to keep threads that create masks at the same time
+	 * from evicting more masks than needed. The hand usually stops after a
+	 * few masks, as every mask it passes is unmarked.
+	 *
+	 * @param added
+	 * 		the key of the mask that was just added, which is never evicted.
+	 */
+	private synchronized void evict(Key added) {
+		//Two rounds unmark and pass every mask, so a third round finds nothing to evict.
+		int steps = 3 * (masks.size() + 1);
+		while (masks.size() > maxEntries && steps-- > 0) {
+			if (hand == null || !hand.hasNext()) {
+				hand = masks.entrySet().iterator();
+				if (!hand.hasNext()) {
+					return;
+				}
+			}
+
+			Map.Entry<Key, Entry> e = hand.next();
+			Entry entry = e.getValue();
+			if (e.getKey() == added) {
+				continue;
+			} else if (entry.referenced) {
+				entry.referenced = false;
+			} else {
+				masks.remove(e.getKey(), entry);
+			}
+		}
+	}
+
+	/**
+	 * @return
+	 * 		the amount of masks in this cache.
+	 */
+	public int size() {
+		return masks.size();
+	}
+
+	/**
+	 * @return
+	 * 		the amount of times a mask was found in this cache.
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return
+	 * 		the amount of times a mask had to be created.
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return
+	 * 		the fraction of requests that were found in this cache, or 0 if
+	 * 		there were no requests.
+	 */
+	public double getHitRate() {
+		long h = hits.sum();
+		long total = h + misses.sum();
+		if (total == 0) {
+			return 0.0;
+		}
+
+		return (double) h / total;
+	}
+
+	/**
+	 * Removes all masks from this cache and resets the statistics.
+	 */
+	public synchronized void clear() {
+		masks.clear();
+		hand = null;
+		hits.reset();
+		misses.reset();
+	}
+
+	/**
+	 * @param radius
+	 * 		half the diagonal of a CollisionMask.
+	 *
+	 * @return
+	 * 		the largest distance a pixel of a cached mask with the given
+	 * 		radius can be outside of the exact rotated box of that
+	 * 		CollisionMask.
+	 */
+	public static double getMaxError(double radius) {
+		return BASE_ERROR + radius * ROTATION_ERROR;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("MaskCache [size: %d, hits: %d, misses: %d, hit rate: %.3f]",
+				masks.size(), hits.sum(), misses.sum(), getHitRate());
+	}
+
+	/**
+	 * @param size
+	 * 		the width or height.
+	 *
+	 * @return
+	 * 		the given size rounded to whole pixels, at least 1.
+	 */
+	private static int bucketSize(double size) {
+		return Math.max(1, (int) Math.round(size));
+	}
+
+	/**
+	 * @param rotation
+	 * 		the rotation in degrees.
+	 *
+	 * @return
+	 * 		the index of the rotation bucket of the given rotation.
+	 */
+	private static int bucketRotation(double rotation) {
+		int buckets = (int) Math.round(360 / ROTATION_STEP);
+		int bucket = (int) Math.round(rotation / ROTATION_STEP) % buckets;
+		return bucket < 0 ? bucket + buckets : bucket;
+	}
+
+	/**
+	 * A mask in the cache, marked when it was used since the clock hand
+	 * last passed it. A new mask is not marked, so a mask that is only
+	 * used once is evicted first.
+	 */
+	private static final class Entry {
+		private final BitMask mask;
+		private volatile boolean referenced;
+
+		/**
+		 * Creates a new Entry.
+		 *
+		 * @param mask
+		 * 		the mask.
+		 */
+		Entry(BitMask mask) {
+			this.mask = mask;
+		}
+	}
+
+	/**
+	 * Key of a mask in the cache. Lookup keys are reused by changing them
+	 * with {@link #set(boolean[][], int, int, int, boolean)}, the keys in the cache
+	 * are never changed.
+	 */
+	private static final class Key {
+		private boolean[][] data;
+		private int width;
+		private int height;
+		private int rotation;
+		private boolean reversed;
+
+		/**
+		 * Sets the values of this key.
+		 *
+		 * @param data
+		 * 		the pixel data of the sprite.
+		 * @param width
+		 * 		the rounded width.
+		 * @param height
+		 * 		the rounded height.
+		 * @param rotation
+		 * 		the rotation bucket.
+		 * @param reversed
+		 * 		if the mask is flipped.
+		 *
+		 * @return
+		 * 		this key.
+		 */
+		Key set(boolean[][] data, int width, int height, int rotation, boolean reversed) {
+			this.data = data;
+			this.width = width;
+			this.height = height;
+			this.rotation = rotation;
+			this.reversed = reversed;
+			return this;
+		}
+
+		/**
+		 * @return
+		 * 		a new key with the same values as this key.
+		 */
+		Key copy() {
+			return new Key().set(data, width, height, rotation, reversed);
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = System.identityHashCode(data);
+			result = prime * result + width;
+			result = prime * result + height;
+			result = prime * result + rotation;
+			result = prime * result + (reversed ? 1 : 0);
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+
+			Key other = (Key) obj;
+			return data == other.data && width == other.width
+					&& height == other.height && rotation == other.rotation && reversed == other.reversed;
+		}
+	}
+}
@@ -3,6 +3,7 @@ package com.github.fishio;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.Random;
 
 import com.github.fishio.achievements.State;
 import com.github.fishio.achievements.Subject;
@@ -11,7 +12,6 @@ import com.github.fishio.behaviours.KeyListenerBehaviour;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.scene.Scene;
 import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.effect.ColorAdjust;
 import javafx.scene.image.Image;
 
 /**
@@ -30,7 +30,7 @@ public class PlayerFish extends Entity implements IEatable, Subject {
 	private SimpleIntegerProperty lives = new SimpleIntegerProperty(settings.getInteger("START_LIVES"));
 	
 	private long invincible;
-	private double hue;
+	private volatile double hue = Double.NaN;
 
 	/**
 	 * Creates the Player fish which the user will be able to control.
@@ -164,6 +164,19 @@ public class PlayerFish extends Entity implements IEatable, Subject {
 		return score;		
 	}
 
+	/**
+	 * @return
+	 * 		the sprite of this player fish, tinted with its hue.
+	 */
+	@Override
+	public Image getSprite() {
+		if (sprite == null) {
+			return null;
+		}
+		
+		return SpriteStore.getTintedSprite(sprite, getHue());
+	}
+
 	@Override
 	public void render(GraphicsContext gc) {
 		//Don't render if dead.
@@ -175,13 +188,7 @@ public class PlayerFish extends Entity implements IEatable, Subject {
 		
 		//Only render if the fish has a sprite
 		if (sprite != null) {
-			gc.save();
-			ColorAdjust colorAdjust = new ColorAdjust();
-			colorAdjust.setHue(this.getHue());
-
-			gc.setEffect(colorAdjust);
-			drawRotatedImage(gc, sprite, getBoundingArea());
-			gc.restore();
+			drawRotatedImage(gc, getSprite(), getBoundingArea());
 		} else {
 			//Call the render method of entity, which simply renders a red box.
 			super.render(gc);
@@ -277,27 +284,52 @@ public class PlayerFish extends Entity implements IEatable, Subject {
 	}
 
 	/**
-	 * Returns the hue value of the player fish' sprite. In the case the sprite
-	 * does not have a hue value yet, it will generate one using the
-	 * generateHue() method.
+	 * Returns the hue value of the player fish' sprite. The hue is drawn
+	 * when the fish is added to a playing field, see {@link #assignHue()}.
 	 * 
-	 * @return The hue value of the sprite of the player fish.
+	 * @return The hue value of the sprite of the player fish, or 0 if it
+	 * 		does not have one yet.
 	 */
 	public double getHue() {
-		if (!(-1 < hue && hue < 1)) {
+		double h = hue;
+		return Double.isNaN(h) ? 0 : h;
+	}
+	
+	/**
+	 * Draws the hue of this fish with {@link #generateHue()}, if it does
+	 * not have one yet.<br>
+	 * <br>
+	 * This is done by the playing field when the fish is added to it, so
+	 * that the hue is always drawn at the same point in the simulation,
+	 * and not by whichever thread first draws or sends the fish.
+	 */
+	public void assignHue() {
+		if (Double.isNaN(hue)) {
 			hue = generateHue();
 		}
-		return hue;
+	}
+	
+	/**
+	 * Sets the hue of this fish. This is used by multiplayer clients, which
+	 * show the hue the server drew instead of drawing their own.
+	 * 
+	 * @param hue
+	 * 		the hue, from -1.0 till 1.0.
+	 */
+	public void setHue(double hue) {
+		this.hue = hue;
 	}
 	
 	/**
 	 * This method generates a random hue for the color of the sprite of a
-	 * playerfish.
+	 * playerfish. The random of the playing field is used if this fish has
+	 * been added to one.
 	 * 
 	 * @return A hue in the spectrum from -1.0 till 1.0.
 	 */
 	public double generateHue() {
-		return 2 * Math.random() - 1;
+		Random random = getRandom();
+		return 2 * (random == null ? Math.random() : random.nextDouble()) - 1;
 	}
 
 	@Override
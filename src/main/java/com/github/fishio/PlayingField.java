@@ -1,8 +1,12 @@
 package com.github.fishio;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
@@ -12,15 +16,26 @@ import javafx.scene.canvas.Canvas;
 import com.github.fishio.behaviours.IMoveBehaviour;
 import com.github.fishio.factories.EnemyFishSpawner;
 import com.github.fishio.game.GameThread;
+import com.github.fishio.gui.RenderSnapshot;
 import com.github.fishio.gui.Renderer;
 import com.github.fishio.logging.Log;
 import com.github.fishio.logging.LogLevel;
+import com.github.fishio.settings.Settings;
 
 /**
- * Represents the PlayingField.
+ * Represents the PlayingField.<br>
+ * <br>
+ * All randomness of the game on a playing field comes from the
+ * {@link #getRandom() random} of that field. In deterministic mode, that
+ * random is seeded and entities are moved and checked for collisions in
+ * the order of their entity ids, so the same seed and the same inputs
+ * give the same game. The entity ids are then given out by the playing
+ * field itself, instead of by the counter all entities share.
  */
 public abstract class PlayingField {
 	private static final int ENEMY_COUNT = 10;
+	private static final Comparator<ICollidable> ENTITY_ORDER =
+			Comparator.comparingInt(c -> ((Entity) c).getEntityId());
 	
 	protected Log logger = Log.getLogger();
 	
@@ -28,7 +43,18 @@ public abstract class PlayingField {
 
 	private ConcurrentLinkedDeque<IDrawable> drawables = new ConcurrentLinkedDeque<>();
 	private Set<Entity> entities = Collections.newSetFromMap(new ConcurrentHashMap<Entity, Boolean>());
+	private IntHashMap<Entity> entityIds = new IntHashMap<>();
 	private Set<ICollidable> collidables = Collections.newSetFromMap(new ConcurrentHashMap<ICollidable, Boolean>());
+	
+	private IBroadPhase broadPhase;
+	private ArrayList<ICollidable> candidates = new ArrayList<>();
+	
+	private final Random random = new Random();
+	private boolean deterministic;
+	private int nextEntityId;
+	private ArrayList<Entity> orderedEntities = new ArrayList<>();
+	private ArrayList<ICollidable> orderedCollidables = new ArrayList<>();
+	private ArrayList<PlayerFish> orderedPlayers = new ArrayList<>();
 
 	private int width;
 	private int height;
@@ -51,6 +77,7 @@ public abstract class PlayingField {
 	public PlayingField(int fps, Canvas canvas, int yBorder, int width, int height) {
 		this.height = height;
 		this.width = width;
+		initRandom();
 		
 		//Create the enemy fish spawner
 		enemyFishSpawner = new EnemyFishSpawner(this, ENEMY_COUNT);
@@ -58,13 +85,85 @@ public abstract class PlayingField {
 		renderer = new Renderer(this, canvas, fps, yBorder);
 		logger.log(LogLevel.INFO, "Created Renderer");
 	}
+	
+	/**
+	 * Creates a headless playing field, without a renderer.<br>
+	 * <br>
+	 * A headless playing field only runs the game thread, so it can be
+	 * used without JavaFX (e.g. by a dedicated server).
+	 * 
+	 * @param width
+	 * 		the width of the playing field
+	 * @param height
+	 * 		the height of the playing field
+	 */
+	public PlayingField(int width, int height) {
+		this.height = height;
+		this.width = width;
+		initRandom();
+		
+		//Create the enemy fish spawner
+		enemyFishSpawner = new EnemyFishSpawner(this, ENEMY_COUNT);
+		
+		logger.log(LogLevel.INFO, "Created headless PlayingField");
+	}
+	
+	/**
+	 * Seeds the random with the SIMULATION_SEED setting if the
+	 * DETERMINISTIC_SIMULATION setting is enabled.
+	 */
+	private void initRandom() {
+		Settings settings = Settings.getInstance();
+		if (settings.getBoolean("DETERMINISTIC_SIMULATION")) {
+			setSeed(settings.getInteger("SIMULATION_SEED"));
+		}
+	}
+	
+	/**
+	 * @return
+	 * 		the random used for everything random on this playing field.
+	 */
+	public Random getRandom() {
+		return random;
+	}
+	
+	/**
+	 * Seeds the random of this playing field, and switches it to
+	 * deterministic mode.<br>
+	 * <br>
+	 * This should be done before any entities are added, since the
+	 * entities created before would have used the unseeded random.
+	 * 
+	 * @param seed
+	 * 		the seed.
+	 */
+	public void setSeed(long seed) {
+		random.setSeed(seed);
+		deterministic = true;
+		
+		logger.log(LogLevel.INFO, "Running a deterministic simulation with seed " + seed);
+	}
+	
+	/**
+	 * @return
+	 * 		<code>true</code> if this playing field is in deterministic mode,
+	 * 		<code>false</code> otherwise.
+	 */
+	public boolean isDeterministic() {
+		return deterministic;
+	}
 
 	/**
 	 * Gives back the framerate of the playing field.
 	 * 
-	 * @return the (target) framerate in frames per second.
+	 * @return the (target) framerate in frames per second, or 0 if this
+	 * 		playing field is headless.
 	 */
 	public int getFPS() {
+		if (renderer == null) {
+			return 0;
+		}
+		
 		return renderer.getFps();
 	}
 
@@ -76,6 +175,10 @@ public abstract class PlayingField {
 	 * 		the new framerate
 	 */
 	public void setFPS(int fps) {
+		if (renderer == null) {
+			return;
+		}
+		
 		renderer.setFps(fps);
 	}
 
@@ -98,9 +201,23 @@ public abstract class PlayingField {
 	}
 
 	/**
-	 * Checks for player collisions.
+	 * Checks for player collisions.<br>
+	 * <br>
+	 * If the UNIFORM_GRID_COLLISIONS setting is enabled, only the
+	 * collidables returned by the {@link #getBroadPhase() broad phase}
+	 * are checked. Otherwise, every collidable is checked.
 	 */
 	public void checkPlayerCollisions() {
+		if (Settings.getInstance().getBoolean("UNIFORM_GRID_COLLISIONS")) {
+			checkPlayerCollisionsBroadPhase();
+			return;
+		}
+		
+		if (deterministic) {
+			checkPlayerCollisionsOrdered();
+			return;
+		}
+		
 		//Iterate over the players
 		for (PlayerFish player : getPlayers()) {
 			//Get collidables parallel.
@@ -120,6 +237,70 @@ public abstract class PlayingField {
 		}
 	}
 
+	/**
+	 * Checks for player collisions in the order of the entity ids, for
+	 * the deterministic mode.
+	 */
+	private void checkPlayerCollisionsOrdered() {
+		for (PlayerFish player : getOrderedPlayers()) {
+			for (ICollidable collidable : getOrderedCollidables()) {
+				if (player != collidable && player.doesCollides(collidable)) {
+					player.onCollide(collidable);
+					collidable.onCollide(player);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks for player collisions, using the broad phase to determine
+	 * which collidables have to be checked.
+	 */
+	protected void checkPlayerCollisionsBroadPhase() {
+		//Update the broad phase to the positions after moving.
+		IBroadPhase bp = getBroadPhase();
+		
+		//The candidates are returned in the order they were added to the broad phase.
+		bp.update(deterministic ? getOrderedCollidables() : collidables);
+		
+		for (PlayerFish player : deterministic ? getOrderedPlayers() : getPlayers()) {
+			candidates.clear();
+			bp.query(player.getBoundingArea(), candidates);
+			
+			for (ICollidable collidable : candidates) {
+				if (player != collidable && player.doesCollides(collidable)) {
+					player.onCollide(collidable);
+					collidable.onCollide(player);
+				}
+			}
+		}
+		
+		candidates.clear();
+	}
+	
+	/**
+	 * @return
+	 * 		the broad phase used for collision checking. If none was set,
+	 * 		a {@link UniformGrid} covering this playing field is created.
+	 */
+	public IBroadPhase getBroadPhase() {
+		if (broadPhase == null) {
+			broadPhase = new UniformGrid(getWidth(), getHeight());
+		}
+		
+		return broadPhase;
+	}
+	
+	/**
+	 * Sets the broad phase used for collision checking.
+	 * 
+	 * @param broadPhase
+	 * 		the new broad phase to use.
+	 */
+	public void setBroadPhase(IBroadPhase broadPhase) {
+		this.broadPhase = broadPhase;
+	}
+
 	/**
 	 * Cleans up dead entities.
 	 */
@@ -177,11 +358,28 @@ public abstract class PlayingField {
 	
 	/**
 	 * @return
-	 * 		the entities queue used by this PlayingField.
+	 * 		the entities queue used by this PlayingField.<br>
+	 * 		Entities should be added and removed with {@link #add(Object)}
+	 * 		and {@link #remove(Object)}, so they can be found by
+	 * 		{@link #getEntity(int)}.
 	 */
 	public Set<Entity> getEntities() {
 		return entities;
 	}
+	
+	/**
+	 * @param entityId
+	 * 		the id of an entity.
+	 * 
+	 * @return
+	 * 		the entity on this playing field with the given id, or
+	 * 		<code>null</code> if there is none.
+	 */
+	public Entity getEntity(int entityId) {
+		synchronized (entityIds) {
+			return entityIds.get(entityId);
+		}
+	}
 
 	/**
 	 * @return
@@ -192,11 +390,55 @@ public abstract class PlayingField {
 	}
 	
 	/**
-	 * Moves Movable items.
+	 * Moves Movable items.<br>
+	 * <br>
+	 * In deterministic mode, the entities are moved one by one in the
+	 * order of their entity ids, since moving an entity can use the random.
+	 * Otherwise they are moved in parallel.
 	 */
 	public void moveMovables() {
+		if (deterministic) {
+			for (Entity e : getOrderedEntities()) {
+				moveEntity(e);
+			}
+			return;
+		}
+		
 		entities.parallelStream().forEach(e -> moveEntity(e));
 	}
+	
+	/**
+	 * @return
+	 * 		the entities, sorted by entity id.
+	 */
+	private List<Entity> getOrderedEntities() {
+		orderedEntities.clear();
+		orderedEntities.addAll(entities);
+		orderedEntities.sort(ENTITY_ORDER);
+		return orderedEntities;
+	}
+	
+	/**
+	 * @return
+	 * 		the collidables, sorted by entity id.
+	 */
+	private List<ICollidable> getOrderedCollidables() {
+		orderedCollidables.clear();
+		orderedCollidables.addAll(collidables);
+		orderedCollidables.sort(ENTITY_ORDER);
+		return orderedCollidables;
+	}
+	
+	/**
+	 * @return
+	 * 		the players, sorted by entity id.
+	 */
+	private List<PlayerFish> getOrderedPlayers() {
+		orderedPlayers.clear();
+		orderedPlayers.addAll(getPlayers());
+		orderedPlayers.sort(ENTITY_ORDER);
+		return orderedPlayers;
+	}
 
 	/**
 	 * Moves the given entity.
@@ -225,6 +467,22 @@ public abstract class PlayingField {
 	 * This location should be the player, but can be something different.
 	 */
 	public abstract void centerScreen();
+	
+	/**
+	 * Captures the drawables and the view in a {@link RenderSnapshot}, and
+	 * publishes it to the renderer. This is done by the game thread at the
+	 * end of every tick, if the RENDER_INTERPOLATION setting is enabled
+	 * and this playing field is not headless.
+	 */
+	public void publishRenderSnapshot() {
+		if (renderer == null || !Settings.getInstance().getBoolean("RENDER_INTERPOLATION")) {
+			return;
+		}
+		
+		Vec2d center = renderer.getView().getCenter();
+		renderer.publishSnapshot(RenderSnapshot.capture(drawables.descendingIterator(), center.x, center.y,
+				System.nanoTime(), renderer.getSnapshot()));
+	}
 
 	/**
 	 * Check if a the given IMovable hits a wall or not.
@@ -277,12 +535,22 @@ public abstract class PlayingField {
 	
 	/**
 	 * @return
-	 * 		the Renderer for this PlayingField.
+	 * 		the Renderer for this PlayingField, or <code>null</code> if this
+	 * 		playing field is headless.
 	 */
 	public Renderer getRenderer() {
 		return renderer;
 	}
 	
+	/**
+	 * @return
+	 * 		<code>true</code> if this playing field has no renderer,
+	 * 		<code>false</code> otherwise.
+	 */
+	public boolean isHeadless() {
+		return renderer == null;
+	}
+	
 	/**
 	 * @return
 	 * 		the GameThread for this PlayingField.
@@ -297,7 +565,9 @@ public abstract class PlayingField {
 	 */
 	public void startGame() {
 		//Start the rendering first
-		getRenderer().startRendering();
+		if (renderer != null) {
+			renderer.startRendering();
+		}
 		
 		//Start the game thread after that.
 		getGameThread().start();
@@ -312,7 +582,9 @@ public abstract class PlayingField {
 	 * @see #startGame()
 	 */
 	public void startGameAndWait() throws InterruptedException {
-		getRenderer().startRendering();
+		if (renderer != null) {
+			renderer.startRendering();
+		}
 		
 		getGameThread().startAndWait();
 	}
@@ -322,7 +594,12 @@ public abstract class PlayingField {
 	 */
 	public void stopGame() {
 		getGameThread().stop();
-		getRenderer().stopRendering();
+		if (renderer != null) {
+			renderer.stopRendering();
+		}
+		
+		logger.log(LogLevel.DEBUG, CollisionStatistics.getInstance().toString());
+		logger.log(LogLevel.DEBUG, MaskCache.getInstance().toString());
 	}
 	
 	/**
@@ -349,7 +626,20 @@ public abstract class PlayingField {
 	 */
 	public void add(Object obj) {
 		if (obj instanceof Entity) {
-			entities.add((Entity) obj);
+			Entity entity = (Entity) obj;
+			entity.setRandom(random);
+			if (entity instanceof PlayerFish) {
+				assignHue((PlayerFish) entity);
+			}
+			
+			synchronized (entityIds) {
+				assignEntityId(entity);
+				
+				//Entities with the same id are equal, so only the first one is kept.
+				if (entities.add(entity)) {
+					entityIds.put(entity.getEntityId(), entity);
+				}
+			}
 		}
 		
 		if (obj instanceof ICollidable) {
@@ -361,6 +651,34 @@ public abstract class PlayingField {
 		}
 	}
 
+	/**
+	 * In deterministic mode, gives the given entity the next entity id of
+	 * this playing field, unless it is already on this playing field.<br>
+	 * <br>
+	 * The shared counter of {@link Entity} depends on how many entities
+	 * were created before in the same JVM, so it cannot be used for a
+	 * deterministic simulation. This is called while holding the lock on
+	 * the entity ids.
+	 * 
+	 * @param entity
+	 * 		the entity that is added.
+	 */
+	protected void assignEntityId(Entity entity) {
+		if (deterministic && entityIds.get(entity.getEntityId()) != entity) {
+			entity.setEntityId(nextEntityId++);
+		}
+	}
+
+	/**
+	 * Draws the hue of the given player, if it does not have one yet.
+	 * 
+	 * @param player
+	 * 		the player that is added.
+	 */
+	protected void assignHue(PlayerFish player) {
+		player.assignHue();
+	}
+
 	/**
 	 * Removes the given object from this playing field.
 	 * 
@@ -369,7 +687,10 @@ public abstract class PlayingField {
 	 */
 	public void remove(Object obj) {
 		if (obj instanceof Entity) {
-			entities.remove(obj);
+			synchronized (entityIds) {
+				entities.remove(obj);
+				entityIds.remove(((Entity) obj).getEntityId());
+			}
 		}
 		
 		if (obj instanceof ICollidable) {
@@ -390,8 +711,19 @@ public abstract class PlayingField {
 		//Kill all entities
 		entities.parallelStream().forEach(e -> e.kill());
 
-		//Clear the lists
-		entities.clear();
+		removeAll();
+	}
+	
+	/**
+	 * Removes all Entities and Drawables from this PlayingField, without
+	 * killing them.
+	 */
+	protected void removeAll() {
+		synchronized (entityIds) {
+			entities.clear();
+			entityIds.clear();
+		}
+		
 		drawables.clear();
 		collidables.clear();
 	}
@@ -411,6 +743,9 @@ public abstract class PlayingField {
 			//Kill and remove the entity
 			e.kill();
 			it.remove();
+			synchronized (entityIds) {
+				entityIds.remove(e.getEntityId());
+			}
 		}
 		
 		//Remove all non playerfish from collidables
@@ -6,7 +6,7 @@ import javafx.scene.image.PixelReader;
 /**
  * Image with collision mask data.
  */
-public class Sprite extends Image {
+public class Sprite extends Image implements ISpriteData {
 	private double alphaRatio;
 	private boolean[][] pixelData;
 	
@@ -68,6 +68,7 @@ public class Sprite extends Image {
 	/**
 	 * @return the alpha ratio of this image.
 	 */
+	@Override
 	public double getAlphaRatio() {
 		return this.alphaRatio;
 	}
@@ -77,6 +78,7 @@ public class Sprite extends Image {
 	 * 		a boolean matrix with true for pixels that are part of the mask,
 	 * 		and false for all pixels that are not.
 	 */
+	@Override
 	public boolean[][] getPixelData() {
 		return this.pixelData;
 	}
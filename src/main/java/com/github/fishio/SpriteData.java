@@ -0,0 +1,115 @@
+package com.github.fishio;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Collision data of a sprite, loaded without JavaFX.<br>
+ * <br>
+ * This is used instead of a {@link Sprite} when running headless, where
+ * images cannot be loaded for the screen.
+ */
+public class SpriteData implements ISpriteData {
+	private final boolean[][] pixelData;
+	private final double alphaRatio;
+
+	/**
+	 * Creates new SpriteData from the given pixel data.
+	 *
+	 * @param pixelData
+	 * 		the pixel data, indexed as <code>[x][y]</code>.
+	 */
+	public SpriteData(boolean[][] pixelData) {
+		this.pixelData = pixelData;
+		this.alphaRatio = calculateAlphaRatio(pixelData);
+	}
+
+	/**
+	 * Loads the SpriteData of the image at the given location on the
+	 * classpath.
+	 *
+	 * @param location
+	 * 		the location of the image.
+	 *
+	 * @return
+	 * 		the loaded SpriteData.
+	 *
+	 * @throws LoaderException
+	 * 		if the image cannot be found or read.
+	 */
+	public static SpriteData load(String location) {
+		URL url = SpriteData.class.getClassLoader().getResource(location);
+		if (url == null) {
+			throw new LoaderException("Sprite " + location + " does not exist!");
+		}
+
+		BufferedImage image;
+		try {
+			image = ImageIO.read(url);
+		} catch (IOException ex) {
+			throw new LoaderException("Unable to read sprite " + location, ex);
+		}
+
+		if (image == null) {
+			throw new LoaderException("Unable to read sprite " + location);
+		}
+
+		int width = image.getWidth();
+		int height = image.getHeight();
+
+		boolean[][] res = new boolean[width][height];
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				//Same threshold as Sprite: an opacity above 0.5.
+				res[x][y] = (image.getRGB(x, y) >>> 24) > 127;
+			}
+		}
+
+		return new SpriteData(res);
+	}
+
+	/**
+	 * Calculates the alpha ratio of the given pixel data.
+	 *
+	 * @param pixelData
+	 * 		the pixel data.
+	 *
+	 * @return
+	 * 		the ratio between opaque and non-opaque pixels.
+	 */
+	private static double calculateAlphaRatio(boolean[][] pixelData) {
+		int res = 0;
+		for (boolean[] row : pixelData) {
+			for (boolean pixel : row) {
+				if (pixel) {
+					res++;
+				}
+			}
+		}
+
+		return ((double) res) / (pixelData.length * pixelData[0].length);
+	}
+
+	@Override
+	public boolean[][] getPixelData() {
+		return this.pixelData;
+	}
+
+	@Override
+	public double getAlphaRatio() {
+		return this.alphaRatio;
+	}
+
+	@Override
+	public double getWidth() {
+		return this.pixelData.length;
+	}
+
+	@Override
+	public double getHeight() {
+		return this.pixelData[0].length;
+	}
+}
@@ -1,21 +1,73 @@
 package com.github.fishio;
 
+import java.nio.IntBuffer;
 import java.util.HashSet;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 
 import com.github.fishio.logging.Log;
 import com.github.fishio.logging.LogLevel;
 
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.image.WritablePixelFormat;
+import javafx.scene.paint.Color;
+
 /**
- * Contains methods to get sprites.
+ * Contains methods to get sprites.<br>
+ * <br>
+ * When running {@link #setHeadless(boolean) headless}, no images are
+ * loaded. Only the collision data of sprites is available, through
+ * {@link #getSpriteDataOrLoad(String)}.<br>
+ * <br>
+ * Hue shifted versions of sprites are made in the background and cached,
+ * see {@link #getTintedSprite(Image, double)}.
  */
 public final class SpriteStore {
+	/**
+	 * The amount of hues that tinted sprites are rounded to, from -1 to 1.
+	 */
+	public static final int HUE_STEPS = 64;
+	
 	private static final ConcurrentHashMap<String, Sprite> SPRITES = new ConcurrentHashMap<>();
+	private static final ConcurrentHashMap<String, SpriteData> SPRITE_DATA = new ConcurrentHashMap<>();
+	private static final ConcurrentHashMap<Image, ConcurrentHashMap<Integer, Future<Image>>> TINTED =
+			new ConcurrentHashMap<>();
 	
 	private static final HashSet<String> LOADING = new HashSet<>();
+	private static final HashSet<String> LOADING_DATA = new HashSet<>();
+	
+	private static volatile boolean headless;
 	
 	private SpriteStore() { }
 	
+	/**
+	 * @return
+	 * 		<code>true</code> if sprites are not loaded as images,
+	 * 		<code>false</code> otherwise.
+	 */
+	public static boolean isHeadless() {
+		return headless;
+	}
+	
+	/**
+	 * Sets if the SpriteStore is headless.<br>
+	 * <br>
+	 * When headless, {@link #getSpriteOrLoad(String)} always returns
+	 * <code>null</code>, and {@link #getSpriteDataOrLoad(String)} loads
+	 * the collision data without JavaFX.
+	 * 
+	 * @param headless
+	 * 		if the SpriteStore should be headless.
+	 */
+	public static void setHeadless(boolean headless) {
+		SpriteStore.headless = headless;
+	}
+	
 	/**
 	 * Called to start loading the sprites.
 	 */
@@ -28,7 +80,7 @@ public final class SpriteStore {
 			
 			//Load enemy fish
 			for (int i = 0; i < 29; i++) {
-				getSpriteOrLoad("sprites/fish/fish " + i + ".png");
+				getSpriteOrLoad("sprites/fish/fish" + i + ".png");
 			}
 			
 			//Load special fish
@@ -65,26 +117,195 @@ public final class SpriteStore {
 	 * 		the location of the sprite.
 	 * 
 	 * @return
-	 * 		the Sprite at the given location.
+	 * 		the Sprite at the given location, or <code>null</code> when
+	 * 		running headless.
 	 */
 	public static Sprite getSpriteOrLoad(String location) {
-		Sprite sprite = SPRITES.get(location);
-		if (sprite != null) {
+		if (headless) {
+			return null;
+		}
+		
+		return getOrLoad(SPRITES, LOADING, location, Sprite::new);
+	}
+	
+	/**
+	 * Gets the collision data of the sprite for the given location.
+	 * If this data is not yet loaded, it is loaded first.<br>
+	 * <br>
+	 * When not running headless, this is the same as
+	 * {@link #getSpriteOrLoad(String)}.
+	 * 
+	 * @param location
+	 * 		the location of the sprite.
+	 * 
+	 * @return
+	 * 		the collision data of the sprite at the given location.
+	 */
+	public static ISpriteData getSpriteDataOrLoad(String location) {
+		if (!headless) {
+			return getSpriteOrLoad(location);
+		}
+		
+		return getOrLoad(SPRITE_DATA, LOADING_DATA, location, SpriteData::load);
+	}
+	
+	/**
+	 * Gets the given sprite with its hue shifted by the given amount, the
+	 * same way as a {@link javafx.scene.effect.ColorAdjust ColorAdjust}
+	 * with that hue would.<br>
+	 * <br>
+	 * The hue is rounded to one of {@value #HUE_STEPS} steps. The first
+	 * time a hue is requested, the tinted sprite is made in the background,
+	 * and the untinted sprite is returned until it is done. Tinted sprites
+	 * are never removed from the cache.
+	 * 
+	 * @param sprite
+	 * 		the sprite to tint.
+	 * @param hue
+	 * 		the hue shift, from -1 to 1.
+	 * 
+	 * @return
+	 * 		the tinted sprite, or the given sprite if it is not done yet.
+	 */
+	public static Image getTintedSprite(Image sprite, double hue) {
+		int step = quantiseHue(hue);
+		if (step == 0 || headless || sprite.isError()) {
+			return sprite;
+		}
+		
+		ConcurrentHashMap<Integer, Future<Image>> tints =
+				TINTED.computeIfAbsent(sprite, s -> new ConcurrentHashMap<>());
+		Future<Image> future = tints.computeIfAbsent(step,
+				s -> MultiThreadedUtility.submitTask(() -> tint(sprite, getHueDegrees(s)), true));
+		if (!future.isDone()) {
 			return sprite;
 		}
 		
+		try {
+			return future.get();
+		} catch (InterruptedException | ExecutionException ex) {
+			Log.getLogger().log(LogLevel.WARNING, "[SpriteStore] Unable to tint sprite: " + ex.getCause());
+			
+			//Don't try again every frame.
+			tints.put(step, CompletableFuture.completedFuture(sprite));
+			return sprite;
+		}
+	}
+	
+	/**
+	 * @param hue
+	 * 		a hue shift, from -1 to 1.
+	 * 
+	 * @return
+	 * 		the step of the given hue, from <code>-HUE_STEPS / 2</code> to
+	 * 		<code>HUE_STEPS / 2</code>. The steps at both ends are the same
+	 * 		hue.
+	 */
+	static int quantiseHue(double hue) {
+		double clamped = Math.max(-1D, Math.min(1D, hue));
+		return (int) Math.round(clamped * HUE_STEPS / 2);
+	}
+	
+	/**
+	 * @param step
+	 * 		a hue step.
+	 * 
+	 * @return
+	 * 		the hue shift of the given step, in degrees.
+	 */
+	static double getHueDegrees(int step) {
+		return step * 360D / HUE_STEPS;
+	}
+	
+	/**
+	 * Creates a copy of the given image, with the hue of every pixel
+	 * shifted.
+	 * 
+	 * @param image
+	 * 		the image to tint.
+	 * @param degrees
+	 * 		the hue shift in degrees.
+	 * 
+	 * @return
+	 * 		the tinted image.
+	 */
+	private static Image tint(Image image, double degrees) {
+		int width = (int) image.getWidth();
+		int height = (int) image.getHeight();
+		
+		int[] pixels = new int[width * height];
+		WritablePixelFormat<IntBuffer> format = PixelFormat.getIntArgbInstance();
+		image.getPixelReader().getPixels(0, 0, width, height, format, pixels, 0, width);
+		
+		for (int i = 0; i < pixels.length; i++) {
+			pixels[i] = shiftHue(pixels[i], degrees);
+		}
+		
+		WritableImage res = new WritableImage(width, height);
+		res.getPixelWriter().setPixels(0, 0, width, height, format, pixels, 0, width);
+		return res;
+	}
+	
+	/**
+	 * @param argb
+	 * 		a (not premultiplied) ARGB color.
+	 * @param degrees
+	 * 		the hue shift in degrees.
+	 * 
+	 * @return
+	 * 		the given color with its hue shifted. The alpha is not changed.
+	 */
+	static int shiftHue(int argb, double degrees) {
+		int alpha = argb >>> 24;
+		if (alpha == 0) {
+			return argb;
+		}
+		
+		Color color = Color.rgb((argb >> 16) & 0xFF, (argb >> 8) & 0xFF, argb & 0xFF);
+		Color res = color.deriveColor(degrees, 1D, 1D, 1D);
+		
+		return alpha << 24
+				| (int) Math.round(res.getRed() * 255) << 16
+				| (int) Math.round(res.getGreen() * 255) << 8
+				| (int) Math.round(res.getBlue() * 255);
+	}
+	
+	/**
+	 * Gets the value for the given location from the given store.
+	 * If the value is not yet loaded, it is loaded first. If another thread
+	 * is already loading it, we wait for that thread instead.
+	 * 
+	 * @param store
+	 * 		the map with the loaded values.
+	 * @param loading
+	 * 		the set with the locations that are being loaded.
+	 * @param location
+	 * 		the location of the value.
+	 * @param loader
+	 * 		the function that loads the value.
+	 * 
+	 * @return
+	 * 		the value at the given location.
+	 */
+	private static <T> T getOrLoad(ConcurrentHashMap<String, T> store, HashSet<String> loading,
+			String location, Function<String, T> loader) {
+		T value = store.get(location);
+		if (value != null) {
+			return value;
+		}
+		
 		boolean load = false;
 		try {
-			synchronized (LOADING) {
+			synchronized (loading) {
 				//NOTE: Add returns true when the item was not yet in the set.
 				//If not yet being loaded, we start loading it.
-				if (LOADING.add(location)) {
+				if (loading.add(location)) {
 					load = true;
 				} else {
 					//Otherwise, we wait for it to be loaded.
 					try {
-						while (LOADING.contains(location)) {
-							LOADING.wait();
+						while (loading.contains(location)) {
+							loading.wait();
 						}
 					} catch (InterruptedException ex) {
 						return null;
@@ -92,20 +313,20 @@ public final class SpriteStore {
 				}
 			}
 			
-			//The sprite is now loaded, so we can return it.
+			//The value is now loaded, so we can return it.
 			if (!load) {
-				return SPRITES.get(location);
+				return store.get(location);
 			}
 			
-			//Load and add the sprite
-			sprite = new Sprite(location);
-			SPRITES.put(location, sprite);
-			return sprite;
+			//Load and add the value
+			value = loader.apply(location);
+			store.put(location, value);
+			return value;
 		} finally {
 			if (load) {
-				synchronized (LOADING) {
-					LOADING.remove(location);
-					LOADING.notifyAll();
+				synchronized (loading) {
+					loading.remove(location);
+					loading.notifyAll();
 				}
 			}
 		}
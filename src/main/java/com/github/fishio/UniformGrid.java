@@ -0,0 +1,146 @@
+package com.github.fishio;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * A broad phase that divides the playing field into square cells of
+ * equal size.<br>
+ * <br>
+ * Every collidable is stored in the cell its center is in. A query then
+ * only has to visit the cells that are within reach of the queried
+ * area, where the reach is determined by the largest collidable.<br>
+ * Collidables outside of the playing field are stored in the nearest
+ * border cell.
+ */
+public class UniformGrid implements IBroadPhase {
+	/**
+	 * The default size of a cell, in pixels.
+	 */
+	public static final int DEFAULT_CELL_SIZE = 128;
+
+	private final double cellSize;
+	private final int columns;
+	private final int rows;
+	private final ArrayList<ArrayList<ICollidable>> cells;
+
+	private double maxRadius;
+
+	/**
+	 * Creates a new UniformGrid with the default cell size.
+	 *
+	 * @param width
+	 * 		the width of the area covered by this grid.
+	 * @param height
+	 * 		the height of the area covered by this grid.
+	 */
+	public UniformGrid(int width, int height) {
+		this(width, height, DEFAULT_CELL_SIZE);
+	}
+
+	/**
+	 * Creates a new UniformGrid.
+	 *
+	 * @param width
+	 * 		the width of the area covered by this grid.
+	 * @param height
+	 * 		the height of the area covered by this grid.
+	 * @param cellSize
+	 * 		the width and height of a single cell.
+	 */
+	public UniformGrid(int width, int height, int cellSize) {
+		if (cellSize <= 0) {
+			throw new IllegalArgumentException("The cell size has to be positive!");
+		}
+
+		this.cellSize = cellSize;
+		this.columns = Math.max(1, (width + cellSize - 1) / cellSize);
+		this.rows = Math.max(1, (height + cellSize - 1) / cellSize);
+
+		this.cells = new ArrayList<>(columns * rows);
+		for (int i = 0; i < columns * rows; i++) {
+			cells.add(new ArrayList<>());
+		}
+	}
+
+	@Override
+	public void update(Collection<? extends ICollidable> collidables) {
+		for (ArrayList<ICollidable> cell : cells) {
+			cell.clear();
+		}
+
+		double max = 0;
+		for (ICollidable c : collidables) {
+			ICollisionArea area = c.getBoundingArea();
+
+			int column = getColumn(area.getCenterX());
+			int row = getRow(area.getCenterY());
+			cells.get(row * columns + column).add(c);
+
+			max = Math.max(max, getRadius(area));
+		}
+
+		maxRadius = max;
+	}
+
+	@Override
+	public void query(ICollisionArea area, Collection<? super ICollidable> result) {
+		//Anything within reach has its center within this distance.
+		double reach = getRadius(area) + maxRadius;
+
+		int minColumn = getColumn(area.getCenterX() - reach);
+		int maxColumn = getColumn(area.getCenterX() + reach);
+		int minRow = getRow(area.getCenterY() - reach);
+		int maxRow = getRow(area.getCenterY() + reach);
+
+		for (int row = minRow; row <= maxRow; row++) {
+			for (int column = minColumn; column <= maxColumn; column++) {
+				result.addAll(cells.get(row * columns + column));
+			}
+		}
+	}
+
+	/**
+	 * @return
+	 * 		the size of a single cell in this grid.
+	 */
+	public double getCellSize() {
+		return cellSize;
+	}
+
+	/**
+	 * @param x
+	 * 		the x coordinate.
+	 *
+	 * @return
+	 * 		the column containing the given x coordinate.
+	 */
+	private int getColumn(double x) {
+		return Math.max(0, Math.min(columns - 1, (int) Math.floor(x / cellSize)));
+	}
+
+	/**
+	 * @param y
+	 * 		the y coordinate.
+	 *
+	 * @return
+	 * 		the row containing the given y coordinate.
+	 */
+	private int getRow(double y) {
+		return Math.max(0, Math.min(rows - 1, (int) Math.floor(y / cellSize)));
+	}
+
+	/**
+	 * @param area
+	 * 		the area to get the radius of.
+	 *
+	 * @return
+	 * 		the radius of a circle around the center of the given area
+	 * 		that contains the whole area, regardless of its rotation.
+	 */
+	private static double getRadius(ICollisionArea area) {
+		double w = area.getWidth();
+		double h = area.getHeight();
+		return 0.5 * Math.sqrt(w * w + h * h);
+	}
+}
@@ -1,5 +1,7 @@
 package com.github.fishio.behaviours;
 
+import java.util.Random;
+
 import com.github.fishio.Vec2d;
 
 /**
@@ -33,6 +35,15 @@ public interface IMoveBehaviour {
 	 */
 	void preMove();
 	
+	/**
+	 * Sets the random this behaviour should use to make its decisions.
+	 * Behaviours that do not use randomness can ignore it.
+	 * 
+	 * @param random
+	 * 		the random to use.
+	 */
+	default void setRandom(Random random) { }
+	
 	/**
 	 * Updates this behaviour to the given behaviour, if it is of the same
 	 * type.
@@ -17,6 +17,26 @@ import javafx.scene.input.KeyEvent;
 public class KeyListenerBehaviour implements IMoveBehaviour, Serializable {
 	private static final long serialVersionUID = -8462037501296518403L;
 	
+	/**
+	 * Input bit of the up key.
+	 */
+	public static final int INPUT_UP = 1;
+	
+	/**
+	 * Input bit of the down key.
+	 */
+	public static final int INPUT_DOWN = 1 << 1;
+	
+	/**
+	 * Input bit of the left key.
+	 */
+	public static final int INPUT_LEFT = 1 << 2;
+	
+	/**
+	 * Input bit of the right key.
+	 */
+	public static final int INPUT_RIGHT = 1 << 3;
+	
 	private double vx;
 	private double vy;
 	
@@ -305,6 +325,32 @@ public class KeyListenerBehaviour implements IMoveBehaviour, Serializable {
 		this.rightPressed = rightPressed;
 	}
 	
+	/**
+	 * @return
+	 * 		the keys that are currently pressed, as a combination of the
+	 * 		INPUT bits.
+	 */
+	public int getInput() {
+		return (upPressed ? INPUT_UP : 0)
+				| (downPressed ? INPUT_DOWN : 0)
+				| (leftPressed ? INPUT_LEFT : 0)
+				| (rightPressed ? INPUT_RIGHT : 0);
+	}
+	
+	/**
+	 * Sets which keys this behaviour believes are pressed. This is used by
+	 * the server to move players with the input of their client.
+	 * 
+	 * @param input
+	 * 		the pressed keys, as a combination of the INPUT bits.
+	 */
+	public void setInput(int input) {
+		this.upPressed = (input & INPUT_UP) != 0;
+		this.downPressed = (input & INPUT_DOWN) != 0;
+		this.leftPressed = (input & INPUT_LEFT) != 0;
+		this.rightPressed = (input & INPUT_RIGHT) != 0;
+	}
+	
 	/**
 	 * Sets the speedVector of this behaviour. Should be
 	 * used for testing purposes only.
@@ -1,6 +1,8 @@
 package com.github.fishio.behaviours;
 
 import java.io.Serializable;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 import com.github.fishio.Vec2d;
 import com.github.fishio.settings.Settings;
@@ -19,6 +21,7 @@ public class RandomBehaviour implements IMoveBehaviour, Serializable {
 	private double vy;
 	
 	private double directionChangeChance;
+	private transient Random random;
 	
 	/**
 	 * Creates a new Random behaviour.
@@ -41,18 +44,44 @@ public class RandomBehaviour implements IMoveBehaviour, Serializable {
 		return new Vec2d(vx, vy);
 	}
 	
+	/**
+	 * Sets the speed vector of this behaviour.
+	 * 
+	 * @param speedVector
+	 * 		the new speed vector.
+	 */
+	public void setSpeedVector(Vec2d speedVector) {
+		this.vx = speedVector.x;
+		this.vy = speedVector.y;
+	}
+	
+	/**
+	 * {@inheritDoc}<br>
+	 * <br>
+	 * If no random is set, a thread local random is used.
+	 */
+	@Override
+	public void setRandom(Random random) {
+		this.random = random;
+	}
+	
 	/** 
 	 * Enemy fish sometimes change their movement speed.
 	 * Only change one of their movement directions so the change looks more realistic.
 	 */
 	@Override
 	public void preMove() {
-		if (Math.random() < directionChangeChance) {
+		Random r = random;
+		if (r == null) {
+			r = ThreadLocalRandom.current();
+		}
+		
+		if (r.nextDouble() < directionChangeChance) {
 			//Only change one direction
-			if (Math.random() <= 0.5) {
-				vy = vy + vy * (Math.random() - 0.5);
+			if (r.nextDouble() <= 0.5) {
+				vy = vy + vy * (r.nextDouble() - 0.5);
 			} else {
-				vx = vx + vx * (Math.random() - 0.5);
+				vx = vx + vx * (r.nextDouble() - 0.5);
 			}
 			limitSpeed();
 		}
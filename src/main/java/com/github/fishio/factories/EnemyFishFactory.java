@@ -7,7 +7,7 @@ import com.github.fishio.CollisionMask;
 import com.github.fishio.EnemyFish;
 import com.github.fishio.Entity;
 import com.github.fishio.ICollisionArea;
-import com.github.fishio.Sprite;
+import com.github.fishio.ISpriteData;
 import com.github.fishio.SpriteStore;
 import com.github.fishio.Vec2d;
 import com.github.fishio.settings.Settings;
@@ -17,9 +17,27 @@ import com.github.fishio.settings.Settings;
  */
 public class EnemyFishFactory {
 
-	private static Random random = new Random();
 	private static Settings settings = Settings.getInstance();
 	
+	private final Random random;
+	
+	/**
+	 * Creates a new EnemyFishFactory with its own random.
+	 */
+	public EnemyFishFactory() {
+		this(new Random());
+	}
+	
+	/**
+	 * Creates a new EnemyFishFactory.
+	 * 
+	 * @param random
+	 * 		the random used to create the fish.
+	 */
+	public EnemyFishFactory(Random random) {
+		this.random = random;
+	}
+	
 	/**
 	 * Creates a random EnemyFish. This fish will get a sprite and always spawn
 	 * outside the screen and always move towards the inside.
@@ -100,7 +118,7 @@ public class EnemyFishFactory {
 		//randomize fish properties 
 		int size = random.nextInt(maxSize - minSize + 1) + minSize;
 		String spriteString = getRandomSprite();
-		Sprite sprite = SpriteStore.getSpriteOrLoad(spriteString);
+		ISpriteData sprite = SpriteStore.getSpriteDataOrLoad(spriteString);
 		double ratio = sprite.getWidth() / sprite.getHeight();
 		double enemyFishWidth = Math.sqrt(size * ratio);
 		double enemyFishHeight = size / enemyFishWidth;
@@ -110,23 +128,23 @@ public class EnemyFishFactory {
 		//pick a side
 		switch (random.nextInt(4)) {
 		case 0: 	// left
-			position = new Vec2d(-enemyFishWidth, Math.random() * playingFieldHeight); 
+			position = new Vec2d(-enemyFishWidth, random.nextDouble() * playingFieldHeight); 
 			vx = Math.abs(randomSpeed());
 			vy = randomSpeed();
 			break;
 		case 1: 	// top
-			position = new Vec2d(Math.random() * playingFieldWidth, -enemyFishHeight);
+			position = new Vec2d(random.nextDouble() * playingFieldWidth, -enemyFishHeight);
 			vx = randomSpeed();
 			vy = -Math.abs(randomSpeed());
 			break;
 		case 2: 	// right
 			position = new Vec2d(playingFieldWidth + enemyFishWidth,
-					Math.random() * playingFieldHeight);
+					random.nextDouble() * playingFieldHeight);
 			vx = -Math.abs(randomSpeed());
 			vy = randomSpeed();
 			break;
 		default: 	// bottom
-			position = new Vec2d(Math.random() * playingFieldWidth, playingFieldHeight + enemyFishHeight);
+			position = new Vec2d(random.nextDouble() * playingFieldWidth, playingFieldHeight + enemyFishHeight);
 			vx = randomSpeed();
 			vy = Math.abs(randomSpeed());
 			break;
@@ -155,7 +173,7 @@ public class EnemyFishFactory {
 	 * 			-MAX_FISH_SPEED
 	 */
 	public double randomSpeed() {
-		double speed = (Math.random() * 2 - 1) * settings.getDouble("MAX_EFISH_SPEED");
+		double speed = (random.nextDouble() * 2 - 1) * settings.getDouble("MAX_EFISH_SPEED");
 
 		// Check if speed is not too slow
 		if (speed < 0) {
@@ -27,7 +27,7 @@ public class EnemyFishSpawner {
 		this.playingField = playingField;
 		this.maxEnemiesProperty.set(maxEnemies);
 		
-		this.factory = new EnemyFishFactory();
+		this.factory = new EnemyFishFactory(playingField.getRandom());
 	}
 
 	/**
@@ -34,6 +34,7 @@ public class PowerUpSpawner implements TickListener {
 		this.intervalTicks = getInterval() * pf.getFPS();
 		this.tickCounter = 0;
 		this.factory = new PowerUpFactory(pf);
+		factory.setRandom(pf.getRandom());
 		
 		this.logger = Log.getLogger();
 		
@@ -0,0 +1,91 @@
+package com.github.fishio.game;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of threads that runs the ticks of many {@link GameThread}s.<br>
+ * <br>
+ * A game only needs its thread for the duration of a tick, so a few
+ * threads can run hundreds of games. The pool is sized to the amount of
+ * processors by default.
+ */
+public class GameLoopPool {
+	private final ScheduledThreadPoolExecutor executor;
+	
+	/**
+	 * Creates a new GameLoopPool with a thread for every processor.
+	 */
+	public GameLoopPool() {
+		this(0);
+	}
+	
+	/**
+	 * Creates a new GameLoopPool.
+	 * 
+	 * @param threads
+	 * 		the amount of threads, or 0 for a thread for every processor.
+	 */
+	public GameLoopPool(int threads) {
+		if (threads <= 0) {
+			threads = Runtime.getRuntime().availableProcessors();
+		}
+		
+		AtomicInteger counter = new AtomicInteger();
+		this.executor = new ScheduledThreadPoolExecutor(threads, r -> {
+			Thread thread = new Thread(r, "GameLoop-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		
+		//Cancelled games should not keep their ticks in the queue.
+		this.executor.setRemoveOnCancelPolicy(true);
+	}
+	
+	/**
+	 * Lets the given GameThread run its ticks in this pool, the next time
+	 * it is started.
+	 * 
+	 * @param gameThread
+	 * 		the GameThread.
+	 */
+	public void add(GameThread gameThread) {
+		gameThread.setExecutor(executor);
+	}
+	
+	/**
+	 * @return
+	 * 		the executor of this pool.
+	 */
+	public ScheduledExecutorService getExecutor() {
+		return executor;
+	}
+	
+	/**
+	 * @return
+	 * 		the amount of threads in this pool.
+	 */
+	public int getThreadCount() {
+		return executor.getCorePoolSize();
+	}
+	
+	/**
+	 * Stops all threads of this pool. Games that are still running are no
+	 * longer ticked.
+	 * 
+	 * @param maxTime
+	 * 		the maximum time to wait for the running ticks, in milliseconds.
+	 * 
+	 * @return
+	 * 		<code>true</code> if all threads have stopped.
+	 * 
+	 * @throws InterruptedException
+	 * 		if we are interrupted while waiting.
+	 */
+	public boolean shutdown(long maxTime) throws InterruptedException {
+		executor.shutdownNow();
+		return executor.awaitTermination(maxTime, TimeUnit.MILLISECONDS);
+	}
+}
@@ -1,25 +1,67 @@
 package com.github.fishio.game;
 
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
 
 import javafx.beans.property.SimpleObjectProperty;
 
 import com.github.fishio.PlayingField;
+import com.github.fishio.game.TickProfiler.Phase;
 import com.github.fishio.listeners.Listenable;
 import com.github.fishio.listeners.TickListener;
 import com.github.fishio.logging.Log;
 import com.github.fishio.logging.LogLevel;
+import com.github.fishio.settings.Settings;
 
 /**
- * A stateful runnable that represents the game thread.
+ * A stateful runnable that represents the game thread.<br>
+ * <br>
+ * By default, every GameThread runs on a thread of its own. If an
+ * executor is set with {@link #setExecutor(ScheduledExecutorService)},
+ * the ticks are scheduled on that executor instead, so that many games
+ * can share a few threads.
  */
 public class GameThread implements Runnable, Listenable {
 	private ConcurrentLinkedQueue<TickListener> listeners = new ConcurrentLinkedQueue<TickListener>();
 	
 	private final PlayingField playingField;
-	private static final double GAME_TPS = 60;
+	
+	/**
+	 * The amount of game ticks per second.
+	 */
+	public static final double GAME_TPS = 60;
+	
+	/**
+	 * The time available for one tick, in nanoseconds.
+	 */
+	public static final long TICK_NANOS = Math.round(1E9 / GAME_TPS);
+	
+	/**
+	 * The default maximum amount of ticks that are run back to back to
+	 * catch up after falling behind.
+	 */
+	public static final int DEFAULT_MAX_CATCH_UP_TICKS = 5;
+	
+	/**
+	 * When waiting for the next tick, the thread parks until this many
+	 * nanoseconds are left, and then spins for the remainder.
+	 */
+	private static final long SPIN_NANOS = 1000000L;
+	
+	private volatile int maxCatchUpTicks = DEFAULT_MAX_CATCH_UP_TICKS;
+	private final TickStatistics tickStatistics = new TickStatistics();
+	private volatile TickProfiler profiler;
 	
 	private volatile Thread thread;
+	private volatile ScheduledExecutorService executor;
+	private volatile ScheduledFuture<?> scheduled;
+	private volatile Consumer<Throwable> failureHandler;
+	private final Object tickLock = new Object();
+	private long nextTick;
 	private volatile boolean stop;
 	private volatile boolean done;
 	
@@ -66,11 +108,54 @@ public class GameThread implements Runnable, Listenable {
 		//Set that we are starting
 		stateProperty.set(GameState.STARTING);
 		
+		//Schedule the ticks on the executor, if we have one.
+		ScheduledExecutorService ex = executor;
+		if (ex != null) {
+			synchronized (tickLock) {
+				startRun();
+				nextTick = System.nanoTime();
+				scheduled = ex.scheduleAtFixedRate(this::scheduledTick, 0, TICK_NANOS, TimeUnit.NANOSECONDS);
+			}
+			return;
+		}
+		
 		//Create a new thread and start it.
 		thread = new Thread(this);
 		thread.start();
 	}
 	
+	/**
+	 * Sets the executor to run the ticks on. The executor is used the next
+	 * time this GameThread is started.
+	 * 
+	 * @param executor
+	 * 		the executor, or <code>null</code> to run on a thread of its own.
+	 */
+	public void setExecutor(ScheduledExecutorService executor) {
+		this.executor = executor;
+	}
+	
+	/**
+	 * Sets the handler that is called when a scheduled tick fails. The
+	 * game has already stopped when it is called, and it is called on the
+	 * thread of the executor.
+	 * 
+	 * @param handler
+	 * 		the handler, or <code>null</code> to only log failed ticks.
+	 */
+	public void setFailureHandler(Consumer<Throwable> handler) {
+		this.failureHandler = handler;
+	}
+	
+	/**
+	 * @return
+	 * 		the executor the ticks are run on, or <code>null</code> if this
+	 * 		GameThread runs on a thread of its own.
+	 */
+	public ScheduledExecutorService getExecutor() {
+		return executor;
+	}
+	
 	/**
 	 * Start the GameThread and wait until it is started.
 	 * 
@@ -96,18 +181,40 @@ public class GameThread implements Runnable, Listenable {
 	 */
 	public void stop() {
 		//If we have already stopped, or are not running, we don't have to do anything.
-		if (thread == null || stop || done) {
+		if (!isStarted() || stop || done) {
 			return;
 		}
 		
 		this.stop = true;
 		
+		//Scheduled ticks are cancelled, and we stop once the current tick is done.
+		ScheduledFuture<?> future = scheduled;
+		if (future != null) {
+			future.cancel(false);
+			synchronized (tickLock) {
+				finishRun();
+			}
+			return;
+		}
+		
+		//Wake the game thread if it is waiting for the next tick.
+		LockSupport.unpark(thread);
+		
 		//If we are RUNNING, we are now STOPPING
 		if (isRunning()) {
 			stateProperty.set(GameState.STOPPING);
 		}
 	}
 	
+	/**
+	 * @return
+	 * 		<code>true</code> if this GameThread was started since it was
+	 * 		last reset.
+	 */
+	private boolean isStarted() {
+		return thread != null || scheduled != null;
+	}
+	
 	/**
 	 * Sets the stop status of this GameThread to true, and waits until
 	 * it has actually stopped.<br>
@@ -142,11 +249,12 @@ public class GameThread implements Runnable, Listenable {
 	 * STARTING, RUNNING or STOPPING.
 	 */
 	public void reset() {
-		if (thread == null) {
+		if (!isStarted()) {
 			stop = false;
 			done = false;
 		} else if (done) {
 			thread = null;
+			scheduled = null;
 			stop = false;
 			done = false;
 		} else {
@@ -161,7 +269,7 @@ public class GameThread implements Runnable, Listenable {
 	 * 		<code>true</code> if this GameThread has stopped.
 	 */
 	public boolean isStopped() {
-		return this.thread == null || this.done;
+		return !isStarted() || this.done;
 	}
 	
 	/**
@@ -204,36 +312,163 @@ public class GameThread implements Runnable, Listenable {
 			return;
 		}
 		
-		//We are now in the state RUNNING
-		stateProperty.set(GameState.RUNNING);
+		startRun();
 		
 		try {
-			long start, end;
-			double waitTime = 1000.0 / GAME_TPS;
+			//The time at which the next tick should start.
+			long nextTick = System.nanoTime();
 			
 			while (!stop) {
-				start = System.currentTimeMillis();
-
-				gameTick();
+				long late = System.nanoTime() - nextTick;
+				if (late < 0) {
+					waitNanos(-late);
+					continue;
+				}
 				
-				end = System.currentTimeMillis();
+				//Run the ticks that are due, but no more than the maximum.
+				int max = maxCatchUpTicks;
+				for (int i = 0; i < max && !stop && System.nanoTime() - nextTick >= 0; i++) {
+					timedTick();
+					nextTick += TICK_NANOS;
+				}
 				
-				//Sleep if we have time to spare.
-				long dur = end - start;
-				if (dur < waitTime) {
-					try {
-						Thread.sleep(Math.round(waitTime - dur));
-					} catch (InterruptedException ex) {
-						Log.getLogger().log(LogLevel.DEBUG, "[GameThread] Exception while sleeping until next cycle");
-					}
+				//Skip the ticks we cannot catch up on.
+				late = System.nanoTime() - nextTick;
+				if (late >= TICK_NANOS) {
+					long dropped = late / TICK_NANOS;
+					tickStatistics.recordDropped(dropped);
+					nextTick += dropped * TICK_NANOS;
 				}
 			}
 		} finally {
-			//Reset stopping
-			done = true;
+			finishRun();
+		}
+	}
+	
+	/**
+	 * Called by the executor for every scheduled tick.<br>
+	 * <br>
+	 * The executor runs late ticks back to back. If we are more than the
+	 * maximum amount of catch up ticks behind, the tick is skipped.<br>
+	 * <br>
+	 * If a tick fails, the game is stopped and the failure handler is
+	 * called. Nothing may escape to the executor, as it would silently
+	 * cancel the ticks without stopping the game.
+	 */
+	private void scheduledTick() {
+		Throwable failure;
+		synchronized (tickLock) {
+			if (stop || done) {
+				return;
+			}
 			
-			//We are now in the state STOPPED
-			stateProperty.set(GameState.STOPPED);
+			long late = System.nanoTime() - nextTick;
+			nextTick += TICK_NANOS;
+			if (late >= maxCatchUpTicks * TICK_NANOS) {
+				tickStatistics.recordDropped(1);
+				return;
+			}
+			
+			try {
+				timedTick();
+				return;
+			} catch (Throwable ex) {
+				//Like a game thread, stop when a tick fails.
+				Log.getLogger().log(LogLevel.ERROR, "[GameThread] Error in game tick: " + ex);
+				stop = true;
+				scheduled.cancel(false);
+				finishRun();
+				failure = ex;
+			}
+		}
+		
+		//The handler is called without the lock, so it can stop or start games.
+		Consumer<Throwable> handler = failureHandler;
+		if (handler != null) {
+			try {
+				handler.accept(failure);
+			} catch (Throwable ex) {
+				Log.getLogger().log(LogLevel.ERROR, "[GameThread] Error in failure handler: " + ex);
+			}
+		}
+	}
+	
+	/**
+	 * Resets the statistics and sets the state to RUNNING.
+	 */
+	private void startRun() {
+		tickStatistics.reset();
+		if (profiler == null && Settings.getInstance().getBoolean("PROFILE_TICKS")) {
+			profiler = new TickProfiler();
+		}
+		
+		//We are now in the state RUNNING
+		stateProperty.set(GameState.RUNNING);
+	}
+	
+	/**
+	 * Runs one tick, and records its duration.
+	 */
+	private void timedTick() {
+		long start = System.nanoTime();
+		
+		gameTick();
+		
+		long duration = System.nanoTime() - start;
+		tickStatistics.recordTick(duration, TICK_NANOS);
+		
+		TickProfiler tp = profiler;
+		if (tp != null) {
+			tp.record(Phase.TOTAL, duration);
+		}
+	}
+	
+	/**
+	 * Logs the statistics and sets the state to STOPPED.
+	 */
+	private void finishRun() {
+		if (done) {
+			return;
+		}
+		
+		Log.getLogger().log(LogLevel.DEBUG, "[GameThread] " + tickStatistics);
+		if (profiler != null) {
+			Log.getLogger().log(LogLevel.DEBUG, "[GameThread] " + profiler);
+		}
+		
+		//Reset stopping
+		done = true;
+		
+		//We are now in the state STOPPED
+		stateProperty.set(GameState.STOPPED);
+	}
+
+	/**
+	 * Waits for the given amount of time. The thread is parked for most of
+	 * the time, and spins for the last {@link #SPIN_NANOS} nanoseconds to
+	 * wake up on time.<br>
+	 * <br>
+	 * This method returns early if this GameThread is asked to stop.
+	 * 
+	 * @param nanos
+	 * 		the amount of nanoseconds to wait.
+	 */
+	private void waitNanos(long nanos) {
+		long deadline = System.nanoTime() + nanos;
+		
+		while (!stop) {
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0) {
+				return;
+			} else if (remaining > SPIN_NANOS) {
+				LockSupport.parkNanos(this, remaining - SPIN_NANOS);
+			} else {
+				Thread.yield();
+			}
+			
+			if (Thread.interrupted()) {
+				Log.getLogger().log(LogLevel.DEBUG, "[GameThread] Interrupted while waiting until next cycle");
+			}
 		}
 	}
 
@@ -241,6 +476,12 @@ public class GameThread implements Runnable, Listenable {
 	 * Runs one gametick.
 	 */
 	protected void gameTick() {
+		TickProfiler tp = profiler;
+		if (tp != null) {
+			profiledGameTick(tp);
+			return;
+		}
+		
 		//Call listeners pretick
 		callPreTick("GameThread");
 
@@ -261,6 +502,151 @@ public class GameThread implements Runnable, Listenable {
 
 		//Call listeners posttick
 		callPostTick("GameThread");
+		
+		//Publish the result of this tick to the renderer
+		playingField.publishRenderSnapshot();
+		
+		sendUpdates();
+	}
+	
+	/**
+	 * Called at the end of every gametick, to send the result of the tick
+	 * to other parties. This does nothing by default.
+	 */
+	protected void sendUpdates() { }
+	
+	/**
+	 * Runs one gametick, and records the duration of every phase and
+	 * every listener in the given profiler.
+	 * 
+	 * @param tp
+	 * 		the profiler to record the durations in.
+	 */
+	private void profiledGameTick(TickProfiler tp) {
+		long time = System.nanoTime();
+		
+		//Call listeners pretick
+		for (TickListener tl : getListeners()) {
+			long start = System.nanoTime();
+			callPreTick(tl, "GameThread");
+			tp.recordPreTick(tl, System.nanoTime() - start);
+		}
+		time = record(tp, Phase.PRE_TICK, time);
+
+		//Move all movables
+		playingField.moveMovables();
+		time = record(tp, Phase.MOVE, time);
+		
+		//Center the screen after moving
+		playingField.centerScreen();
+		time = record(tp, Phase.CENTER_SCREEN, time);
+
+		//Add new entities
+		playingField.addEntities();
+		time = record(tp, Phase.ADD_ENTITIES, time);
+		
+		//Check for collisions
+		playingField.checkPlayerCollisions();
+		time = record(tp, Phase.COLLISIONS, time);
+
+		//Cleanup dead entities.
+		playingField.cleanupDead();
+		time = record(tp, Phase.CLEANUP, time);
+
+		//Call listeners posttick
+		for (TickListener tl : getListeners()) {
+			long start = System.nanoTime();
+			callPostTick(tl, "GameThread");
+			tp.recordPostTick(tl, System.nanoTime() - start);
+		}
+		time = record(tp, Phase.POST_TICK, time);
+		
+		//Publish the result of this tick to the renderer
+		playingField.publishRenderSnapshot();
+		time = record(tp, Phase.SNAPSHOT, time);
+		
+		sendUpdates();
+		record(tp, Phase.SEND, time);
+	}
+	
+	/**
+	 * Records the time since the given start time as the duration of the
+	 * given phase.
+	 * 
+	 * @param tp
+	 * 		the profiler to record the duration in.
+	 * @param phase
+	 * 		the phase that has ended.
+	 * @param start
+	 * 		the nanoTime at which the phase started.
+	 * 
+	 * @return
+	 * 		the current nanoTime, which is the start of the next phase.
+	 */
+	private static long record(TickProfiler tp, Phase phase, long start) {
+		long end = System.nanoTime();
+		tp.record(phase, end - start);
+		return end;
+	}
+	
+	/**
+	 * @return
+	 * 		the profiler that records the durations of the phases of every
+	 * 		tick, or <code>null</code> if profiling is disabled.
+	 */
+	public TickProfiler getProfiler() {
+		return profiler;
+	}
+	
+	/**
+	 * Sets the profiler that records the durations of the phases of every
+	 * tick.<br>
+	 * <br>
+	 * If the PROFILE_TICKS setting is enabled when this GameThread is
+	 * started, a profiler is created automatically.
+	 * 
+	 * @param profiler
+	 * 		the profiler to use, or <code>null</code> to disable profiling.
+	 */
+	public void setProfiler(TickProfiler profiler) {
+		this.profiler = profiler;
+	}
+	
+	/**
+	 * @return
+	 * 		the maximum amount of ticks that are run back to back to catch
+	 * 		up after falling behind.
+	 */
+	public int getMaxCatchUpTicks() {
+		return maxCatchUpTicks;
+	}
+	
+	/**
+	 * Sets the maximum amount of ticks that are run back to back to catch
+	 * up after falling behind. If the game thread is further behind than
+	 * that, the remaining ticks are skipped.
+	 * 
+	 * @param maxCatchUpTicks
+	 * 		the maximum amount of ticks, at least 1.
+	 * 
+	 * @throws IllegalArgumentException
+	 * 		if maxCatchUpTicks is smaller than 1.
+	 */
+	public void setMaxCatchUpTicks(int maxCatchUpTicks) {
+		if (maxCatchUpTicks < 1) {
+			throw new IllegalArgumentException("At least one tick has to be run!");
+		}
+		
+		this.maxCatchUpTicks = maxCatchUpTicks;
+	}
+	
+	/**
+	 * @return
+	 * 		the statistics of the ticks run since this GameThread was last
+	 * 		started.
+	 */
+	public TickStatistics getTickStatistics() {
+		return tickStatistics;
 	}
 	
 	/**
@@ -0,0 +1,152 @@
+package com.github.fishio.game;
+
+/**
+ * A histogram of durations with a fixed relative precision, similar to an
+ * HDR histogram.<br>
+ * <br>
+ * Values below 64 are counted exactly. Larger values are counted in
+ * buckets that split every power of two into 32 parts, so a value is
+ * reported with an error of at most about 3%.<br>
+ * <br>
+ * Recording does not allocate. Values should be recorded by a single
+ * thread, but can be read by any thread.
+ */
+public class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int LINEAR_BUCKETS = 2 * SUB_BUCKETS;
+	private static final int BUCKETS = LINEAR_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final long[] counts = new long[BUCKETS];
+	private volatile long totalCount;
+	private volatile long max;
+
+	/**
+	 * Records a value.
+	 *
+	 * @param value
+	 * 		the value to record. Negative values are counted as 0.
+	 */
+	public void record(long value) {
+		long v = Math.max(0L, value);
+		counts[getIndex(v)]++;
+		if (v > max) {
+			max = v;
+		}
+
+		totalCount++;
+	}
+
+	/**
+	 * @return
+	 * 		the amount of recorded values.
+	 */
+	public long getCount() {
+		return totalCount;
+	}
+
+	/**
+	 * @return
+	 * 		the largest recorded value, or 0 if nothing was recorded.
+	 */
+	public long getMax() {
+		return max;
+	}
+
+	/**
+	 * @param percentile
+	 * 		the percentile, between 0 and 100.
+	 *
+	 * @return
+	 * 		the value below which the given percentage of the recorded
+	 * 		values is, or 0 if nothing was recorded.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long total = totalCount;
+		if (total == 0) {
+			return 0L;
+		}
+
+		double p = Math.min(100.0, Math.max(0.0, percentile));
+		long target = Math.max(1L, (long) Math.ceil(p / 100.0 * total));
+
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= target) {
+				return Math.min(getHighestValue(i), max);
+			}
+		}
+
+		return max;
+	}
+
+	/**
+	 * Adds all values recorded by the given histogram to this histogram.
+	 * This should be done by the thread that records values in this
+	 * histogram.
+	 *
+	 * @param other
+	 * 		the histogram to add.
+	 */
+	public void add(LatencyHistogram other) {
+		long added = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			long count = other.counts[i];
+			counts[i] += count;
+			added += count;
+		}
+
+		if (other.max > max) {
+			max = other.max;
+		}
+
+		totalCount += added;
+	}
+
+	/**
+	 * Removes all recorded values.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = 0L;
+		}
+
+		totalCount = 0L;
+		max = 0L;
+	}
+
+	/**
+	 * @param value
+	 * 		a non negative value.
+	 *
+	 * @return
+	 * 		the index of the bucket the given value is counted in.
+	 */
+	static int getIndex(long value) {
+		if (value < LINEAR_BUCKETS) {
+			return (int) value;
+		}
+
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		int sub = (int) (value >>> shift) - SUB_BUCKETS;
+		return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + sub;
+	}
+
+	/**
+	 * @param index
+	 * 		the index of a bucket.
+	 *
+	 * @return
+	 * 		the largest value that is counted in the given bucket.
+	 */
+	static long getHighestValue(int index) {
+		if (index < LINEAR_BUCKETS) {
+			return index;
+		}
+
+		int shift = (index - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+		long sub = (index - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+		return ((sub + 1) << shift) - 1;
+	}
+}
@@ -0,0 +1,258 @@
+package com.github.fishio.game;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.github.fishio.listeners.TickListener;
+
+/**
+ * Records how long every phase of a game tick takes, and how long every
+ * {@link TickListener} takes, in {@link LatencyHistogram}s.<br>
+ * <br>
+ * A GameThread only times its ticks when it has a profiler, so there is
+ * no cost when profiling is disabled.
+ */
+public class TickProfiler {
+	/**
+	 * The phases of a game tick.
+	 */
+	public enum Phase {
+		/**
+		 * Calling the preTick method of all listeners.
+		 */
+		PRE_TICK,
+
+		/**
+		 * Moving all movables.
+		 */
+		MOVE,
+
+		/**
+		 * Centering the screen.
+		 */
+		CENTER_SCREEN,
+
+		/**
+		 * Adding new entities.
+		 */
+		ADD_ENTITIES,
+
+		/**
+		 * Checking for collisions.
+		 */
+		COLLISIONS,
+
+		/**
+		 * Cleaning up dead entities.
+		 */
+		CLEANUP,
+
+		/**
+		 * Calling the postTick method of all listeners.
+		 */
+		POST_TICK,
+
+		/**
+		 * Publishing the render snapshot.
+		 */
+		SNAPSHOT,
+
+		/**
+		 * Sending updates to other parties, see
+		 * {@link com.github.fishio.game.GameThread#sendUpdates() sendUpdates}.
+		 * On a multiplayer server, this captures the snapshot for the
+		 * clients.
+		 */
+		SEND,
+
+		/**
+		 * The whole tick.
+		 */
+		TOTAL
+	}
+
+	private final LatencyHistogram[] phases = new LatencyHistogram[Phase.values().length];
+	private final Map<TickListener, LatencyHistogram> preTickListeners = new ConcurrentHashMap<>();
+	private final Map<TickListener, LatencyHistogram> postTickListeners = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a new TickProfiler.
+	 */
+	public TickProfiler() {
+		for (int i = 0; i < phases.length; i++) {
+			phases[i] = new LatencyHistogram();
+		}
+	}
+
+	/**
+	 * Records the duration of a phase.
+	 *
+	 * @param phase
+	 * 		the phase.
+	 * @param nanos
+	 * 		the duration in nanoseconds.
+	 */
+	public void record(Phase phase, long nanos) {
+		phases[phase.ordinal()].record(nanos);
+	}
+
+	/**
+	 * Records the duration of a call to {@link TickListener#preTick()}.
+	 *
+	 * @param listener
+	 * 		the listener that was called.
+	 * @param nanos
+	 * 		the duration in nanoseconds.
+	 */
+	public void recordPreTick(TickListener listener, long nanos) {
+		preTickListeners.computeIfAbsent(listener, l -> new LatencyHistogram()).record(nanos);
+	}
+
+	/**
+	 * Records the duration of a call to {@link TickListener#postTick()}.
+	 *
+	 * @param listener
+	 * 		the listener that was called.
+	 * @param nanos
+	 * 		the duration in nanoseconds.
+	 */
+	public void recordPostTick(TickListener listener, long nanos) {
+		postTickListeners.computeIfAbsent(listener, l -> new LatencyHistogram()).record(nanos);
+	}
+
+	/**
+	 * @param phase
+	 * 		the phase.
+	 *
+	 * @return
+	 * 		the histogram of the durations of the given phase.
+	 */
+	public LatencyHistogram getHistogram(Phase phase) {
+		return phases[phase.ordinal()];
+	}
+
+	/**
+	 * @param listener
+	 * 		the listener.
+	 *
+	 * @return
+	 * 		the histogram of the durations of the preTick calls of the
+	 * 		given listener, or <code>null</code> if it was never called.
+	 */
+	public LatencyHistogram getPreTickHistogram(TickListener listener) {
+		return preTickListeners.get(listener);
+	}
+
+	/**
+	 * @param listener
+	 * 		the listener.
+	 *
+	 * @return
+	 * 		the histogram of the durations of the postTick calls of the
+	 * 		given listener, or <code>null</code> if it was never called.
+	 */
+	public LatencyHistogram getPostTickHistogram(TickListener listener) {
+		return postTickListeners.get(listener);
+	}
+
+	/**
+	 * @param phase
+	 * 		the phase.
+	 *
+	 * @return
+	 * 		the median duration of the given phase in nanoseconds.
+	 */
+	public long getP50(Phase phase) {
+		return getHistogram(phase).getValueAtPercentile(50.0);
+	}
+
+	/**
+	 * @param phase
+	 * 		the phase.
+	 *
+	 * @return
+	 * 		the 99th percentile of the durations of the given phase in
+	 * 		nanoseconds.
+	 */
+	public long getP99(Phase phase) {
+		return getHistogram(phase).getValueAtPercentile(99.0);
+	}
+
+	/**
+	 * @param phase
+	 * 		the phase.
+	 *
+	 * @return
+	 * 		the longest duration of the given phase in nanoseconds.
+	 */
+	public long getMax(Phase phase) {
+		return getHistogram(phase).getMax();
+	}
+
+	/**
+	 * Removes all recorded durations.
+	 */
+	public void reset() {
+		for (LatencyHistogram histogram : phases) {
+			histogram.reset();
+		}
+
+		preTickListeners.clear();
+		postTickListeners.clear();
+	}
+
+	/**
+	 * @return
+	 * 		one line per phase with the p50, p99 and max durations in
+	 * 		milliseconds.
+	 */
+	public String[] getSummary() {
+		Phase[] values = Phase.values();
+		String[] lines = new String[values.length];
+		for (int i = 0; i < values.length; i++) {
+			lines[i] = String.format("%-13s p50 %6.3f  p99 %6.3f  max %6.3f ms", values[i],
+					getP50(values[i]) / 1E6, getP99(values[i]) / 1E6, getMax(values[i]) / 1E6);
+		}
+
+		return lines;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("TickProfiler");
+		for (String line : getSummary()) {
+			sb.append("\n\t").append(line);
+		}
+
+		for (Map.Entry<TickListener, LatencyHistogram> entry : preTickListeners.entrySet()) {
+			appendListener(sb, "preTick", entry.getKey(), entry.getValue());
+		}
+
+		for (Map.Entry<TickListener, LatencyHistogram> entry : postTickListeners.entrySet()) {
+			appendListener(sb, "postTick", entry.getKey(), entry.getValue());
+		}
+
+		return sb.toString();
+	}
+
+	/**
+	 * Appends a line with the durations of a listener to the given builder.
+	 *
+	 * @param sb
+	 * 		the builder to append to.
+	 * @param method
+	 * 		the name of the method that was called.
+	 * @param listener
+	 * 		the listener.
+	 * @param histogram
+	 * 		the durations of the calls.
+	 */
+	private static void appendListener(StringBuilder sb, String method,
+			TickListener listener, LatencyHistogram histogram) {
+		sb.append(String.format("\n\t%s.%s p50 %6.3f  p99 %6.3f  max %6.3f ms",
+				listener.getClass().getSimpleName(), method,
+				histogram.getValueAtPercentile(50.0) / 1E6,
+				histogram.getValueAtPercentile(99.0) / 1E6,
+				histogram.getMax() / 1E6));
+	}
+}
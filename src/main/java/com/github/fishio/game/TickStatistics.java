@@ -0,0 +1,111 @@
+package com.github.fishio.game;
+
+/**
+ * Keeps track of how long the ticks of a {@link GameThread} take, and how
+ * often they take longer than the time available for one tick.<br>
+ * <br>
+ * The statistics are only updated by the game thread, but can be read by
+ * any thread.
+ */
+public class TickStatistics {
+	private volatile long ticks;
+	private volatile long overruns;
+	private volatile long droppedTicks;
+	private volatile long totalNanos;
+	private volatile long maxNanos;
+
+	/**
+	 * Records a single tick.
+	 *
+	 * @param durationNanos
+	 * 		the duration of the tick in nanoseconds.
+	 * @param budgetNanos
+	 * 		the time available for one tick in nanoseconds.
+	 */
+	public void recordTick(long durationNanos, long budgetNanos) {
+		ticks++;
+		totalNanos += durationNanos;
+		if (durationNanos > maxNanos) {
+			maxNanos = durationNanos;
+		}
+
+		if (durationNanos > budgetNanos) {
+			overruns++;
+		}
+	}
+
+	/**
+	 * Records ticks that were skipped because the game thread fell too
+	 * far behind to catch up.
+	 *
+	 * @param amount
+	 * 		the amount of skipped ticks.
+	 */
+	public void recordDropped(long amount) {
+		droppedTicks += amount;
+	}
+
+	/**
+	 * @return
+	 * 		the amount of ticks that have been run.
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * @return
+	 * 		the amount of ticks that took longer than the time available
+	 * 		for one tick.
+	 */
+	public long getOverruns() {
+		return overruns;
+	}
+
+	/**
+	 * @return
+	 * 		the amount of ticks that were skipped.
+	 */
+	public long getDroppedTicks() {
+		return droppedTicks;
+	}
+
+	/**
+	 * @return
+	 * 		the duration of the longest tick in nanoseconds.
+	 */
+	public long getMaxNanos() {
+		return maxNanos;
+	}
+
+	/**
+	 * @return
+	 * 		the average duration of a tick in nanoseconds, or 0 if no ticks
+	 * 		have been run.
+	 */
+	public double getAverageNanos() {
+		long t = ticks;
+		if (t == 0) {
+			return 0.0;
+		}
+
+		return (double) totalNanos / t;
+	}
+
+	/**
+	 * Resets all statistics to 0.
+	 */
+	public void reset() {
+		ticks = 0;
+		overruns = 0;
+		droppedTicks = 0;
+		totalNanos = 0;
+		maxNanos = 0;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("TickStatistics [ticks: %d, overruns: %d, dropped: %d, avg: %.3f ms, max: %.3f ms]",
+				ticks, overruns, droppedTicks, getAverageNanos() / 1E6, maxNanos / 1E6);
+	}
+}
@@ -0,0 +1,117 @@
+package com.github.fishio.gui;
+
+/**
+ * Keeps track of how long the frames of a {@link Renderer} take to draw,
+ * and how many frames per second are drawn.<br>
+ * <br>
+ * The statistics are only updated by the JavaFX application thread, but
+ * can be read by any thread.
+ */
+public class FrameStatistics {
+	private volatile long frames;
+	private volatile long skippedPulses;
+	private volatile long totalNanos;
+	private volatile long maxNanos;
+	private volatile long firstFrame;
+	private volatile long lastFrame;
+
+	/**
+	 * Records a single frame.
+	 *
+	 * @param now
+	 * 		the time of the pulse the frame was drawn in, in nanoseconds.
+	 * @param durationNanos
+	 * 		the time it took to draw the frame in nanoseconds.
+	 */
+	public void recordFrame(long now, long durationNanos) {
+		if (frames == 0) {
+			firstFrame = now;
+		}
+
+		frames++;
+		lastFrame = now;
+		totalNanos += durationNanos;
+		if (durationNanos > maxNanos) {
+			maxNanos = durationNanos;
+		}
+	}
+
+	/**
+	 * Records a pulse in which no frame was drawn, because of the frame
+	 * rate cap or because the game did not change.
+	 */
+	public void recordSkipped() {
+		skippedPulses++;
+	}
+
+	/**
+	 * @return
+	 * 		the amount of frames that have been drawn.
+	 */
+	public long getFrames() {
+		return frames;
+	}
+
+	/**
+	 * @return
+	 * 		the amount of pulses in which no frame was drawn.
+	 */
+	public long getSkippedPulses() {
+		return skippedPulses;
+	}
+
+	/**
+	 * @return
+	 * 		the time it took to draw the slowest frame in nanoseconds.
+	 */
+	public long getMaxNanos() {
+		return maxNanos;
+	}
+
+	/**
+	 * @return
+	 * 		the average time it took to draw a frame in nanoseconds, or 0 if
+	 * 		no frames have been drawn.
+	 */
+	public double getAverageNanos() {
+		long f = frames;
+		if (f == 0) {
+			return 0.0;
+		}
+
+		return (double) totalNanos / f;
+	}
+
+	/**
+	 * @return
+	 * 		the average amount of frames drawn per second, or 0 if less than
+	 * 		two frames have been drawn.
+	 */
+	public double getFramesPerSecond() {
+		long f = frames;
+		long duration = lastFrame - firstFrame;
+		if (f < 2 || duration <= 0) {
+			return 0.0;
+		}
+
+		return (f - 1) * 1E9 / duration;
+	}
+
+	/**
+	 * Resets all statistics to 0.
+	 */
+	public void reset() {
+		frames = 0;
+		skippedPulses = 0;
+		totalNanos = 0;
+		maxNanos = 0;
+		firstFrame = 0;
+		lastFrame = 0;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("FrameStatistics [frames: %d, skipped: %d, fps: %.1f, avg: %.3f ms, max: %.3f ms]",
+				frames, skippedPulses, getFramesPerSecond(), getAverageNanos() / 1E6, maxNanos / 1E6);
+	}
+}
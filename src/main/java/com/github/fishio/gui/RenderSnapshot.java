@@ -0,0 +1,188 @@
+package com.github.fishio.gui;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import com.github.fishio.IDrawable;
+import com.github.fishio.IntHashMap;
+import com.github.fishio.game.GameThread;
+
+/**
+ * An immutable snapshot of everything the {@link Renderer} draws, taken by
+ * the game thread at the end of a tick.<br>
+ * <br>
+ * The renderer draws the world between the previous and the newest
+ * snapshot, instead of reading the entities while the game thread is
+ * changing them. Every snapshot keeps the snapshot before it, so the
+ * game thread only has to publish a single reference. The previous
+ * snapshot does not keep its own previous snapshot, so at most two
+ * snapshots are reachable.
+ */
+public final class RenderSnapshot {
+	/**
+	 * Snapshots that are more than this many ticks apart (e.g. because the
+	 * game was paused) are not interpolated.
+	 */
+	public static final int MAX_INTERPOLATION_TICKS = 4;
+
+	private final long nanoTime;
+	private final RenderState[] states;
+	private final IntHashMap<RenderState> entities;
+	private final double viewX;
+	private final double viewY;
+	private final RenderSnapshot previous;
+
+	/**
+	 * Creates a new RenderSnapshot.
+	 *
+	 * @param nanoTime
+	 * 		the time the snapshot was taken, from {@link System#nanoTime()}.
+	 * @param states
+	 * 		the states, in the order they should be drawn.
+	 * @param entities
+	 * 		the states of entities by entity id.
+	 * @param viewX
+	 * 		the x coordinate of the center of the view.
+	 * @param viewY
+	 * 		the y coordinate of the center of the view.
+	 * @param previous
+	 * 		the previous snapshot, or <code>null</code>.
+	 */
+	private RenderSnapshot(long nanoTime, RenderState[] states, IntHashMap<RenderState> entities,
+			double viewX, double viewY, RenderSnapshot previous) {
+		this.nanoTime = nanoTime;
+		this.states = states;
+		this.entities = entities;
+		this.viewX = viewX;
+		this.viewY = viewY;
+		this.previous = previous;
+	}
+
+	/**
+	 * Captures the state of the given drawables. Only entities are
+	 * captured, see {@link RenderState#capture(IDrawable)}.
+	 *
+	 * @param drawables
+	 * 		an iterator over the drawables, in the order they should be
+	 * 		drawn.
+	 * @param viewX
+	 * 		the x coordinate of the center of the view.
+	 * @param viewY
+	 * 		the y coordinate of the center of the view.
+	 * @param nanoTime
+	 * 		the current time, from {@link System#nanoTime()}.
+	 * @param previous
+	 * 		the last published snapshot, or <code>null</code>.
+	 *
+	 * @return
+	 * 		the new snapshot.
+	 */
+	public static RenderSnapshot capture(Iterator<IDrawable> drawables, double viewX, double viewY,
+			long nanoTime, RenderSnapshot previous) {
+		List<RenderState> list = new ArrayList<>();
+		IntHashMap<RenderState> entities = new IntHashMap<>();
+		while (drawables.hasNext()) {
+			RenderState state = RenderState.capture(drawables.next());
+			if (state == null) {
+				continue;
+			}
+
+			list.add(state);
+			entities.put(state.getEntityId(), state);
+		}
+
+		RenderSnapshot last = null;
+		if (previous != null) {
+			last = new RenderSnapshot(previous.nanoTime, previous.states, previous.entities,
+					previous.viewX, previous.viewY, null);
+		}
+
+		return new RenderSnapshot(nanoTime, list.toArray(new RenderState[list.size()]), entities,
+				viewX, viewY, last);
+	}
+
+	/**
+	 * @param now
+	 * 		the current time, from {@link System#nanoTime()}.
+	 *
+	 * @return
+	 * 		how far to interpolate from the previous snapshot to this one,
+	 * 		from 0 to 1. This is 1 if there is no previous snapshot to
+	 * 		interpolate from.
+	 */
+	public double getAlpha(long now) {
+		if (previous == null || nanoTime - previous.nanoTime > MAX_INTERPOLATION_TICKS * GameThread.TICK_NANOS) {
+			return 1;
+		}
+
+		double alpha = (double) (now - nanoTime) / GameThread.TICK_NANOS;
+		return Math.max(0, Math.min(1, alpha));
+	}
+
+	/**
+	 * @param alpha
+	 * 		how far to interpolate from the previous snapshot.
+	 *
+	 * @return
+	 * 		the interpolated x coordinate of the center of the view.
+	 */
+	public double getViewX(double alpha) {
+		return previous == null ? viewX : RenderState.lerp(previous.viewX, viewX, alpha);
+	}
+
+	/**
+	 * @param alpha
+	 * 		how far to interpolate from the previous snapshot.
+	 *
+	 * @return
+	 * 		the interpolated y coordinate of the center of the view.
+	 */
+	public double getViewY(double alpha) {
+		return previous == null ? viewY : RenderState.lerp(previous.viewY, viewY, alpha);
+	}
+
+	/**
+	 * @param index
+	 * 		the index of the state.
+	 * @param alpha
+	 * 		how far to interpolate from the previous snapshot.
+	 *
+	 * @return
+	 * 		the state at the given index, interpolated from the state of
+	 * 		the same entity in the previous snapshot.
+	 */
+	public RenderState getState(int index, double alpha) {
+		RenderState state = states[index];
+		if (previous == null || alpha >= 1) {
+			return state;
+		}
+
+		return state.interpolate(previous.entities.get(state.getEntityId()), alpha);
+	}
+
+	/**
+	 * @return
+	 * 		the amount of states in this snapshot.
+	 */
+	public int size() {
+		return states.length;
+	}
+
+	/**
+	 * @return
+	 * 		the time this snapshot was taken, from {@link System#nanoTime()}.
+	 */
+	public long getNanoTime() {
+		return nanoTime;
+	}
+
+	/**
+	 * @return
+	 * 		the snapshot before this one, or <code>null</code> if there is
+	 * 		none.
+	 */
+	public RenderSnapshot getPrevious() {
+		return previous;
+	}
+}
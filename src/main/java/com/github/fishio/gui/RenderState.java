@@ -0,0 +1,281 @@
+package com.github.fishio.gui;
+
+import com.github.fishio.Entity;
+import com.github.fishio.ICollisionArea;
+import com.github.fishio.IDrawable;
+import com.github.fishio.IOrientedBox;
+import com.github.fishio.Vec2d;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+
+/**
+ * The immutable state of a single entity in a {@link RenderSnapshot}:
+ * its sprite, position, size and rotation.<br>
+ * <br>
+ * A RenderState is also the box it is drawn in, so it can be passed to
+ * {@link IDrawable#drawRotatedImage(GraphicsContext, Image, IOrientedBox)
+ * drawRotatedImage}.
+ */
+public final class RenderState implements IOrientedBox {
+	/**
+	 * States that moved further than this many pixels in one tick are not
+	 * interpolated, they jumped (e.g. a respawned player).
+	 */
+	public static final double MAX_INTERPOLATION_DISTANCE = 100;
+
+	private final IDrawable drawable;
+	private final int entityId;
+	private final Image sprite;
+	private final double x;
+	private final double y;
+	private final double width;
+	private final double height;
+	private final double rotation;
+	private final double size;
+
+	/**
+	 * Creates a new RenderState.
+	 *
+	 * @param drawable
+	 * 		the drawable this is the state of.
+	 * @param entityId
+	 * 		the entity id of the drawable.
+	 * @param sprite
+	 * 		the sprite to draw, or <code>null</code> to draw a red box.
+	 * @param x
+	 * 		the x coordinate of the center.
+	 * @param y
+	 * 		the y coordinate of the center.
+	 * @param width
+	 * 		the width.
+	 * @param height
+	 * 		the height.
+	 * @param rotation
+	 * 		the rotation in degrees.
+	 * @param size
+	 * 		the size, as shown when debug drawing.
+	 */
+	RenderState(IDrawable drawable, int entityId, Image sprite, double x, double y,
+			double width, double height, double rotation, double size) {
+		this.drawable = drawable;
+		this.entityId = entityId;
+		this.sprite = sprite;
+		this.x = x;
+		this.y = y;
+		this.width = width;
+		this.height = height;
+		this.rotation = rotation;
+		this.size = size;
+	}
+
+	/**
+	 * Captures the state of the given drawable. This should be done by the
+	 * game thread, at the end of a tick.<br>
+	 * <br>
+	 * The rotation of entities is updated to their current speed first,
+	 * like the render methods of the entities do. Drawables that are not
+	 * entities have no state that can be captured, and would have to be
+	 * rendered while the game thread changes them, so they are left out.
+	 *
+	 * @param drawable
+	 * 		the drawable.
+	 *
+	 * @return
+	 * 		the state of the drawable, or <code>null</code> if it is not an
+	 * 		entity or if it is a dead entity that should not be drawn.
+	 */
+	public static RenderState capture(IDrawable drawable) {
+		if (!(drawable instanceof Entity)) {
+			return null;
+		}
+
+		Entity entity = (Entity) drawable;
+		if (entity.isDead()) {
+			return null;
+		}
+
+		ICollisionArea area = entity.getBoundingArea();
+		if (entity.getBehaviour() != null) {
+			area.setRotation(entity.getBehaviour());
+		}
+
+		return new RenderState(drawable, entity.getEntityId(), drawable.getSprite(), area.getCenterX(),
+				area.getCenterY(), area.getWidth(), area.getHeight(), area.getRotation(), area.getSize());
+	}
+
+	/**
+	 * Interpolates between the given state and this state.
+	 *
+	 * @param previous
+	 * 		the state of the same drawable in the previous snapshot, or
+	 * 		<code>null</code> if it was not in the previous snapshot.
+	 * @param alpha
+	 * 		how far to go from the previous state to this state, from 0 to
+	 * 		1.
+	 *
+	 * @return
+	 * 		the interpolated state, with the sprite of this state. If the
+	 * 		states cannot be interpolated, this state is returned.
+	 */
+	public RenderState interpolate(RenderState previous, double alpha) {
+		if (previous == null || alpha >= 1) {
+			return this;
+		}
+
+		double dx = x - previous.x;
+		double dy = y - previous.y;
+		if (dx * dx + dy * dy > MAX_INTERPOLATION_DISTANCE * MAX_INTERPOLATION_DISTANCE) {
+			return this;
+		}
+
+		double a = Math.max(0, alpha);
+		return new RenderState(drawable, entityId, sprite,
+				previous.x + dx * a,
+				previous.y + dy * a,
+				lerp(previous.width, width, a),
+				lerp(previous.height, height, a),
+				lerpAngle(previous.rotation, rotation, a),
+				lerp(previous.size, size, a));
+	}
+
+	/**
+	 * @param from
+	 * 		the value at 0.
+	 * @param to
+	 * 		the value at 1.
+	 * @param alpha
+	 * 		where to interpolate.
+	 *
+	 * @return
+	 * 		the linearly interpolated value.
+	 */
+	static double lerp(double from, double to, double alpha) {
+		return from + (to - from) * alpha;
+	}
+
+	/**
+	 * @param from
+	 * 		the angle at 0, in degrees.
+	 * @param to
+	 * 		the angle at 1, in degrees.
+	 * @param alpha
+	 * 		where to interpolate.
+	 *
+	 * @return
+	 * 		the angle interpolated the shortest way around, between 0
+	 * 		(inclusive) and 360 (exclusive).
+	 */
+	static double lerpAngle(double from, double to, double alpha) {
+		double delta = ((to - from) % 360 + 540) % 360 - 180;
+		double res = (from + delta * alpha) % 360;
+		return res < 0 ? res + 360 : res;
+	}
+
+	/**
+	 * Draws this state with its sprite, or as a red box if it does not
+	 * have one.
+	 *
+	 * @param gc
+	 * 		the GraphicsContext to draw on.
+	 */
+	public void render(GraphicsContext gc) {
+		if (sprite != null) {
+			drawable.drawRotatedImage(gc, sprite, this);
+		} else {
+			gc.setFill(Color.RED);
+			gc.fillRect(x - 0.5 * width, y - 0.5 * height, width, height);
+		}
+	}
+
+	/**
+	 * @return
+	 * 		the drawable this is the state of.
+	 */
+	public IDrawable getDrawable() {
+		return drawable;
+	}
+
+	/**
+	 * @return
+	 * 		the entity id of the drawable.
+	 */
+	public int getEntityId() {
+		return entityId;
+	}
+
+	/**
+	 * @return
+	 * 		the sprite to draw, or <code>null</code> if there is none.
+	 */
+	public Image getSprite() {
+		return sprite;
+	}
+
+	@Override
+	public Vec2d getTopLeft() {
+		return corner(-1, -1);
+	}
+
+	@Override
+	public Vec2d getTopRight() {
+		return corner(1, -1);
+	}
+
+	@Override
+	public Vec2d getBottomLeft() {
+		return corner(-1, 1);
+	}
+
+	@Override
+	public Vec2d getBottomRight() {
+		return corner(1, 1);
+	}
+
+	/**
+	 * @param sx
+	 * 		-1 for the left side, 1 for the right side.
+	 * @param sy
+	 * 		-1 for the top side, 1 for the bottom side.
+	 *
+	 * @return
+	 * 		the rotated corner.
+	 */
+	private Vec2d corner(int sx, int sy) {
+		double a = Math.toRadians(rotation);
+		double hw = 0.5 * width * sx;
+		double hh = 0.5 * height * sy;
+		return new Vec2d(x + hw * Math.cos(a) - hh * Math.sin(a), y + hw * Math.sin(a) + hh * Math.cos(a));
+	}
+
+	@Override
+	public double getCenterX() {
+		return x;
+	}
+
+	@Override
+	public double getCenterY() {
+		return y;
+	}
+
+	@Override
+	public double getWidth() {
+		return width;
+	}
+
+	@Override
+	public double getHeight() {
+		return height;
+	}
+
+	@Override
+	public double getSize() {
+		return size;
+	}
+
+	@Override
+	public double getRotation() {
+		return rotation;
+	}
+}
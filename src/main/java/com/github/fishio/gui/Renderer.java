@@ -1,13 +1,19 @@
 package com.github.fishio.gui;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import com.github.fishio.BoundingBox;
 import com.github.fishio.FishIO;
+import com.github.fishio.ICollidable;
+import com.github.fishio.ICollisionArea;
 import com.github.fishio.IDrawable;
+import com.github.fishio.IOrientedBox;
 import com.github.fishio.PlayingField;
 import com.github.fishio.Vec2d;
+import com.github.fishio.game.GameThread;
+import com.github.fishio.game.TickProfiler;
 import com.github.fishio.listeners.Listenable;
 import com.github.fishio.listeners.TickListener;
 import com.github.fishio.logging.Log;
@@ -15,6 +21,7 @@ import com.github.fishio.logging.LogLevel;
 import com.github.fishio.settings.Settings;
 
 import javafx.animation.Animation.Status;
+import javafx.animation.AnimationTimer;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.beans.binding.Bindings;
@@ -25,24 +32,77 @@ import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 
 /**
- * Class that renders a game.
+ * Class that renders a game.<br>
+ * <br>
+ * Drawables that have a bounding area outside of the view are not
+ * rendered, unless the VIEW_CULLING setting is disabled.<br>
+ * <br>
+ * If the PULSE_RENDERING setting is enabled, frames are drawn by an
+ * {@link AnimationTimer}, in the pulses of JavaFX. A frame is only drawn
+ * if the game has ticked since the last frame, and the fps is used as a
+ * cap (0 for no cap). Otherwise, frames are drawn by a {@link Timeline}
+ * at the fps.<br>
+ * <br>
+ * If the RENDER_INTERPOLATION setting is enabled, the game thread
+ * publishes a {@link RenderSnapshot} at the end of every tick. While the
+ * game is running, frames are drawn from the latest snapshots,
+ * interpolated to the time of the frame, instead of from the entities
+ * themselves. Frames are then drawn in every pulse.
  */
 public class Renderer implements Listenable {
+	/**
+	 * Drawables that are at most this many pixels outside the view are
+	 * still rendered, so that the debug text above them does not pop in.
+	 */
+	public static final double CULL_MARGIN = 32;
+	
+	/**
+	 * When the fps is capped, pulses that come at most this many
+	 * nanoseconds too early are still used to draw a frame, so that small
+	 * differences in the timing of pulses do not halve the framerate.
+	 */
+	public static final long FRAME_TOLERANCE_NANOS = 2000000L;
+	
+	/**
+	 * The minimum time between two updates of the text of the profiler
+	 * overlay, in nanoseconds. Formatting the text in every frame would
+	 * cost more than drawing it, and it cannot be read that fast anyway.
+	 */
+	public static final long PROFILER_REFRESH_NANOS = 250000000L;
+	
+	private static final long NO_TICK = -1L;
+	
 	private Settings settings = Settings.getInstance();
 	private BoundingBox view = new BoundingBox(new Vec2d(0, 0), 0, 0);
 	
 	private ConcurrentLinkedQueue<TickListener> listeners = new ConcurrentLinkedQueue<>();
 	private Canvas canvas;
 	private Timeline renderThread;
+	private int renderThreadFps;
+	private AnimationTimer pulseTimer;
+	private boolean pulseRendering;
+	private long frameInterval;
+	private long lastFrame;
+	private long lastTick;
+	private boolean drawnSinceStart;
+	private final FrameStatistics frameStatistics = new FrameStatistics();
 	private SimpleIntegerProperty fps = new SimpleIntegerProperty();
 	private PlayingField playingField;
 	private Image background;
 	private int yBorder;
 	private Vec2d insets;
+	private Font profilerFont;
+	private String[] profilerLines;
+	private long profilerLinesTime;
+	private int drawnCount;
+	private int culledCount;
+	private volatile RenderSnapshot snapshot;
 	
 	/**
 	 * Create a new Renderer for the given PlayingField.
@@ -65,8 +125,10 @@ public class Renderer implements Listenable {
 		
 		this.yBorder = yBorder;
 		this.fps.set(fps);
+		this.frameInterval = getFrameInterval(fps);
 		this.playingField = playingField;
 		this.renderThread = newRenderThread(fps);
+		this.renderThreadFps = fps;
 		
 		registerFpsListener();
 	}
@@ -76,24 +138,34 @@ public class Renderer implements Listenable {
 	 */
 	protected final void registerFpsListener() {
 		fps.addListener((observable, oldValue, newValue) -> {
-			Log.getLogger().log(LogLevel.TRACE, "[Renderer] Changing framerate...");
+			int newFps = newValue.intValue();
+			frameInterval = getFrameInterval(newFps);
 			
-			//If the framerate changes, we need to switch out the old render thread with the new one.
-			Timeline newRenderThread = newRenderThread(newValue.intValue());
-
-			//If render thread was running, start the new one and stop the old one.
-			if (isRendering()) {
-				newRenderThread.play();
-				stopRendering();
-				Log.getLogger().log(LogLevel.INFO, "[Renderer] Restarted renderer.");
+			//Speed up or slow down the render thread instead of replacing it.
+			if (newFps > 0 && renderThreadFps > 0) {
+				renderThread.setRate((double) newFps / renderThreadFps);
 			}
 			
-			this.renderThread = newRenderThread;
-			
-			Log.getLogger().log(LogLevel.INFO, "[Renderer] Changed framerate to: " + newValue.intValue() + " FPS.");
+			Log.getLogger().log(LogLevel.INFO, "[Renderer] Changed framerate to: " + newFps + " FPS.");
 		});
 	}
 	
+	/**
+	 * @param fps
+	 * 		a framerate in frames per second.
+	 * 
+	 * @return
+	 * 		the minimum time between two frames in nanoseconds, or 0 if the
+	 * 		framerate is not capped.
+	 */
+	static long getFrameInterval(int fps) {
+		if (fps <= 0) {
+			return 0L;
+		}
+		
+		return Math.round(1E9 / fps);
+	}
+	
 	/**
 	 * Create a new render thread.
 	 * 
@@ -107,14 +179,9 @@ public class Renderer implements Listenable {
 		Duration dur = Duration.millis(1000.0 / fps);
 
 		KeyFrame frame = new KeyFrame(dur, event -> {
-			//Call listeners pretick
-			callPreTick("Renderer");
-
-			//Render all drawables
-			redraw();
-
-			//Call listeners posttick
-			callPostTick("Renderer");
+			long start = System.nanoTime();
+			renderFrame(start);
+			frameStatistics.recordFrame(start, System.nanoTime() - start);
 		});
 
 		Timeline tl = new Timeline(frame);
@@ -123,14 +190,101 @@ public class Renderer implements Listenable {
 		return tl;
 	}
 	
+	/**
+	 * Called by the pulse timer in every pulse. Draws a frame, unless the
+	 * fps cap has been reached or the game has not ticked since the last
+	 * frame.
+	 * 
+	 * @param now
+	 * 		the time of the pulse in nanoseconds.
+	 */
+	protected void pulse(long now) {
+		long interval = frameInterval;
+		if (drawnSinceStart && interval > 0 && now - lastFrame + FRAME_TOLERANCE_NANOS < interval) {
+			frameStatistics.recordSkipped();
+			return;
+		}
+		
+		//Nothing has changed if the game has not ticked, unless we interpolate.
+		long tick = getTick();
+		if (drawnSinceStart && tick != NO_TICK && tick == lastTick && getRenderSnapshot() == null) {
+			frameStatistics.recordSkipped();
+			return;
+		}
+		
+		drawnSinceStart = true;
+		lastFrame = now;
+		lastTick = tick;
+		
+		long start = System.nanoTime();
+		renderFrame(now);
+		frameStatistics.recordFrame(now, System.nanoTime() - start);
+	}
+	
+	/**
+	 * @return
+	 * 		the amount of ticks of the running game thread of the playing
+	 * 		field, or NO_TICK if the game thread is not running.
+	 */
+	private long getTick() {
+		GameThread gameThread = playingField.getGameThread();
+		if (gameThread == null || !gameThread.isRunning()) {
+			return NO_TICK;
+		}
+		
+		return gameThread.getTickStatistics().getTicks();
+	}
+	
+	/**
+	 * Draws a frame, and calls the listeners before and after.
+	 * 
+	 * @param now
+	 * 		the time of the frame in nanoseconds.
+	 */
+	private void renderFrame(long now) {
+		//Call listeners pretick
+		callPreTick("Renderer");
+
+		//Render all drawables
+		redraw(now);
+
+		//Call listeners posttick
+		callPostTick("Renderer");
+	}
+	
 	/**
 	 * Called to redraw the screen.
 	 */
 	public void redraw() {
+		redraw(System.nanoTime());
+	}
+	
+	/**
+	 * Called to redraw the screen, as it is at the given time.
+	 * 
+	 * @param now
+	 * 		the time in nanoseconds, from {@link System#nanoTime()}.
+	 */
+	public void redraw(long now) {
 		GraphicsContext gc = canvas.getGraphicsContext2D();
 		if (gc == null) {
 			return;
 		}
+		
+		if (settings.getBoolean("SPRITE_ATLAS")) {
+			SpriteAtlas.getInstance().nextFrame();
+		}
+
+		RenderSnapshot current = getRenderSnapshot();
+		double alpha = 1;
+		double minX = view.getMinX();
+		double minY = view.getMinY();
+		if (current != null) {
+			alpha = current.getAlpha(now);
+			minX = current.getViewX(alpha) - 0.5 * view.getWidth();
+			minY = current.getViewY(alpha) - 0.5 * view.getHeight();
+		}
+		
 		//Clear screen
 		gc.clearRect(0, 0, view.getWidth(), view.getHeight());
 		gc.save();
@@ -139,22 +293,278 @@ public class Renderer implements Listenable {
 		gc.scale(Math.max(1, view.getWidth() / playingField.getWidth()), 
 				 Math.max(1, view.getHeight() / playingField.getHeight()));
 		
-		gc.translate(-view.getMinX(), -view.getMinY());
+		gc.translate(-minX, -minY);
 		//draw background image
 		if (background != null) {
 			gc.drawImage(background, 0, 0,
 					playingField.getWidth(), playingField.getHeight());
 		}
 
-		//Render all drawables, in reverse order
+		if (current != null) {
+			drawSnapshot(gc, current, alpha, minX, minY);
+		} else {
+			drawDrawables(gc);
+		}
+		
+		gc.restore();
+		
+		drawProfiler(gc);
+	}
+	
+	/**
+	 * Renders all visible drawables of the playing field, in reverse
+	 * order.
+	 * 
+	 * @param gc
+	 * 		the GraphicsContext to draw with.
+	 */
+	private void drawDrawables(GraphicsContext gc) {
+		boolean culling = settings.getBoolean("VIEW_CULLING");
+		int drawn = 0;
+		int culled = 0;
 		Iterator<IDrawable> it = playingField.getDrawables().descendingIterator();
 		while (it.hasNext()) {
-			it.next().render(gc);
+			IDrawable drawable = it.next();
+			if (culling && !isVisible(drawable)) {
+				culled++;
+				continue;
+			}
+			
+			drawable.render(gc);
+			drawn++;
+		}
+		drawnCount = drawn;
+		culledCount = culled;
+	}
+	
+	/**
+	 * Draws all visible states of the given snapshot, interpolated from
+	 * the previous snapshot.
+	 * 
+	 * @param gc
+	 * 		the GraphicsContext to draw with.
+	 * @param current
+	 * 		the snapshot to draw.
+	 * @param alpha
+	 * 		how far to interpolate from the previous snapshot.
+	 * @param minX
+	 * 		the left side of the view.
+	 * @param minY
+	 * 		the top side of the view.
+	 */
+	private void drawSnapshot(GraphicsContext gc, RenderSnapshot current, double alpha, double minX, double minY) {
+		boolean culling = settings.getBoolean("VIEW_CULLING");
+		double maxX = minX + view.getWidth();
+		double maxY = minY + view.getHeight();
+		int drawn = 0;
+		int culled = 0;
+		for (int i = 0; i < current.size(); i++) {
+			RenderState state = current.getState(i, alpha);
+			if (culling && !isVisible(state, minX, minY, maxX, maxY)) {
+				culled++;
+				continue;
+			}
+			
+			state.render(gc);
+			drawn++;
+		}
+		drawnCount = drawn;
+		culledCount = culled;
+	}
+	
+	/**
+	 * Checks if the given drawable can be seen in the view. Drawables
+	 * without a bounding area are always visible.<br>
+	 * <br>
+	 * The axis aligned box around the (rotated) bounding area is used, so
+	 * this is cheap enough to do for every drawable in every frame.
+	 * 
+	 * @param drawable
+	 * 		the drawable to check.
+	 * 
+	 * @return
+	 * 		<code>true</code> if the drawable is (partly) within the view,
+	 * 		<code>false</code> otherwise.
+	 */
+	public boolean isVisible(IDrawable drawable) {
+		if (!(drawable instanceof ICollidable)) {
+			return true;
+		}
+		
+		ICollisionArea area = ((ICollidable) drawable).getBoundingArea();
+		if (area == null) {
+			return true;
+		}
+		
+		return isVisible(area, view.getMinX(), view.getMinY(), view.getMaxX(), view.getMaxY());
+	}
+	
+	/**
+	 * Checks if the axis aligned box around the given area is within the
+	 * given view, with a margin of {@link #CULL_MARGIN}.
+	 * 
+	 * @param area
+	 * 		the area to check.
+	 * @param minX
+	 * 		the left side of the view.
+	 * @param minY
+	 * 		the top side of the view.
+	 * @param maxX
+	 * 		the right side of the view.
+	 * @param maxY
+	 * 		the bottom side of the view.
+	 * 
+	 * @return
+	 * 		<code>true</code> if the area is (partly) within the view,
+	 * 		<code>false</code> otherwise.
+	 */
+	static boolean isVisible(IOrientedBox area, double minX, double minY, double maxX, double maxY) {
+		double cx = area.getCenterX();
+		double cy = area.getCenterY();
+		double ex = area.getExtentX() + CULL_MARGIN;
+		double ey = area.getExtentY() + CULL_MARGIN;
+		return cx + ex >= minX && cx - ex <= maxX && cy + ey >= minY && cy - ey <= maxY;
+	}
+	
+	/**
+	 * @return
+	 * 		the amount of drawables rendered in the last frame.
+	 */
+	public int getDrawnCount() {
+		return drawnCount;
+	}
+	
+	/**
+	 * @return
+	 * 		the amount of drawables skipped in the last frame, because they
+	 * 		were outside the view.
+	 */
+	public int getCulledCount() {
+		return culledCount;
+	}
+	
+	/**
+	 * @return
+	 * 		the part of the playing field that is shown.
+	 */
+	public BoundingBox getView() {
+		return view;
+	}
+	
+	/**
+	 * Publishes a new snapshot to draw. This is called by the game thread
+	 * at the end of every tick.
+	 * 
+	 * @param snapshot
+	 * 		the new snapshot, which keeps the previous one.
+	 */
+	public void publishSnapshot(RenderSnapshot snapshot) {
+		this.snapshot = snapshot;
+	}
+	
+	/**
+	 * @return
+	 * 		the last published snapshot, or <code>null</code> if none has
+	 * 		been published.
+	 */
+	public RenderSnapshot getSnapshot() {
+		return snapshot;
+	}
+	
+	/**
+	 * @return
+	 * 		the snapshot to draw the next frame from, or <code>null</code> if
+	 * 		the drawables should be drawn directly. Snapshots are only used
+	 * 		while the game thread is running, when the game is stopped
+	 * 		nothing changes the drawables.
+	 */
+	private RenderSnapshot getRenderSnapshot() {
+		RenderSnapshot current = snapshot;
+		if (current == null || !settings.getBoolean("RENDER_INTERPOLATION")) {
+			return null;
+		}
+		
+		GameThread gameThread = playingField.getGameThread();
+		if (gameThread == null || !gameThread.isRunning()) {
+			return null;
+		}
+		
+		return current;
+	}
+	
+	/**
+	 * @return
+	 * 		the statistics of the frames drawn since rendering was last
+	 * 		started.
+	 */
+	public FrameStatistics getFrameStatistics() {
+		return frameStatistics;
+	}
+	
+	/**
+	 * Draws the durations of the phases of a game tick, the amount of
+	 * drawn and culled drawables and the frame times in the top left
+	 * corner, if the game thread of the playing field is being profiled.
+	 * 
+	 * @param gc
+	 * 		the GraphicsContext to draw with.
+	 */
+	protected void drawProfiler(GraphicsContext gc) {
+		GameThread gameThread = playingField.getGameThread();
+		if (gameThread == null) {
+			return;
+		}
+		
+		TickProfiler profiler = gameThread.getProfiler();
+		if (profiler == null) {
+			return;
+		}
+		
+		gc.save();
+		gc.setFill(Color.WHITE);
+		if (profilerFont == null) {
+			profilerFont = Font.font("Monospaced", 12);
+		}
+		gc.setFont(profilerFont);
+		
+		String[] lines = getProfilerLines(profiler, System.nanoTime());
+		for (int i = 0; i < lines.length; i++) {
+			gc.fillText(lines[i], 10, 20 + 14 * i);
 		}
 		
 		gc.restore();
 	}
 	
+	/**
+	 * Gets the lines of the profiler overlay. The lines are only formatted
+	 * again if they are older than {@value #PROFILER_REFRESH_NANOS}
+	 * nanoseconds.
+	 * 
+	 * @param profiler
+	 * 		the profiler of the game thread.
+	 * @param now
+	 * 		the current time in nanoseconds.
+	 * 
+	 * @return
+	 * 		the lines to draw.
+	 */
+	String[] getProfilerLines(TickProfiler profiler, long now) {
+		if (profilerLines != null && now - profilerLinesTime < PROFILER_REFRESH_NANOS) {
+			return profilerLines;
+		}
+		
+		String[] summary = profiler.getSummary();
+		String[] lines = Arrays.copyOf(summary, summary.length + 2);
+		lines[summary.length] = "Drawn: " + drawnCount + ", culled: " + culledCount;
+		lines[summary.length + 1] = String.format("Frames: %.1f fps, avg %.2f ms, max %.2f ms",
+				frameStatistics.getFramesPerSecond(), frameStatistics.getAverageNanos() / 1E6,
+				frameStatistics.getMaxNanos() / 1E6);
+		
+		profilerLines = lines;
+		profilerLinesTime = now;
+		return lines;
+	}
+	
 	/**
 	 * @return
 	 * 		the fps property.
@@ -174,7 +584,8 @@ public class Renderer implements Listenable {
 	/**
 	 * Set the framerate in frames per second to the given value.<br>
 	 * <br>
-	 * Note: This has to restart the render thread.
+	 * When rendering in the pulses, this is the maximum framerate, and 0
+	 * means no maximum.
 	 * 
 	 * @param fps
 	 * 		the new framerate in frames per second.
@@ -269,7 +680,23 @@ public class Renderer implements Listenable {
 		view.setWidth(widthProperty.doubleValue());
 		
 		
-		renderThread.play();
+		frameStatistics.reset();
+		if (settings.getBoolean("PULSE_RENDERING")) {
+			if (pulseTimer == null) {
+				pulseTimer = new AnimationTimer() {
+					@Override
+					public void handle(long now) {
+						pulse(now);
+					}
+				};
+			}
+			
+			drawnSinceStart = false;
+			pulseTimer.start();
+			pulseRendering = true;
+		} else {
+			renderThread.play();
+		}
 		Log.getLogger().log(LogLevel.TRACE, "[Renderer] Starting Renderer...");
 	}
 	
@@ -278,8 +705,16 @@ public class Renderer implements Listenable {
 	 * The game itself will be unaffected by this call.
 	 */
 	public void stopRendering() {
+		if (pulseTimer != null) {
+			pulseTimer.stop();
+		}
+		pulseRendering = false;
 		renderThread.stop();
+		
 		Log.getLogger().log(LogLevel.TRACE, "[Renderer] Stopping Renderer...");
+		if (frameStatistics.getFrames() > 0) {
+			Log.getLogger().log(LogLevel.DEBUG, "[Renderer] " + frameStatistics);
+		}
 	}
 	
 	/**
@@ -287,7 +722,7 @@ public class Renderer implements Listenable {
 	 * 		if the render thread is running or not.
 	 */
 	public boolean isRendering() {
-		return renderThread.getStatus() == Status.RUNNING;
+		return pulseRendering || renderThread.getStatus() == Status.RUNNING;
 	}
 	
 	/**
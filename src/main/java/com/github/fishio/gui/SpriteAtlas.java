@@ -0,0 +1,600 @@
+package com.github.fishio.gui;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.github.fishio.IOrientedBox;
+import com.github.fishio.IntHashMap;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.WritableImage;
+
+/**
+ * Render-side cache of rotated and scaled sprites.<br>
+ * <br>
+ * Drawing a rotated sprite normally needs a save, a transform and a
+ * restore of the GraphicsContext, and the full sprite is scaled on every
+ * draw. Instead, the SpriteAtlas renders every sprite once per
+ * (quantised) rotation and size, and packs these variants into a few
+ * large atlas pages. Drawing a sprite is then a single
+ * {@link GraphicsContext#drawImage(Image, double, double, double, double,
+ * double, double, double, double) drawImage} of a part of a page.<br>
+ * <br>
+ * Rotations are rounded to steps of {@value #ROTATION_STEP} degrees and
+ * sizes to whole pixels. When all pages are full, sprites that do not fit
+ * are drawn without the atlas. Clearing a page in the middle of a frame
+ * would throw away variants that were just drawn, so the oldest page is
+ * only cleared and reused at the start of a frame (see
+ * {@link #nextFrame()}), and at most once every
+ * {@value #RECYCLE_FRAMES} frames.<br>
+ * <br>
+ * The SpriteAtlas is not thread safe, it should only be used on the
+ * JavaFX application thread.
+ */
+public final class SpriteAtlas {
+	/**
+	 * The amount of degrees between two cached rotations.
+	 */
+	public static final int ROTATION_STEP = 5;
+
+	/**
+	 * The width and height of an atlas page.
+	 */
+	public static final int PAGE_SIZE = 1024;
+
+	/**
+	 * The maximum amount of atlas pages.
+	 */
+	public static final int MAX_PAGES = 4;
+
+	/**
+	 * Sprites that are larger than this (after rotating) are not cached.
+	 */
+	public static final int MAX_VARIANT_SIZE = 512;
+
+	/**
+	 * The minimum amount of frames between clearing two pages.
+	 */
+	public static final int RECYCLE_FRAMES = 60;
+
+	private static final int ROTATIONS = 360 / ROTATION_STEP;
+	private static final int SIZE_BITS = 10;
+	private static final int SIZE_MASK = (1 << SIZE_BITS) - 1;
+
+	private static final SpriteAtlas INSTANCE = new SpriteAtlas();
+
+	private final Map<Image, Source> sources = new WeakHashMap<>();
+	private final ArrayList<Page> pages = new ArrayList<>();
+	private int nextPage;
+	private boolean full;
+	private int framesSinceRecycle = RECYCLE_FRAMES;
+	private int[] buffer = new int[0];
+
+	private long hits;
+	private long misses;
+
+	private SpriteAtlas() { }
+
+	/**
+	 * @return
+	 * 		the SpriteAtlas instance.
+	 */
+	public static SpriteAtlas getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Draws the given image, rotated and scaled to the given collision
+	 * area, the same way as
+	 * {@link com.github.fishio.IDrawable#drawRotatedImage(GraphicsContext, Image, IOrientedBox)
+	 * drawRotatedImage} does.
+	 *
+	 * @param gc
+	 * 		the GraphicsContext to draw on.
+	 * @param image
+	 * 		the image to draw.
+	 * @param area
+	 * 		the area to draw the image in.
+	 *
+	 * @return
+	 * 		<code>true</code> if the image was drawn, <code>false</code> if
+	 * 		the image cannot be cached (because it is not loaded yet, or
+	 * 		too large) and has to be drawn in another way.
+	 */
+	public boolean draw(GraphicsContext gc, Image image, IOrientedBox area) {
+		int width = (int) Math.round(area.getWidth());
+		int height = (int) Math.round(area.getHeight());
+		if (width <= 0 || height <= 0 || width > MAX_VARIANT_SIZE || height > MAX_VARIANT_SIZE) {
+			return false;
+		}
+
+		int rotation = quantiseRotation(area.getRotation());
+		int vw = getRotatedWidth(width, height, rotation);
+		int vh = getRotatedHeight(width, height, rotation);
+		if (vw > MAX_VARIANT_SIZE || vh > MAX_VARIANT_SIZE) {
+			return false;
+		}
+
+		Source source = getSource(image);
+		if (source == null) {
+			return false;
+		}
+
+		int key = getKey(rotation, width, height, area.isReversed());
+		Variant variant = source.variants.get(key);
+		if (variant == null) {
+			misses++;
+			variant = createVariant(source, key, rotation, width, height, area.isReversed(), vw, vh);
+			if (variant == null) {
+				return false;
+			}
+		} else {
+			hits++;
+		}
+
+		gc.drawImage(variant.page.image, variant.x, variant.y, vw, vh,
+				area.getCenterX() - 0.5 * vw, area.getCenterY() - 0.5 * vh, vw, vh);
+		return true;
+	}
+
+	/**
+	 * @param image
+	 * 		the image.
+	 *
+	 * @return
+	 * 		the pixels of the given image, or <code>null</code> if the image
+	 * 		is not (successfully) loaded.
+	 */
+	private Source getSource(Image image) {
+		Source source = sources.get(image);
+		if (source != null) {
+			return source;
+		}
+
+		if (image.isError() || image.getProgress() < 1.0) {
+			return null;
+		}
+
+		PixelReader reader = image.getPixelReader();
+		int w = (int) image.getWidth();
+		int h = (int) image.getHeight();
+		if (reader == null || w <= 0 || h <= 0) {
+			return null;
+		}
+
+		int[] pixels = new int[w * h];
+		reader.getPixels(0, 0, w, h, PixelFormat.getIntArgbPreInstance(), pixels, 0, w);
+
+		source = new Source(pixels, w, h);
+		sources.put(image, source);
+		return source;
+	}
+
+	/**
+	 * Renders a new variant of the given source, and stores it in a page.
+	 *
+	 * @param source
+	 * 		the source to render.
+	 * @param key
+	 * 		the key of the variant.
+	 * @param rotation
+	 * 		the quantised rotation in degrees.
+	 * @param width
+	 * 		the width of the sprite before rotating.
+	 * @param height
+	 * 		the height of the sprite before rotating.
+	 * @param reversed
+	 * 		if the sprite is flipped vertically.
+	 * @param vw
+	 * 		the width of the variant.
+	 * @param vh
+	 * 		the height of the variant.
+	 *
+	 * @return
+	 * 		the new variant, or <code>null</code> if all pages are full.
+	 */
+	private Variant createVariant(Source source, int key, int rotation, int width, int height,
+			boolean reversed, int vw, int vh) {
+		//Keep a transparent border, so that smoothing never samples a neighbouring variant.
+		int bw = vw + 2;
+		int bh = vh + 2;
+		if (buffer.length < bw * bh) {
+			buffer = new int[bw * bh];
+		}
+
+		Page page = allocate(bw, bh);
+		if (page == null) {
+			return null;
+		}
+
+		render(source.pixels, source.width, source.height, rotation, width, height, reversed, buffer, bw, bh);
+		page.image.getPixelWriter().setPixels(page.lastX, page.lastY, bw, bh,
+				PixelFormat.getIntArgbPreInstance(), buffer, 0, bw);
+
+		Variant variant = new Variant(source, key, page, page.lastX + 1, page.lastY + 1);
+		page.variants.add(variant);
+		source.variants.put(key, variant);
+		return variant;
+	}
+
+	/**
+	 * Finds room for a rectangle of the given size in one of the pages,
+	 * or in a new page if there are less than {@value #MAX_PAGES}.
+	 *
+	 * @param w
+	 * 		the width of the rectangle.
+	 * @param h
+	 * 		the height of the rectangle.
+	 *
+	 * @return
+	 * 		the page with room for the rectangle, or <code>null</code> if
+	 * 		all pages are full. The position is stored in
+	 * 		{@link Page#lastX} and {@link Page#lastY}.
+	 */
+	private Page allocate(int w, int h) {
+		for (Page page : pages) {
+			if (page.allocate(w, h)) {
+				return page;
+			}
+		}
+
+		if (pages.size() >= MAX_PAGES) {
+			full = true;
+			return null;
+		}
+
+		Page page = new Page(new WritableImage(PAGE_SIZE, PAGE_SIZE));
+		pages.add(page);
+		page.allocate(w, h);
+		return page;
+	}
+
+	/**
+	 * Called by the renderer before it draws a frame. If a sprite did not
+	 * fit in the atlas since the last time a page was cleared, and that
+	 * was at least {@value #RECYCLE_FRAMES} frames ago, the oldest page is
+	 * cleared so that it can be reused.
+	 */
+	public void nextFrame() {
+		if (framesSinceRecycle < RECYCLE_FRAMES) {
+			framesSinceRecycle++;
+		}
+
+		if (!full || framesSinceRecycle < RECYCLE_FRAMES) {
+			return;
+		}
+
+		pages.get(nextPage).clear();
+		nextPage = (nextPage + 1) % MAX_PAGES;
+		full = false;
+		framesSinceRecycle = 0;
+	}
+
+	/**
+	 * Removes all cached variants, and resets the hit and miss counts.
+	 */
+	public void clear() {
+		for (Page page : pages) {
+			page.clear();
+		}
+		pages.clear();
+		sources.clear();
+		nextPage = 0;
+		full = false;
+		framesSinceRecycle = RECYCLE_FRAMES;
+		hits = 0;
+		misses = 0;
+	}
+
+	/**
+	 * @return
+	 * 		the amount of draws that used an existing variant.
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return
+	 * 		the amount of draws that had to create a new variant.
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return
+	 * 		the amount of atlas pages in use.
+	 */
+	public int getPageCount() {
+		return pages.size();
+	}
+
+	/**
+	 * @param rotation
+	 * 		a rotation in degrees.
+	 *
+	 * @return
+	 * 		the rotation rounded to a multiple of {@value #ROTATION_STEP},
+	 * 		between 0 (inclusive) and 360 (exclusive).
+	 */
+	static int quantiseRotation(double rotation) {
+		int step = (int) Math.round(rotation / ROTATION_STEP) % ROTATIONS;
+		if (step < 0) {
+			step += ROTATIONS;
+		}
+
+		return step * ROTATION_STEP;
+	}
+
+	/**
+	 * @param rotation
+	 * 		the quantised rotation in degrees.
+	 * @param width
+	 * 		the width in pixels, at most {@value #MAX_VARIANT_SIZE}.
+	 * @param height
+	 * 		the height in pixels, at most {@value #MAX_VARIANT_SIZE}.
+	 * @param reversed
+	 * 		if the sprite is flipped vertically.
+	 *
+	 * @return
+	 * 		a key that is unique for the given variant of a sprite.
+	 */
+	static int getKey(int rotation, int width, int height, boolean reversed) {
+		int key = rotation / ROTATION_STEP;
+		key = (key << SIZE_BITS) | (width & SIZE_MASK);
+		key = (key << SIZE_BITS) | (height & SIZE_MASK);
+		return (key << 1) | (reversed ? 1 : 0);
+	}
+
+	/**
+	 * @param width
+	 * 		the width before rotating.
+	 * @param height
+	 * 		the height before rotating.
+	 * @param rotation
+	 * 		the rotation in degrees.
+	 *
+	 * @return
+	 * 		the width of the axis aligned box around the rotated rectangle.
+	 */
+	static int getRotatedWidth(int width, int height, int rotation) {
+		double rad = Math.toRadians(rotation);
+		return (int) Math.ceil(Math.abs(width * Math.cos(rad)) + Math.abs(height * Math.sin(rad)) - 1E-9);
+	}
+
+	/**
+	 * @param width
+	 * 		the width before rotating.
+	 * @param height
+	 * 		the height before rotating.
+	 * @param rotation
+	 * 		the rotation in degrees.
+	 *
+	 * @return
+	 * 		the height of the axis aligned box around the rotated rectangle.
+	 */
+	static int getRotatedHeight(int width, int height, int rotation) {
+		double rad = Math.toRadians(rotation);
+		return (int) Math.ceil(Math.abs(width * Math.sin(rad)) + Math.abs(height * Math.cos(rad)) - 1E-9);
+	}
+
+	/**
+	 * Renders the source pixels, scaled to the given size and rotated, in
+	 * the center of the destination. Pixels are sampled bilinearly. The
+	 * rotation matches the one used by
+	 * {@link com.github.fishio.IDrawable#drawRotatedImage(GraphicsContext, Image, IOrientedBox)
+	 * drawRotatedImage}.
+	 *
+	 * @param src
+	 * 		the source pixels, as premultiplied ARGB.
+	 * @param sw
+	 * 		the width of the source.
+	 * @param sh
+	 * 		the height of the source.
+	 * @param rotation
+	 * 		the rotation in degrees.
+	 * @param width
+	 * 		the width to scale the source to.
+	 * @param height
+	 * 		the height to scale the source to.
+	 * @param reversed
+	 * 		if the source should be flipped vertically.
+	 * @param dst
+	 * 		the destination pixels, as premultiplied ARGB.
+	 * @param dw
+	 * 		the width of the destination.
+	 * @param dh
+	 * 		the height of the destination.
+	 */
+	static void render(int[] src, int sw, int sh, int rotation, int width, int height, boolean reversed,
+			int[] dst, int dw, int dh) {
+		double rad = Math.toRadians(rotation);
+		double cos = Math.cos(rad);
+		double sin = Math.sin(rad);
+
+		//Source pixels per destination pixel
+		double sx = (double) sw / width;
+		double sy = (reversed ? -1D : 1D) * sh / height;
+
+		for (int y = 0; y < dh; y++) {
+			double wy = y + 0.5 - 0.5 * dh;
+			for (int x = 0; x < dw; x++) {
+				double wx = x + 0.5 - 0.5 * dw;
+
+				//Undo the rotation around the center
+				double lx = cos * wx - sin * wy;
+				double ly = sin * wx + cos * wy;
+
+				dst[y * dw + x] = sample(src, sw, sh, lx * sx + 0.5 * sw - 0.5, ly * sy + 0.5 * sh - 0.5);
+			}
+		}
+	}
+
+	/**
+	 * @param src
+	 * 		the source pixels, as premultiplied ARGB.
+	 * @param sw
+	 * 		the width of the source.
+	 * @param sh
+	 * 		the height of the source.
+	 * @param u
+	 * 		the x coordinate, in source pixels.
+	 * @param v
+	 * 		the y coordinate, in source pixels.
+	 *
+	 * @return
+	 * 		the bilinearly interpolated pixel at the given coordinates.
+	 * 		Outside of the source, pixels are transparent.
+	 */
+	private static int sample(int[] src, int sw, int sh, double u, double v) {
+		//Pixel centers are at whole coordinates, so the source covers -0.5 to size - 0.5.
+		if (u < -0.5 || v < -0.5 || u >= sw - 0.5 || v >= sh - 0.5) {
+			return 0;
+		}
+
+		int x0 = (int) Math.floor(u);
+		int y0 = (int) Math.floor(v);
+		double fx = u - x0;
+		double fy = v - y0;
+
+		int p00 = pixel(src, sw, sh, x0, y0);
+		int p10 = pixel(src, sw, sh, x0 + 1, y0);
+		int p01 = pixel(src, sw, sh, x0, y0 + 1);
+		int p11 = pixel(src, sw, sh, x0 + 1, y0 + 1);
+
+		int res = 0;
+		for (int shift = 0; shift < 32; shift += 8) {
+			double top = ((p00 >>> shift) & 0xFF) * (1 - fx) + ((p10 >>> shift) & 0xFF) * fx;
+			double bottom = ((p01 >>> shift) & 0xFF) * (1 - fx) + ((p11 >>> shift) & 0xFF) * fx;
+			int c = (int) Math.round(top * (1 - fy) + bottom * fy);
+			res |= c << shift;
+		}
+
+		return res;
+	}
+
+	/**
+	 * @return
+	 * 		the pixel at the given coordinates, clamped to the edges of the
+	 * 		source.
+	 */
+	private static int pixel(int[] src, int sw, int sh, int x, int y) {
+		int cx = Math.max(0, Math.min(sw - 1, x));
+		int cy = Math.max(0, Math.min(sh - 1, y));
+		return src[cy * sw + cx];
+	}
+
+	/**
+	 * The pixels of an image, and the variants made of it.
+	 */
+	private static final class Source {
+		private final int[] pixels;
+		private final int width;
+		private final int height;
+		private final IntHashMap<Variant> variants = new IntHashMap<>();
+
+		private Source(int[] pixels, int width, int height) {
+			this.pixels = pixels;
+			this.width = width;
+			this.height = height;
+		}
+	}
+
+	/**
+	 * A rotated and scaled sprite in an atlas page.
+	 */
+	private static final class Variant {
+		private final Source source;
+		private final int key;
+		private final Page page;
+		private final int x;
+		private final int y;
+
+		private Variant(Source source, int key, Page page, int x, int y) {
+			this.source = source;
+			this.key = key;
+			this.page = page;
+			this.x = x;
+			this.y = y;
+		}
+	}
+
+	/**
+	 * An atlas page. Variants are packed in rows (shelves) from top to
+	 * bottom.
+	 */
+	private static final class Page {
+		private final WritableImage image;
+		private final ArrayList<Variant> variants = new ArrayList<>();
+
+		private int shelfY;
+		private int shelfHeight;
+		private int shelfX;
+
+		private int lastX;
+		private int lastY;
+
+		private Page(WritableImage image) {
+			this.image = image;
+		}
+
+		/**
+		 * Finds room for a rectangle of the given size.
+		 *
+		 * @param w
+		 * 		the width of the rectangle.
+		 * @param h
+		 * 		the height of the rectangle.
+		 *
+		 * @return
+		 * 		<code>true</code> if there was room, in which case the
+		 * 		position is stored in lastX and lastY, <code>false</code>
+		 * 		otherwise.
+		 */
+		private boolean allocate(int w, int h) {
+			if (w > PAGE_SIZE) {
+				return false;
+			}
+
+			if (shelfX + w <= PAGE_SIZE && shelfY + h <= PAGE_SIZE) {
+				lastX = shelfX;
+				lastY = shelfY;
+				shelfX += w;
+				shelfHeight = Math.max(shelfHeight, h);
+				return true;
+			}
+
+			//Start a new shelf, if the rectangle fits below the current one
+			int nextY = shelfY + shelfHeight;
+			if (nextY + h > PAGE_SIZE) {
+				return false;
+			}
+
+			lastX = 0;
+			lastY = nextY;
+			shelfY = nextY;
+			shelfX = w;
+			shelfHeight = h;
+			return true;
+		}
+
+		/**
+		 * Removes all variants from this page.
+		 */
+		private void clear() {
+			for (Variant variant : variants) {
+				variant.source.variants.remove(variant.key);
+			}
+
+			variants.clear();
+			shelfX = 0;
+			shelfY = 0;
+			shelfHeight = 0;
+		}
+	}
+}
@@ -37,17 +37,29 @@ public interface Listenable {
 	 */
 	default void callPreTick(String logPrefix) {
 		for (TickListener tl : getListeners()) {
-			try {
-				tl.preTick();
-			} catch (Exception ex) {
-				if (logPrefix != null) {
-					Log.getLogger().log(LogLevel.ERROR, "[" + logPrefix + "] Error in preTick:\t" + ex.getMessage());
-				} else {
-					Log.getLogger().log(LogLevel.ERROR, "Error in preTick:\t" + ex.getMessage());
-				}
-				
-				Log.getLogger().log(LogLevel.DEBUG, ex);
+			callPreTick(tl, logPrefix);
+		}
+	}
+	
+	/**
+	 * Call the preTick method of the given listener.
+	 * 
+	 * @param tl
+	 * 		the listener to call.
+	 * @param logPrefix
+	 * 		the prefix to use for logging error messages.
+	 */
+	default void callPreTick(TickListener tl, String logPrefix) {
+		try {
+			tl.preTick();
+		} catch (Exception ex) {
+			if (logPrefix != null) {
+				Log.getLogger().log(LogLevel.ERROR, "[" + logPrefix + "] Error in preTick:\t" + ex.getMessage());
+			} else {
+				Log.getLogger().log(LogLevel.ERROR, "Error in preTick:\t" + ex.getMessage());
 			}
+			
+			Log.getLogger().log(LogLevel.DEBUG, ex);
 		}
 	}
 	
@@ -59,17 +71,29 @@ public interface Listenable {
 	 */
 	default void callPostTick(String logPrefix) {
 		for (TickListener tl : getListeners()) {
-			try {
-				tl.postTick();
-			} catch (Exception ex) {
-				if (logPrefix != null) {
-					Log.getLogger().log(LogLevel.ERROR, "[" + logPrefix + "] Error in postTick:\t" + ex.getMessage());
-				} else {
-					Log.getLogger().log(LogLevel.ERROR, "Error in postTick:\t" + ex.getMessage());
-				}
-				
-				Log.getLogger().log(LogLevel.DEBUG, ex);
+			callPostTick(tl, logPrefix);
+		}
+	}
+	
+	/**
+	 * Call the postTick method of the given listener.
+	 * 
+	 * @param tl
+	 * 		the listener to call.
+	 * @param logPrefix
+	 * 		the prefix to use for logging error messages.
+	 */
+	default void callPostTick(TickListener tl, String logPrefix) {
+		try {
+			tl.postTick();
+		} catch (Exception ex) {
+			if (logPrefix != null) {
+				Log.getLogger().log(LogLevel.ERROR, "[" + logPrefix + "] Error in postTick:\t" + ex.getMessage());
+			} else {
+				Log.getLogger().log(LogLevel.ERROR, "Error in postTick:\t" + ex.getMessage());
 			}
+			
+			Log.getLogger().log(LogLevel.DEBUG, ex);
 		}
 	}
 	
@@ -37,6 +37,18 @@ public abstract class MultiplayerPlayingField extends PlayingField {
 		super(fps, canvas, 50, width, height);
 	}
 	
+	/**
+	 * Creates a new headless MultiplayerPlayingField, without a renderer.
+	 * 
+	 * @param width
+	 * 		the width of the playing field
+	 * @param height
+	 * 		the height of the playing field
+	 */
+	public MultiplayerPlayingField(int width, int height) {
+		super(width, height);
+	}
+	
 	/**
 	 * @return
 	 * 		a property holding the playerfish owned by this client/server.
@@ -107,7 +119,7 @@ public abstract class MultiplayerPlayingField extends PlayingField {
 	@Override
 	public void centerScreen() {
 		PlayerFish p = getOwnPlayer();
-		if (p == null) {
+		if (p == null || isHeadless()) {
 			return;
 		}
 		ICollisionArea ca = p.getBoundingArea();
@@ -0,0 +1,191 @@
+package com.github.fishio.multiplayer;
+
+import com.github.fishio.logging.Log;
+import com.github.fishio.logging.LogLevel;
+import com.github.fishio.settings.Settings;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.ChannelConfig;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.concurrent.DefaultExecutorServiceFactory;
+
+/**
+ * Singleton class with the event loops and channel settings shared by the
+ * server and the client.<br>
+ * <br>
+ * The native epoll transport is used when it is available (and the
+ * NATIVE_TRANSPORT setting is on), NIO otherwise. There is one boss
+ * thread that accepts connections, and NETWORK_THREADS worker threads that
+ * handle all connections of the server and the client together.<br>
+ * <br>
+ * The event loops are created when they are first acquired, and shut down
+ * when the last user releases them.
+ */
+public final class NetworkTransport {
+	/**
+	 * The allocator used for all channels. Buffers are pooled, and direct
+	 * so that they are not copied again when written to a socket.
+	 */
+	public static final ByteBufAllocator ALLOCATOR = new PooledByteBufAllocator(true);
+
+	private static final NetworkTransport INSTANCE = new NetworkTransport();
+
+	private int users;
+	private boolean epoll;
+	private EventLoopGroup bossGroup;
+	private EventLoopGroup workerGroup;
+
+	private NetworkTransport() { }
+
+	/**
+	 * @return
+	 * 		the NetworkTransport instance.
+	 */
+	public static NetworkTransport getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Starts using the event loops. They are created if nobody is using
+	 * them yet. Every call must be followed by a call to {@link #release()}.
+	 */
+	public synchronized void acquire() {
+		if (users++ > 0) {
+			return;
+		}
+
+		Settings settings = Settings.getInstance();
+		int threads = settings.getInteger("NETWORK_THREADS");
+		if (threads <= 0) {
+			threads = Runtime.getRuntime().availableProcessors();
+		}
+
+		epoll = settings.getBoolean("NATIVE_TRANSPORT") && Epoll.isAvailable();
+		if (epoll) {
+			try {
+				bossGroup = new EpollEventLoopGroup(1, new DefaultExecutorServiceFactory("fishio-boss"));
+				workerGroup = new EpollEventLoopGroup(threads, new DefaultExecutorServiceFactory("fishio-worker"));
+			} catch (IllegalStateException ex) {
+				//The native library can be loaded, but not be usable on this system.
+				Log.getLogger().log(LogLevel.WARNING,
+						"[Network] Cannot use epoll, falling back to NIO: " + ex.getMessage());
+				if (bossGroup != null) {
+					bossGroup.shutdownGracefully();
+				}
+				epoll = false;
+			}
+		}
+
+		if (!epoll) {
+			bossGroup = new NioEventLoopGroup(1, new DefaultExecutorServiceFactory("fishio-boss"));
+			workerGroup = new NioEventLoopGroup(threads, new DefaultExecutorServiceFactory("fishio-worker"));
+		}
+
+		Log.getLogger().log(LogLevel.DEBUG, "[Network] Using " + (epoll ? "epoll" : "NIO")
+				+ " transport with " + threads + " worker threads");
+	}
+
+	/**
+	 * Stops using the event loops. If nobody is using them anymore, they
+	 * are shut down.
+	 */
+	public synchronized void release() {
+		if (users == 0 || --users > 0) {
+			return;
+		}
+
+		workerGroup.shutdownGracefully();
+		bossGroup.shutdownGracefully();
+		workerGroup = null;
+		bossGroup = null;
+	}
+
+	/**
+	 * @return
+	 * 		<code>true</code> if the native epoll transport is used.
+	 */
+	public synchronized boolean isEpoll() {
+		return epoll;
+	}
+
+	/**
+	 * @return
+	 * 		the event loop group that accepts connections, or
+	 * 		<code>null</code> if the event loops were not acquired.
+	 */
+	public synchronized EventLoopGroup getBossGroup() {
+		return bossGroup;
+	}
+
+	/**
+	 * @return
+	 * 		the event loop group that handles the connections, or
+	 * 		<code>null</code> if the event loops were not acquired.
+	 */
+	public synchronized EventLoopGroup getWorkerGroup() {
+		return workerGroup;
+	}
+
+	/**
+	 * @return
+	 * 		the class of the server channels of the transport.
+	 */
+	public synchronized Class<? extends ServerChannel> getServerChannelClass() {
+		return epoll ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
+	}
+
+	/**
+	 * @return
+	 * 		the class of the client channels of the transport.
+	 */
+	public synchronized Class<? extends SocketChannel> getChannelClass() {
+		return epoll ? EpollSocketChannel.class : NioSocketChannel.class;
+	}
+
+	/**
+	 * Applies the settings for a connection to the given channel.<br>
+	 * <br>
+	 * Nagle's algorithm is disabled, so that the small messages of every
+	 * tick are sent immediately. The water marks of the write buffer come
+	 * from the WRITE_BUFFER_LOW_WATER_MARK and WRITE_BUFFER_HIGH_WATER_MARK
+	 * settings. A slow client is marked unwritable early, and gets fewer
+	 * snapshots instead of a long queue of old ones.
+	 *
+	 * @param channel
+	 * 		the channel to configure.
+	 */
+	public static void configure(SocketChannel channel) {
+		ChannelConfig config = channel.config();
+		config.setOption(ChannelOption.TCP_NODELAY, true);
+		config.setOption(ChannelOption.SO_KEEPALIVE, true);
+		config.setAllocator(ALLOCATOR);
+
+		Settings settings = Settings.getInstance();
+		int low = settings.getInteger("WRITE_BUFFER_LOW_WATER_MARK");
+		int high = Math.max(low, settings.getInteger("WRITE_BUFFER_HIGH_WATER_MARK"));
+		if (low <= 0) {
+			//Keep the defaults of Netty
+			return;
+		}
+
+		//The low water mark can never be above the high water mark.
+		if (high < config.getWriteBufferLowWaterMark()) {
+			config.setWriteBufferLowWaterMark(low);
+			config.setWriteBufferHighWaterMark(high);
+		} else {
+			config.setWriteBufferHighWaterMark(high);
+			config.setWriteBufferLowWaterMark(low);
+		}
+	}
+}
@@ -6,10 +6,10 @@ import com.github.fishio.behaviours.IMoveBehaviour;
 import com.github.fishio.behaviours.KeyListenerBehaviour;
 import com.github.fishio.logging.Log;
 import com.github.fishio.logging.LogLevel;
-import com.github.fishio.multiplayer.server.FishServerEntitiesMessage;
 import com.github.fishio.multiplayer.server.FishServerPlayerMessage;
 import com.github.fishio.multiplayer.server.FishServerMessage;
 import com.github.fishio.multiplayer.server.FishServerSettingsMessage;
+import com.github.fishio.multiplayer.server.FishServerSnapshotMessage;
 
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
@@ -25,8 +25,8 @@ public class FishClientHandler extends SimpleChannelInboundHandler<FishServerMes
 				"[Client] [" + ctx.channel().remoteAddress() + "] Received " + msg.getClass().getSimpleName()
 				+ " from server");
 		
-		if (msg instanceof FishServerEntitiesMessage) {
-			handleEntitiesMessage((FishServerEntitiesMessage) msg);
+		if (msg instanceof FishServerSnapshotMessage) {
+			handleSnapshotMessage((FishServerSnapshotMessage) msg);
 		}
 		
 		if (msg instanceof FishServerPlayerMessage) {
@@ -39,18 +39,22 @@ public class FishClientHandler extends SimpleChannelInboundHandler<FishServerMes
 	}
 	
 	/**
-	 * Handles FishServerEntities messages.
+	 * Handles FishServerSnapshot messages, and acknowledges them to the
+	 * server.
 	 * 
 	 * @param msg
 	 * 		the message from the server.
 	 */
-	public void handleEntitiesMessage(FishServerEntitiesMessage msg) {
+	public void handleSnapshotMessage(FishServerSnapshotMessage msg) {
 		MultiplayerClientPlayingField mcpf = FishIOClient.getInstance().getPlayingField();
-		if (mcpf != null) {
-			mcpf.updateEntities(msg);
+		if (mcpf == null) {
+			return;
 		}
+		
+		int ack = mcpf.updateEntities(msg.getDelta(), msg.getInputSequence());
+		FishIOClient.getInstance().queueMessage(new FishClientSnapshotAckMessage(ack), true);
 	}
-
+	
 	/**
 	 * Handles FishServerPlayerFish messages.
 	 * 
@@ -0,0 +1,45 @@
+package com.github.fishio.multiplayer.client;
+
+import com.github.fishio.behaviours.KeyListenerBehaviour;
+
+/**
+ * Message from the client to the server with the keys that were pressed
+ * during one or more consecutive ticks. The server moves the player of
+ * the client with these inputs, one per tick.
+ */
+public class FishClientInputMessage implements FishClientMessage {
+	private static final long serialVersionUID = 2861378546521407729L;
+
+	private int firstSequence;
+	private byte[] inputs;
+	
+	/**
+	 * Creates a new FishClientInputMessage.
+	 * 
+	 * @param firstSequence
+	 * 		the sequence number of the first input.
+	 * @param inputs
+	 * 		the inputs of consecutive ticks, as combinations of the INPUT bits
+	 * 		of {@link KeyListenerBehaviour}.
+	 */
+	public FishClientInputMessage(int firstSequence, byte[] inputs) {
+		this.firstSequence = firstSequence;
+		this.inputs = inputs;
+	}
+	
+	/**
+	 * @return
+	 * 		the sequence number of the first input.
+	 */
+	public int getFirstSequence() {
+		return firstSequence;
+	}
+	
+	/**
+	 * @return
+	 * 		the inputs of consecutive ticks.
+	 */
+	public byte[] getInputs() {
+		return inputs;
+	}
+}
@@ -0,0 +1,32 @@
+package com.github.fishio.multiplayer.client;
+
+/**
+ * Message from the client to the server to move to another room. The
+ * room is created if it does not exist yet.<br>
+ * <br>
+ * The player of the client is removed from the old room, so the client
+ * should request a new player afterwards.
+ */
+public class FishClientJoinRoomMessage implements FishClientMessage {
+	private static final long serialVersionUID = -5214460133457916324L;
+
+	private String room;
+	
+	/**
+	 * Creates a new FishClientJoinRoomMessage.
+	 * 
+	 * @param room
+	 * 		the name of the room to join.
+	 */
+	public FishClientJoinRoomMessage(String room) {
+		this.room = room;
+	}
+	
+	/**
+	 * @return
+	 * 		the name of the room to join.
+	 */
+	public String getRoom() {
+		return room;
+	}
+}
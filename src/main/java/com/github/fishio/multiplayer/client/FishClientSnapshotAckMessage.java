@@ -0,0 +1,34 @@
+package com.github.fishio.multiplayer.client;
+
+import com.github.fishio.multiplayer.codec.SnapshotDelta;
+
+/**
+ * Message from the client to the server to acknowledge that it received
+ * a snapshot. The server sends the following snapshots relative to the
+ * acknowledged one.
+ */
+public class FishClientSnapshotAckMessage implements FishClientMessage {
+	private static final long serialVersionUID = 4914208652512940563L;
+
+	private int sequence;
+	
+	/**
+	 * Creates a new FishClientSnapshotAckMessage.
+	 * 
+	 * @param sequence
+	 * 		the sequence of the received snapshot, or
+	 * 		{@link SnapshotDelta#FULL} to ask for a full snapshot.
+	 */
+	public FishClientSnapshotAckMessage(int sequence) {
+		this.sequence = sequence;
+	}
+	
+	/**
+	 * @return
+	 * 		the sequence of the received snapshot, or
+	 * 		{@link SnapshotDelta#FULL} to ask for a full snapshot.
+	 */
+	public int getSequence() {
+		return sequence;
+	}
+}
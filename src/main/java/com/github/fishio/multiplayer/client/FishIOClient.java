@@ -8,20 +8,15 @@ import com.github.fishio.control.MultiplayerGameController;
 import com.github.fishio.logging.Log;
 import com.github.fishio.logging.LogLevel;
 import com.github.fishio.multiplayer.FishMessage;
+import com.github.fishio.multiplayer.NetworkTransport;
+import com.github.fishio.multiplayer.codec.FishMessageCodec;
 import com.github.fishio.multiplayer.server.FishServerSettingsMessage;
 
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
-import io.netty.channel.ChannelOption;
-import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
-import io.netty.handler.codec.serialization.ClassResolvers;
-import io.netty.handler.codec.serialization.ObjectDecoder;
-import io.netty.handler.codec.serialization.ObjectEncoder;
 import io.netty.util.concurrent.Future;
 
 /**
@@ -41,6 +36,7 @@ public final class FishIOClient implements Runnable {
 	
 	private String host;
 	private int port;
+	private String room;
 	
 	private FishServerSettingsMessage settings;
 	
@@ -63,6 +59,21 @@ public final class FishIOClient implements Runnable {
 	 * 		the port to connect to
 	 */
 	public void connect(String host, int port) {
+		connect(host, port, null);
+	}
+	
+	/**
+	 * Connects to the given host and port, and joins the given room.
+	 * 
+	 * @param host
+	 * 		the host to connect to
+	 * @param port
+	 * 		the port to connect to
+	 * @param room
+	 * 		the name of the room to join, or <code>null</code> for the
+	 * 		default room of the server.
+	 */
+	public void connect(String host, int port, String room) {
 		if (connected) {
 			throw new IllegalStateException("You cannot connect to a server if you are already connected to one!");
 		}
@@ -72,10 +83,10 @@ public final class FishIOClient implements Runnable {
 		
 		this.host = host;
 		this.port = port;
+		this.room = room;
 		new Thread(this).start();
 	}
 	
-	@SuppressWarnings("resource")
 	@Override
 	public void run() {
 		synchronized (this) {
@@ -91,20 +102,19 @@ public final class FishIOClient implements Runnable {
 		
 		Log.getLogger().log(LogLevel.INFO, "[Client] Starting client");
 		
-		//Handles incoming/outgoing messages
-		EventLoopGroup workerGroup = new NioEventLoopGroup();
+		//Incoming/outgoing messages are handled by the shared event loops
+		NetworkTransport transport = NetworkTransport.getInstance();
+		transport.acquire();
 
 		try {
 			Bootstrap b = new Bootstrap();
-			b.group(workerGroup);
-			b.channel(NioSocketChannel.class);
-			b.option(ChannelOption.SO_KEEPALIVE, true);
+			b.group(transport.getWorkerGroup());
+			b.channel(transport.getChannelClass());
 			b.handler(new ChannelInitializer<SocketChannel>() {
 				@Override
 				public void initChannel(SocketChannel ch) throws Exception {
-					ch.pipeline().addLast("decoder",
-							new ObjectDecoder(ClassResolvers.softCachingResolver(ClassLoader.getSystemClassLoader())));
-					ch.pipeline().addLast("encoder", new ObjectEncoder());
+					NetworkTransport.configure(ch);
+					FishMessageCodec.addCodec(ch.pipeline());
 					ch.pipeline().addLast("handler", new FishClientHandler());
 				}
 			});
@@ -141,8 +151,8 @@ public final class FishIOClient implements Runnable {
 				currentChannel = null;
 			}
 			
-			//Initiate shutdown
-			workerGroup.shutdownGracefully();
+			//Release the event loops
+			transport.release();
 		}
 	}
 	
@@ -274,13 +284,38 @@ public final class FishIOClient implements Runnable {
 				new MultiplayerClientPlayingField(60, controller.getCanvas(), width, height);
 		playingFieldProperty.set(mcpf);
 		
-		//Request a player fish
+		//Join our room and request a player fish
+		if (room != null) {
+			queueMessage(new FishClientJoinRoomMessage(room), false);
+		}
 		queueMessage(new FishClientRequestPlayerMessage(), true);
 		
 		//Start the game
 		mcpf.startGame();
 	}
 	
+	/**
+	 * Moves to another room of the server, and requests a new player
+	 * there.
+	 * 
+	 * @param newRoom
+	 * 		the name of the room to join.
+	 */
+	public void joinRoom(String newRoom) {
+		this.room = newRoom;
+		queueMessage(new FishClientJoinRoomMessage(newRoom), false);
+		queueMessage(new FishClientRequestPlayerMessage(), true);
+	}
+	
+	/**
+	 * @return
+	 * 		the name of the room we joined, or <code>null</code> if we are
+	 * 		in the default room.
+	 */
+	public String getRoom() {
+		return room;
+	}
+	
 	/**
 	 * Called when we are disconnected from the server.
 	 */
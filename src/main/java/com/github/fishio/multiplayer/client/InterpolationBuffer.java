@@ -0,0 +1,284 @@
+package com.github.fishio.multiplayer.client;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+import com.github.fishio.Entity;
+import com.github.fishio.game.GameThread;
+import com.github.fishio.multiplayer.codec.EntitySnapshot;
+import com.github.fishio.multiplayer.codec.EntityState;
+
+/**
+ * Buffers the snapshots received from the server, so that remote entities
+ * can be shown slightly in the past, between two snapshots.<br>
+ * <br>
+ * Snapshots are timestamped with the game tick of the server. The buffer
+ * estimates which server tick it is now from the arrival times of the
+ * snapshots, and renders entities two snapshot intervals behind that. With
+ * the server sending at 20 Hz, this is 100 ms, which leaves room for one
+ * late snapshot. If no newer snapshot has arrived when it is needed, the
+ * entities are extrapolated with their speed for at most
+ * {@value #MAX_EXTRAPOLATION} ticks.
+ */
+public class InterpolationBuffer {
+	/**
+	 * The maximum amount of snapshots that are kept.
+	 */
+	public static final int CAPACITY = 32;
+
+	/**
+	 * The maximum amount of ticks entities are moved past the newest
+	 * snapshot.
+	 */
+	public static final double MAX_EXTRAPOLATION = 15;
+
+	/**
+	 * The amount of ticks between snapshots assumed until the second
+	 * snapshot arrives.
+	 */
+	public static final double DEFAULT_INTERVAL = 3;
+
+	private static final double OFFSET_SMOOTHING = 0.05;
+	private static final double INTERVAL_SMOOTHING = 0.1;
+
+	private final ArrayDeque<EntitySnapshot> snapshots = new ArrayDeque<>();
+	private boolean synced;
+	private double offset;
+	private double interval = DEFAULT_INTERVAL;
+	private boolean intervalMeasured;
+
+	/**
+	 * Adds a snapshot that was received at the given time.
+	 *
+	 * @param snapshot
+	 * 		the snapshot.
+	 * @param nanoTime
+	 * 		the time the snapshot was received, from
+	 * 		{@link System#nanoTime()}.
+	 */
+	public synchronized void add(EntitySnapshot snapshot, long nanoTime) {
+		EntitySnapshot last = snapshots.peekLast();
+		if (last != null && snapshot.getTick() <= last.getTick()) {
+			//The server was restarted, start over.
+			clear();
+			last = null;
+		}
+
+		//Snapshots that arrive early have the least delay, so they are
+		//followed immediately. Late ones only slowly move the estimate back.
+		double sample = snapshot.getTick() - toTicks(nanoTime);
+		if (!synced || sample > offset) {
+			offset = sample;
+			synced = true;
+		} else {
+			offset += (sample - offset) * OFFSET_SMOOTHING;
+		}
+
+		if (last != null) {
+			int gap = snapshot.getTick() - last.getTick();
+			if (intervalMeasured) {
+				interval += (gap - interval) * INTERVAL_SMOOTHING;
+			} else {
+				interval = gap;
+				intervalMeasured = true;
+			}
+		}
+
+		snapshots.addLast(snapshot);
+		if (snapshots.size() > CAPACITY) {
+			snapshots.removeFirst();
+		}
+	}
+
+	/**
+	 * @param nanoTime
+	 * 		a time from {@link System#nanoTime()}.
+	 *
+	 * @return
+	 * 		the given time in ticks.
+	 */
+	private static double toTicks(long nanoTime) {
+		return (double) nanoTime / GameThread.TICK_NANOS;
+	}
+
+	/**
+	 * @return
+	 * 		the amount of ticks entities are shown behind the server.
+	 */
+	public synchronized double getDelay() {
+		return 2 * interval;
+	}
+
+	/**
+	 * @param nanoTime
+	 * 		the current time, from {@link System#nanoTime()}.
+	 *
+	 * @return
+	 * 		the server tick at which entities should be shown.
+	 */
+	public synchronized double getRenderTick(long nanoTime) {
+		return toTicks(nanoTime) + offset - getDelay();
+	}
+
+	/**
+	 * Selects the snapshots to show entities from at the given time.
+	 * Snapshots that are no longer needed are removed.
+	 *
+	 * @param nanoTime
+	 * 		the current time, from {@link System#nanoTime()}.
+	 *
+	 * @return
+	 * 		the frame to position entities with, or <code>null</code> if no
+	 * 		snapshot was received yet.
+	 */
+	public synchronized Frame getFrame(long nanoTime) {
+		if (snapshots.isEmpty()) {
+			return null;
+		}
+
+		double tick = getRenderTick(nanoTime);
+
+		//Drop the snapshots before the one we are interpolating from.
+		while (snapshots.size() >= 2) {
+			Iterator<EntitySnapshot> it = snapshots.iterator();
+			it.next();
+			if (it.next().getTick() > tick) {
+				break;
+			}
+
+			snapshots.removeFirst();
+		}
+
+		Iterator<EntitySnapshot> it = snapshots.iterator();
+		EntitySnapshot from = it.next();
+		EntitySnapshot to = it.hasNext() ? it.next() : null;
+
+		double elapsed = Math.min(Math.max(0, tick - from.getTick()), MAX_EXTRAPOLATION);
+		if (to == null || tick <= from.getTick()) {
+			return new Frame(from, null, 0, elapsed);
+		}
+
+		double fraction = (tick - from.getTick()) / (to.getTick() - from.getTick());
+		return new Frame(from, to, fraction, elapsed);
+	}
+
+	/**
+	 * Removes all snapshots.
+	 */
+	public synchronized void clear() {
+		snapshots.clear();
+		synced = false;
+		interval = DEFAULT_INTERVAL;
+		intervalMeasured = false;
+	}
+
+	/**
+	 * The two snapshots around the render time, and how far the render time
+	 * is between them.
+	 */
+	public static final class Frame {
+		private final EntitySnapshot from;
+		private final EntitySnapshot to;
+		private final double fraction;
+		private final double elapsed;
+
+		/**
+		 * Creates a new Frame.
+		 *
+		 * @param from
+		 * 		the snapshot before the render time.
+		 * @param to
+		 * 		the snapshot after the render time, or <code>null</code> to
+		 * 		extrapolate.
+		 * @param fraction
+		 * 		how far the render time is between the snapshots, from 0 to 1.
+		 * @param elapsed
+		 * 		the amount of ticks since the first snapshot.
+		 */
+		Frame(EntitySnapshot from, EntitySnapshot to, double fraction, double elapsed) {
+			this.from = from;
+			this.to = to;
+			this.fraction = fraction;
+			this.elapsed = elapsed;
+		}
+
+		/**
+		 * @return
+		 * 		<code>true</code> if entities are moved past the newest
+		 * 		snapshot.
+		 */
+		public boolean isExtrapolating() {
+			return to == null && elapsed > 0;
+		}
+
+		/**
+		 * Moves the given entity to its position at the render time.
+		 *
+		 * @param entity
+		 * 		the entity to move.
+		 *
+		 * @return
+		 * 		<code>true</code> if the entity was moved, <code>false</code>
+		 * 		if it is in neither snapshot.
+		 */
+		public boolean apply(Entity entity) {
+			int id = entity.getEntityId();
+			EntityState a = from.find(id);
+			EntityState b = to == null ? null : to.find(id);
+
+			if (a != null && b != null) {
+				entity.getBoundingArea().updateTo(
+						lerp(a.getX(), b.getX()),
+						lerp(a.getY(), b.getY()),
+						lerp(a.getWidth(), b.getWidth()),
+						lerp(a.getHeight(), b.getHeight()),
+						a.getRotation() + fraction * angleBetween(a.getRotation(), b.getRotation()));
+			} else if (a != null) {
+				//Speeds point up, while y coordinates point down.
+				entity.getBoundingArea().updateTo(
+						a.getX() + a.getSpeedX() * elapsed,
+						a.getY() - a.getSpeedY() * elapsed,
+						a.getWidth(), a.getHeight(), a.getRotation());
+			} else if (b != null) {
+				entity.getBoundingArea().updateTo(b.getX(), b.getY(), b.getWidth(), b.getHeight(), b.getRotation());
+			} else {
+				return false;
+			}
+
+			return true;
+		}
+
+		/**
+		 * @param a
+		 * 		the value in the first snapshot.
+		 * @param b
+		 * 		the value in the second snapshot.
+		 *
+		 * @return
+		 * 		the value at the render time.
+		 */
+		private double lerp(double a, double b) {
+			return a + (b - a) * fraction;
+		}
+
+		/**
+		 * @param a
+		 * 		an angle in degrees.
+		 * @param b
+		 * 		another angle in degrees.
+		 *
+		 * @return
+		 * 		the shortest rotation from a to b, between -180 and 180.
+		 */
+		private static double angleBetween(double a, double b) {
+			double d = (b - a) % 360;
+			if (d > 180) {
+				d -= 360;
+			} else if (d < -180) {
+				d += 360;
+			}
+
+			return d;
+		}
+	}
+}
@@ -2,24 +2,31 @@ package com.github.fishio.multiplayer.client;
 
 import io.netty.channel.ChannelFuture;
 
-import java.util.Optional;
-import java.util.Set;
-
 import javafx.scene.canvas.Canvas;
 
+import com.github.fishio.CollisionMask;
 import com.github.fishio.Entity;
 import com.github.fishio.PlayerFish;
+import com.github.fishio.Vec2d;
+import com.github.fishio.behaviours.KeyListenerBehaviour;
 import com.github.fishio.game.GameThread;
 import com.github.fishio.logging.LogLevel;
 import com.github.fishio.multiplayer.MultiplayerPlayingField;
-import com.github.fishio.multiplayer.server.FishServerEntitiesMessage;
+import com.github.fishio.multiplayer.codec.EntitySnapshot;
+import com.github.fishio.multiplayer.codec.EntityState;
+import com.github.fishio.multiplayer.codec.SnapshotDelta;
+import com.github.fishio.multiplayer.codec.SnapshotHistory;
 
 /**
  * Represents a playing field for a client in a multiplayer game.
  */
 public class MultiplayerClientPlayingField extends MultiplayerPlayingField {
 	private GameThread gameThread;
-	private ChannelFuture lastPlayerUpdate;
+	private ChannelFuture lastInputMessage;
+	private SnapshotHistory snapshots = new SnapshotHistory();
+	private InterpolationBuffer interpolation = new InterpolationBuffer();
+	private PredictionBuffer prediction = new PredictionBuffer();
+	private KeyListenerBehaviour predictor = new KeyListenerBehaviour(0, 0);
 	
 	/**
 	 * Creates a new MultiplayerClientPlayingField.
@@ -45,27 +52,42 @@ public class MultiplayerClientPlayingField extends MultiplayerPlayingField {
 		return this.gameThread;
 	}
 
+	@Override
+	protected void assignEntityId(Entity entity) {
+		//Entities on the client keep the ids the server gave them.
+	}
+
+	@Override
+	protected void assignHue(PlayerFish player) {
+		//Players on the client keep the hues the server gave them.
+	}
+
 	@Override
 	public void setOwnPlayer(PlayerFish player) {
 		super.setOwnPlayer(player);
 		
+		//Inputs of the previous player are no longer processed by the server
+		prediction.clear();
+		
 		//For client side, we need an additional check for setting our own player.
 		
 		//Check if there is a fake player present
-		Optional<PlayerFish> fakePlayer = getPlayers()
-				.stream()
-				.filter(p -> p != player && p.equals(player))
-				.findAny();
+		if (player == null) {
+			return;
+		}
 		
-		if (!fakePlayer.isPresent()) {
+		Entity fake = getEntity(player.getEntityId());
+		if (fake == player || !(fake instanceof PlayerFish)) {
 			return;
 		}
 		
+		PlayerFish fakePlayer = (PlayerFish) fake;
+		
 		//Replace the behaviour of the fake with the new (correct) behaviour
-		fakePlayer.get().setBehaviour(player.getBehaviour());
+		fakePlayer.setBehaviour(player.getBehaviour());
 		
 		//Set our player to the fake one.
-		getOwnPlayerProperty().set(fakePlayer.get());
+		getOwnPlayerProperty().set(fakePlayer);
 	}
 	
 	@Override
@@ -75,22 +97,111 @@ public class MultiplayerClientPlayingField extends MultiplayerPlayingField {
 	
 	@Override
 	public void moveMovables() {
-		//The server handles moving of enemyfish
+		//The server handles moving of enemyfish, we show them between snapshots
+		interpolateEntities(System.nanoTime());
+		
 		PlayerFish player = getOwnPlayer();
 		if (player == null || player.isDead()) {
 			return;
 		}
 		
-		//Move the player
-		moveEntity(player);
+		if (!(player.getBehaviour() instanceof KeyListenerBehaviour)) {
+			moveEntity(player);
+			return;
+		}
+		
+		KeyListenerBehaviour behaviour = (KeyListenerBehaviour) player.getBehaviour();
+		
+		//Correct our player with the last position from the server
+		reconcile(player, behaviour);
+		
+		//Move the player immediately, the server does the same once the input arrives
+		int input = behaviour.getInput();
+		predictor.updateTo(behaviour);
+		movePlayer(player, input, true);
+		behaviour.setSpeedVector(predictor.getSpeedVector());
+		prediction.record(input, predictor.getSpeedVector().x, predictor.getSpeedVector().y);
+		
+		//If the last inputs were not yet sent, they are sent with the next ones
+		if (lastInputMessage != null && !lastInputMessage.isDone()) {
+			return;
+		}
+		
+		FishClientInputMessage message = prediction.takeUnsent();
+		if (message != null) {
+			lastInputMessage = FishIOClient.getInstance().queueMessage(message, true);
+		}
+	}
+	
+	/**
+	 * Moves our own player with the given input, in the same way the
+	 * server does. The speed is taken from and stored in the predictor.
+	 * 
+	 * @param player
+	 * 		our own player.
+	 * @param input
+	 * 		the input, as a combination of the INPUT bits of
+	 * 		{@link KeyListenerBehaviour}.
+	 * @param live
+	 * 		<code>false</code> if the input is replayed, in which case
+	 * 		hitting a wall is not reported again.
+	 */
+	private void movePlayer(PlayerFish player, int input, boolean live) {
+		predictor.setInput(input);
+		predictor.preMove();
+		
+		CollisionMask mask = player.getBoundingArea();
+		if (live && hitsWall(player, mask)) {
+			player.hitWall();
+		}
 		
-		//If the last update was not yet sent, we don't send a new one
-		if (lastPlayerUpdate != null && !lastPlayerUpdate.isDone()) {
+		mask.move(predictor.getSpeedVector());
+		
+		if (!player.canMoveThroughWall()) {
+			moveWithinScreen(mask);
+		}
+	}
+	
+	/**
+	 * Puts our own player at the last position received from the server,
+	 * and replays the inputs the server had not yet processed at that
+	 * point.
+	 * 
+	 * @param player
+	 * 		our own player.
+	 * @param behaviour
+	 * 		the behaviour of our own player.
+	 */
+	private void reconcile(PlayerFish player, KeyListenerBehaviour behaviour) {
+		PredictionBuffer.Correction correction = prediction.takeCorrection();
+		if (correction == null) {
 			return;
 		}
 		
-		//Send the update
-		lastPlayerUpdate = FishIOClient.getInstance().queueMessage(new FishClientPlayerFishMessage(player), true);
+		int sequence = correction.getSequence();
+		int next = prediction.getNextSequence();
+		int first;
+		predictor.updateTo(behaviour);
+		if (prediction.contains(sequence)) {
+			//Continue with the speed we had after that input
+			predictor.setSpeedVector(new Vec2d(prediction.getSpeedX(sequence), prediction.getSpeedY(sequence)));
+			first = sequence + 1;
+		} else if (sequence < prediction.getStartSequence()) {
+			//The server has not processed any input of this player yet
+			predictor.setSpeedVector(new Vec2d(0, 0));
+			first = prediction.getStartSequence();
+		} else {
+			//Too far behind to replay, only take over the position
+			first = next;
+		}
+		
+		CollisionMask mask = player.getBoundingArea();
+		mask.updateTo(correction.getX(), correction.getY(), mask.getWidth(), mask.getHeight(), mask.getRotation());
+		for (int i = first; i < next; i++) {
+			movePlayer(player, prediction.getInput(i), false);
+		}
+		
+		behaviour.setSpeedVector(predictor.getSpeedVector());
 	}
 	
 	@Override
@@ -100,72 +211,139 @@ public class MultiplayerClientPlayingField extends MultiplayerPlayingField {
 	
 	@Override
 	public void clear() {
-		getEntities().clear();
-		getDrawables().clear();
-		getCollidables().clear();
+		removeAll();
+		snapshots.clear();
+		interpolation.clear();
+		prediction.clear();
 	}
 	
 	/**
-	 * Update the entities list from the given server message.
+	 * Moves all entities, except our own player, to their position at the
+	 * render time of the interpolation buffer.
 	 * 
-	 * @param message
-	 * 		the server message to update with.
+	 * @param nanoTime
+	 * 		the current time, from {@link System#nanoTime()}.
 	 */
-	public void updateEntities(FishServerEntitiesMessage message) {
-		Set<Entity> deadEntities = message.getDeadEntities(getEntities());
-		Set<Entity> newEntities = message.getNewEntities(getEntities());
-		
-		//1) add the new entities
-		newEntities.parallelStream().forEach(e -> add(e));
-		
-		//2) remove the dead entities
-		deadEntities.parallelStream().forEach(e -> remove(e));
-		
-		//3) update the entity information (position, rotation, etc.)
-		message.getEntities().parallelStream().forEach(updated -> {
-			//Find the corresponding current entity
-			for (Entity current : getEntities()) {
-				if (current.getEntityId() == updated.getEntityId()) {
-					//Update the entity
-					updateEntity(current, updated);
-					break;
-				}
+	public void interpolateEntities(long nanoTime) {
+		InterpolationBuffer.Frame frame = interpolation.getFrame(nanoTime);
+		if (frame == null) {
+			return;
+		}
+		
+		PlayerFish own = getOwnPlayer();
+		for (Entity entity : getEntities()) {
+			if (own == null || !own.equals(entity)) {
+				frame.apply(entity);
 			}
-		});
+		}
 	}
-
+	
+	/**
+	 * @return
+	 * 		the buffer of snapshots remote entities are interpolated between.
+	 */
+	public InterpolationBuffer getInterpolationBuffer() {
+		return interpolation;
+	}
+	
+	/**
+	 * @return
+	 * 		the inputs of our own player the server has not yet processed.
+	 */
+	public PredictionBuffer getPredictionBuffer() {
+		return prediction;
+	}
+	
+	/**
+	 * Update the entities from the given snapshot delta, and correct our
+	 * own player with its position in the snapshot.
+	 * 
+	 * @param delta
+	 * 		the delta received from the server.
+	 * @param inputSequence
+	 * 		the sequence number of the last input of our player the server
+	 * 		processed before the snapshot.
+	 * 
+	 * @return
+	 * 		the sequence of the snapshot to acknowledge to the server, or
+	 * 		{@link SnapshotDelta#FULL} if all entities should be sent again.
+	 * 
+	 * @see #updateEntities(SnapshotDelta)
+	 */
+	public int updateEntities(SnapshotDelta delta, int inputSequence) {
+		int ack = updateEntities(delta);
+		if (ack == SnapshotDelta.FULL) {
+			return ack;
+		}
+		
+		PlayerFish own = getOwnPlayer();
+		EntityState state = own == null ? null : snapshots.get(ack).find(own.getEntityId());
+		if (state != null) {
+			prediction.setCorrection(inputSequence, state.getX(), state.getY());
+		}
+		
+		return ack;
+	}
+	
 	/**
-	 * Updates the given current entity with the given updated entity.
+	 * Update the entities from the given snapshot delta.
+	 * 
+	 * @param delta
+	 * 		the delta received from the server.
 	 * 
-	 * @param current
-	 * 		the entity to be updated
-	 * @param updated
-	 * 		the entity to update with
+	 * @return
+	 * 		the sequence of the snapshot to acknowledge to the server, or
+	 * 		{@link SnapshotDelta#FULL} if the baseline of the delta is no
+	 * 		longer known and all entities should be sent again.
 	 */
-	public void updateEntity(Entity current, Entity updated) {
-		//If current and updated are the same object, we don't need to update it.
-		if (current == updated) {
-			return;
+	public int updateEntities(SnapshotDelta delta) {
+		EntitySnapshot baseline = null;
+		if (!delta.isFull()) {
+			baseline = snapshots.get(delta.getBaselineSequence());
+			if (baseline == null) {
+				logger.log(LogLevel.DEBUG, "[MCPF] Snapshot " + delta.getBaselineSequence()
+						+ " is unknown, requesting all entities.");
+				return SnapshotDelta.FULL;
+			}
 		}
 		
-		//Update death state
-		if (updated.isDead()) {
-			current.kill();
+		EntitySnapshot snapshot = delta.apply(baseline);
+		snapshots.add(snapshot);
+		interpolation.add(snapshot, System.nanoTime());
+		updateEntities(snapshot);
+		return snapshot.getSequence();
+	}
+	
+	/**
+	 * Update the entities list to the given snapshot.<br>
+	 * <br>
+	 * New entities are created at their position in the snapshot. Existing
+	 * entities are not moved, that is done by
+	 * {@link #interpolateEntities(long)}.
+	 * 
+	 * @param snapshot
+	 * 		the snapshot to update to.
+	 */
+	public void updateEntities(EntitySnapshot snapshot) {
+		//Entities that are no longer in the snapshot are removed
+		for (Entity entity : getEntities()) {
+			if (snapshot.find(entity.getEntityId()) == null) {
+				remove(entity);
+			}
 		}
 		
-		//If the current entity is our own player
-		if (current instanceof PlayerFish && current.equals(getOwnPlayer())) {
-			//We need to only update our size
-			current.getBoundingArea().setSize(updated.getBoundingArea().getSize());
-		} else {
-			//Update bounding area
-			current.getBoundingArea().updateTo(updated.getBoundingArea());
+		PlayerFish own = getOwnPlayer();
+		for (int i = 0; i < snapshot.size(); i++) {
+			EntityState state = snapshot.get(i);
+			Entity entity = getEntity(state.getEntityId());
 			
-			//Update behaviour
-			if (current.getBehaviour().getClass() == updated.getBehaviour().getClass()) {
-				current.getBehaviour().updateTo(updated.getBehaviour());
+			if (entity == null) {
+				add(state.createEntity());
+			} else if (entity instanceof PlayerFish && entity.equals(own)) {
+				//We need to only update the size of our own player
+				state.applySizeTo(entity);
 			} else {
-				current.setBehaviour(updated.getBehaviour());
+				state.applyStatusTo(entity);
 			}
 		}
 	}
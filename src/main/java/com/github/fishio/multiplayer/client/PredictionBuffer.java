@@ -0,0 +1,236 @@
+package com.github.fishio.multiplayer.client;
+
+/**
+ * Remembers the inputs of the own player that the server has not yet
+ * processed.<br>
+ * <br>
+ * The client moves its own player immediately with every input, and
+ * records the input together with the speed the player had afterwards.
+ * When a snapshot arrives, the server tells which input it processed last.
+ * The player is then put at the position of the server and the inputs
+ * after that one are replayed, so that the player ends up where the
+ * server will put it, without waiting a round trip for every key press.
+ */
+public class PredictionBuffer {
+	/**
+	 * The maximum amount of inputs that are remembered.
+	 */
+	public static final int CAPACITY = 128;
+	
+	private final byte[] inputs = new byte[CAPACITY];
+	private final double[] speedX = new double[CAPACITY];
+	private final double[] speedY = new double[CAPACITY];
+	private int start;
+	private int next;
+	private int unsent;
+	
+	private int lastCorrected = -1;
+	private Correction correction;
+	
+	/**
+	 * Records the input of the current tick.
+	 * 
+	 * @param input
+	 * 		the input, as a combination of the INPUT bits of the behaviour.
+	 * @param vx
+	 * 		the speed in the x direction after the input was applied.
+	 * @param vy
+	 * 		the speed in the y direction after the input was applied.
+	 * 
+	 * @return
+	 * 		the sequence number of the input.
+	 */
+	public synchronized int record(int input, double vx, double vy) {
+		int i = next % CAPACITY;
+		inputs[i] = (byte) input;
+		speedX[i] = vx;
+		speedY[i] = vy;
+		
+		//Inputs that fell out of the buffer are never sent.
+		unsent = Math.max(unsent, next + 1 - CAPACITY);
+		return next++;
+	}
+	
+	/**
+	 * @param sequence
+	 * 		the sequence number of an input.
+	 * 
+	 * @return
+	 * 		<code>true</code> if the given input is still remembered.
+	 */
+	public synchronized boolean contains(int sequence) {
+		return sequence >= start && sequence < next && sequence >= next - CAPACITY;
+	}
+	
+	/**
+	 * @param sequence
+	 * 		the sequence number of a remembered input.
+	 * 
+	 * @return
+	 * 		the input.
+	 */
+	public synchronized int getInput(int sequence) {
+		return inputs[sequence % CAPACITY];
+	}
+	
+	/**
+	 * @param sequence
+	 * 		the sequence number of a remembered input.
+	 * 
+	 * @return
+	 * 		the speed in the x direction after the input.
+	 */
+	public synchronized double getSpeedX(int sequence) {
+		return speedX[sequence % CAPACITY];
+	}
+	
+	/**
+	 * @param sequence
+	 * 		the sequence number of a remembered input.
+	 * 
+	 * @return
+	 * 		the speed in the y direction after the input.
+	 */
+	public synchronized double getSpeedY(int sequence) {
+		return speedY[sequence % CAPACITY];
+	}
+	
+	/**
+	 * @return
+	 * 		the sequence number of the first input of the current player.
+	 */
+	public synchronized int getStartSequence() {
+		return start;
+	}
+	
+	/**
+	 * @return
+	 * 		the sequence number the next input will get.
+	 */
+	public synchronized int getNextSequence() {
+		return next;
+	}
+	
+	/**
+	 * @return
+	 * 		the sequence number of the first input that was not sent yet.
+	 */
+	public synchronized int getUnsentSequence() {
+		return unsent;
+	}
+	
+	/**
+	 * Takes the inputs that were not sent yet.
+	 * 
+	 * @return
+	 * 		the message with the unsent inputs, or <code>null</code> if all
+	 * 		inputs were sent.
+	 */
+	public synchronized FishClientInputMessage takeUnsent() {
+		if (unsent == next) {
+			return null;
+		}
+		
+		byte[] batch = new byte[next - unsent];
+		for (int i = 0; i < batch.length; i++) {
+			batch[i] = inputs[(unsent + i) % CAPACITY];
+		}
+		
+		FishClientInputMessage message = new FishClientInputMessage(unsent, batch);
+		unsent = next;
+		return message;
+	}
+	
+	/**
+	 * Sets the position the server had for the own player after the given
+	 * input. Only the newest correction is kept.
+	 * 
+	 * @param sequence
+	 * 		the sequence number of the last input the server processed.
+	 * @param x
+	 * 		the x coordinate of the center of the player.
+	 * @param y
+	 * 		the y coordinate of the center of the player.
+	 */
+	public synchronized void setCorrection(int sequence, double x, double y) {
+		if (sequence < lastCorrected) {
+			return;
+		}
+		
+		lastCorrected = sequence;
+		correction = new Correction(sequence, x, y);
+	}
+	
+	/**
+	 * Takes the newest correction that was not taken yet.
+	 * 
+	 * @return
+	 * 		the correction, or <code>null</code> if there is none.
+	 */
+	public synchronized Correction takeCorrection() {
+		Correction c = correction;
+		correction = null;
+		return c;
+	}
+	
+	/**
+	 * Forgets all inputs and corrections. This should be done when the own
+	 * player changes. Sequence numbers are not reused, so that inputs are
+	 * never mistaken for older ones.
+	 */
+	public synchronized void clear() {
+		start = next;
+		unsent = next;
+		lastCorrected = -1;
+		correction = null;
+	}
+	
+	/**
+	 * The position of the own player on the server after an input.
+	 */
+	public static final class Correction {
+		private final int sequence;
+		private final double x;
+		private final double y;
+		
+		/**
+		 * Creates a new Correction.
+		 * 
+		 * @param sequence
+		 * 		the sequence number of the input.
+		 * @param x
+		 * 		the x coordinate of the center of the player.
+		 * @param y
+		 * 		the y coordinate of the center of the player.
+		 */
+		Correction(int sequence, double x, double y) {
+			this.sequence = sequence;
+			this.x = x;
+			this.y = y;
+		}
+		
+		/**
+		 * @return
+		 * 		the sequence number of the input.
+		 */
+		public int getSequence() {
+			return sequence;
+		}
+		
+		/**
+		 * @return
+		 * 		the x coordinate of the center of the player.
+		 */
+		public double getX() {
+			return x;
+		}
+		
+		/**
+		 * @return
+		 * 		the y coordinate of the center of the player.
+		 */
+		public double getY() {
+			return y;
+		}
+	}
+}
@@ -0,0 +1,359 @@
+package com.github.fishio.multiplayer.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+import com.github.fishio.CollisionMask;
+import com.github.fishio.EnemyFish;
+import com.github.fishio.Entity;
+import com.github.fishio.PlayerFish;
+import com.github.fishio.SpriteStore;
+import com.github.fishio.Vec2d;
+import com.github.fishio.behaviours.IMoveBehaviour;
+import com.github.fishio.behaviours.KeyListenerBehaviour;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.CorruptedFrameException;
+
+/**
+ * Writes and reads entities as fixed width binary records.<br>
+ * <br>
+ * Every entity starts with a common record of {@value #COMMON_BYTES}
+ * bytes:
+ * <pre>
+ * int   entity id
+ * byte  type ({@link #TYPE_ENEMY_FISH} or {@link #TYPE_PLAYER_FISH})
+ * byte  flags ({@link #FLAG_DEAD})
+ * float x, y, width, height, rotation
+ * float vx, vy
+ * float alpha ratio
+ * </pre>
+ * Enemy fish add a short with the id of their sprite. Player fish add
+ * their score, lives, invincibility end time, maximum speed,
+ * acceleration and hue.
+ */
+public final class EntityCodec {
+	/**
+	 * Type of an {@link EnemyFish}.
+	 */
+	public static final byte TYPE_ENEMY_FISH = 0;
+
+	/**
+	 * Type of a {@link PlayerFish}.
+	 */
+	public static final byte TYPE_PLAYER_FISH = 1;
+
+	/**
+	 * Flag that is set when the entity is dead.
+	 */
+	public static final int FLAG_DEAD = 1;
+
+	/**
+	 * The amount of bytes every entity uses.
+	 */
+	public static final int COMMON_BYTES = 4 + 1 + 1 + 8 * 4;
+
+	/**
+	 * The amount of bytes an enemy fish with a known sprite uses.
+	 */
+	public static final int ENEMY_FISH_BYTES = COMMON_BYTES + 2;
+
+	/**
+	 * The amount of bytes a player fish uses.
+	 */
+	public static final int PLAYER_FISH_BYTES = COMMON_BYTES + 4 + 4 + 8 + 4 + 4;
+
+	/**
+	 * Sprite id used for sprites that are not in the sprite table. The
+	 * location of the sprite follows as a string.
+	 */
+	static final short UNKNOWN_SPRITE = -1;
+
+	private static final String[] SPRITES = createSpriteTable();
+	private static final HashMap<String, Short> SPRITE_IDS = new HashMap<>();
+
+	static {
+		for (short i = 0; i < SPRITES.length; i++) {
+			SPRITE_IDS.put(SPRITES[i], i);
+		}
+	}
+
+	private EntityCodec() { }
+
+	/**
+	 * @return
+	 * 		the locations of all sprites that can be sent as an id.
+	 */
+	private static String[] createSpriteTable() {
+		String[] table = new String[29];
+		for (int i = 0; i < 28; i++) {
+			table[i] = "sprites/fish/fish" + i + ".png";
+		}
+
+		table[28] = PlayerFish.SPRITE_LOCATION;
+		return table;
+	}
+
+	/**
+	 * @param location
+	 * 		the location of a sprite.
+	 *
+	 * @return
+	 * 		the id of the sprite at the given location, or -1 if it does not
+	 * 		have an id.
+	 */
+	public static short getSpriteId(String location) {
+		Short id = SPRITE_IDS.get(location);
+		return id == null ? UNKNOWN_SPRITE : id;
+	}
+
+	/**
+	 * Writes the given entity to the given buffer.
+	 *
+	 * @param entity
+	 * 		the entity to write.
+	 * @param out
+	 * 		the buffer to write to.
+	 *
+	 * @throws IllegalArgumentException
+	 * 		if the entity is not an enemy fish or a player fish.
+	 */
+	public static void write(Entity entity, ByteBuf out) {
+		byte type;
+		if (entity instanceof EnemyFish) {
+			type = TYPE_ENEMY_FISH;
+		} else if (entity instanceof PlayerFish) {
+			type = TYPE_PLAYER_FISH;
+		} else {
+			throw new IllegalArgumentException("Cannot encode entity of type " + entity.getClass().getSimpleName());
+		}
+
+		CollisionMask cm = entity.getBoundingArea();
+		Vec2d speed = entity.getBehaviour().getSpeedVector();
+
+		out.writeInt(entity.getEntityId());
+		out.writeByte(type);
+		out.writeByte(entity.isDead() ? FLAG_DEAD : 0);
+		out.writeFloat((float) cm.getCenterX());
+		out.writeFloat((float) cm.getCenterY());
+		out.writeFloat((float) cm.getWidth());
+		out.writeFloat((float) cm.getHeight());
+		out.writeFloat((float) cm.getRotation());
+		out.writeFloat((float) speed.x);
+		out.writeFloat((float) speed.y);
+		out.writeFloat((float) cm.getAlphaRatio());
+
+		if (type == TYPE_ENEMY_FISH) {
+			String sprite = ((EnemyFish) entity).getSpriteLocation();
+			short id = getSpriteId(sprite);
+			out.writeShort(id);
+			if (id == UNKNOWN_SPRITE) {
+				writeString(sprite, out);
+			}
+		} else {
+			writePlayer((PlayerFish) entity, out);
+		}
+	}
+
+	/**
+	 * Writes the fields specific to player fish.
+	 *
+	 * @param player
+	 * 		the player to write.
+	 * @param out
+	 * 		the buffer to write to.
+	 */
+	private static void writePlayer(PlayerFish player, ByteBuf out) {
+		out.writeInt(player.scoreProperty().get());
+		out.writeInt(player.getLives());
+		out.writeLong(player.getInvincible());
+
+		IMoveBehaviour behaviour = player.getBehaviour();
+		if (behaviour instanceof KeyListenerBehaviour) {
+			KeyListenerBehaviour klb = (KeyListenerBehaviour) behaviour;
+			out.writeFloat((float) klb.getMaxSpeed());
+			out.writeFloat((float) klb.getAcceleration());
+		} else {
+			out.writeFloat(0F);
+			out.writeFloat(0F);
+		}
+		out.writeFloat((float) player.getHue());
+	}
+
+	/**
+	 * Reads an entity from the given buffer.
+	 *
+	 * @param in
+	 * 		the buffer to read from.
+	 *
+	 * @return
+	 * 		the entity that was read.
+	 *
+	 * @throws CorruptedFrameException
+	 * 		if the entity has an unknown type or sprite.
+	 */
+	public static Entity read(ByteBuf in) {
+		int id = in.readInt();
+		byte type = in.readByte();
+		int flags = in.readByte();
+		double x = in.readFloat();
+		double y = in.readFloat();
+		double width = in.readFloat();
+		double height = in.readFloat();
+		double rotation = in.readFloat();
+		double vx = in.readFloat();
+		double vy = in.readFloat();
+		double alphaRatio = in.readFloat();
+
+		//Collision data is not sent, the server checks all collisions.
+		CollisionMask cm = new CollisionMask(new Vec2d(x, y), width, height, (boolean[][]) null, alphaRatio);
+		cm.setRotation(rotation);
+
+		Entity entity;
+		if (type == TYPE_ENEMY_FISH) {
+			entity = createEntity(type, cm, readSprite(in), vx, vy);
+		} else if (type == TYPE_PLAYER_FISH) {
+			PlayerFish player = (PlayerFish) createEntity(type, cm, null, vx, vy);
+			readPlayer(player, in);
+			entity = player;
+		} else {
+			throw new CorruptedFrameException("Unknown entity type " + type);
+		}
+
+		entity.setEntityId(id);
+		if ((flags & FLAG_DEAD) != 0) {
+			entity.getDeathProperty().set(true);
+		}
+
+		return entity;
+	}
+
+	/**
+	 * Reads the sprite of an enemy fish.
+	 *
+	 * @param in
+	 * 		the buffer to read from.
+	 *
+	 * @return
+	 * 		the location of the sprite.
+	 */
+	private static String readSprite(ByteBuf in) {
+		short id = in.readShort();
+		if (id == UNKNOWN_SPRITE) {
+			return readString(in);
+		}
+
+		return getSpriteLocation(id);
+	}
+
+	/**
+	 * Reads the fields specific to player fish.
+	 *
+	 * @param player
+	 * 		the player to update.
+	 * @param in
+	 * 		the buffer to read from.
+	 */
+	private static void readPlayer(PlayerFish player, ByteBuf in) {
+		player.scoreProperty().set(in.readInt());
+		player.livesProperty().set(in.readInt());
+		player.setInvincible(in.readLong());
+
+		double maxSpeed = in.readFloat();
+		double acceleration = in.readFloat();
+		if (maxSpeed > 0) {
+			KeyListenerBehaviour klb = (KeyListenerBehaviour) player.getBehaviour();
+			klb.setMaxSpeed(maxSpeed);
+			klb.setAcceleration(acceleration);
+		}
+		player.setHue(in.readFloat());
+	}
+
+	/**
+	 * Creates a new entity of the given type.
+	 *
+	 * @param type
+	 * 		the type of the entity.
+	 * @param cm
+	 * 		the collision mask of the entity.
+	 * @param sprite
+	 * 		the location of the sprite, only used for enemy fish.
+	 * @param vx
+	 * 		the speed of the entity in the x direction.
+	 * @param vy
+	 * 		the speed of the entity in the y direction.
+	 *
+	 * @return
+	 * 		the new entity.
+	 *
+	 * @throws CorruptedFrameException
+	 * 		if the type is unknown.
+	 */
+	static Entity createEntity(byte type, CollisionMask cm, String sprite, double vx, double vy) {
+		if (type == TYPE_ENEMY_FISH) {
+			return new EnemyFish(cm, sprite, vx, vy);
+		} else if (type == TYPE_PLAYER_FISH) {
+			PlayerFish player = new PlayerFish(cm, SpriteStore.getSpriteOrLoad(PlayerFish.SPRITE_LOCATION));
+			((KeyListenerBehaviour) player.getBehaviour()).setSpeedVector(new Vec2d(vx, vy));
+			return player;
+		}
+
+		throw new CorruptedFrameException("Unknown entity type " + type);
+	}
+
+	/**
+	 * @param id
+	 * 		the id of a sprite.
+	 *
+	 * @return
+	 * 		the location of the sprite with the given id.
+	 *
+	 * @throws CorruptedFrameException
+	 * 		if there is no sprite with the given id.
+	 */
+	static String getSpriteLocation(int id) {
+		if (id < 0 || id >= SPRITES.length) {
+			throw new CorruptedFrameException("Unknown sprite id " + id);
+		}
+
+		return SPRITES[id];
+	}
+
+	/**
+	 * Writes a string as a short length followed by its UTF-8 bytes.
+	 *
+	 * @param string
+	 * 		the string to write.
+	 * @param out
+	 * 		the buffer to write to.
+	 */
+	static void writeString(String string, ByteBuf out) {
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length > Short.MAX_VALUE) {
+			throw new IllegalArgumentException("String is too long to encode: " + bytes.length + " bytes");
+		}
+
+		out.writeShort(bytes.length);
+		out.writeBytes(bytes);
+	}
+
+	/**
+	 * Reads a string written by {@link #writeString(String, ByteBuf)}.
+	 *
+	 * @param in
+	 * 		the buffer to read from.
+	 *
+	 * @return
+	 * 		the string that was read.
+	 */
+	static String readString(ByteBuf in) {
+		int length = in.readShort();
+		if (length < 0) {
+			throw new CorruptedFrameException("Negative string length " + length);
+		}
+
+		byte[] bytes = new byte[length];
+		in.readBytes(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
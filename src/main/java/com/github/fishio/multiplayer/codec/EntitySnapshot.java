@@ -0,0 +1,267 @@
+package com.github.fishio.multiplayer.codec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.Predicate;
+
+import com.github.fishio.Entity;
+
+/**
+ * An immutable snapshot of the state of all entities at a single tick.<br>
+ * <br>
+ * The states are sorted by entity id, so two snapshots can be compared
+ * with a single merge pass.<br>
+ * <br>
+ * On the server, a snapshot also records the last input of every player
+ * that was processed at its tick, so that the input a client is told
+ * about always matches the position it receives.
+ */
+public final class EntitySnapshot {
+	private static final Comparator<EntityState> BY_ID =
+			(a, b) -> Integer.compare(a.entityId, b.entityId);
+
+	private final int sequence;
+	private final int tick;
+	private final EntityState[] states;
+	private final int[] inputPlayers;
+	private final int[] inputSequences;
+
+	/**
+	 * Creates a new EntitySnapshot.
+	 *
+	 * @param sequence
+	 * 		the sequence number of the snapshot.
+	 * @param tick
+	 * 		the game tick at which the snapshot was captured.
+	 * @param states
+	 * 		the states of the entities, sorted by entity id.
+	 */
+	EntitySnapshot(int sequence, int tick, EntityState[] states) {
+		this(sequence, tick, states, new int[0], new int[0]);
+	}
+
+	/**
+	 * Creates a new EntitySnapshot with the last processed inputs of the
+	 * players.
+	 *
+	 * @param sequence
+	 * 		the sequence number of the snapshot.
+	 * @param tick
+	 * 		the game tick at which the snapshot was captured.
+	 * @param states
+	 * 		the states of the entities, sorted by entity id.
+	 * @param inputPlayers
+	 * 		the entity ids of the players, sorted.
+	 * @param inputSequences
+	 * 		the sequence numbers of the last processed inputs of the
+	 * 		players, in the same order.
+	 */
+	private EntitySnapshot(int sequence, int tick, EntityState[] states,
+			int[] inputPlayers, int[] inputSequences) {
+		this.sequence = sequence;
+		this.tick = tick;
+		this.states = states;
+		this.inputPlayers = inputPlayers;
+		this.inputSequences = inputSequences;
+	}
+
+	/**
+	 * Captures the state of the given entities, at a tick equal to the
+	 * sequence.
+	 *
+	 * @param sequence
+	 * 		the sequence number of the snapshot.
+	 * @param entities
+	 * 		the entities to capture.
+	 *
+	 * @return
+	 * 		the new snapshot.
+	 *
+	 * @see #capture(int, int, Iterable)
+	 */
+	public static EntitySnapshot capture(int sequence, Iterable<? extends Entity> entities) {
+		return capture(sequence, sequence, entities);
+	}
+
+	/**
+	 * Captures the state of the given entities. Entities that cannot be
+	 * sent to clients are skipped.<br>
+	 * <br>
+	 * This should be called from the game thread, so that the entities
+	 * do not change while they are captured.
+	 *
+	 * @param sequence
+	 * 		the sequence number of the snapshot.
+	 * @param tick
+	 * 		the current game tick.
+	 * @param entities
+	 * 		the entities to capture.
+	 *
+	 * @return
+	 * 		the new snapshot.
+	 */
+	public static EntitySnapshot capture(int sequence, int tick, Iterable<? extends Entity> entities) {
+		ArrayList<EntityState> states = new ArrayList<>();
+		for (Entity entity : entities) {
+			if (EntityState.canCapture(entity)) {
+				states.add(EntityState.capture(entity));
+			}
+		}
+
+		EntityState[] array = states.toArray(new EntityState[states.size()]);
+		Arrays.sort(array, BY_ID);
+		return new EntitySnapshot(sequence, tick, array);
+	}
+
+	/**
+	 * @return
+	 * 		the sequence number of this snapshot.
+	 */
+	public int getSequence() {
+		return sequence;
+	}
+
+	/**
+	 * @return
+	 * 		the game tick at which this snapshot was captured.
+	 */
+	public int getTick() {
+		return tick;
+	}
+
+	/**
+	 * @return
+	 * 		the amount of entities in this snapshot.
+	 */
+	public int size() {
+		return states.length;
+	}
+
+	/**
+	 * @param index
+	 * 		the index of the state, between 0 and {@link #size()}.
+	 *
+	 * @return
+	 * 		the state at the given index.
+	 */
+	public EntityState get(int index) {
+		return states[index];
+	}
+
+	/**
+	 * @param entityId
+	 * 		the id of an entity.
+	 *
+	 * @return
+	 * 		the state of the entity with the given id, or <code>null</code>
+	 * 		if it is not in this snapshot.
+	 */
+	public EntityState find(int entityId) {
+		int low = 0;
+		int high = states.length - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int id = states[mid].entityId;
+			if (id < entityId) {
+				low = mid + 1;
+			} else if (id > entityId) {
+				high = mid - 1;
+			} else {
+				return states[mid];
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Creates a snapshot with the same sequence, that only contains the
+	 * states that match the given predicate.
+	 *
+	 * @param predicate
+	 * 		the predicate states must match.
+	 *
+	 * @return
+	 * 		the filtered snapshot.
+	 */
+	public EntitySnapshot filter(Predicate<EntityState> predicate) {
+		ArrayList<EntityState> filtered = new ArrayList<>(states.length);
+		for (EntityState state : states) {
+			if (predicate.test(state)) {
+				filtered.add(state);
+			}
+		}
+
+		return new EntitySnapshot(sequence, tick, filtered.toArray(new EntityState[filtered.size()]),
+				inputPlayers, inputSequences);
+	}
+
+	/**
+	 * Creates a snapshot with the same states, but with another sequence
+	 * number. The states are shared, not copied.
+	 *
+	 * @param newSequence
+	 * 		the sequence number of the new snapshot.
+	 *
+	 * @return
+	 * 		the renumbered snapshot.
+	 */
+	public EntitySnapshot withSequence(int newSequence) {
+		return new EntitySnapshot(newSequence, tick, states, inputPlayers, inputSequences);
+	}
+
+	/**
+	 * Creates a snapshot with the same states, that records the given last
+	 * processed inputs. This should be called from the game thread, right
+	 * after capturing the snapshot.
+	 *
+	 * @param players
+	 * 		the entity ids of the players.
+	 * @param sequences
+	 * 		the sequence numbers of the last processed inputs of the
+	 * 		players, in the same order.
+	 *
+	 * @return
+	 * 		the new snapshot.
+	 */
+	public EntitySnapshot withInputSequences(int[] players, int[] sequences) {
+		if (players.length != sequences.length) {
+			throw new IllegalArgumentException("Every player needs exactly one input sequence!");
+		}
+
+		Integer[] order = new Integer[players.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> Integer.compare(players[a], players[b]));
+
+		int[] sortedPlayers = new int[players.length];
+		int[] sortedSequences = new int[players.length];
+		for (int i = 0; i < order.length; i++) {
+			sortedPlayers[i] = players[order[i]];
+			sortedSequences[i] = sequences[order[i]];
+		}
+
+		return new EntitySnapshot(sequence, tick, states, sortedPlayers, sortedSequences);
+	}
+
+	/**
+	 * @param playerId
+	 * 		the entity id of a player.
+	 *
+	 * @return
+	 * 		the sequence number of the last input of the given player that
+	 * 		was processed when this snapshot was captured, or -1 if this
+	 * 		snapshot has no inputs of that player.
+	 */
+	public int getInputSequence(int playerId) {
+		int index = Arrays.binarySearch(inputPlayers, playerId);
+		return index < 0 ? -1 : inputSequences[index];
+	}
+
+	@Override
+	public String toString() {
+		return "EntitySnapshot [sequence: " + sequence + ", tick: " + tick + ", entities: " + states.length + "]";
+	}
+}
@@ -0,0 +1,447 @@
+package com.github.fishio.multiplayer.codec;
+
+import com.github.fishio.CollisionMask;
+import com.github.fishio.EnemyFish;
+import com.github.fishio.Entity;
+import com.github.fishio.PlayerFish;
+import com.github.fishio.Vec2d;
+import com.github.fishio.behaviours.IMoveBehaviour;
+import com.github.fishio.behaviours.KeyListenerBehaviour;
+import com.github.fishio.behaviours.RandomBehaviour;
+
+/**
+ * The quantised state of a single entity in an {@link EntitySnapshot}.<br>
+ * <br>
+ * All values are stored as integers, so two states can be compared field
+ * by field and only the fields that changed have to be sent.
+ */
+public final class EntityState {
+	/**
+	 * Positions and sizes are stored in 1/8th of a pixel.
+	 */
+	public static final int POSITION_SCALE = 8;
+
+	/**
+	 * Rotations are stored in 1/100th of a degree.
+	 */
+	public static final int ROTATION_SCALE = 100;
+
+	/**
+	 * Speeds are stored in 1/256th of a pixel per tick.
+	 */
+	public static final int SPEED_SCALE = 256;
+
+	/**
+	 * Alpha ratios are stored in 1/65536th.
+	 */
+	public static final int ALPHA_SCALE = 1 << 16;
+
+	static final int X = 1;
+	static final int Y = 1 << 1;
+	static final int WIDTH = 1 << 2;
+	static final int HEIGHT = 1 << 3;
+	static final int ROTATION = 1 << 4;
+	static final int VX = 1 << 5;
+	static final int VY = 1 << 6;
+	static final int ALPHA = 1 << 7;
+	static final int DEAD = 1 << 8;
+	static final int PLAYER = 1 << 9;
+
+	int entityId;
+	byte type;
+	String sprite;
+	boolean dead;
+
+	int x;
+	int y;
+	int width;
+	int height;
+	int rotation;
+	int vx;
+	int vy;
+	int alpha;
+
+	int score;
+	int lives;
+	long invincible;
+	int maxSpeed;
+	int acceleration;
+	int hue;
+
+	/**
+	 * Creates a new, empty EntityState.
+	 */
+	EntityState() { }
+
+	/**
+	 * Creates a copy of the given EntityState.
+	 *
+	 * @param other
+	 * 		the state to copy.
+	 */
+	EntityState(EntityState other) {
+		this.entityId = other.entityId;
+		this.type = other.type;
+		this.sprite = other.sprite;
+		this.dead = other.dead;
+		this.x = other.x;
+		this.y = other.y;
+		this.width = other.width;
+		this.height = other.height;
+		this.rotation = other.rotation;
+		this.vx = other.vx;
+		this.vy = other.vy;
+		this.alpha = other.alpha;
+		copyPlayer(other);
+	}
+
+	/**
+	 * Copies the fields specific to player fish from the given state.
+	 *
+	 * @param other
+	 * 		the state to copy from.
+	 */
+	void copyPlayer(EntityState other) {
+		this.score = other.score;
+		this.lives = other.lives;
+		this.invincible = other.invincible;
+		this.maxSpeed = other.maxSpeed;
+		this.acceleration = other.acceleration;
+		this.hue = other.hue;
+	}
+
+	/**
+	 * @param entity
+	 * 		an entity.
+	 *
+	 * @return
+	 * 		<code>true</code> if the state of the given entity can be
+	 * 		captured, <code>false</code> otherwise.
+	 */
+	public static boolean canCapture(Entity entity) {
+		return entity instanceof EnemyFish || entity instanceof PlayerFish;
+	}
+
+	/**
+	 * Captures the current state of the given entity.
+	 *
+	 * @param entity
+	 * 		the entity.
+	 *
+	 * @return
+	 * 		the quantised state of the entity.
+	 *
+	 * @throws IllegalArgumentException
+	 * 		if the entity is not an enemy fish or a player fish.
+	 */
+	public static EntityState capture(Entity entity) {
+		EntityState state = new EntityState();
+		if (entity instanceof EnemyFish) {
+			state.type = EntityCodec.TYPE_ENEMY_FISH;
+			state.sprite = ((EnemyFish) entity).getSpriteLocation();
+		} else if (entity instanceof PlayerFish) {
+			state.type = EntityCodec.TYPE_PLAYER_FISH;
+			capturePlayer((PlayerFish) entity, state);
+		} else {
+			throw new IllegalArgumentException("Cannot capture entity of type " + entity.getClass().getSimpleName());
+		}
+
+		CollisionMask cm = entity.getBoundingArea();
+		Vec2d speed = entity.getBehaviour().getSpeedVector();
+
+		state.entityId = entity.getEntityId();
+		state.dead = entity.isDead();
+		state.x = quantise(cm.getCenterX(), POSITION_SCALE);
+		state.y = quantise(cm.getCenterY(), POSITION_SCALE);
+		state.width = quantise(cm.getWidth(), POSITION_SCALE);
+		state.height = quantise(cm.getHeight(), POSITION_SCALE);
+		state.rotation = quantise(cm.getRotation(), ROTATION_SCALE);
+		state.vx = quantise(speed.x, SPEED_SCALE);
+		state.vy = quantise(speed.y, SPEED_SCALE);
+		state.alpha = quantise(cm.getAlphaRatio(), ALPHA_SCALE);
+		return state;
+	}
+
+	/**
+	 * Captures the fields specific to player fish.
+	 *
+	 * @param player
+	 * 		the player.
+	 * @param state
+	 * 		the state to store the fields in.
+	 */
+	private static void capturePlayer(PlayerFish player, EntityState state) {
+		state.score = player.scoreProperty().get();
+		state.lives = player.getLives();
+		state.invincible = player.getInvincible();
+		state.hue = Float.floatToIntBits((float) player.getHue());
+
+		IMoveBehaviour behaviour = player.getBehaviour();
+		if (behaviour instanceof KeyListenerBehaviour) {
+			KeyListenerBehaviour klb = (KeyListenerBehaviour) behaviour;
+			state.maxSpeed = Float.floatToIntBits((float) klb.getMaxSpeed());
+			state.acceleration = Float.floatToIntBits((float) klb.getAcceleration());
+		}
+	}
+
+	/**
+	 * @param value
+	 * 		the value to quantise.
+	 * @param scale
+	 * 		the amount of steps per unit.
+	 *
+	 * @return
+	 * 		the given value rounded to the nearest step.
+	 */
+	static int quantise(double value, int scale) {
+		return (int) Math.round(value * scale);
+	}
+
+	/**
+	 * Compares this state with the given (older) state.
+	 *
+	 * @param baseline
+	 * 		the state of the same entity to compare with.
+	 *
+	 * @return
+	 * 		a mask with a bit set for every field that differs.
+	 */
+	int diff(EntityState baseline) {
+		int mask = 0;
+		mask |= x != baseline.x ? X : 0;
+		mask |= y != baseline.y ? Y : 0;
+		mask |= width != baseline.width ? WIDTH : 0;
+		mask |= height != baseline.height ? HEIGHT : 0;
+		mask |= rotation != baseline.rotation ? ROTATION : 0;
+		mask |= vx != baseline.vx ? VX : 0;
+		mask |= vy != baseline.vy ? VY : 0;
+		mask |= alpha != baseline.alpha ? ALPHA : 0;
+		mask |= dead != baseline.dead ? DEAD : 0;
+
+		if (score != baseline.score || lives != baseline.lives || invincible != baseline.invincible
+				|| maxSpeed != baseline.maxSpeed || acceleration != baseline.acceleration
+				|| hue != baseline.hue) {
+			mask |= PLAYER;
+		}
+
+		return mask;
+	}
+
+	/**
+	 * @return
+	 * 		the entity id of the entity.
+	 */
+	public int getEntityId() {
+		return entityId;
+	}
+
+	/**
+	 * @return
+	 * 		<code>true</code> if the entity is dead.
+	 */
+	public boolean isDead() {
+		return dead;
+	}
+
+	/**
+	 * @return
+	 * 		the x coordinate of the center of the entity.
+	 */
+	public double getX() {
+		return (double) x / POSITION_SCALE;
+	}
+
+	/**
+	 * @return
+	 * 		the y coordinate of the center of the entity.
+	 */
+	public double getY() {
+		return (double) y / POSITION_SCALE;
+	}
+
+	/**
+	 * @return
+	 * 		the width of the entity.
+	 */
+	public double getWidth() {
+		return (double) width / POSITION_SCALE;
+	}
+
+	/**
+	 * @return
+	 * 		the height of the entity.
+	 */
+	public double getHeight() {
+		return (double) height / POSITION_SCALE;
+	}
+
+	/**
+	 * @return
+	 * 		the rotation of the entity.
+	 */
+	public double getRotation() {
+		return (double) rotation / ROTATION_SCALE;
+	}
+
+	/**
+	 * @return
+	 * 		the speed of the entity in the x direction, per tick.
+	 */
+	public double getSpeedX() {
+		return (double) vx / SPEED_SCALE;
+	}
+
+	/**
+	 * @return
+	 * 		the speed of the entity in the y direction, per tick. Like all
+	 * 		speeds, positive values move the entity up.
+	 */
+	public double getSpeedY() {
+		return (double) vy / SPEED_SCALE;
+	}
+
+	/**
+	 * Updates the given entity to this state, except for its position,
+	 * size and rotation.
+	 *
+	 * @param entity
+	 * 		the entity to update.
+	 */
+	public void applyStatusTo(Entity entity) {
+		if (dead) {
+			entity.kill();
+		}
+
+		applySpeed(entity);
+
+		if (entity instanceof PlayerFish) {
+			applyPlayer((PlayerFish) entity);
+		}
+	}
+
+	/**
+	 * Creates a new entity with this state.
+	 *
+	 * @return
+	 * 		the new entity.
+	 */
+	public Entity createEntity() {
+		//Collision data is not sent, the server checks all collisions.
+		CollisionMask cm = new CollisionMask(new Vec2d(getX(), getY()),
+				(double) width / POSITION_SCALE, (double) height / POSITION_SCALE,
+				(boolean[][]) null, (double) alpha / ALPHA_SCALE);
+		cm.setRotation((double) rotation / ROTATION_SCALE);
+
+		Entity entity = EntityCodec.createEntity(type, cm, sprite,
+				(double) vx / SPEED_SCALE, (double) vy / SPEED_SCALE);
+		entity.setEntityId(entityId);
+		if (dead) {
+			entity.getDeathProperty().set(true);
+		}
+
+		if (entity instanceof PlayerFish) {
+			applyPlayer((PlayerFish) entity);
+		}
+
+		return entity;
+	}
+
+	/**
+	 * Updates the given entity to this state.
+	 *
+	 * @param entity
+	 * 		the entity to update.
+	 */
+	public void applyTo(Entity entity) {
+		if (dead) {
+			entity.kill();
+		}
+
+		entity.getBoundingArea().updateTo(getX(), getY(),
+				(double) width / POSITION_SCALE, (double) height / POSITION_SCALE,
+				(double) rotation / ROTATION_SCALE);
+
+		applySpeed(entity);
+
+		if (entity instanceof PlayerFish) {
+			applyPlayer((PlayerFish) entity);
+		}
+	}
+
+	/**
+	 * Updates the speed of the given entity.
+	 *
+	 * @param entity
+	 * 		the entity to update.
+	 */
+	private void applySpeed(Entity entity) {
+		Vec2d speed = new Vec2d(getSpeedX(), getSpeedY());
+		IMoveBehaviour behaviour = entity.getBehaviour();
+		if (behaviour instanceof RandomBehaviour) {
+			((RandomBehaviour) behaviour).setSpeedVector(speed);
+		} else if (behaviour instanceof KeyListenerBehaviour) {
+			((KeyListenerBehaviour) behaviour).setSpeedVector(speed);
+		}
+	}
+
+	/**
+	 * Only updates the size of the given entity to this state. This is
+	 * used for the player of the client, which moves on its own.
+	 *
+	 * @param entity
+	 * 		the entity to update.
+	 */
+	public void applySizeTo(Entity entity) {
+		if (dead) {
+			entity.kill();
+		}
+
+		double w = (double) width / POSITION_SCALE;
+		double h = (double) height / POSITION_SCALE;
+		entity.getBoundingArea().setSize(w * h * alpha / ALPHA_SCALE);
+	}
+
+	/**
+	 * Updates the fields specific to player fish of the given player.
+	 *
+	 * @param player
+	 * 		the player to update.
+	 */
+	private void applyPlayer(PlayerFish player) {
+		player.scoreProperty().set(score);
+		player.livesProperty().set(lives);
+		player.setInvincible(invincible);
+		player.setHue(Float.intBitsToFloat(hue));
+
+		if (maxSpeed != 0 && player.getBehaviour() instanceof KeyListenerBehaviour) {
+			KeyListenerBehaviour klb = (KeyListenerBehaviour) player.getBehaviour();
+			klb.setMaxSpeed(Float.intBitsToFloat(maxSpeed));
+			klb.setAcceleration(Float.intBitsToFloat(acceleration));
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		return entityId;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof EntityState)) {
+			return false;
+		}
+
+		EntityState other = (EntityState) obj;
+		return entityId == other.entityId && type == other.type && diff(other) == 0
+				&& (sprite == null ? other.sprite == null : sprite.equals(other.sprite));
+	}
+
+	@Override
+	public String toString() {
+		return "EntityState [id: " + entityId + ", type: " + type + ", x: " + getX() + ", y: " + getY()
+				+ ", dead: " + dead + "]";
+	}
+}
@@ -0,0 +1,276 @@
+package com.github.fishio.multiplayer.codec;
+
+import java.util.Map;
+
+import com.github.fishio.Entity;
+import com.github.fishio.PlayerFish;
+import com.github.fishio.multiplayer.FishMessage;
+import com.github.fishio.multiplayer.client.FishClientInputMessage;
+import com.github.fishio.multiplayer.client.FishClientJoinRoomMessage;
+import com.github.fishio.multiplayer.client.FishClientRequestPlayerMessage;
+import com.github.fishio.multiplayer.client.FishClientSnapshotAckMessage;
+import com.github.fishio.multiplayer.server.FishServerPlayerMessage;
+import com.github.fishio.multiplayer.server.FishServerSettingsMessage;
+import com.github.fishio.multiplayer.server.FishServerSnapshotMessage;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+
+/**
+ * Binary wire format of all {@link FishMessage}s.<br>
+ * <br>
+ * Every message is sent as a frame:
+ * <pre>
+ * int   length of the rest of the frame
+ * byte  protocol version ({@link #VERSION})
+ * byte  message type
+ * ...   message body
+ * </pre>
+ * Entities are written with the {@link EntityCodec}, snapshots as a
+ * {@link SnapshotDelta}.
+ */
+public final class FishMessageCodec {
+	/**
+	 * The version of the protocol. Frames with a different version are
+	 * rejected.
+	 */
+	public static final byte VERSION = 6;
+
+	/**
+	 * The amount of bytes of the header, including the length.
+	 */
+	public static final int HEADER_BYTES = 4 + 1 + 1;
+
+	/**
+	 * The maximum length of a frame.
+	 */
+	public static final int MAX_FRAME_LENGTH = 1 << 24;
+
+	static final byte TYPE_SERVER_SETTINGS = 1;
+	static final byte TYPE_SERVER_PLAYER = 2;
+	static final byte TYPE_CLIENT_REQUEST_PLAYER = 5;
+	static final byte TYPE_SERVER_SNAPSHOT = 6;
+	static final byte TYPE_CLIENT_SNAPSHOT_ACK = 7;
+	static final byte TYPE_CLIENT_INPUT = 8;
+	static final byte TYPE_CLIENT_JOIN_ROOM = 9;
+
+	private static final byte VALUE_INTEGER = 0;
+	private static final byte VALUE_DOUBLE = 1;
+	private static final byte VALUE_BOOLEAN = 2;
+	private static final byte VALUE_STRING = 3;
+
+	private FishMessageCodec() { }
+
+	/**
+	 * Adds the handlers that encode and decode FishMessages to the given
+	 * pipeline.
+	 *
+	 * @param pipeline
+	 * 		the pipeline of a channel.
+	 */
+	public static void addCodec(ChannelPipeline pipeline) {
+		pipeline.addLast("frameDecoder", new LengthFieldBasedFrameDecoder(MAX_FRAME_LENGTH, 0, 4, 0, 4));
+		pipeline.addLast("decoder", new FishMessageDecoder());
+		pipeline.addLast("encoder", new FishMessageEncoder());
+	}
+
+	/**
+	 * Writes the given message as a complete frame, including the length.
+	 *
+	 * @param message
+	 * 		the message to write.
+	 * @param out
+	 * 		the buffer to write to.
+	 *
+	 * @throws IllegalArgumentException
+	 * 		if the message cannot be encoded.
+	 */
+	public static void encode(FishMessage message, ByteBuf out) {
+		int start = out.writerIndex();
+		out.writeInt(0);
+		out.writeByte(VERSION);
+
+		if (message instanceof FishServerSnapshotMessage) {
+			out.writeByte(TYPE_SERVER_SNAPSHOT);
+			FishServerSnapshotMessage fssm = (FishServerSnapshotMessage) message;
+			out.writeInt(fssm.getInputSequence());
+			SnapshotDelta.write(fssm.getSnapshot(), fssm.getBaseline(), out);
+		} else if (message instanceof FishServerSettingsMessage) {
+			out.writeByte(TYPE_SERVER_SETTINGS);
+			writeSettings((FishServerSettingsMessage) message, out);
+		} else if (message instanceof FishServerPlayerMessage) {
+			out.writeByte(TYPE_SERVER_PLAYER);
+			EntityCodec.write(((FishServerPlayerMessage) message).getPlayer(), out);
+		} else if (message instanceof FishClientRequestPlayerMessage) {
+			out.writeByte(TYPE_CLIENT_REQUEST_PLAYER);
+		} else if (message instanceof FishClientSnapshotAckMessage) {
+			out.writeByte(TYPE_CLIENT_SNAPSHOT_ACK);
+			out.writeInt(((FishClientSnapshotAckMessage) message).getSequence());
+		} else if (message instanceof FishClientInputMessage) {
+			out.writeByte(TYPE_CLIENT_INPUT);
+			FishClientInputMessage fcim = (FishClientInputMessage) message;
+			out.writeInt(fcim.getFirstSequence());
+			SnapshotDelta.writeVarInt(fcim.getInputs().length, out);
+			out.writeBytes(fcim.getInputs());
+		} else if (message instanceof FishClientJoinRoomMessage) {
+			out.writeByte(TYPE_CLIENT_JOIN_ROOM);
+			EntityCodec.writeString(((FishClientJoinRoomMessage) message).getRoom(), out);
+		} else {
+			throw new IllegalArgumentException("Cannot encode message of type "
+					+ message.getClass().getSimpleName());
+		}
+
+		out.setInt(start, out.writerIndex() - start - 4);
+	}
+
+	/**
+	 * Reads a message from the given frame, without the length.
+	 *
+	 * @param in
+	 * 		the frame to read from.
+	 *
+	 * @return
+	 * 		the message that was read.
+	 *
+	 * @throws CorruptedFrameException
+	 * 		if the frame has a different version or an unknown type.
+	 */
+	public static FishMessage decode(ByteBuf in) {
+		byte version = in.readByte();
+		if (version != VERSION) {
+			throw new CorruptedFrameException("Unsupported protocol version " + version + ", expected " + VERSION);
+		}
+
+		byte type = in.readByte();
+		switch (type) {
+		case TYPE_SERVER_SNAPSHOT:
+			int inputSequence = in.readInt();
+			return new FishServerSnapshotMessage(SnapshotDelta.read(in), inputSequence);
+		case TYPE_SERVER_SETTINGS:
+			return readSettings(in);
+		case TYPE_SERVER_PLAYER:
+			return new FishServerPlayerMessage(readPlayer(in));
+		case TYPE_CLIENT_REQUEST_PLAYER:
+			return new FishClientRequestPlayerMessage();
+		case TYPE_CLIENT_SNAPSHOT_ACK:
+			return new FishClientSnapshotAckMessage(in.readInt());
+		case TYPE_CLIENT_INPUT:
+			return readInput(in);
+		case TYPE_CLIENT_JOIN_ROOM:
+			return new FishClientJoinRoomMessage(EntityCodec.readString(in));
+		default:
+			throw new CorruptedFrameException("Unknown message type " + type);
+		}
+	}
+
+	/**
+	 * @param in
+	 * 		the buffer to read from.
+	 *
+	 * @return
+	 * 		the input message that was read.
+	 *
+	 * @throws CorruptedFrameException
+	 * 		if the amount of inputs is invalid.
+	 */
+	private static FishClientInputMessage readInput(ByteBuf in) {
+		int first = in.readInt();
+		int count = SnapshotDelta.readVarInt(in);
+		if (count < 0 || count > in.readableBytes()) {
+			throw new CorruptedFrameException("Invalid amount of inputs " + count);
+		}
+
+		byte[] inputs = new byte[count];
+		in.readBytes(inputs);
+		return new FishClientInputMessage(first, inputs);
+	}
+
+	/**
+	 * @param in
+	 * 		the buffer to read from.
+	 *
+	 * @return
+	 * 		the player that was read.
+	 */
+	private static PlayerFish readPlayer(ByteBuf in) {
+		Entity entity = EntityCodec.read(in);
+		if (!(entity instanceof PlayerFish)) {
+			throw new CorruptedFrameException("Expected a player, but got a " + entity.getClass().getSimpleName());
+		}
+
+		return (PlayerFish) entity;
+	}
+
+	/**
+	 * Writes the amount of settings, followed by a key, type and value per
+	 * setting.
+	 *
+	 * @param message
+	 * 		the settings to write.
+	 * @param out
+	 * 		the buffer to write to.
+	 */
+	private static void writeSettings(FishServerSettingsMessage message, ByteBuf out) {
+		Map<String, Object> settings = message.getSettings();
+		out.writeShort(settings.size());
+
+		for (Map.Entry<String, Object> entry : settings.entrySet()) {
+			EntityCodec.writeString(entry.getKey(), out);
+
+			Object value = entry.getValue();
+			if (value instanceof Integer) {
+				out.writeByte(VALUE_INTEGER);
+				out.writeInt((Integer) value);
+			} else if (value instanceof Double) {
+				out.writeByte(VALUE_DOUBLE);
+				out.writeDouble((Double) value);
+			} else if (value instanceof Boolean) {
+				out.writeByte(VALUE_BOOLEAN);
+				out.writeBoolean((Boolean) value);
+			} else if (value instanceof String) {
+				out.writeByte(VALUE_STRING);
+				EntityCodec.writeString((String) value, out);
+			} else {
+				throw new IllegalArgumentException("Cannot encode setting " + entry.getKey() + " of type "
+						+ (value == null ? "null" : value.getClass().getSimpleName()));
+			}
+		}
+	}
+
+	/**
+	 * @param in
+	 * 		the buffer to read from.
+	 *
+	 * @return
+	 * 		the settings that were read.
+	 */
+	private static FishServerSettingsMessage readSettings(ByteBuf in) {
+		FishServerSettingsMessage message = new FishServerSettingsMessage();
+		int count = in.readShort();
+		for (int i = 0; i < count; i++) {
+			String key = EntityCodec.readString(in);
+
+			byte type = in.readByte();
+			switch (type) {
+			case VALUE_INTEGER:
+				message.setSetting(key, in.readInt());
+				break;
+			case VALUE_DOUBLE:
+				message.setSetting(key, in.readDouble());
+				break;
+			case VALUE_BOOLEAN:
+				message.setSetting(key, in.readBoolean());
+				break;
+			case VALUE_STRING:
+				message.setSetting(key, EntityCodec.readString(in));
+				break;
+			default:
+				throw new CorruptedFrameException("Unknown type " + type + " of setting " + key);
+			}
+		}
+
+		return message;
+	}
+}
@@ -0,0 +1,24 @@
+package com.github.fishio.multiplayer.codec;
+
+import java.util.List;
+
+import com.github.fishio.multiplayer.FishMessage;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageDecoder;
+
+/**
+ * Decodes frames into {@link FishMessage}s with the
+ * {@link FishMessageCodec}.<br>
+ * <br>
+ * The frames have to be split (and the length removed) by a
+ * {@link io.netty.handler.codec.LengthFieldBasedFrameDecoder} first.
+ */
+public class FishMessageDecoder extends MessageToMessageDecoder<ByteBuf> {
+
+	@Override
+	protected void decode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) {
+		out.add(FishMessageCodec.decode(msg));
+	}
+}
@@ -0,0 +1,51 @@
+package com.github.fishio.multiplayer.codec;
+
+import com.github.fishio.multiplayer.FishMessage;
+import com.github.fishio.multiplayer.server.FishServerSnapshotMessage;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToByteEncoder;
+
+/**
+ * Encodes {@link FishMessage}s into frames with the
+ * {@link FishMessageCodec}.<br>
+ * <br>
+ * The frames are written directly into buffers from the allocator of the
+ * channel, which are sized to fit the message.
+ */
+public class FishMessageEncoder extends MessageToByteEncoder<FishMessage> {
+
+	@Override
+	protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, FishMessage msg, boolean preferDirect) {
+		int size = estimateSize(msg);
+		if (preferDirect) {
+			return ctx.alloc().ioBuffer(size);
+		}
+
+		return ctx.alloc().heapBuffer(size);
+	}
+
+	@Override
+	protected void encode(ChannelHandlerContext ctx, FishMessage msg, ByteBuf out) {
+		FishMessageCodec.encode(msg, out);
+	}
+
+	/**
+	 * @param msg
+	 * 		the message to estimate the size of.
+	 *
+	 * @return
+	 * 		the expected size of the frame of the given message.
+	 */
+	static int estimateSize(FishMessage msg) {
+		if (msg instanceof FishServerSnapshotMessage) {
+			//Full snapshots need about 24 bytes per entity, deltas about 6.
+			FishServerSnapshotMessage fssm = (FishServerSnapshotMessage) msg;
+			int perEntity = fssm.getBaseline() == null ? 24 : 6;
+			return FishMessageCodec.HEADER_BYTES + 20 + fssm.getSnapshot().size() * perEntity;
+		}
+
+		return 256;
+	}
+}
@@ -0,0 +1,587 @@
+package com.github.fishio.multiplayer.codec;
+
+import java.util.ArrayList;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.CorruptedFrameException;
+
+/**
+ * The difference between an {@link EntitySnapshot} and an older baseline
+ * snapshot that the receiver already has.<br>
+ * <br>
+ * A delta is written as:
+ * <pre>
+ * int    sequence of the snapshot
+ * int    game tick of the snapshot
+ * int    sequence of the baseline, or {@link #FULL}
+ * varint amount of removed entities, followed by their id gaps
+ * varint amount of entries, followed by the entries
+ * </pre>
+ * Every entry starts with the gap to the id of the previous entry and a
+ * mask of the fields that follow. Spawned entities (and all entities of a
+ * full snapshot) have the {@link #SPAWN} bit set and carry all their
+ * fields as absolute values. Other entries only carry the fields that
+ * changed, as the difference with the baseline. Entities that did not
+ * change are not written at all.<br>
+ * <br>
+ * All numbers, except for the sequences and the tick, are written as
+ * zigzag encoded variable length integers, so small differences take a
+ * single byte.
+ */
+public final class SnapshotDelta {
+	/**
+	 * Baseline sequence of a delta that contains all entities.
+	 */
+	public static final int FULL = -1;
+
+	/**
+	 * Mask bit of entries of entities that are not in the baseline.
+	 */
+	static final int SPAWN = 1 << 15;
+
+	private static final int DELTA_FIELDS = EntityState.X | EntityState.Y | EntityState.WIDTH
+			| EntityState.HEIGHT | EntityState.ROTATION | EntityState.VX | EntityState.VY | EntityState.ALPHA;
+
+	private final int sequence;
+	private final int tick;
+	private final int baselineSequence;
+	private final int[] removed;
+	private final EntityState[] entries;
+	private final int[] masks;
+
+	/**
+	 * Creates a new SnapshotDelta.
+	 *
+	 * @param sequence
+	 * 		the sequence of the snapshot.
+	 * @param tick
+	 * 		the game tick of the snapshot.
+	 * @param baselineSequence
+	 * 		the sequence of the baseline, or {@link #FULL}.
+	 * @param removed
+	 * 		the ids of the removed entities.
+	 * @param entries
+	 * 		the entries, with differences instead of values for fields
+	 * 		that are not spawned.
+	 * @param masks
+	 * 		the masks of the entries.
+	 */
+	private SnapshotDelta(int sequence, int tick, int baselineSequence, int[] removed, EntityState[] entries,
+			int[] masks) {
+		this.sequence = sequence;
+		this.tick = tick;
+		this.baselineSequence = baselineSequence;
+		this.removed = removed;
+		this.entries = entries;
+		this.masks = masks;
+	}
+
+	/**
+	 * @return
+	 * 		the sequence of the snapshot.
+	 */
+	public int getSequence() {
+		return sequence;
+	}
+
+	/**
+	 * @return
+	 * 		the game tick of the snapshot.
+	 */
+	public int getTick() {
+		return tick;
+	}
+
+	/**
+	 * @return
+	 * 		the sequence of the snapshot this delta is relative to, or
+	 * 		{@link #FULL} if it contains all entities.
+	 */
+	public int getBaselineSequence() {
+		return baselineSequence;
+	}
+
+	/**
+	 * @return
+	 * 		<code>true</code> if this delta contains all entities.
+	 */
+	public boolean isFull() {
+		return baselineSequence == FULL;
+	}
+
+	/**
+	 * @return
+	 * 		the amount of entities that were spawned or changed.
+	 */
+	public int getChangedCount() {
+		return entries.length;
+	}
+
+	/**
+	 * @return
+	 * 		the amount of entities that were removed.
+	 */
+	public int getRemovedCount() {
+		return removed.length;
+	}
+
+	/**
+	 * Writes the difference between the given snapshots.
+	 *
+	 * @param current
+	 * 		the snapshot to write.
+	 * @param baseline
+	 * 		the snapshot the receiver already has, or <code>null</code> to
+	 * 		write a full snapshot.
+	 * @param out
+	 * 		the buffer to write to.
+	 */
+	public static void write(EntitySnapshot current, EntitySnapshot baseline, ByteBuf out) {
+		out.writeInt(current.getSequence());
+		out.writeInt(current.getTick());
+		out.writeInt(baseline == null ? FULL : baseline.getSequence());
+
+		//Removed entities: in the baseline, but not in the current snapshot
+		ArrayList<EntityState> removed = new ArrayList<>();
+		ArrayList<EntityState> changed = new ArrayList<>();
+		ArrayList<EntityState> bases = new ArrayList<>();
+
+		int i = 0;
+		int j = 0;
+		int baseSize = baseline == null ? 0 : baseline.size();
+		while (i < current.size() || j < baseSize) {
+			EntityState cur = i < current.size() ? current.get(i) : null;
+			EntityState base = j < baseSize ? baseline.get(j) : null;
+
+			if (cur == null || (base != null && base.entityId < cur.entityId)) {
+				removed.add(base);
+				j++;
+			} else if (base == null || cur.entityId < base.entityId) {
+				changed.add(cur);
+				bases.add(null);
+				i++;
+			} else {
+				if (cur.diff(base) != 0) {
+					changed.add(cur);
+					bases.add(base);
+				}
+				i++;
+				j++;
+			}
+		}
+
+		writeVarInt(removed.size(), out);
+		int last = 0;
+		for (EntityState state : removed) {
+			writeVarInt(zigzag(state.entityId - last), out);
+			last = state.entityId;
+		}
+
+		writeVarInt(changed.size(), out);
+		last = 0;
+		for (int k = 0; k < changed.size(); k++) {
+			EntityState cur = changed.get(k);
+			writeVarInt(zigzag(cur.entityId - last), out);
+			last = cur.entityId;
+
+			EntityState base = bases.get(k);
+			if (base == null) {
+				writeSpawn(cur, out);
+			} else {
+				writeChange(cur, base, out);
+			}
+		}
+	}
+
+	/**
+	 * Writes all fields of an entity that is not in the baseline.
+	 *
+	 * @param state
+	 * 		the state of the entity.
+	 * @param out
+	 * 		the buffer to write to.
+	 */
+	private static void writeSpawn(EntityState state, ByteBuf out) {
+		writeVarInt(SPAWN | (state.dead ? EntityState.DEAD : 0), out);
+		out.writeByte(state.type);
+
+		writeVarInt(zigzag(state.x), out);
+		writeVarInt(zigzag(state.y), out);
+		writeVarInt(zigzag(state.width), out);
+		writeVarInt(zigzag(state.height), out);
+		writeVarInt(zigzag(state.rotation), out);
+		writeVarInt(zigzag(state.vx), out);
+		writeVarInt(zigzag(state.vy), out);
+		writeVarInt(zigzag(state.alpha), out);
+
+		if (state.type == EntityCodec.TYPE_ENEMY_FISH) {
+			short id = EntityCodec.getSpriteId(state.sprite);
+			writeVarInt(zigzag(id), out);
+			if (id == EntityCodec.UNKNOWN_SPRITE) {
+				EntityCodec.writeString(state.sprite, out);
+			}
+		} else {
+			writePlayer(state, out);
+		}
+	}
+
+	/**
+	 * Writes the fields of an entity that changed since the baseline.
+	 *
+	 * @param state
+	 * 		the current state of the entity.
+	 * @param base
+	 * 		the state of the entity in the baseline.
+	 * @param out
+	 * 		the buffer to write to.
+	 */
+	private static void writeChange(EntityState state, EntityState base, ByteBuf out) {
+		int mask = state.diff(base);
+		writeVarInt(mask, out);
+
+		if ((mask & EntityState.X) != 0) {
+			writeVarInt(zigzag(state.x - base.x), out);
+		}
+		if ((mask & EntityState.Y) != 0) {
+			writeVarInt(zigzag(state.y - base.y), out);
+		}
+		if ((mask & EntityState.WIDTH) != 0) {
+			writeVarInt(zigzag(state.width - base.width), out);
+		}
+		if ((mask & EntityState.HEIGHT) != 0) {
+			writeVarInt(zigzag(state.height - base.height), out);
+		}
+		if ((mask & EntityState.ROTATION) != 0) {
+			writeVarInt(zigzag(state.rotation - base.rotation), out);
+		}
+		if ((mask & EntityState.VX) != 0) {
+			writeVarInt(zigzag(state.vx - base.vx), out);
+		}
+		if ((mask & EntityState.VY) != 0) {
+			writeVarInt(zigzag(state.vy - base.vy), out);
+		}
+		if ((mask & EntityState.ALPHA) != 0) {
+			writeVarInt(zigzag(state.alpha - base.alpha), out);
+		}
+		if ((mask & EntityState.PLAYER) != 0) {
+			writePlayer(state, out);
+		}
+	}
+
+	/**
+	 * Writes the fields specific to player fish.
+	 *
+	 * @param state
+	 * 		the state of the player.
+	 * @param out
+	 * 		the buffer to write to.
+	 */
+	private static void writePlayer(EntityState state, ByteBuf out) {
+		writeVarInt(zigzag(state.score), out);
+		writeVarInt(zigzag(state.lives), out);
+		out.writeLong(state.invincible);
+		out.writeInt(state.maxSpeed);
+		out.writeInt(state.acceleration);
+		out.writeInt(state.hue);
+	}
+
+	/**
+	 * Reads a delta from the given buffer.
+	 *
+	 * @param in
+	 * 		the buffer to read from.
+	 *
+	 * @return
+	 * 		the delta that was read.
+	 *
+	 * @throws CorruptedFrameException
+	 * 		if the delta is malformed.
+	 */
+	public static SnapshotDelta read(ByteBuf in) {
+		int sequence = in.readInt();
+		int tick = in.readInt();
+		int baselineSequence = in.readInt();
+
+		int[] removed = new int[readCount(in)];
+		int last = 0;
+		for (int i = 0; i < removed.length; i++) {
+			last += unzigzag(readVarInt(in));
+			removed[i] = last;
+		}
+
+		int count = readCount(in);
+		EntityState[] entries = new EntityState[count];
+		int[] masks = new int[count];
+		last = 0;
+		for (int i = 0; i < count; i++) {
+			EntityState entry = new EntityState();
+			last += unzigzag(readVarInt(in));
+			entry.entityId = last;
+
+			masks[i] = readVarInt(in);
+			if ((masks[i] & SPAWN) != 0) {
+				readSpawn(entry, masks[i], in);
+			} else {
+				readChange(entry, masks[i], in);
+			}
+
+			entries[i] = entry;
+		}
+
+		return new SnapshotDelta(sequence, tick, baselineSequence, removed, entries, masks);
+	}
+
+	/**
+	 * @param in
+	 * 		the buffer to read from.
+	 *
+	 * @return
+	 * 		an amount of ids or entries.
+	 */
+	private static int readCount(ByteBuf in) {
+		int count = readVarInt(in);
+		if (count < 0 || count > in.readableBytes()) {
+			throw new CorruptedFrameException("Invalid entry count " + count);
+		}
+
+		return count;
+	}
+
+	/**
+	 * Reads all fields of a spawned entity.
+	 *
+	 * @param entry
+	 * 		the state to read into.
+	 * @param mask
+	 * 		the mask of the entry.
+	 * @param in
+	 * 		the buffer to read from.
+	 */
+	private static void readSpawn(EntityState entry, int mask, ByteBuf in) {
+		entry.dead = (mask & EntityState.DEAD) != 0;
+		entry.type = in.readByte();
+
+		entry.x = unzigzag(readVarInt(in));
+		entry.y = unzigzag(readVarInt(in));
+		entry.width = unzigzag(readVarInt(in));
+		entry.height = unzigzag(readVarInt(in));
+		entry.rotation = unzigzag(readVarInt(in));
+		entry.vx = unzigzag(readVarInt(in));
+		entry.vy = unzigzag(readVarInt(in));
+		entry.alpha = unzigzag(readVarInt(in));
+
+		if (entry.type == EntityCodec.TYPE_ENEMY_FISH) {
+			int id = unzigzag(readVarInt(in));
+			entry.sprite = id == EntityCodec.UNKNOWN_SPRITE
+					? EntityCodec.readString(in)
+					: EntityCodec.getSpriteLocation(id);
+		} else if (entry.type == EntityCodec.TYPE_PLAYER_FISH) {
+			readPlayer(entry, in);
+		} else {
+			throw new CorruptedFrameException("Unknown entity type " + entry.type);
+		}
+	}
+
+	/**
+	 * Reads the changed fields of an entity. The values are differences
+	 * with the baseline.
+	 *
+	 * @param entry
+	 * 		the state to read into.
+	 * @param mask
+	 * 		the mask of the entry.
+	 * @param in
+	 * 		the buffer to read from.
+	 */
+	private static void readChange(EntityState entry, int mask, ByteBuf in) {
+		entry.x = (mask & EntityState.X) != 0 ? unzigzag(readVarInt(in)) : 0;
+		entry.y = (mask & EntityState.Y) != 0 ? unzigzag(readVarInt(in)) : 0;
+		entry.width = (mask & EntityState.WIDTH) != 0 ? unzigzag(readVarInt(in)) : 0;
+		entry.height = (mask & EntityState.HEIGHT) != 0 ? unzigzag(readVarInt(in)) : 0;
+		entry.rotation = (mask & EntityState.ROTATION) != 0 ? unzigzag(readVarInt(in)) : 0;
+		entry.vx = (mask & EntityState.VX) != 0 ? unzigzag(readVarInt(in)) : 0;
+		entry.vy = (mask & EntityState.VY) != 0 ? unzigzag(readVarInt(in)) : 0;
+		entry.alpha = (mask & EntityState.ALPHA) != 0 ? unzigzag(readVarInt(in)) : 0;
+
+		if ((mask & EntityState.PLAYER) != 0) {
+			readPlayer(entry, in);
+		}
+	}
+
+	/**
+	 * Reads the fields specific to player fish.
+	 *
+	 * @param entry
+	 * 		the state to read into.
+	 * @param in
+	 * 		the buffer to read from.
+	 */
+	private static void readPlayer(EntityState entry, ByteBuf in) {
+		entry.score = unzigzag(readVarInt(in));
+		entry.lives = unzigzag(readVarInt(in));
+		entry.invincible = in.readLong();
+		entry.maxSpeed = in.readInt();
+		entry.acceleration = in.readInt();
+		entry.hue = in.readInt();
+	}
+
+	/**
+	 * Applies this delta to the given baseline.
+	 *
+	 * @param baseline
+	 * 		the snapshot this delta is relative to, or <code>null</code> if
+	 * 		this is a full delta.
+	 *
+	 * @return
+	 * 		the snapshot this delta was created from.
+	 *
+	 * @throws IllegalArgumentException
+	 * 		if the given baseline is not the baseline of this delta.
+	 */
+	public EntitySnapshot apply(EntitySnapshot baseline) {
+		int expected = baseline == null ? FULL : baseline.getSequence();
+		if (expected != baselineSequence) {
+			throw new IllegalArgumentException("Delta " + sequence + " is relative to " + baselineSequence
+					+ ", not to " + expected);
+		}
+
+		ArrayList<EntityState> states = new ArrayList<>(
+				Math.max(0, (baseline == null ? 0 : baseline.size()) - removed.length) + entries.length);
+
+		int i = 0;
+		int j = 0;
+		int r = 0;
+		int baseSize = baseline == null ? 0 : baseline.size();
+		while (i < entries.length || j < baseSize) {
+			EntityState entry = i < entries.length ? entries[i] : null;
+			EntityState base = j < baseSize ? baseline.get(j) : null;
+
+			if (entry == null || (base != null && base.entityId < entry.entityId)) {
+				//Unchanged or removed
+				while (r < removed.length && removed[r] < base.entityId) {
+					r++;
+				}
+
+				if (r >= removed.length || removed[r] != base.entityId) {
+					states.add(base);
+				}
+				j++;
+			} else if (base == null || entry.entityId < base.entityId) {
+				if ((masks[i] & SPAWN) == 0) {
+					throw new CorruptedFrameException("Entity " + entry.entityId + " is not in baseline "
+							+ baselineSequence);
+				}
+
+				states.add(entry);
+				i++;
+			} else {
+				states.add((masks[i] & SPAWN) != 0 ? entry : resolve(entry, masks[i], base));
+				i++;
+				j++;
+			}
+		}
+
+		return new EntitySnapshot(sequence, tick, states.toArray(new EntityState[states.size()]));
+	}
+
+	/**
+	 * @param entry
+	 * 		an entry with the differences of an entity.
+	 * @param mask
+	 * 		the mask of the entry.
+	 * @param base
+	 * 		the state of the entity in the baseline.
+	 *
+	 * @return
+	 * 		the new state of the entity.
+	 */
+	private static EntityState resolve(EntityState entry, int mask, EntityState base) {
+		EntityState state = new EntityState(base);
+		if ((mask & DELTA_FIELDS) != 0) {
+			state.x += entry.x;
+			state.y += entry.y;
+			state.width += entry.width;
+			state.height += entry.height;
+			state.rotation += entry.rotation;
+			state.vx += entry.vx;
+			state.vy += entry.vy;
+			state.alpha += entry.alpha;
+		}
+
+		if ((mask & EntityState.DEAD) != 0) {
+			state.dead = !base.dead;
+		}
+
+		if ((mask & EntityState.PLAYER) != 0) {
+			state.copyPlayer(entry);
+		}
+
+		return state;
+	}
+
+	/**
+	 * @param value
+	 * 		a signed value.
+	 *
+	 * @return
+	 * 		the value with the sign in the lowest bit, so that small
+	 * 		negative values are small as well.
+	 */
+	static int zigzag(int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+
+	/**
+	 * @param value
+	 * 		a value returned by {@link #zigzag(int)}.
+	 *
+	 * @return
+	 * 		the original signed value.
+	 */
+	static int unzigzag(int value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * Writes the given value in groups of 7 bits, lowest group first.
+	 *
+	 * @param value
+	 * 		the value to write, interpreted as unsigned.
+	 * @param out
+	 * 		the buffer to write to.
+	 */
+	static void writeVarInt(int value, ByteBuf out) {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+
+		out.writeByte(value);
+	}
+
+	/**
+	 * @param in
+	 * 		the buffer to read from.
+	 *
+	 * @return
+	 * 		a value written by {@link #writeVarInt(int, ByteBuf)}.
+	 */
+	static int readVarInt(ByteBuf in) {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			byte b = in.readByte();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+
+		throw new CorruptedFrameException("Variable length integer is too long");
+	}
+
+	@Override
+	public String toString() {
+		return "SnapshotDelta [sequence: " + sequence + ", baseline: " + baselineSequence
+				+ ", changed: " + entries.length + ", removed: " + removed.length + "]";
+	}
+}
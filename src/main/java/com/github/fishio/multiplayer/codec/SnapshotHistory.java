@@ -0,0 +1,139 @@
+package com.github.fishio.multiplayer.codec;
+
+import java.util.concurrent.Future;
+
+/**
+ * The most recent snapshots sent to (or received from) one connection,
+ * together with the last snapshot the receiver acknowledged.<br>
+ * <br>
+ * The server only sends the difference with the acknowledged snapshot.
+ * If that snapshot is no longer in the history, a full snapshot is sent
+ * instead.
+ */
+public class SnapshotHistory {
+	/**
+	 * The default amount of snapshots that are kept. Snapshots are sent
+	 * to every client at most at the SNAPSHOT_RATE (20 per second by
+	 * default), so this is at least about three seconds. Clients that get
+	 * fewer snapshots because of a slow connection can acknowledge even
+	 * older ones.
+	 */
+	public static final int DEFAULT_CAPACITY = 64;
+
+	private final EntitySnapshot[] snapshots;
+	private int acknowledged = SnapshotDelta.FULL;
+	private Future<?> pending;
+
+	/**
+	 * Creates a new SnapshotHistory with the default capacity.
+	 */
+	public SnapshotHistory() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates a new SnapshotHistory.
+	 *
+	 * @param capacity
+	 * 		the amount of snapshots to keep.
+	 */
+	public SnapshotHistory(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		}
+
+		this.snapshots = new EntitySnapshot[capacity];
+	}
+
+	/**
+	 * Adds the given snapshot, replacing the oldest one if the history is
+	 * full.
+	 *
+	 * @param snapshot
+	 * 		the snapshot to add.
+	 */
+	public synchronized void add(EntitySnapshot snapshot) {
+		snapshots[Math.floorMod(snapshot.getSequence(), snapshots.length)] = snapshot;
+	}
+
+	/**
+	 * @param sequence
+	 * 		the sequence of a snapshot.
+	 *
+	 * @return
+	 * 		the snapshot with the given sequence, or <code>null</code> if it
+	 * 		is not (or no longer) in this history.
+	 */
+	public synchronized EntitySnapshot get(int sequence) {
+		if (sequence == SnapshotDelta.FULL) {
+			return null;
+		}
+
+		EntitySnapshot snapshot = snapshots[Math.floorMod(sequence, snapshots.length)];
+		if (snapshot == null || snapshot.getSequence() != sequence) {
+			return null;
+		}
+
+		return snapshot;
+	}
+
+	/**
+	 * Marks the snapshot with the given sequence as received. Older
+	 * acknowledgements are ignored.
+	 *
+	 * @param sequence
+	 * 		the sequence of the received snapshot, or
+	 * 		{@link SnapshotDelta#FULL} to request a full snapshot.
+	 */
+	public synchronized void acknowledge(int sequence) {
+		if (sequence == SnapshotDelta.FULL || sequence > acknowledged) {
+			acknowledged = sequence;
+		}
+	}
+
+	/**
+	 * @return
+	 * 		the sequence of the last acknowledged snapshot, or
+	 * 		{@link SnapshotDelta#FULL} if there is none.
+	 */
+	public synchronized int getAcknowledged() {
+		return acknowledged;
+	}
+
+	/**
+	 * @return
+	 * 		the last acknowledged snapshot, or <code>null</code> if it is not
+	 * 		in this history and a full snapshot should be sent.
+	 */
+	public synchronized EntitySnapshot getBaseline() {
+		return get(acknowledged);
+	}
+
+	/**
+	 * @return
+	 * 		<code>true</code> if the last snapshot has not been written yet.
+	 */
+	public synchronized boolean isPending() {
+		return pending != null && !pending.isDone();
+	}
+
+	/**
+	 * @param pending
+	 * 		the future of the write of the last snapshot.
+	 */
+	public synchronized void setPending(Future<?> pending) {
+		this.pending = pending;
+	}
+
+	/**
+	 * Removes all snapshots and the acknowledgement.
+	 */
+	public synchronized void clear() {
+		for (int i = 0; i < snapshots.length; i++) {
+			snapshots[i] = null;
+		}
+
+		acknowledged = SnapshotDelta.FULL;
+		pending = null;
+	}
+}
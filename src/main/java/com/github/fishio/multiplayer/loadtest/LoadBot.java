@@ -0,0 +1,428 @@
+package com.github.fishio.multiplayer.loadtest;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.github.fishio.behaviours.KeyListenerBehaviour;
+import com.github.fishio.game.GameThread;
+import com.github.fishio.game.LatencyHistogram;
+import com.github.fishio.multiplayer.NetworkTransport;
+import com.github.fishio.multiplayer.client.FishClientInputMessage;
+import com.github.fishio.multiplayer.client.FishClientJoinRoomMessage;
+import com.github.fishio.multiplayer.client.FishClientRequestPlayerMessage;
+import com.github.fishio.multiplayer.client.FishClientSnapshotAckMessage;
+import com.github.fishio.multiplayer.codec.EntitySnapshot;
+import com.github.fishio.multiplayer.codec.EntityState;
+import com.github.fishio.multiplayer.codec.FishMessageCodec;
+import com.github.fishio.multiplayer.codec.SnapshotDelta;
+import com.github.fishio.multiplayer.codec.SnapshotHistory;
+import com.github.fishio.multiplayer.server.FishServerMessage;
+import com.github.fishio.multiplayer.server.FishServerPlayerMessage;
+import com.github.fishio.multiplayer.server.FishServerSnapshotMessage;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.util.concurrent.ScheduledFuture;
+
+/**
+ * A simulated client for load tests.<br>
+ * <br>
+ * A bot sends the same messages as a real client: it joins a room,
+ * requests a player, sends an input every tick and acknowledges the
+ * snapshots it receives. It does not render or predict anything, so
+ * hundreds of bots can run in one JVM, on the shared event loops.<br>
+ * <br>
+ * Every bot measures:
+ * <ul>
+ * <li>the bytes it sends and receives,</li>
+ * <li>the time between sending an input and receiving the first snapshot
+ * that includes it,</li>
+ * <li>the snapshots it missed, from the gaps between the ticks of the
+ * snapshots it received.</li>
+ * </ul>
+ * All of this happens on the event loop of the channel of the bot.
+ */
+public class LoadBot extends SimpleChannelInboundHandler<FishServerMessage> {
+	/**
+	 * How a bot moves its player.
+	 */
+	public enum Movement {
+		/**
+		 * Swims in a random direction, and changes direction now and then.
+		 */
+		RANDOM,
+
+		/**
+		 * Swims in circles.
+		 */
+		CIRCLE
+	}
+
+	/**
+	 * The inputs of the directions of a circle, clockwise.
+	 */
+	private static final int[] CIRCLE = {
+		KeyListenerBehaviour.INPUT_RIGHT,
+		KeyListenerBehaviour.INPUT_RIGHT | KeyListenerBehaviour.INPUT_DOWN,
+		KeyListenerBehaviour.INPUT_DOWN,
+		KeyListenerBehaviour.INPUT_DOWN | KeyListenerBehaviour.INPUT_LEFT,
+		KeyListenerBehaviour.INPUT_LEFT,
+		KeyListenerBehaviour.INPUT_LEFT | KeyListenerBehaviour.INPUT_UP,
+		KeyListenerBehaviour.INPUT_UP,
+		KeyListenerBehaviour.INPUT_UP | KeyListenerBehaviour.INPUT_RIGHT
+	};
+
+	private static final int TICKS_PER_DIRECTION = 20;
+	private static final double CHANGE_CHANCE = 1 / 30D;
+
+	/**
+	 * The amount of inputs of which the send time is kept.
+	 */
+	private static final int SEND_TIMES = 128;
+
+	private final int index;
+	private final String room;
+	private final Movement movement;
+	private final int snapshotInterval;
+	private final Random random;
+
+	private final SnapshotHistory snapshots = new SnapshotHistory();
+	private final long[] sendTimes = new long[SEND_TIMES];
+	private final LatencyHistogram latencies = new LatencyHistogram();
+
+	private volatile Channel channel;
+	private ScheduledFuture<?> inputTask;
+	private int playerId = -1;
+	private boolean playerSeen;
+	private int input;
+	private int nextInput;
+	private int lastProcessed = -1;
+	private int lastTick = -1;
+	private long ticks;
+
+	private volatile long bytesReceived;
+	private volatile long bytesSent;
+	private volatile long snapshotsReceived;
+	private volatile long droppedSnapshots;
+	private volatile long resyncs;
+	private volatile long respawns;
+
+	/**
+	 * Creates a new LoadBot.
+	 *
+	 * @param index
+	 * 		the number of the bot, used to vary its movement.
+	 * @param room
+	 * 		the room to join, or <code>null</code> for the default room.
+	 * @param movement
+	 * 		how the bot moves.
+	 * @param snapshotInterval
+	 * 		the amount of ticks between snapshots the server captures.
+	 */
+	public LoadBot(int index, String room, Movement movement, int snapshotInterval) {
+		this.index = index;
+		this.room = room;
+		this.movement = movement;
+		this.snapshotInterval = Math.max(1, snapshotInterval);
+		this.random = new Random(index);
+	}
+
+	/**
+	 * Connects this bot to the given server, over the shared event loops
+	 * of the {@link NetworkTransport}.
+	 *
+	 * @param host
+	 * 		the host of the server.
+	 * @param port
+	 * 		the port of the server.
+	 *
+	 * @return
+	 * 		the future of the connection.
+	 */
+	public ChannelFuture connect(String host, int port) {
+		NetworkTransport transport = NetworkTransport.getInstance();
+
+		Bootstrap b = new Bootstrap();
+		b.group(transport.getWorkerGroup());
+		b.channel(transport.getChannelClass());
+		b.handler(new ChannelInitializer<SocketChannel>() {
+			@Override
+			public void initChannel(SocketChannel ch) throws Exception {
+				NetworkTransport.configure(ch);
+				FishMessageCodec.addCodec(ch.pipeline());
+				ch.pipeline().addFirst("traffic", new TrafficCounter());
+				ch.pipeline().addLast("handler", LoadBot.this);
+			}
+		});
+
+		ChannelFuture f = b.connect(host, port);
+		channel = f.channel();
+		return f;
+	}
+
+	/**
+	 * Disconnects this bot from the server.
+	 *
+	 * @return
+	 * 		the future of closing the connection, or <code>null</code> if
+	 * 		this bot was never connected.
+	 */
+	public ChannelFuture disconnect() {
+		Channel ch = channel;
+		return ch == null ? null : ch.close();
+	}
+
+	@Override
+	public void channelActive(ChannelHandlerContext ctx) throws Exception {
+		if (room != null) {
+			ctx.write(new FishClientJoinRoomMessage(room));
+		}
+		ctx.writeAndFlush(new FishClientRequestPlayerMessage());
+
+		inputTask = ctx.channel().eventLoop().scheduleAtFixedRate(
+				this::sendInput, GameThread.TICK_NANOS, GameThread.TICK_NANOS, TimeUnit.NANOSECONDS);
+
+		super.channelActive(ctx);
+	}
+
+	@Override
+	public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+		if (inputTask != null) {
+			inputTask.cancel(false);
+		}
+
+		super.channelInactive(ctx);
+	}
+
+	@Override
+	protected void messageReceived(ChannelHandlerContext ctx, FishServerMessage msg) throws Exception {
+		if (msg instanceof FishServerSnapshotMessage) {
+			handleSnapshot(ctx, (FishServerSnapshotMessage) msg, System.nanoTime());
+		} else if (msg instanceof FishServerPlayerMessage) {
+			playerId = ((FishServerPlayerMessage) msg).getPlayer().getEntityId();
+			playerSeen = false;
+		}
+	}
+
+	/**
+	 * Applies a snapshot, acknowledges it and records the latency of the
+	 * last input it includes.
+	 *
+	 * @param ctx
+	 * 		the context of the channel.
+	 * @param msg
+	 * 		the snapshot message.
+	 * @param now
+	 * 		the time the snapshot was received, from
+	 * 		{@link System#nanoTime()}.
+	 */
+	private void handleSnapshot(ChannelHandlerContext ctx, FishServerSnapshotMessage msg, long now) {
+		SnapshotDelta delta = msg.getDelta();
+		EntitySnapshot baseline = null;
+		if (!delta.isFull()) {
+			baseline = snapshots.get(delta.getBaselineSequence());
+			if (baseline == null) {
+				resyncs++;
+				ctx.writeAndFlush(new FishClientSnapshotAckMessage(SnapshotDelta.FULL));
+				return;
+			}
+		}
+
+		EntitySnapshot snapshot = delta.apply(baseline);
+		snapshots.add(snapshot);
+		ctx.writeAndFlush(new FishClientSnapshotAckMessage(snapshot.getSequence()));
+		snapshotsReceived++;
+
+		//Every snapshot interval without a snapshot is a missed update
+		int gap = snapshot.getTick() - lastTick;
+		if (lastTick >= 0 && gap > snapshotInterval) {
+			droppedSnapshots += gap / snapshotInterval - 1;
+		}
+		lastTick = snapshot.getTick();
+
+		int processed = msg.getInputSequence();
+		if (processed > lastProcessed && processed < nextInput && nextInput - processed <= SEND_TIMES) {
+			latencies.record(now - sendTimes[processed % SEND_TIMES]);
+		}
+		lastProcessed = Math.max(lastProcessed, processed);
+
+		checkPlayer(ctx, snapshot);
+	}
+
+	/**
+	 * Requests a new player if the player of this bot was eaten.
+	 *
+	 * @param ctx
+	 * 		the context of the channel.
+	 * @param snapshot
+	 * 		the newest snapshot.
+	 */
+	private void checkPlayer(ChannelHandlerContext ctx, EntitySnapshot snapshot) {
+		if (playerId == -1) {
+			return;
+		}
+
+		EntityState own = snapshot.find(playerId);
+		if (own != null && !own.isDead()) {
+			playerSeen = true;
+		} else if (playerSeen) {
+			playerId = -1;
+			respawns++;
+			ctx.writeAndFlush(new FishClientRequestPlayerMessage());
+		}
+	}
+
+	/**
+	 * Sends the input of the next tick. Called every tick.
+	 */
+	private void sendInput() {
+		ticks++;
+		if (playerId == -1) {
+			return;
+		}
+
+		input = nextMovement();
+		sendTimes[nextInput % SEND_TIMES] = System.nanoTime();
+		channel.writeAndFlush(new FishClientInputMessage(nextInput++, new byte[] {(byte) input}));
+	}
+
+	/**
+	 * @return
+	 * 		the input for the next tick.
+	 */
+	private int nextMovement() {
+		switch (movement) {
+		case CIRCLE:
+			return CIRCLE[(int) ((ticks / TICKS_PER_DIRECTION + index) % CIRCLE.length)];
+		case RANDOM:
+		default:
+			if (input == 0 || random.nextDouble() < CHANGE_CHANCE) {
+				return CIRCLE[random.nextInt(CIRCLE.length)];
+			}
+
+			return input;
+		}
+	}
+
+	/**
+	 * Resets all measurements, for example after a warm up. The reset is
+	 * done on the event loop of the bot.
+	 */
+	public void resetStatistics() {
+		Channel ch = channel;
+		if (ch == null) {
+			return;
+		}
+
+		ch.eventLoop().execute(() -> {
+			bytesReceived = 0;
+			bytesSent = 0;
+			snapshotsReceived = 0;
+			droppedSnapshots = 0;
+			resyncs = 0;
+			respawns = 0;
+			latencies.reset();
+		});
+	}
+
+	/**
+	 * @return
+	 * 		<code>true</code> if this bot is connected to the server.
+	 */
+	public boolean isConnected() {
+		Channel ch = channel;
+		return ch != null && ch.isActive();
+	}
+
+	/**
+	 * @return
+	 * 		the amount of bytes received from the server.
+	 */
+	public long getBytesReceived() {
+		return bytesReceived;
+	}
+
+	/**
+	 * @return
+	 * 		the amount of bytes sent to the server.
+	 */
+	public long getBytesSent() {
+		return bytesSent;
+	}
+
+	/**
+	 * @return
+	 * 		the amount of snapshots received.
+	 */
+	public long getSnapshotsReceived() {
+		return snapshotsReceived;
+	}
+
+	/**
+	 * @return
+	 * 		the amount of snapshots the server captured, but this bot did
+	 * 		not receive.
+	 */
+	public long getDroppedSnapshots() {
+		return droppedSnapshots;
+	}
+
+	/**
+	 * @return
+	 * 		the amount of times this bot had to ask for all entities again,
+	 * 		because it did not know the baseline of a snapshot.
+	 */
+	public long getResyncs() {
+		return resyncs;
+	}
+
+	/**
+	 * @return
+	 * 		the amount of times the player of this bot was eaten.
+	 */
+	public long getRespawns() {
+		return respawns;
+	}
+
+	/**
+	 * @return
+	 * 		the latencies between sending an input and receiving a snapshot
+	 * 		that includes it, in nanoseconds. Only read this after the bot
+	 * 		disconnected.
+	 */
+	public LatencyHistogram getLatencies() {
+		return latencies;
+	}
+
+	/**
+	 * Counts the bytes that go in and out of the channel, before they are
+	 * decoded and after they are encoded.
+	 */
+	private final class TrafficCounter extends ChannelHandlerAdapter {
+		@Override
+		public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+			if (msg instanceof ByteBuf) {
+				bytesReceived += ((ByteBuf) msg).readableBytes();
+			}
+
+			ctx.fireChannelRead(msg);
+		}
+
+		@Override
+		public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+			if (msg instanceof ByteBuf) {
+				bytesSent += ((ByteBuf) msg).readableBytes();
+			}
+
+			ctx.write(msg, promise);
+		}
+	}
+}
@@ -0,0 +1,177 @@
+package com.github.fishio.multiplayer.loadtest;
+
+import java.util.Collection;
+import java.util.Locale;
+
+import com.github.fishio.game.LatencyHistogram;
+import com.github.fishio.game.TickStatistics;
+import com.github.fishio.multiplayer.server.Room;
+
+/**
+ * The results of a {@link LoadTest}: the tick times of the server, and the
+ * bandwidth, latency and missed snapshots of all bots together.
+ */
+public class LoadReport {
+	private final int clients;
+	private final int connected;
+	private final int rooms;
+	private final double seconds;
+	private final String movement;
+
+	private long ticks;
+	private double totalTickNanos;
+	private long maxTickNanos;
+	private long overruns;
+	private long droppedTicks;
+
+	private long bytesReceived;
+	private long bytesSent;
+	private long maxBytesReceived;
+
+	private long snapshots;
+	private long droppedSnapshots;
+	private long resyncs;
+	private long respawns;
+
+	private final LatencyHistogram latencies = new LatencyHistogram();
+
+	/**
+	 * Creates a new LoadReport.
+	 *
+	 * @param bots
+	 * 		the bots of the test.
+	 * @param rooms
+	 * 		the rooms of the server at the end of the test.
+	 * @param nanos
+	 * 		the duration of the measurement, in nanoseconds.
+	 * @param movement
+	 * 		how the bots moved.
+	 */
+	public LoadReport(Collection<LoadBot> bots, Collection<Room> rooms, long nanos, LoadBot.Movement movement) {
+		this.clients = bots.size();
+		this.rooms = rooms.size();
+		this.seconds = Math.max(1, nanos) / 1E9;
+		this.movement = movement.name().toLowerCase(Locale.ROOT);
+
+		for (Room room : rooms) {
+			TickStatistics stats = room.getPlayingField().getGameThread().getTickStatistics();
+			ticks += stats.getTicks();
+			totalTickNanos += stats.getAverageNanos() * stats.getTicks();
+			maxTickNanos = Math.max(maxTickNanos, stats.getMaxNanos());
+			overruns += stats.getOverruns();
+			droppedTicks += stats.getDroppedTicks();
+		}
+
+		int connectedBots = 0;
+		for (LoadBot bot : bots) {
+			if (bot.getSnapshotsReceived() > 0) {
+				connectedBots++;
+			}
+
+			bytesReceived += bot.getBytesReceived();
+			bytesSent += bot.getBytesSent();
+			maxBytesReceived = Math.max(maxBytesReceived, bot.getBytesReceived());
+
+			snapshots += bot.getSnapshotsReceived();
+			droppedSnapshots += bot.getDroppedSnapshots();
+			resyncs += bot.getResyncs();
+			respawns += bot.getRespawns();
+			latencies.add(bot.getLatencies());
+		}
+		this.connected = connectedBots;
+	}
+
+	/**
+	 * @return
+	 * 		the amount of bots that received snapshots.
+	 */
+	public int getConnected() {
+		return connected;
+	}
+
+	/**
+	 * @return
+	 * 		the amount of ticks run by all rooms together.
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * @return
+	 * 		the average duration of a tick in milliseconds.
+	 */
+	public double getAverageTickMillis() {
+		return ticks == 0 ? 0 : totalTickNanos / ticks / 1E6;
+	}
+
+	/**
+	 * @return
+	 * 		the average amount of bytes a client received per second.
+	 */
+	public double getBytesReceivedPerClient() {
+		return clients == 0 ? 0 : bytesReceived / seconds / clients;
+	}
+
+	/**
+	 * @return
+	 * 		the average amount of bytes a client sent per second.
+	 */
+	public double getBytesSentPerClient() {
+		return clients == 0 ? 0 : bytesSent / seconds / clients;
+	}
+
+	/**
+	 * @return
+	 * 		the amount of snapshots received by all bots together.
+	 */
+	public long getSnapshots() {
+		return snapshots;
+	}
+
+	/**
+	 * @return
+	 * 		the percentage of snapshots that did not reach the bots.
+	 */
+	public double getDroppedPercentage() {
+		long expected = snapshots + droppedSnapshots;
+		return expected == 0 ? 0 : 100D * droppedSnapshots / expected;
+	}
+
+	/**
+	 * @return
+	 * 		the latencies between sending an input and receiving a snapshot
+	 * 		that includes it, of all bots together, in nanoseconds.
+	 */
+	public LatencyHistogram getLatencies() {
+		return latencies;
+	}
+
+	/**
+	 * @param percentile
+	 * 		the percentile, between 0 and 100.
+	 *
+	 * @return
+	 * 		the latency in milliseconds that the given percentage of the
+	 * 		latencies is at or below, or 0 if there are no latencies.
+	 */
+	public double getLatencyMillis(double percentile) {
+		return latencies.getValueAtPercentile(percentile) / 1E6;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(Locale.ROOT,
+				"Load test: %d clients (%d receiving) in %d rooms for %.1f s, %s movement%n"
+				+ "Server ticks: %d, avg %.3f ms, max %.3f ms, overruns %d, dropped %d%n"
+				+ "Bandwidth per client: in %.1f kB/s (max %.1f kB/s), out %.1f kB/s%n"
+				+ "Update latency: p50 %.1f ms, p95 %.1f ms, p99 %.1f ms, max %.1f ms (%d samples)%n"
+				+ "Snapshots: %d received, %d dropped (%.2f %%), %d resyncs, %d respawns",
+				clients, connected, rooms, seconds, movement,
+				ticks, getAverageTickMillis(), maxTickNanos / 1E6, overruns, droppedTicks,
+				getBytesReceivedPerClient() / 1000, maxBytesReceived / seconds / 1000, getBytesSentPerClient() / 1000,
+				getLatencyMillis(50), getLatencyMillis(95), getLatencyMillis(99),
+				latencies.getMax() / 1E6, latencies.getCount(),
+				snapshots, droppedSnapshots, getDroppedPercentage(), resyncs, respawns);
+	}
+}
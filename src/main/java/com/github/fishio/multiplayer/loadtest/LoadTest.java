@@ -0,0 +1,414 @@
+package com.github.fishio.multiplayer.loadtest;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.github.fishio.SpriteStore;
+import com.github.fishio.logging.ConsoleHandler;
+import com.github.fishio.logging.Log;
+import com.github.fishio.logging.LogLevel;
+import com.github.fishio.logging.TimeStampFormat;
+import com.github.fishio.multiplayer.NetworkTransport;
+import com.github.fishio.multiplayer.server.FishIOServer;
+import com.github.fishio.multiplayer.server.HeadlessServer;
+import com.github.fishio.multiplayer.server.MultiplayerServerPlayingField;
+import com.github.fishio.multiplayer.server.Room;
+import com.github.fishio.settings.Settings;
+
+import io.netty.channel.ChannelFuture;
+
+/**
+ * Entry point for a load test of the server.<br>
+ * <br>
+ * Starts a headless server and connects the given amount of
+ * {@link LoadBot}s to it over localhost, all in this JVM. After a warm up,
+ * the tick times of the server and the bandwidth, latency and missed
+ * snapshots of the bots are measured, and a summary is printed. Usage:
+ * <pre>
+ * LoadTest [--clients amount] [--rooms amount] [--duration seconds] [--warmup seconds] [--port port]
+ *          [--max-enemies amount] [--movement random|circle] [--max-latency ms] [--max-dropped percentage]
+ * </pre>
+ * If the 95th percentile of the latency or the percentage of dropped
+ * snapshots is above the given maximum, the load test exits with status 1.
+ */
+public final class LoadTest {
+	/**
+	 * The default amount of clients.
+	 */
+	public static final int DEFAULT_CLIENTS = 50;
+
+	/**
+	 * The default duration of the measurement, in seconds.
+	 */
+	public static final int DEFAULT_DURATION = 30;
+
+	/**
+	 * The default duration of the warm up, in seconds.
+	 */
+	public static final int DEFAULT_WARMUP = 5;
+
+	private static final String HOST = "127.0.0.1";
+	private static final long START_TIMEOUT = 10000L;
+
+	private static final String USAGE = "Usage: LoadTest [--clients amount] [--rooms amount] [--duration seconds] "
+			+ "[--warmup seconds] [--port port] [--max-enemies amount] [--movement random|circle] "
+			+ "[--max-latency ms] [--max-dropped percentage]";
+
+	private int clients = DEFAULT_CLIENTS;
+	private int rooms = 1;
+	private int duration = DEFAULT_DURATION;
+	private int warmup = DEFAULT_WARMUP;
+	private int port = HeadlessServer.DEFAULT_PORT + 1;
+	private int maxEnemies = HeadlessServer.DEFAULT_MAX_ENEMIES;
+	private LoadBot.Movement movement = LoadBot.Movement.RANDOM;
+	private int maxLatency;
+	private int maxDropped;
+
+	private LoadTest() { }
+
+	/**
+	 * Parses the given command line arguments.
+	 *
+	 * @param args
+	 * 		the command line arguments.
+	 *
+	 * @return
+	 * 		a LoadTest with the given options.
+	 *
+	 * @throws IllegalArgumentException
+	 * 		if the arguments are invalid.
+	 */
+	public static LoadTest parse(String... args) {
+		LoadTest test = new LoadTest();
+		for (int i = 0; i < args.length; i += 2) {
+			String option = args[i];
+			if (i + 1 >= args.length) {
+				throw new IllegalArgumentException("Missing value for " + option);
+			}
+
+			String value = args[i + 1];
+			switch (option) {
+			case "--clients":
+				test.clients = parseInt(option, value, 1, Integer.MAX_VALUE);
+				break;
+			case "--rooms":
+				test.rooms = parseInt(option, value, 1, Integer.MAX_VALUE);
+				break;
+			case "--duration":
+				test.duration = parseInt(option, value, 1, Integer.MAX_VALUE);
+				break;
+			case "--warmup":
+				test.warmup = parseInt(option, value, 0, Integer.MAX_VALUE);
+				break;
+			case "--port":
+				test.port = parseInt(option, value, 0, 65535);
+				break;
+			case "--max-enemies":
+				test.maxEnemies = parseInt(option, value, 0, Integer.MAX_VALUE);
+				break;
+			case "--movement":
+				test.movement = parseMovement(value);
+				break;
+			case "--max-latency":
+				test.maxLatency = parseInt(option, value, 0, Integer.MAX_VALUE);
+				break;
+			case "--max-dropped":
+				test.maxDropped = parseInt(option, value, 0, 100);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option " + option);
+			}
+		}
+
+		return test;
+	}
+
+	/**
+	 * Parses the value of an option.
+	 *
+	 * @param option
+	 * 		the name of the option.
+	 * @param value
+	 * 		the value to parse.
+	 * @param min
+	 * 		the smallest allowed value.
+	 * @param max
+	 * 		the largest allowed value.
+	 *
+	 * @return
+	 * 		the parsed value.
+	 *
+	 * @throws IllegalArgumentException
+	 * 		if the value is not a number between min and max.
+	 */
+	private static int parseInt(String option, String value, int min, int max) {
+		int res;
+		try {
+			res = Integer.parseInt(value);
+		} catch (NumberFormatException ex) {
+			throw new IllegalArgumentException("The value of " + option + " is not a number: " + value, ex);
+		}
+
+		if (res < min || res > max) {
+			throw new IllegalArgumentException("The value of " + option + " has to be between "
+					+ min + " and " + max + ": " + value);
+		}
+
+		return res;
+	}
+
+	/**
+	 * @param value
+	 * 		the name of a movement.
+	 *
+	 * @return
+	 * 		the movement with the given name.
+	 *
+	 * @throws IllegalArgumentException
+	 * 		if there is no movement with the given name.
+	 */
+	private static LoadBot.Movement parseMovement(String value) {
+		try {
+			return LoadBot.Movement.valueOf(value.toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException ex) {
+			throw new IllegalArgumentException("Unknown movement " + value, ex);
+		}
+	}
+
+	/**
+	 * @return
+	 * 		the amount of clients.
+	 */
+	public int getClients() {
+		return clients;
+	}
+
+	/**
+	 * @return
+	 * 		the amount of rooms the clients are spread over.
+	 */
+	public int getRooms() {
+		return rooms;
+	}
+
+	/**
+	 * @return
+	 * 		the duration of the measurement, in seconds.
+	 */
+	public int getDuration() {
+		return duration;
+	}
+
+	/**
+	 * @return
+	 * 		the duration of the warm up, in seconds.
+	 */
+	public int getWarmup() {
+		return warmup;
+	}
+
+	/**
+	 * @return
+	 * 		the port of the server, or 0 for any free port.
+	 */
+	public int getPort() {
+		return port;
+	}
+
+	/**
+	 * @return
+	 * 		how the bots move.
+	 */
+	public LoadBot.Movement getMovement() {
+		return movement;
+	}
+
+	/**
+	 * Runs the load test. The server is started, the bots connect and
+	 * play for the warm up and the duration, and everything is stopped
+	 * again.
+	 *
+	 * @return
+	 * 		the results of the test.
+	 *
+	 * @throws InterruptedException
+	 * 		if we are interrupted while waiting.
+	 */
+	public LoadReport run() throws InterruptedException {
+		SpriteStore.setHeadless(true);
+
+		FishIOServer server = FishIOServer.getInstance();
+		server.start(port, HeadlessServer.DEFAULT_SIZE, HeadlessServer.DEFAULT_SIZE, maxEnemies, true);
+
+		NetworkTransport transport = NetworkTransport.getInstance();
+		transport.acquire();
+
+		List<LoadBot> bots = new ArrayList<>(clients);
+		try {
+			int serverPort = awaitServer(server);
+			connectBots(bots, serverPort);
+
+			//Only measure after the warm up
+			Thread.sleep(warmup * 1000L);
+			for (LoadBot bot : bots) {
+				bot.resetStatistics();
+			}
+			for (Room room : server.getRooms().getRooms()) {
+				//The game threads keep running, so a tick could be counted from before the reset.
+				room.getPlayingField().getGameThread().getTickStatistics().reset();
+			}
+
+			long start = System.nanoTime();
+			Thread.sleep(duration * 1000L);
+			long nanos = System.nanoTime() - start;
+
+			List<Room> openRooms = server.getRooms().getRooms();
+			disconnectBots(bots);
+			return new LoadReport(bots, openRooms, nanos, movement);
+		} finally {
+			disconnectBots(bots);
+			transport.release();
+			server.stopAndWait(START_TIMEOUT);
+		}
+	}
+
+	/**
+	 * Waits until the server accepts connections.
+	 *
+	 * @param server
+	 * 		the server.
+	 *
+	 * @return
+	 * 		the port the server listens on.
+	 *
+	 * @throws InterruptedException
+	 * 		if we are interrupted while waiting.
+	 */
+	private static int awaitServer(FishIOServer server) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + START_TIMEOUT;
+		while (server.getRooms() == null || server.getChannel() == null) {
+			if (System.currentTimeMillis() > deadline) {
+				throw new IllegalStateException("The server did not start within " + START_TIMEOUT + " ms");
+			}
+
+			Thread.sleep(25L);
+		}
+
+		return ((InetSocketAddress) server.getChannel().localAddress()).getPort();
+	}
+
+	/**
+	 * Connects the bots, spread over the rooms. The first room is the
+	 * default room.
+	 *
+	 * @param bots
+	 * 		the list to add the bots to.
+	 * @param serverPort
+	 * 		the port of the server.
+	 *
+	 * @throws InterruptedException
+	 * 		if we are interrupted while connecting.
+	 */
+	private void connectBots(List<LoadBot> bots, int serverPort) throws InterruptedException {
+		int interval = MultiplayerServerPlayingField.getSnapshotInterval();
+		for (int i = 0; i < clients; i++) {
+			String room = i % rooms == 0 ? null : "load-" + i % rooms;
+			LoadBot bot = new LoadBot(i, room, movement, interval);
+			bots.add(bot);
+
+			ChannelFuture f = bot.connect(HOST, serverPort).await();
+			if (!f.isSuccess()) {
+				Log.getLogger().log(LogLevel.WARNING, "[LoadTest] Bot " + i + " could not connect: " + f.cause());
+			}
+		}
+
+		Log.getLogger().log(LogLevel.INFO, "[LoadTest] Connected " + clients + " bots");
+	}
+
+	/**
+	 * Disconnects all bots and waits until they are disconnected.
+	 *
+	 * @param bots
+	 * 		the bots.
+	 *
+	 * @throws InterruptedException
+	 * 		if we are interrupted while waiting.
+	 */
+	private static void disconnectBots(List<LoadBot> bots) throws InterruptedException {
+		for (LoadBot bot : bots) {
+			ChannelFuture f = bot.disconnect();
+			if (f != null) {
+				f.await(START_TIMEOUT);
+			}
+		}
+	}
+
+	/**
+	 * Checks the results against the maximum latency and percentage of
+	 * dropped snapshots.
+	 *
+	 * @param report
+	 * 		the results of the test.
+	 *
+	 * @return
+	 * 		<code>true</code> if the results are within the maximums,
+	 * 		<code>false</code> otherwise.
+	 */
+	public boolean check(LoadReport report) {
+		boolean ok = report.getConnected() == clients;
+		if (maxLatency > 0 && report.getLatencyMillis(95) > maxLatency) {
+			ok = false;
+		}
+		if (maxDropped > 0 && report.getDroppedPercentage() > maxDropped) {
+			ok = false;
+		}
+
+		return ok;
+	}
+
+	/**
+	 * Startup method of the load test.
+	 *
+	 * @param args
+	 * 		program arguments.
+	 */
+	public static void main(String[] args) {
+		System.setProperty("java.awt.headless", "true");
+
+		Log log = Log.getLogger();
+		log.removeAllHandlers();
+		log.addHandler(new ConsoleHandler(new TimeStampFormat()));
+		log.setLogLevel(LogLevel.fromInt(Settings.getInstance().getInteger("LOG_LEVEL")));
+
+		LoadTest test;
+		try {
+			test = parse(args);
+		} catch (IllegalArgumentException ex) {
+			log.log(LogLevel.ERROR, "[LoadTest] " + ex.getMessage());
+			log.log(LogLevel.ERROR, USAGE);
+			System.exit(1);
+			return;
+		}
+
+		LoadReport report;
+		try {
+			report = test.run();
+		} catch (InterruptedException ex) {
+			log.log(LogLevel.ERROR, "[LoadTest] Interrupted");
+			System.exit(1);
+			return;
+		}
+
+		//The report is the output of the load test, so it is printed whatever the log level is.
+		System.out.println(report);
+
+		if (!test.check(report)) {
+			log.log(LogLevel.ERROR, "[LoadTest] The results are not within the maximums");
+			System.exit(1);
+		}
+
+		System.exit(0);
+	}
+}
@@ -6,10 +6,13 @@ import com.github.fishio.PlayerFish;
 import com.github.fishio.Preloader;
 import com.github.fishio.Util;
 import com.github.fishio.control.MultiplayerGameController;
+import com.github.fishio.game.GameLoopPool;
 import com.github.fishio.logging.Log;
 import com.github.fishio.logging.LogLevel;
 import com.github.fishio.multiplayer.FishMessage;
-import com.github.fishio.multiplayer.RepeatingFishMessageSender;
+import com.github.fishio.multiplayer.NetworkTransport;
+import com.github.fishio.multiplayer.codec.FishMessageCodec;
+import com.github.fishio.multiplayer.codec.SnapshotHistory;
 import com.github.fishio.settings.Settings;
 
 import io.netty.bootstrap.ServerBootstrap;
@@ -17,16 +20,11 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
-import io.netty.channel.EventLoopGroup;
 import io.netty.channel.group.ChannelGroup;
 import io.netty.channel.group.ChannelGroupFuture;
 import io.netty.channel.group.DefaultChannelGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
-import io.netty.handler.codec.serialization.ClassResolvers;
-import io.netty.handler.codec.serialization.ObjectDecoder;
-import io.netty.handler.codec.serialization.ObjectEncoder;
+import io.netty.util.AttributeKey;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.GlobalEventExecutor;
 
@@ -37,14 +35,46 @@ import io.netty.util.concurrent.GlobalEventExecutor;
  * This class is only used server side.
  */
 public final class FishIOServer implements Runnable {
+	/**
+	 * The snapshots sent to a client, stored on the channel of the client.
+	 */
+	public static final AttributeKey<SnapshotHistory> SNAPSHOT_HISTORY = AttributeKey.valueOf("snapshotHistory");
+	
+	/**
+	 * The area of interest of a client, stored on the channel of the client.
+	 */
+	public static final AttributeKey<InterestFilter> INTEREST_FILTER = AttributeKey.valueOf("interestFilter");
+	
+	/**
+	 * The queue with the inputs of the player of a client.
+	 */
+	public static final AttributeKey<InputQueue> INPUT_QUEUE = AttributeKey.valueOf("inputQueue");
+	
+	/**
+	 * The scheduler that sends snapshots to a client.
+	 */
+	public static final AttributeKey<SnapshotScheduler> SNAPSHOT_SCHEDULER = AttributeKey.valueOf("snapshotScheduler");
+	
+	/**
+	 * The room a client is in.
+	 */
+	public static final AttributeKey<Room> ROOM = AttributeKey.valueOf("room");
+	
+	/**
+	 * The player of a client, in the room of the client.
+	 */
+	public static final AttributeKey<PlayerFish> PLAYER = AttributeKey.valueOf("player");
+	
 	private static final FishIOServer INSTANCE = new FishIOServer();
 	private int port;
 	private ChannelGroup allChannels;
 	private Channel channel;
 	private boolean started;
+	private boolean headless;
 	private SimpleObjectProperty<MultiplayerServerPlayingField> playingFieldProperty = new SimpleObjectProperty<>();
 	
 	private FishServerSettingsMessage settings;
+	private volatile RoomManager rooms;
 	
 	private FishIOServer() { }
 	
@@ -63,23 +93,44 @@ public final class FishIOServer implements Runnable {
 	 * 		the port to use.
 	 */
 	public void start(int port) {
+		start(port, 10000, 10000, 200, false);
+	}
+	
+	/**
+	 * Starts this FishIOServer on the given port.<br>
+	 * <br>
+	 * A headless server does not render the game and does not have a
+	 * player of its own, so it can run without JavaFX.
+	 * 
+	 * @param port
+	 * 		the port to use.
+	 * @param width
+	 * 		the width of the playing field.
+	 * @param height
+	 * 		the height of the playing field.
+	 * @param maxEnemies
+	 * 		the maximum amount of enemies in the playing field.
+	 * @param headless
+	 * 		if the server should run headless.
+	 */
+	public void start(int port, int width, int height, int maxEnemies, boolean headless) {
 		if (this.started) {
 			throw new IllegalStateException("You cannot start a FishIOServer twice!");
 		}
 		
 		this.port = port;
+		this.headless = headless;
 		
 		this.settings = new FishServerSettingsMessage();
-		this.settings.setSetting("WIDTH", 10000);
-		this.settings.setSetting("HEIGHT", 10000);
-		this.settings.setSetting("MAX_ENEMIES", 200);
+		this.settings.setSetting("WIDTH", width);
+		this.settings.setSetting("HEIGHT", height);
+		this.settings.setSetting("MAX_ENEMIES", maxEnemies);
 		this.settings.setSetting("PLAYER_ACCELERATION", PlayerFish.FISH_ACCELERATION);
 		this.settings.setSetting("MAX_PLAYER_SPEED", Settings.getInstance().getDouble("MAX_PLAYER_SPEED"));
 		
 		new Thread(this).start();
 	}
 	
-	@SuppressWarnings("resource")
 	@Override
 	public void run() {
 		synchronized (this) {
@@ -92,28 +143,26 @@ public final class FishIOServer implements Runnable {
 		
 		Log.getLogger().log(LogLevel.INFO, "[Server] Starting server on port " + port);
 		
-		//Handles accepting connections
-		EventLoopGroup bossGroup = new NioEventLoopGroup();
-		//Handles sending/receiving messages
-		EventLoopGroup workerGroup = new NioEventLoopGroup();
+		//Accepting connections and sending/receiving messages is done by the shared event loops
+		NetworkTransport transport = NetworkTransport.getInstance();
+		transport.acquire();
 		
 		allChannels = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
 		
 		try {
 			ServerBootstrap b = new ServerBootstrap();
-			b.group(bossGroup, workerGroup)
-			.channel(NioServerSocketChannel.class)
+			b.group(transport.getBossGroup(), transport.getWorkerGroup())
+			.channel(transport.getServerChannelClass())
 			.childHandler(new ChannelInitializer<SocketChannel>() {
 				@Override
 				public void initChannel(SocketChannel ch) throws Exception {
-					ch.pipeline().addLast("decoder",
-							new ObjectDecoder(ClassResolvers.softCachingResolver(ClassLoader.getSystemClassLoader())));
-					ch.pipeline().addLast("encoder", new ObjectEncoder());
+					NetworkTransport.configure(ch);
+					FishMessageCodec.addCodec(ch.pipeline());
 					ch.pipeline().addLast("handler", new FishServerHandler(allChannels));
 				}
 			})
 			.option(ChannelOption.SO_BACKLOG, 128)
-			.childOption(ChannelOption.SO_KEEPALIVE, true);
+			.option(ChannelOption.ALLOCATOR, NetworkTransport.ALLOCATOR);
 			
 			//Bind and start to accept incoming connections.
 			ChannelFuture f = b.bind(port).sync();
@@ -144,9 +193,8 @@ public final class FishIOServer implements Runnable {
 				this.allChannels = null;
 			}
 			
-			//Shutdown the groups
-			workerGroup.shutdownGracefully();
-			bossGroup.shutdownGracefully();
+			//Release the event loops
+			transport.release();
 		}
     }
 	
@@ -167,6 +215,15 @@ public final class FishIOServer implements Runnable {
 		return this.started;
 	}
 	
+	/**
+	 * @return
+	 * 		<code>true</code> if this server runs without rendering,
+	 * 		<code>false</code> otherwise.
+	 */
+	public boolean isHeadless() {
+		return this.headless;
+	}
+	
 	/**
 	 * If this FishIOServer is running, this method will tell it to
 	 * terminate (non-blocking).<br>
@@ -223,11 +280,24 @@ public final class FishIOServer implements Runnable {
 		mspf.stopGame();
 		mspf.clear();
 		
+		//Close the other rooms
+		RoomManager rm = this.rooms;
+		this.rooms = null;
+		if (rm != null) {
+			try {
+				rm.closeAll();
+			} catch (InterruptedException ex) {
+				Log.getLogger().log(LogLevel.ERROR, "[Server] Interrupted while closing the rooms");
+			}
+		}
+		
 		//Log that we have stopped
 		Log.getLogger().log(LogLevel.INFO, "[Server] Server stopped");
 		
 		//Switch to the main menu
-		Util.onJavaFX(() -> Preloader.switchTo("mainMenu", 1000));
+		if (!headless) {
+			Util.onJavaFX(() -> Preloader.switchTo("mainMenu", 1000));
+		}
 	}
 	
 	/**
@@ -239,15 +309,26 @@ public final class FishIOServer implements Runnable {
 		int maxEnemies = (Integer) settings.getSetting("MAX_ENEMIES");
 		
 		//Create a new playing field
-		MultiplayerGameController controller = Preloader.getControllerOrLoad("multiplayerGameScreen");
-		MultiplayerServerPlayingField mspf =
-				new MultiplayerServerPlayingField(60, controller.getCanvas(), width, height);
+		MultiplayerServerPlayingField mspf;
+		if (headless) {
+			mspf = new MultiplayerServerPlayingField(width, height);
+		} else {
+			MultiplayerGameController controller = Preloader.getControllerOrLoad("multiplayerGameScreen");
+			mspf = new MultiplayerServerPlayingField(60, controller.getCanvas(), width, height);
+		}
 		mspf.getEnemyFishSpawner().setMaxEnemies(maxEnemies);
 		
+		//The field of the server is the default room, all rooms share one pool
+		Settings s = Settings.getInstance();
+		GameLoopPool pool = new GameLoopPool(s.getInteger("GAME_LOOP_THREADS"));
+		this.rooms = new RoomManager(mspf, maxEnemies, s.getInteger("MAX_ROOMS"), pool);
+		
 		this.playingFieldProperty.set(mspf);
 		
-		//Create own player and start the game
-		mspf.respawnOwnPlayer();
+		//Create own player (only when we are playing as well) and start the game
+		if (!headless) {
+			mspf.respawnOwnPlayer();
+		}
 		mspf.startGame();
 	}
 	
@@ -300,26 +381,12 @@ public final class FishIOServer implements Runnable {
 	}
 	
 	/**
-	 * Uses {@link RepeatingFishMessageSender#queueWriteFlushToAvailable(ChannelGroup)}
-	 * to send the message (once) to all clients connected, excluding those
-	 * still processing the last message.
-	 * 
-	 * @param sender
-	 * 		the RepeatingFishMessageSender to queue.
-	 * 
 	 * @return
-	 * 		<code>true</code> if sending was queued,
-	 * 		<code>false</code> if not (e.g. server not running).
+	 * 		the rooms of this server, or <code>null</code> if the server is
+	 * 		not running.
 	 */
-	public boolean queueMessage(RepeatingFishMessageSender sender) {
-		ChannelGroup cg = this.allChannels;
-		if (cg == null) {
-			return false;
-		}
-		
-		sender.queueWriteFlushToAvailable(cg);
-		
-		return true;
+	public RoomManager getRooms() {
+		return this.rooms;
 	}
 	
 	/**
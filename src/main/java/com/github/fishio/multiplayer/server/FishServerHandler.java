@@ -3,9 +3,12 @@ package com.github.fishio.multiplayer.server;
 import com.github.fishio.PlayerFish;
 import com.github.fishio.logging.Log;
 import com.github.fishio.logging.LogLevel;
-import com.github.fishio.multiplayer.client.FishClientPlayerFishMessage;
+import com.github.fishio.multiplayer.client.FishClientInputMessage;
+import com.github.fishio.multiplayer.client.FishClientJoinRoomMessage;
 import com.github.fishio.multiplayer.client.FishClientRequestPlayerMessage;
 import com.github.fishio.multiplayer.client.FishClientMessage;
+import com.github.fishio.multiplayer.client.FishClientSnapshotAckMessage;
+import com.github.fishio.multiplayer.codec.SnapshotHistory;
 
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
@@ -33,14 +36,58 @@ public class FishServerHandler extends SimpleChannelInboundHandler<FishClientMes
         //Add channels to the group.
         allChannels.add(ctx.channel());
         
+        //A new connection starts without snapshots, so it gets all entities.
+        ctx.channel().attr(FishIOServer.SNAPSHOT_HISTORY).set(new SnapshotHistory());
+        ctx.channel().attr(FishIOServer.INTEREST_FILTER).set(InterestFilter.fromSettings());
+        
         //Send the settings
         ctx.writeAndFlush(FishIOServer.getInstance().getSettings());
         
+        //Every client starts in the default room, unless its game failed
+        RoomManager rooms = FishIOServer.getInstance().getRooms();
+        if (rooms != null) {
+            Room room = rooms.join(RoomManager.DEFAULT_ROOM, ctx.channel());
+            if (room == null) {
+                ctx.close();
+                return;
+            }
+            
+            ctx.channel().attr(FishIOServer.ROOM).set(room);
+        }
+        
+        //Send snapshots at the rate this client can keep up with
+        SnapshotScheduler scheduler = SnapshotScheduler.fromSettings(ctx.channel());
+        ctx.channel().attr(FishIOServer.SNAPSHOT_SCHEDULER).set(scheduler);
+        scheduler.start();
+        
         super.channelActive(ctx);
     }
 	
+	@Override
+	public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+		SnapshotScheduler scheduler = ctx.channel().attr(FishIOServer.SNAPSHOT_SCHEDULER).get();
+		if (scheduler != null) {
+			scheduler.stop();
+		}
+		
+		leaveRoom(ctx);
+		
+		super.channelInactive(ctx);
+	}
+	
 	@Override
 	protected void messageReceived(ChannelHandlerContext ctx, FishClientMessage msg) throws Exception {
+		//Acknowledgements and inputs are received every tick, so they are not logged.
+		if (msg instanceof FishClientSnapshotAckMessage) {
+			handleSnapshotAck((FishClientSnapshotAckMessage) msg, ctx);
+			return;
+		}
+		
+		if (msg instanceof FishClientInputMessage) {
+			handleInput((FishClientInputMessage) msg, ctx);
+			return;
+		}
+		
 		Log.getLogger().log(LogLevel.INFO,
 				"[Server] [" + ctx.channel().remoteAddress() + "] Received " + msg.getClass().getSimpleName());
 		
@@ -48,10 +95,28 @@ public class FishServerHandler extends SimpleChannelInboundHandler<FishClientMes
 			handlePlayerRequest((FishClientRequestPlayerMessage) msg, ctx);
 		}
 		
-		if (msg instanceof FishClientPlayerFishMessage) {
-			handleClientUpdate((FishClientPlayerFishMessage) msg);
+		if (msg instanceof FishClientJoinRoomMessage) {
+			handleJoinRoom((FishClientJoinRoomMessage) msg, ctx);
 		}
 	}
+	
+	/**
+	 * @param ctx
+	 * 		the ChannelHandlerContext of a client.
+	 * 
+	 * @return
+	 * 		the playing field of the room of the client, or <code>null</code>
+	 * 		if the client is not in a room or its room was closed.
+	 */
+	private MultiplayerServerPlayingField getPlayingField(ChannelHandlerContext ctx) {
+		Room room = ctx.channel().attr(FishIOServer.ROOM).get();
+		RoomManager rooms = FishIOServer.getInstance().getRooms();
+		if (room == null || rooms == null || rooms.getRoom(room.getName()) != room) {
+			return null;
+		}
+		
+		return room.getPlayingField();
+	}
 
 	/**
 	 * Handles a player request message from the client.
@@ -62,14 +127,24 @@ public class FishServerHandler extends SimpleChannelInboundHandler<FishClientMes
 	 * 		the ChannelHandlerContext that can be used to send messages back.
 	 */
 	public void handlePlayerRequest(FishClientRequestPlayerMessage msg, ChannelHandlerContext ctx) {
-		//If the playing field is null, the server must have stopped, so we return.
-		MultiplayerServerPlayingField mspf = FishIOServer.getInstance().getPlayingField();
+		//If the playing field is null, the server stopped or the room was closed, so we return.
+		MultiplayerServerPlayingField mspf = getPlayingField(ctx);
 		if (mspf == null) {
 			return;
 		}
 
 		//A client is requesting a new playerfish, so we need to create one.
 		PlayerFish player = mspf.createClientPlayer();
+		ctx.channel().attr(FishIOServer.PLAYER).set(player);
+		
+		//Only send entities around the new player to this client
+		InterestFilter filter = ctx.channel().attr(FishIOServer.INTEREST_FILTER).get();
+		if (filter != null) {
+			filter.setPlayer(player);
+		}
+		
+		//The player is moved with the inputs the client sends
+		ctx.channel().attr(FishIOServer.INPUT_QUEUE).set(mspf.createInputQueue(player));
 		
 		//Send a message back to the client with the newly spawned player fish
 		FishServerPlayerMessage fspm = new FishServerPlayerMessage(player);
@@ -77,17 +152,90 @@ public class FishServerHandler extends SimpleChannelInboundHandler<FishClientMes
 	}
 	
 	/**
-	 * Handles a player update message from the client.
+	 * Handles a snapshot acknowledgement from the client.
 	 * 
 	 * @param msg
 	 * 		the message from the client.
+	 * @param ctx
+	 * 		the ChannelHandlerContext of the client.
 	 */
-	public void handleClientUpdate(FishClientPlayerFishMessage msg) {
-		MultiplayerServerPlayingField mspf = FishIOServer.getInstance().getPlayingField();
-		if (mspf == null) {
+	public void handleSnapshotAck(FishClientSnapshotAckMessage msg, ChannelHandlerContext ctx) {
+		SnapshotHistory history = ctx.channel().attr(FishIOServer.SNAPSHOT_HISTORY).get();
+		if (history != null) {
+			history.acknowledge(msg.getSequence());
+		}
+	}
+	
+	/**
+	 * Handles an input message from the client.
+	 * 
+	 * @param msg
+	 * 		the message from the client.
+	 * @param ctx
+	 * 		the ChannelHandlerContext of the client.
+	 */
+	public void handleInput(FishClientInputMessage msg, ChannelHandlerContext ctx) {
+		InputQueue queue = ctx.channel().attr(FishIOServer.INPUT_QUEUE).get();
+		if (queue != null) {
+			queue.add(msg.getFirstSequence(), msg.getInputs());
+		}
+	}
+	
+	/**
+	 * Handles a join room message from the client. The client leaves its
+	 * current room, and starts in the new room without a player and
+	 * without snapshots.
+	 * 
+	 * @param msg
+	 * 		the message from the client.
+	 * @param ctx
+	 * 		the ChannelHandlerContext of the client.
+	 */
+	public void handleJoinRoom(FishClientJoinRoomMessage msg, ChannelHandlerContext ctx) {
+		RoomManager rooms = FishIOServer.getInstance().getRooms();
+		if (rooms == null) {
+			return;
+		}
+		
+		//A closed room with the same name is left for a new one
+		Room current = ctx.channel().attr(FishIOServer.ROOM).get();
+		if (current != null && current == rooms.getRoom(msg.getRoom())) {
 			return;
 		}
 		
-		mspf.updatePlayer(msg.getPlayer());
+		Room room = rooms.join(msg.getRoom(), ctx.channel());
+		if (room == null) {
+			return;
+		}
+		
+		leaveRoom(ctx);
+		
+		//The snapshots of the old room are of no use in the new room
+		RoomManager.enter(ctx.channel(), room);
+	}
+	
+	/**
+	 * Removes the client from its room, together with its player.
+	 * 
+	 * @param ctx
+	 * 		the ChannelHandlerContext of the client.
+	 */
+	private void leaveRoom(ChannelHandlerContext ctx) {
+		Room room = ctx.channel().attr(FishIOServer.ROOM).getAndRemove();
+		PlayerFish player = ctx.channel().attr(FishIOServer.PLAYER).getAndRemove();
+		ctx.channel().attr(FishIOServer.INPUT_QUEUE).remove();
+		if (room == null) {
+			return;
+		}
+		
+		//The player is removed with the other dead entities by the game thread
+		if (player != null) {
+			player.getDeathProperty().set(true);
+		}
+		
+		RoomManager rooms = FishIOServer.getInstance().getRooms();
+		if (rooms != null) {
+			rooms.leave(room, ctx.channel());
+		}
 	}
 }
@@ -1,6 +1,8 @@
 package com.github.fishio.multiplayer.server;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 
 /**
  * ServerMessage for settings.
@@ -32,4 +34,12 @@ public class FishServerSettingsMessage implements FishServerMessage {
 	public Object getSetting(String key) {
 		return settings.get(key);
 	}
+	
+	/**
+	 * @return
+	 * 		an unmodifiable view of all settings in this message.
+	 */
+	public Map<String, Object> getSettings() {
+		return Collections.unmodifiableMap(settings);
+	}
 }
@@ -0,0 +1,106 @@
+package com.github.fishio.multiplayer.server;
+
+import com.github.fishio.multiplayer.codec.EntitySnapshot;
+import com.github.fishio.multiplayer.codec.SnapshotDelta;
+
+/**
+ * Represents a message from the server with the entities that changed
+ * since the last snapshot the client acknowledged.<br>
+ * <br>
+ * The server creates this message with the current snapshot and the
+ * baseline, and only the difference is sent. The client receives the
+ * {@link SnapshotDelta}, which it applies to its own copy of the
+ * baseline.<br>
+ * <br>
+ * The message also tells the client which of its inputs the server has
+ * processed, so that the client can replay the inputs after it.
+ */
+public class FishServerSnapshotMessage implements FishServerMessage {
+	private static final long serialVersionUID = -2470962211539017318L;
+
+	private transient EntitySnapshot snapshot;
+	private transient EntitySnapshot baseline;
+	private transient SnapshotDelta delta;
+	private int inputSequence;
+	
+	/**
+	 * Creates a new FishServerSnapshotMessage to send.
+	 * 
+	 * @param snapshot
+	 * 		the current snapshot.
+	 * @param baseline
+	 * 		the last snapshot the client acknowledged, or <code>null</code>
+	 * 		to send all entities.
+	 */
+	public FishServerSnapshotMessage(EntitySnapshot snapshot, EntitySnapshot baseline) {
+		this(snapshot, baseline, -1);
+	}
+	
+	/**
+	 * Creates a new FishServerSnapshotMessage to send.
+	 * 
+	 * @param snapshot
+	 * 		the current snapshot.
+	 * @param baseline
+	 * 		the last snapshot the client acknowledged, or <code>null</code>
+	 * 		to send all entities.
+	 * @param inputSequence
+	 * 		the sequence number of the last input of the client that was
+	 * 		processed, or -1 if none was.
+	 */
+	public FishServerSnapshotMessage(EntitySnapshot snapshot, EntitySnapshot baseline, int inputSequence) {
+		this.snapshot = snapshot;
+		this.baseline = baseline;
+		this.inputSequence = inputSequence;
+	}
+	
+	/**
+	 * Creates a new FishServerSnapshotMessage that was received.
+	 * 
+	 * @param delta
+	 * 		the delta that was received.
+	 * @param inputSequence
+	 * 		the sequence number of the last input of the client that was
+	 * 		processed, or -1 if none was.
+	 */
+	public FishServerSnapshotMessage(SnapshotDelta delta, int inputSequence) {
+		this.delta = delta;
+		this.inputSequence = inputSequence;
+	}
+	
+	/**
+	 * @return
+	 * 		the current snapshot, or <code>null</code> if this message was
+	 * 		received.
+	 */
+	public EntitySnapshot getSnapshot() {
+		return snapshot;
+	}
+	
+	/**
+	 * @return
+	 * 		the baseline of the snapshot, or <code>null</code> if all
+	 * 		entities are sent or this message was received.
+	 */
+	public EntitySnapshot getBaseline() {
+		return baseline;
+	}
+	
+	/**
+	 * @return
+	 * 		the delta that was received, or <code>null</code> if this
+	 * 		message is sent.
+	 */
+	public SnapshotDelta getDelta() {
+		return delta;
+	}
+	
+	/**
+	 * @return
+	 * 		the sequence number of the last input of the client that was
+	 * 		processed, or -1 if none was.
+	 */
+	public int getInputSequence() {
+		return inputSequence;
+	}
+}
@@ -0,0 +1,194 @@
+package com.github.fishio.multiplayer.server;
+
+import com.github.fishio.SpriteStore;
+import com.github.fishio.logging.ConsoleHandler;
+import com.github.fishio.logging.Log;
+import com.github.fishio.logging.LogLevel;
+import com.github.fishio.logging.TimeStampFormat;
+import com.github.fishio.settings.Settings;
+
+/**
+ * Entry point for a dedicated server that runs without JavaFX.<br>
+ * <br>
+ * The server does not render anything and does not have a player of its
+ * own, so it can run on a machine without a display. Usage:
+ * <pre>
+ * HeadlessServer [--port port] [--width width] [--height height] [--max-enemies amount]
+ * </pre>
+ */
+public final class HeadlessServer {
+	/**
+	 * The default port, the same as the default port of the client.
+	 */
+	public static final int DEFAULT_PORT = 25565;
+
+	/**
+	 * The default width and height of the playing field.
+	 */
+	public static final int DEFAULT_SIZE = 10000;
+
+	/**
+	 * The default maximum amount of enemies.
+	 */
+	public static final int DEFAULT_MAX_ENEMIES = 200;
+
+	private static final String USAGE =
+			"Usage: HeadlessServer [--port port] [--width width] [--height height] [--max-enemies amount]";
+
+	private int port = DEFAULT_PORT;
+	private int width = DEFAULT_SIZE;
+	private int height = DEFAULT_SIZE;
+	private int maxEnemies = DEFAULT_MAX_ENEMIES;
+
+	private HeadlessServer() { }
+
+	/**
+	 * Parses the given command line arguments.
+	 *
+	 * @param args
+	 * 		the command line arguments.
+	 *
+	 * @return
+	 * 		a HeadlessServer with the given options.
+	 *
+	 * @throws IllegalArgumentException
+	 * 		if the arguments are invalid.
+	 */
+	public static HeadlessServer parse(String... args) {
+		HeadlessServer server = new HeadlessServer();
+		for (int i = 0; i < args.length; i += 2) {
+			String option = args[i];
+			if (i + 1 >= args.length) {
+				throw new IllegalArgumentException("Missing value for " + option);
+			}
+
+			String value = args[i + 1];
+			switch (option) {
+			case "--port":
+				server.port = parseInt(option, value, 0, 65535);
+				break;
+			case "--width":
+				server.width = parseInt(option, value, 1, Integer.MAX_VALUE);
+				break;
+			case "--height":
+				server.height = parseInt(option, value, 1, Integer.MAX_VALUE);
+				break;
+			case "--max-enemies":
+				server.maxEnemies = parseInt(option, value, 0, Integer.MAX_VALUE);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option " + option);
+			}
+		}
+
+		return server;
+	}
+
+	/**
+	 * Parses the value of an option.
+	 *
+	 * @param option
+	 * 		the name of the option.
+	 * @param value
+	 * 		the value to parse.
+	 * @param min
+	 * 		the smallest allowed value.
+	 * @param max
+	 * 		the largest allowed value.
+	 *
+	 * @return
+	 * 		the parsed value.
+	 *
+	 * @throws IllegalArgumentException
+	 * 		if the value is not a number between min and max.
+	 */
+	private static int parseInt(String option, String value, int min, int max) {
+		int res;
+		try {
+			res = Integer.parseInt(value);
+		} catch (NumberFormatException ex) {
+			throw new IllegalArgumentException("The value of " + option + " is not a number: " + value, ex);
+		}
+
+		if (res < min || res > max) {
+			throw new IllegalArgumentException("The value of " + option + " has to be between "
+					+ min + " and " + max + ": " + value);
+		}
+
+		return res;
+	}
+
+	/**
+	 * @return
+	 * 		the port to listen on.
+	 */
+	public int getPort() {
+		return port;
+	}
+
+	/**
+	 * @return
+	 * 		the width of the playing field.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return
+	 * 		the height of the playing field.
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * @return
+	 * 		the maximum amount of enemies in the playing field.
+	 */
+	public int getMaxEnemies() {
+		return maxEnemies;
+	}
+
+	/**
+	 * Starts the FishIOServer headless, with the options of this
+	 * HeadlessServer.
+	 */
+	public void start() {
+		SpriteStore.setHeadless(true);
+
+		FishIOServer server = FishIOServer.getInstance();
+		Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+
+		server.start(port, width, height, maxEnemies, true);
+	}
+
+	/**
+	 * Startup method of the dedicated server.
+	 *
+	 * @param args
+	 * 		program arguments.
+	 */
+	public static void main(String[] args) {
+		System.setProperty("java.awt.headless", "true");
+
+		Log log = Log.getLogger();
+		log.removeAllHandlers();
+		log.addHandler(new ConsoleHandler(new TimeStampFormat()));
+		log.setLogLevel(LogLevel.fromInt(Settings.getInstance().getInteger("LOG_LEVEL")));
+
+		HeadlessServer server;
+		try {
+			server = parse(args);
+		} catch (IllegalArgumentException ex) {
+			log.log(LogLevel.ERROR, "[Server] " + ex.getMessage());
+			log.log(LogLevel.ERROR, USAGE);
+			System.exit(1);
+			return;
+		}
+
+		log.log(LogLevel.INFO, "[Server] Starting headless server with a " + server.width + "x" + server.height
+				+ " field and at most " + server.maxEnemies + " enemies");
+		server.start();
+	}
+}
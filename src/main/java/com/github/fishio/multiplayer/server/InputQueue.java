@@ -0,0 +1,140 @@
+package com.github.fishio.multiplayer.server;
+
+/**
+ * Queue of the inputs a client sent for its player.<br>
+ * <br>
+ * Every input has a sequence number, one per client tick. The server
+ * takes one input from the queue every tick. If the queue is empty, the
+ * last input is repeated, so the player keeps moving the same way until
+ * the next input arrives.<br>
+ * <br>
+ * Inputs often arrive in bursts, as the client sends all inputs it could
+ * not send while its previous message was pending. A burst is queued and
+ * simulated one input per tick. If the queue stays longer than
+ * {@link #TARGET_SIZE} for {@link #BACKLOG_TICKS} ticks, e.g. after a lag
+ * spike, the backlog is drained by taking two inputs per tick (see
+ * {@link #getInputsThisTick()}). Otherwise the server would keep running
+ * that many ticks behind the client. Only if the client gets ahead by more
+ * than {@link #CAPACITY} inputs are the oldest inputs dropped.<br>
+ * <br>
+ * The sequence number of the last input that was processed is sent back
+ * to the client with every snapshot, so that the client can replay the
+ * inputs after it.
+ */
+public class InputQueue {
+	/**
+	 * The maximum amount of inputs that are queued, about a second of
+	 * inputs.
+	 */
+	public static final int CAPACITY = 64;
+	
+	/**
+	 * The amount of queued inputs that is enough to smooth out the jitter
+	 * of the connection. A longer queue delays every input after it.
+	 */
+	public static final int TARGET_SIZE = 3;
+	
+	/**
+	 * The amount of ticks the queue has to stay longer than
+	 * {@link #TARGET_SIZE} before it is drained, so that a single burst is
+	 * not.
+	 */
+	public static final int BACKLOG_TICKS = 30;
+	
+	private final byte[] inputs = new byte[CAPACITY];
+	private int head;
+	private int size;
+	private int lastQueued = -1;
+	private int lastProcessed = -1;
+	private int lastInput;
+	private int backlogTicks;
+	
+	/**
+	 * Adds the given inputs of consecutive ticks to this queue. Inputs
+	 * that were added before are ignored.
+	 * 
+	 * @param firstSequence
+	 * 		the sequence number of the first input.
+	 * @param newInputs
+	 * 		the inputs.
+	 */
+	public synchronized void add(int firstSequence, byte[] newInputs) {
+		for (int i = 0; i < newInputs.length; i++) {
+			int sequence = firstSequence + i;
+			if (sequence <= lastQueued) {
+				continue;
+			}
+			
+			if (sequence != lastQueued + 1) {
+				//Inputs were skipped, continue from this one.
+				size = 0;
+				lastProcessed = sequence - 1;
+			}
+			
+			if (size == CAPACITY) {
+				//The client is far too far ahead, drop the oldest input.
+				lastInput = inputs[head];
+				lastProcessed++;
+				head = (head + 1) % CAPACITY;
+				size--;
+			}
+			
+			inputs[(head + size) % CAPACITY] = newInputs[i];
+			size++;
+			lastQueued = sequence;
+		}
+	}
+	
+	/**
+	 * Called once per tick, before the inputs of the tick are taken with
+	 * {@link #poll()}.
+	 * 
+	 * @return
+	 * 		the amount of inputs to take this tick: 2 if the queue has been
+	 * 		longer than {@link #TARGET_SIZE} for {@link #BACKLOG_TICKS}
+	 * 		ticks, 1 otherwise.
+	 */
+	public synchronized int getInputsThisTick() {
+		if (size <= TARGET_SIZE) {
+			backlogTicks = 0;
+			return 1;
+		}
+		
+		backlogTicks++;
+		return backlogTicks >= BACKLOG_TICKS ? 2 : 1;
+	}
+	
+	/**
+	 * Takes the next input from this queue.
+	 * 
+	 * @return
+	 * 		the next input, or the last input if no new input arrived.
+	 */
+	public synchronized int poll() {
+		if (size > 0) {
+			lastInput = inputs[head];
+			lastProcessed++;
+			head = (head + 1) % CAPACITY;
+			size--;
+		}
+		
+		return lastInput;
+	}
+	
+	/**
+	 * @return
+	 * 		the amount of inputs that are queued.
+	 */
+	public synchronized int size() {
+		return size;
+	}
+	
+	/**
+	 * @return
+	 * 		the sequence number of the last input that was processed, or -1
+	 * 		if no input was processed yet.
+	 */
+	public synchronized int getLastProcessed() {
+		return lastProcessed;
+	}
+}
@@ -0,0 +1,128 @@
+package com.github.fishio.multiplayer.server;
+
+import com.github.fishio.PlayerFish;
+import com.github.fishio.multiplayer.codec.EntitySnapshot;
+import com.github.fishio.multiplayer.codec.EntityState;
+import com.github.fishio.settings.Settings;
+
+/**
+ * Selects the entities a single client is interested in: the entities
+ * within a radius of the player of that client.<br>
+ * <br>
+ * Entities that were already sent to the client stay in its area of
+ * interest until they are more than a margin outside of the radius, so
+ * entities near the edge do not flicker in and out of view.<br>
+ * <br>
+ * The filter runs on the event loop of the client, while the game thread
+ * moves the player. The center of the area is therefore taken from the
+ * state of the player in the snapshot that is filtered, not from the
+ * player itself.
+ */
+public class InterestFilter {
+	private final double radius;
+	private final double margin;
+	
+	private PlayerFish player;
+	private boolean hasCenter;
+	private double centerX;
+	private double centerY;
+	private EntitySnapshot previous;
+	
+	/**
+	 * Creates a new InterestFilter.
+	 * 
+	 * @param radius
+	 * 		the distance from the player within which entities are sent.
+	 * 		If this is 0 or less, all entities are sent.
+	 * @param margin
+	 * 		the extra distance entities that were already sent can move away
+	 * 		before they are no longer sent.
+	 */
+	public InterestFilter(double radius, double margin) {
+		this.radius = radius;
+		this.margin = Math.max(0, margin);
+	}
+	
+	/**
+	 * @return
+	 * 		a new InterestFilter with the radius and margin from the
+	 * 		settings.
+	 */
+	public static InterestFilter fromSettings() {
+		Settings settings = Settings.getInstance();
+		return new InterestFilter(settings.getDouble("INTEREST_RADIUS"), settings.getDouble("INTEREST_MARGIN"));
+	}
+	
+	/**
+	 * @param player
+	 * 		the player of the client, around which entities are sent.
+	 */
+	public synchronized void setPlayer(PlayerFish player) {
+		this.player = player;
+	}
+	
+	/**
+	 * Selects the entities of the given snapshot the client is interested
+	 * in. The player of the client is always selected.<br>
+	 * <br>
+	 * If the client has not had a player yet, all entities are selected.
+	 * If the player is dead or not in the snapshot, the area stays where
+	 * the player was last.
+	 * 
+	 * @param snapshot
+	 * 		the snapshot of all entities.
+	 * 
+	 * @return
+	 * 		the snapshot that should be sent to the client.
+	 */
+	public synchronized EntitySnapshot apply(EntitySnapshot snapshot) {
+		if (radius <= 0) {
+			return snapshot;
+		}
+		
+		PlayerFish current = this.player;
+		int playerId = current == null ? -1 : current.getEntityId();
+		EntityState own = current == null ? null : snapshot.find(playerId);
+		if (own != null && !own.isDead()) {
+			hasCenter = true;
+			centerX = own.getX();
+			centerY = own.getY();
+		}
+		
+		if (!hasCenter) {
+			return snapshot;
+		}
+		
+		EntitySnapshot last = this.previous;
+		EntitySnapshot filtered = snapshot.filter(state -> {
+			if (state.getEntityId() == playerId) {
+				return true;
+			}
+			
+			double distance = distance(state);
+			if (distance <= radius) {
+				return true;
+			}
+			
+			return distance <= radius + margin && last != null && last.find(state.getEntityId()) != null;
+		});
+		
+		this.previous = filtered;
+		return filtered;
+	}
+	
+	/**
+	 * @param state
+	 * 		the state of an entity.
+	 * 
+	 * @return
+	 * 		the distance between the center of the area and the nearest side
+	 * 		of the entity, approximated by the larger half of its size.
+	 */
+	private double distance(EntityState state) {
+		double dx = state.getX() - centerX;
+		double dy = state.getY() - centerY;
+		double reach = Math.max(state.getWidth(), state.getHeight()) / 2;
+		return Math.sqrt(dx * dx + dy * dy) - reach;
+	}
+}
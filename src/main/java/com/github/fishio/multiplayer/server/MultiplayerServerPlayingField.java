@@ -1,17 +1,22 @@
 package com.github.fishio.multiplayer.server;
 
-import java.util.Optional;
+import java.util.Arrays;
+import java.util.Collection;
 
 import com.github.fishio.CollisionMask;
+import com.github.fishio.Entity;
+import com.github.fishio.IntHashMap;
+import com.github.fishio.ISpriteData;
 import com.github.fishio.PlayerFish;
 import com.github.fishio.Preloader;
 import com.github.fishio.Sprite;
 import com.github.fishio.SpriteStore;
 import com.github.fishio.Vec2d;
+import com.github.fishio.behaviours.KeyListenerBehaviour;
 import com.github.fishio.game.GameThread;
-import com.github.fishio.logging.LogLevel;
 import com.github.fishio.multiplayer.MultiplayerPlayingField;
-import com.github.fishio.multiplayer.RepeatingFishMessageSender;
+import com.github.fishio.multiplayer.codec.EntitySnapshot;
+import com.github.fishio.settings.Settings;
 
 import javafx.scene.canvas.Canvas;
 
@@ -22,7 +27,11 @@ public class MultiplayerServerPlayingField extends MultiplayerPlayingField {
 	private static final long SPAWN_INVINCIBILITY = 6_000L;
 	private ServerGameThread gameThread;
 	private double startX, startY;
-	private RepeatingFishMessageSender entityUpdateSender;
+	private int snapshotSequence;
+	private int tick;
+	private int snapshotInterval;
+	private final IntHashMap<InputQueue> inputQueues = new IntHashMap<>();
+	private volatile EntitySnapshot latestSnapshot;
 	
 	/**
 	 * Creates a new MultiplayerServerPlayingField.
@@ -42,7 +51,25 @@ public class MultiplayerServerPlayingField extends MultiplayerPlayingField {
 		startY = height / 2D;
 		
 		this.gameThread = new ServerGameThread(this);
-		this.entityUpdateSender = new RepeatingFishMessageSender(new FishServerEntitiesMessage(this));
+		this.snapshotInterval = getSnapshotInterval();
+	}
+	
+	/**
+	 * Creates a new headless MultiplayerServerPlayingField, without a
+	 * renderer and without a player for the server.
+	 * 
+	 * @param width
+	 * 		the width of the playing field
+	 * @param height
+	 * 		the height of the playing field
+	 */
+	public MultiplayerServerPlayingField(int width, int height) {
+		super(width, height);
+		startX = width / 2D;
+		startY = height / 2D;
+		
+		this.gameThread = new ServerGameThread(this);
+		this.snapshotInterval = getSnapshotInterval();
 	}
 
 	@Override
@@ -51,46 +78,133 @@ public class MultiplayerServerPlayingField extends MultiplayerPlayingField {
 	}
 	
 	/**
-	 * Sends an entities update to all connected clients.
+	 * @return
+	 * 		the amount of game ticks between two snapshots, based on the
+	 * 		SNAPSHOT_RATE setting.
+	 */
+	public static int getSnapshotInterval() {
+		int rate = Settings.getInstance().getInteger("SNAPSHOT_RATE");
+		if (rate <= 0) {
+			return 1;
+		}
+		
+		return Math.max(1, (int) Math.round(GameThread.GAME_TPS / rate));
+	}
+	
+	/**
+	 * Captures the state of all entities in a snapshot for the clients.
+	 * This is called every game tick, but snapshots are only captured at
+	 * the SNAPSHOT_RATE.<br>
+	 * <br>
+	 * The snapshot is only published here. Every client in the room of this
+	 * playing field has a
+	 * {@link SnapshotScheduler} that sends the changes to the client at a
+	 * rate its connection can keep up with. Clients interpolate between
+	 * the snapshots.<br>
+	 * <br>
+	 * The last processed input of every player is recorded in the
+	 * snapshot, so the schedulers send the inputs that match the positions
+	 * in the snapshot, even if they send it a few ticks later.
 	 */
 	public void sendEntitiesUpdate() {
-		FishIOServer.getInstance().queueMessage(entityUpdateSender);
+		int current = tick++;
+		if (current % snapshotInterval != 0) {
+			return;
+		}
+		
+		Collection<PlayerFish> players = getPlayers();
+		int[] ids = new int[players.size()];
+		int[] sequences = new int[ids.length];
+		int count = 0;
+		synchronized (inputQueues) {
+			for (PlayerFish player : players) {
+				InputQueue queue = inputQueues.get(player.getEntityId());
+				//Clients can request a player while this runs
+				if (queue != null && count < ids.length) {
+					ids[count] = player.getEntityId();
+					sequences[count] = queue.getLastProcessed();
+					count++;
+				}
+			}
+		}
+		
+		EntitySnapshot snapshot = EntitySnapshot.capture(snapshotSequence++, current, getEntities());
+		this.latestSnapshot = snapshot.withInputSequences(Arrays.copyOf(ids, count), Arrays.copyOf(sequences, count));
 	}
 	
 	/**
-	 * Called when the client sends a player update message.
+	 * @return
+	 * 		the newest snapshot, or <code>null</code> if none was captured
+	 * 		yet.
+	 */
+	public EntitySnapshot getLatestSnapshot() {
+		return latestSnapshot;
+	}
+	
+	/**
+	 * Creates the queue the inputs of the client of the given player are
+	 * put in. Every tick, the player is moved with the next input.
+	 * 
+	 * @param player
+	 * 		the player of the client.
 	 * 
-	 * @param updated
-	 * 		the updated PlayerFish corresponding to the client.
+	 * @return
+	 * 		the new input queue.
 	 */
-	public void updatePlayer(PlayerFish updated) {
-		//Find the player by entity id
-		Optional<PlayerFish> oPlayer = getPlayers()
-				.stream()
-				.filter(player -> player.getEntityId() == updated.getEntityId())
-				.findAny();
+	public InputQueue createInputQueue(PlayerFish player) {
+		InputQueue queue = new InputQueue();
+		synchronized (inputQueues) {
+			inputQueues.put(player.getEntityId(), queue);
+		}
 		
-		if (!oPlayer.isPresent()) {
-			logger.log(LogLevel.DEBUG, "[MSPF] A player update was received, but that player is not in the game...");
-			return;
+		return queue;
+	}
+	
+	/**
+	 * {@inheritDoc}<br>
+	 * <br>
+	 * Players of clients are moved with the next input of their queue.
+	 * If the client is too far ahead, the player is moved once for every
+	 * input taken this tick, as the client did when it predicted them.
+	 */
+	@Override
+	public void moveEntity(Entity entity) {
+		if (entity instanceof PlayerFish && entity.getBehaviour() instanceof KeyListenerBehaviour) {
+			InputQueue queue;
+			synchronized (inputQueues) {
+				queue = inputQueues.get(entity.getEntityId());
+			}
+			
+			if (queue != null) {
+				KeyListenerBehaviour behaviour = (KeyListenerBehaviour) entity.getBehaviour();
+				for (int i = queue.getInputsThisTick(); i > 0; i--) {
+					behaviour.setInput(queue.poll());
+					super.moveEntity(entity);
+				}
+				return;
+			}
 		}
 		
-		PlayerFish player = oPlayer.get();
+		super.moveEntity(entity);
+	}
+	
+	@Override
+	public void remove(Object o) {
+		super.remove(o);
 		
-		//Add synchronization here to prevent the size from getting lost.
-		synchronized (player) {
-			//Store the size, because we need to restore it after the update
-			double size = player.getBoundingArea().getSize();
-			
-			//Update the bounding area
-			player.getBoundingArea().updateTo(updated.getBoundingArea());
-			//Restore the size
-			player.getBoundingArea().setSize(size);
+		if (o instanceof PlayerFish) {
+			synchronized (inputQueues) {
+				inputQueues.remove(((PlayerFish) o).getEntityId());
+			}
 		}
+	}
+	
+	@Override
+	protected void removeAll() {
+		super.removeAll();
 		
-		//Update the behaviour
-		if (player.getBehaviour().getClass() == updated.getBehaviour().getClass()) {
-			player.getBehaviour().updateTo(updated.getBehaviour());
+		synchronized (inputQueues) {
+			inputQueues.clear();
 		}
 	}
 	
@@ -101,10 +215,11 @@ public class MultiplayerServerPlayingField extends MultiplayerPlayingField {
 	 * 		a new PlayerFish without any keys registered.
 	 */
 	public PlayerFish createClientPlayer() {
-		Sprite sprite = SpriteStore.getSpriteOrLoad(PlayerFish.SPRITE_LOCATION);
+		ISpriteData data = SpriteStore.getSpriteDataOrLoad(PlayerFish.SPRITE_LOCATION);
 
-		CollisionMask cm = new CollisionMask(new Vec2d(startX, startY), 60, 30, sprite);
-		PlayerFish tbr = new PlayerFish(cm, sprite);
+		//The sprite is null when running headless.
+		CollisionMask cm = new CollisionMask(new Vec2d(startX, startY), 60, 30, data);
+		PlayerFish tbr = new PlayerFish(cm, SpriteStore.getSpriteOrLoad(PlayerFish.SPRITE_LOCATION));
 
 		tbr.setInvincible(System.currentTimeMillis() + SPAWN_INVINCIBILITY);
 		
@@ -0,0 +1,85 @@
+package com.github.fishio.multiplayer.server;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.netty.channel.Channel;
+
+/**
+ * A room of the server: a playing field of its own, with the clients that
+ * joined it.<br>
+ * <br>
+ * Rooms are created and closed by the {@link RoomManager}.
+ */
+public class Room {
+	private final String name;
+	private final MultiplayerServerPlayingField playingField;
+	private final Set<Channel> channels = Collections.newSetFromMap(new ConcurrentHashMap<>());
+	
+	/**
+	 * Creates a new Room.
+	 * 
+	 * @param name
+	 * 		the name of the room.
+	 * @param playingField
+	 * 		the playing field of the room.
+	 */
+	Room(String name, MultiplayerServerPlayingField playingField) {
+		this.name = name;
+		this.playingField = playingField;
+	}
+	
+	/**
+	 * @return
+	 * 		the name of this room.
+	 */
+	public String getName() {
+		return name;
+	}
+	
+	/**
+	 * @return
+	 * 		the playing field of this room.
+	 */
+	public MultiplayerServerPlayingField getPlayingField() {
+		return playingField;
+	}
+	
+	/**
+	 * @return
+	 * 		the amount of clients in this room.
+	 */
+	public int getMembers() {
+		return channels.size();
+	}
+	
+	/**
+	 * @return
+	 * 		the channels of the clients in this room.
+	 */
+	public Set<Channel> getChannels() {
+		return Collections.unmodifiableSet(channels);
+	}
+	
+	/**
+	 * @param channel
+	 * 		the channel of a client that joined this room.
+	 */
+	void addChannel(Channel channel) {
+		channels.add(channel);
+	}
+	
+	/**
+	 * @param channel
+	 * 		the channel of a client that left this room.
+	 */
+	void removeChannel(Channel channel) {
+		channels.remove(channel);
+	}
+	
+	@Override
+	public String toString() {
+		return "Room [name: " + name + ", members: " + getMembers() + "]";
+	}
+}
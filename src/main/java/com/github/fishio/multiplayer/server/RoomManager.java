@@ -0,0 +1,291 @@
+package com.github.fishio.multiplayer.server;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import com.github.fishio.game.GameLoopPool;
+import com.github.fishio.logging.Log;
+import com.github.fishio.logging.LogLevel;
+import com.github.fishio.multiplayer.codec.SnapshotHistory;
+
+import io.netty.channel.Channel;
+
+/**
+ * Manages the rooms of a server.<br>
+ * <br>
+ * Every client starts in the default room, which is the playing field of
+ * the server itself. A client can join another room by name. Rooms are
+ * created when the first client joins them, and closed again when the
+ * last client leaves. The default room is never closed.<br>
+ * <br>
+ * The games of all rooms are ticked by one {@link GameLoopPool}, instead
+ * of a thread per room. A room whose game fails is closed, and its clients
+ * are moved to the default room. If the game of the default room fails,
+ * its clients are disconnected, and new clients are refused.
+ */
+public class RoomManager {
+	/**
+	 * The name of the room clients start in.
+	 */
+	public static final String DEFAULT_ROOM = "default";
+	
+	private final LinkedHashMap<String, Room> rooms = new LinkedHashMap<>();
+	private final Room defaultRoom;
+	private final GameLoopPool pool;
+	private final int maxEnemies;
+	private final int maxRooms;
+	private boolean defaultFailed;
+	
+	/**
+	 * Creates a new RoomManager. The game of the default room is also run
+	 * by the given pool, the next time it is started.
+	 * 
+	 * @param defaultField
+	 * 		the playing field of the default room.
+	 * @param maxEnemies
+	 * 		the maximum amount of enemies in a new room.
+	 * @param maxRooms
+	 * 		the maximum amount of rooms, including the default room.
+	 * @param pool
+	 * 		the pool to run the games of the rooms in.
+	 */
+	public RoomManager(MultiplayerServerPlayingField defaultField, int maxEnemies, int maxRooms, GameLoopPool pool) {
+		this.pool = pool;
+		this.maxEnemies = maxEnemies;
+		this.maxRooms = Math.max(1, maxRooms);
+		
+		this.defaultRoom = new Room(DEFAULT_ROOM, defaultField);
+		this.rooms.put(DEFAULT_ROOM, defaultRoom);
+		pool.add(defaultField.getGameThread());
+		defaultField.getGameThread().setFailureHandler(ex -> fail(defaultRoom));
+	}
+	
+	/**
+	 * Joins the room with the given name. If there is no such room, it is
+	 * created and its game is started.
+	 * 
+	 * @param name
+	 * 		the name of the room.
+	 * @param channel
+	 * 		the channel of the client that joins the room.
+	 * 
+	 * @return
+	 * 		the room, or <code>null</code> if the maximum amount of rooms
+	 * 		was reached or the room is the default room and its game failed.
+	 */
+	public synchronized Room join(String name, Channel channel) {
+		Room room = rooms.get(name);
+		if (room == defaultRoom && defaultFailed) {
+			return null;
+		} else if (room == null) {
+			if (rooms.size() >= maxRooms) {
+				Log.getLogger().log(LogLevel.WARNING, "[Server] Cannot create room " + name
+						+ ", the maximum of " + maxRooms + " rooms was reached");
+				return null;
+			}
+			
+			room = createRoom(name);
+			rooms.put(name, room);
+		}
+		
+		room.addChannel(channel);
+		return room;
+	}
+	
+	/**
+	 * @param name
+	 * 		the name of the room.
+	 * 
+	 * @return
+	 * 		a new room with a running game.
+	 */
+	private Room createRoom(String name) {
+		MultiplayerServerPlayingField field = defaultRoom.getPlayingField();
+		MultiplayerServerPlayingField mspf = new MultiplayerServerPlayingField(field.getWidth(), field.getHeight());
+		mspf.getEnemyFishSpawner().setMaxEnemies(maxEnemies);
+		Room room = new Room(name, mspf);
+		
+		pool.add(mspf.getGameThread());
+		mspf.getGameThread().setFailureHandler(ex -> fail(room));
+		mspf.startGame();
+		
+		Log.getLogger().log(LogLevel.INFO, "[Server] Created room " + name);
+		return room;
+	}
+	
+	/**
+	 * Closes the given room because its game failed. Its clients are
+	 * moved to the default room. The clients of the default room itself
+	 * are disconnected instead.
+	 * 
+	 * @param room
+	 * 		the room whose game failed.
+	 */
+	synchronized void fail(Room room) {
+		if (room == defaultRoom) {
+			if (!defaultFailed) {
+				defaultFailed = true;
+				Log.getLogger().log(LogLevel.ERROR, "[Server] The game of the default room failed");
+				for (Channel channel : room.getChannels()) {
+					channel.close();
+				}
+			}
+			
+			return;
+		} else if (rooms.get(room.getName()) != room) {
+			return;
+		}
+		
+		rooms.remove(room.getName());
+		close(room);
+		Log.getLogger().log(LogLevel.ERROR, "[Server] Closed room " + room.getName() + ", its game failed");
+		
+		for (Channel channel : room.getChannels()) {
+			channel.eventLoop().execute(() -> moveToDefault(channel, room));
+		}
+	}
+	
+	/**
+	 * Moves a client of a room whose game failed to the default room. It
+	 * starts there without a player and without snapshots, as if it joined
+	 * the room itself. Runs on the event loop of the channel.
+	 * 
+	 * @param channel
+	 * 		the channel of the client.
+	 * @param failed
+	 * 		the room whose game failed.
+	 */
+	private void moveToDefault(Channel channel, Room failed) {
+		//The client may have left or switched rooms in the meantime
+		failed.removeChannel(channel);
+		if (!channel.isActive() || channel.attr(FishIOServer.ROOM).get() != failed) {
+			return;
+		}
+		
+		channel.attr(FishIOServer.PLAYER).remove();
+		channel.attr(FishIOServer.INPUT_QUEUE).remove();
+		
+		Room room = join(DEFAULT_ROOM, channel);
+		if (room == null) {
+			channel.attr(FishIOServer.ROOM).remove();
+			channel.close();
+			return;
+		}
+		
+		enter(channel, room);
+	}
+	
+	/**
+	 * Puts the client of the given channel in the given room, without
+	 * snapshots of the room it was in before.
+	 * 
+	 * @param channel
+	 * 		the channel of the client.
+	 * @param room
+	 * 		the room the client joined.
+	 */
+	static void enter(Channel channel, Room room) {
+		channel.attr(FishIOServer.ROOM).set(room);
+		channel.attr(FishIOServer.SNAPSHOT_HISTORY).set(new SnapshotHistory());
+		channel.attr(FishIOServer.INTEREST_FILTER).set(InterestFilter.fromSettings());
+	}
+	
+	/**
+	 * Leaves the given room. If it was the last client in the room, the
+	 * room is closed.
+	 * 
+	 * @param room
+	 * 		the room to leave.
+	 * @param channel
+	 * 		the channel of the client that leaves the room.
+	 */
+	public synchronized void leave(Room room, Channel channel) {
+		room.removeChannel(channel);
+		if (room.getMembers() > 0 || room == defaultRoom || rooms.get(room.getName()) != room) {
+			return;
+		}
+		
+		rooms.remove(room.getName());
+		close(room);
+		Log.getLogger().log(LogLevel.INFO, "[Server] Closed room " + room.getName());
+	}
+	
+	/**
+	 * Stops the game of the given room.
+	 * 
+	 * @param room
+	 * 		the room to close.
+	 */
+	private void close(Room room) {
+		MultiplayerServerPlayingField mspf = room.getPlayingField();
+		mspf.stopGame();
+		mspf.clear();
+	}
+	
+	/**
+	 * @return
+	 * 		the default room.
+	 */
+	public Room getDefaultRoom() {
+		return defaultRoom;
+	}
+	
+	/**
+	 * @param name
+	 * 		the name of a room.
+	 * 
+	 * @return
+	 * 		the room with the given name, or <code>null</code> if there is
+	 * 		no such room.
+	 */
+	public synchronized Room getRoom(String name) {
+		return rooms.get(name);
+	}
+	
+	/**
+	 * @return
+	 * 		all rooms that are open, starting with the default room.
+	 */
+	public synchronized List<Room> getRooms() {
+		return new ArrayList<>(rooms.values());
+	}
+	
+	/**
+	 * @return
+	 * 		the amount of rooms that are open, including the default room.
+	 */
+	public synchronized int getRoomCount() {
+		return rooms.size();
+	}
+	
+	/**
+	 * @return
+	 * 		the pool the games of the rooms are run in.
+	 */
+	public GameLoopPool getPool() {
+		return pool;
+	}
+	
+	/**
+	 * Closes all rooms, except for the default room, and stops the pool.
+	 * The default room is stopped by the server itself.
+	 * 
+	 * @throws InterruptedException
+	 * 		if we are interrupted while waiting for the pool to stop.
+	 */
+	public void closeAll() throws InterruptedException {
+		synchronized (this) {
+			for (Room room : rooms.values()) {
+				if (room != defaultRoom) {
+					close(room);
+				}
+			}
+			
+			rooms.clear();
+			rooms.put(DEFAULT_ROOM, defaultRoom);
+		}
+		
+		pool.shutdown(1000L);
+	}
+}
@@ -19,10 +19,8 @@ public class ServerGameThread extends GameThread {
 	}
 
 	@Override
-	protected void gameTick() {
-		super.gameTick();
-		
-		//Send the entities update
+	protected void sendUpdates() {
+		//Capture the snapshot for the clients
 		getPlayingField().sendEntitiesUpdate();
 	}
 	
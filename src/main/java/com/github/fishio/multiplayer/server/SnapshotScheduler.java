@@ -0,0 +1,240 @@
+package com.github.fishio.multiplayer.server;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.github.fishio.PlayerFish;
+import com.github.fishio.multiplayer.codec.EntitySnapshot;
+import com.github.fishio.multiplayer.codec.SnapshotHistory;
+import com.github.fishio.settings.Settings;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.util.concurrent.ScheduledFuture;
+
+/**
+ * Sends snapshots to a single client, at a rate of its own.<br>
+ * <br>
+ * The game thread of the room of the client only publishes the newest
+ * snapshot. The scheduler runs on the event loop of the channel, and polls
+ * for a new snapshot {@value #POLLS_PER_SNAPSHOT} times per snapshot at the
+ * maximum rate. The event loop is not in step with the game thread, so
+ * polling at exactly the rate the snapshots are captured at would skip
+ * some snapshots and send others late.<br>
+ * <br>
+ * The rate is adapted to the connection: only every n-th new snapshot is
+ * sent. If the channel is not writable, the previous snapshot was not
+ * written yet or the outbound buffer is more than half full, n is
+ * doubled. Every snapshot that leaves an empty buffer decreases n again
+ * by one, down to 1. A slow client therefore gets fewer snapshots instead
+ * of an ever growing buffer, and does not hold up the other clients.<br>
+ * <br>
+ * The snapshots are numbered per client, so that the numbers stay unique
+ * when the client moves to another room.
+ */
+public class SnapshotScheduler implements Runnable {
+	/**
+	 * The amount of times the scheduler checks for a new snapshot in the
+	 * time between two snapshots at the maximum rate.
+	 */
+	public static final int POLLS_PER_SNAPSHOT = 4;
+
+	private final Channel channel;
+	private final Supplier<EntitySnapshot> source;
+	private final int maxRate;
+	private final int maxDivisor;
+
+	private int divisor = 1;
+	private int skipped;
+	private EntitySnapshot lastSeen;
+	private int sequence;
+	private int sent;
+	private int congested;
+	private ScheduledFuture<?> future;
+
+	/**
+	 * Creates a new SnapshotScheduler.
+	 *
+	 * @param channel
+	 * 		the channel of the client.
+	 * @param source
+	 * 		supplies the newest snapshot, or <code>null</code> if there is
+	 * 		none.
+	 * @param maxRate
+	 * 		the maximum amount of snapshots per second.
+	 * @param minRate
+	 * 		the amount of snapshots per second that is still sent to a
+	 * 		congested client.
+	 */
+	public SnapshotScheduler(Channel channel, Supplier<EntitySnapshot> source, int maxRate, int minRate) {
+		this.channel = channel;
+		this.source = source;
+		this.maxRate = Math.max(1, maxRate);
+		this.maxDivisor = Math.max(1, (int) Math.ceil((double) this.maxRate / Math.max(1, minRate)));
+	}
+
+	/**
+	 * Creates a new SnapshotScheduler for the given channel, with the
+	 * rates from the SNAPSHOT_RATE and MIN_SNAPSHOT_RATE settings. The
+	 * snapshots are taken from the room the channel is in.
+	 *
+	 * @param channel
+	 * 		the channel of the client.
+	 *
+	 * @return
+	 * 		the new scheduler.
+	 */
+	public static SnapshotScheduler fromSettings(Channel channel) {
+		Settings settings = Settings.getInstance();
+		Supplier<EntitySnapshot> source = () -> {
+			Room room = channel.attr(FishIOServer.ROOM).get();
+			return room == null ? null : room.getPlayingField().getLatestSnapshot();
+		};
+
+		return new SnapshotScheduler(channel, source,
+				settings.getInteger("SNAPSHOT_RATE"), settings.getInteger("MIN_SNAPSHOT_RATE"));
+	}
+
+	/**
+	 * Starts sending snapshots on the event loop of the channel.
+	 */
+	public synchronized void start() {
+		if (future != null) {
+			return;
+		}
+
+		long period = TimeUnit.SECONDS.toNanos(1) / ((long) maxRate * POLLS_PER_SNAPSHOT);
+		future = channel.eventLoop().scheduleAtFixedRate(this, period, period, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Stops sending snapshots.
+	 */
+	public synchronized void stop() {
+		if (future != null) {
+			future.cancel(false);
+			future = null;
+		}
+	}
+
+	/**
+	 * Called {@value #POLLS_PER_SNAPSHOT} times per snapshot at the maximum
+	 * rate. Sends the newest snapshot if it was not seen before and it is
+	 * time to, and adapts the rate to the state of the channel.
+	 */
+	@Override
+	public void run() {
+		if (!channel.isActive()) {
+			return;
+		}
+
+		EntitySnapshot snapshot = source.get();
+		if (snapshot == null || snapshot == lastSeen) {
+			return;
+		}
+
+		lastSeen = snapshot;
+		if (++skipped < divisor) {
+			return;
+		}
+
+		skipped = 0;
+
+		SnapshotHistory history = channel.attr(FishIOServer.SNAPSHOT_HISTORY).get();
+		if (history == null) {
+			return;
+		}
+
+		long pending = getPendingBytes();
+		if (!channel.isWritable() || history.isPending()
+				|| pending > channel.config().getWriteBufferHighWaterMark() / 2) {
+			//Back off, so that the buffer can drain
+			divisor = Math.min(maxDivisor, divisor * 2);
+			congested++;
+			return;
+		}
+
+		if (pending == 0 && divisor > 1) {
+			divisor--;
+		}
+
+		send(snapshot, history);
+	}
+
+	/**
+	 * Sends the given snapshot to the client.<br>
+	 * <br>
+	 * The client only receives the entities in its area of interest
+	 * (see {@link InterestFilter}), and only the changes since the last
+	 * snapshot it acknowledged. If that snapshot is too old, or the client
+	 * did not acknowledge any snapshot yet, all entities in the area are
+	 * sent.
+	 *
+	 * @param snapshot
+	 * 		the snapshot to send.
+	 * @param history
+	 * 		the snapshots sent to the client before.
+	 */
+	private void send(EntitySnapshot snapshot, SnapshotHistory history) {
+		EntitySnapshot filtered = snapshot;
+		InterestFilter filter = channel.attr(FishIOServer.INTEREST_FILTER).get();
+		if (filter != null) {
+			filtered = filter.apply(snapshot);
+		}
+
+		filtered = filtered.withSequence(sequence++);
+
+		//Tell the client which of its inputs the snapshot includes, as recorded when it was captured
+		PlayerFish player = channel.attr(FishIOServer.PLAYER).get();
+		int inputSequence = player == null ? -1 : snapshot.getInputSequence(player.getEntityId());
+
+		EntitySnapshot baseline = history.getBaseline();
+		history.add(filtered);
+		history.setPending(channel.writeAndFlush(new FishServerSnapshotMessage(filtered, baseline, inputSequence)));
+
+		sent++;
+	}
+
+	/**
+	 * @return
+	 * 		the amount of bytes waiting in the outbound buffer of the
+	 * 		channel.
+	 */
+	private long getPendingBytes() {
+		ChannelOutboundBuffer buffer = channel.unsafe().outboundBuffer();
+		return buffer == null ? 0 : buffer.totalPendingWriteBytes();
+	}
+
+	/**
+	 * @return
+	 * 		the current amount of snapshots per second sent to the client.
+	 */
+	public double getRate() {
+		return (double) maxRate / divisor;
+	}
+
+	/**
+	 * @return
+	 * 		the maximum amount of snapshots per second.
+	 */
+	public int getMaxRate() {
+		return maxRate;
+	}
+
+	/**
+	 * @return
+	 * 		the amount of snapshots sent to the client.
+	 */
+	public int getSentCount() {
+		return sent;
+	}
+
+	/**
+	 * @return
+	 * 		the amount of times a snapshot was not sent because the client
+	 * 		could not keep up.
+	 */
+	public int getCongestedCount() {
+		return congested;
+	}
+}
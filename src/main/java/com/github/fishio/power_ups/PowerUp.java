@@ -91,6 +91,11 @@ public abstract class PowerUp extends Entity implements IEatable {
 		return 0; // A PowerUp shouldn't have a "size"
 	}
 	
+	@Override
+	public Image getSprite() {
+		return sprite;
+	}
+	
 	@Override
 	public void render(GraphicsContext gc) {
 		drawRotatedImage(gc, sprite, getBoundingArea());
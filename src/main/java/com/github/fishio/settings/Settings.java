@@ -338,6 +338,8 @@ public final class Settings {
 		 map.put("MIN_EFISH_SPEED", new SimpleDoubleProperty(1));
 		 map.put("MAX_EFISH_SPEED", new SimpleDoubleProperty(4));
 		 map.put("MAX_PLAYER_SPEED", new SimpleDoubleProperty(4.0));
+		 map.put("INTEREST_RADIUS", new SimpleDoubleProperty(1000));
+		 map.put("INTEREST_MARGIN", new SimpleDoubleProperty(200));
 		return map;
 	}
 
@@ -352,6 +354,14 @@ public final class Settings {
 		 map.put("START_LIVES", new SimpleIntegerProperty(3));
 		 map.put("MAX_LIVES", new SimpleIntegerProperty(5));
 		 map.put("POWERUP_SPAWN_INTERVAL", new SimpleIntegerProperty(30));
+		 map.put("SNAPSHOT_RATE", new SimpleIntegerProperty(20));
+		 map.put("MIN_SNAPSHOT_RATE", new SimpleIntegerProperty(2));
+		 map.put("MAX_ROOMS", new SimpleIntegerProperty(256));
+		 map.put("GAME_LOOP_THREADS", new SimpleIntegerProperty(0));
+		 map.put("NETWORK_THREADS", new SimpleIntegerProperty(0));
+		 map.put("WRITE_BUFFER_LOW_WATER_MARK", new SimpleIntegerProperty(16 * 1024));
+		 map.put("WRITE_BUFFER_HIGH_WATER_MARK", new SimpleIntegerProperty(64 * 1024));
+		 map.put("SIMULATION_SEED", new SimpleIntegerProperty(0));
 		return map;
 	}
 
@@ -363,6 +373,14 @@ public final class Settings {
 		HashMap<String, SimpleBooleanProperty> map = new HashMap<String, SimpleBooleanProperty>();
 		 map.put("DEBUG_DRAW", new SimpleBooleanProperty(false));
 		 map.put("PIXEL_PERFECT_COLLISIONS", new SimpleBooleanProperty(true));
+		 map.put("UNIFORM_GRID_COLLISIONS", new SimpleBooleanProperty(true));
+		 map.put("PROFILE_TICKS", new SimpleBooleanProperty(false));
+		 map.put("NATIVE_TRANSPORT", new SimpleBooleanProperty(true));
+		 map.put("DETERMINISTIC_SIMULATION", new SimpleBooleanProperty(false));
+		 map.put("VIEW_CULLING", new SimpleBooleanProperty(true));
+		 map.put("SPRITE_ATLAS", new SimpleBooleanProperty(true));
+		 map.put("PULSE_RENDERING", new SimpleBooleanProperty(true));
+		 map.put("RENDER_INTERPOLATION", new SimpleBooleanProperty(true));
 		return map;
 	}
 
@@ -0,0 +1,172 @@
+package com.github.fishio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the BitMask class.
+ */
+public class TestBitMask {
+	private BitMask mask;
+
+	/**
+	 * Creates a 100x3 mask at (-10, 5).
+	 */
+	@Before
+	public void before() {
+		mask = new BitMask(-10, 5, 100, 3);
+	}
+
+	/**
+	 * Test for {@link BitMask#set(int, int)} and {@link BitMask#get(int, int)}.
+	 */
+	@Test
+	public void testSetGet() {
+		mask.set(-10, 5);
+		mask.set(60, 7);
+
+		assertTrue(mask.get(-10, 5));
+		assertTrue(mask.get(60, 7));
+		assertFalse(mask.get(60, 6));
+		assertEquals(2, mask.cardinality());
+	}
+
+	/**
+	 * Test for {@link BitMask#set(int, int)}.
+	 * Pixels outside of the mask should be ignored.
+	 */
+	@Test
+	public void testSetOutside() {
+		mask.set(-11, 5);
+		mask.set(90, 5);
+		mask.set(0, 8);
+
+		assertEquals(0, mask.cardinality());
+		assertFalse(mask.get(-11, 5));
+	}
+
+	/**
+	 * Test for {@link BitMask#intersects(BitMask)}.
+	 * Test for two masks that overlap across a word boundary.
+	 */
+	@Test
+	public void testIntersectsUnaligned() {
+		BitMask other = new BitMask(3, 6, 70, 1);
+		other.set(56, 6);
+		mask.set(56, 6);
+
+		assertTrue(mask.intersects(other));
+		assertTrue(other.intersects(mask));
+		assertEquals(1, mask.countOverlap(other));
+	}
+
+	/**
+	 * Test for {@link BitMask#intersects(BitMask)}.
+	 * Test for two masks that cover the same area but have no pixel in common.
+	 */
+	@Test
+	public void testIntersectsNot() {
+		BitMask other = new BitMask(-10, 5, 100, 3);
+		other.set(0, 5);
+		mask.set(1, 5);
+		mask.set(0, 6);
+
+		assertFalse(mask.intersects(other));
+		assertEquals(0, other.countOverlap(mask));
+	}
+
+	/**
+	 * Test for {@link BitMask#intersects(int, int, BitMask, int, int)}.
+	 */
+	@Test
+	public void testIntersectsTranslated() {
+		BitMask other = new BitMask(0, 0, 10, 10);
+		other.set(0, 0);
+		mask.set(64, 6);
+
+		assertFalse(mask.intersects(0, 0, other, 0, 0));
+		assertTrue(mask.intersects(0, 0, other, 64, 6));
+		assertTrue(mask.intersects(-64, -6, other, 0, 0));
+	}
+
+	/**
+	 * Test that a BitMask rasterised from a {@link CollisionMask} contains
+	 * exactly the same pixels as {@link CollisionMask#getMask()}, and that
+	 * intersecting the bit masks gives the same results as intersecting the
+	 * sets.
+	 */
+	@Test
+	public void testSameAsHashSetMask() {
+		Random random = new Random(42);
+		boolean[][] data = new boolean[7][5];
+		for (boolean[] column : data) {
+			for (int y = 0; y < column.length; y++) {
+				column[y] = random.nextBoolean();
+			}
+		}
+
+		for (int i = 0; i < 200; i++) {
+			CollisionMask a = randomMask(random, data);
+			CollisionMask b = randomMask(random, data);
+
+			HashSet<Vec2d> setA = a.getMask();
+			HashSet<Vec2d> setB = b.getMask();
+			BitMask bitsA = toBitMask(a, data);
+			BitMask bitsB = toBitMask(b, data);
+			assertEquals(setA.size(), bitsA.cardinality());
+			for (Vec2d v : setA) {
+				assertTrue(bitsA.get((int) v.x, (int) v.y));
+			}
+
+			setA.retainAll(setB);
+			assertEquals(setA.size(), bitsA.countOverlap(bitsB));
+			assertEquals(!setA.isEmpty(), bitsA.intersects(bitsB));
+		}
+	}
+
+	/**
+	 * @param random
+	 * 		the random to use.
+	 * @param data
+	 * 		the collision data to use.
+	 *
+	 * @return
+	 * 		a CollisionMask with a random position, size and rotation.
+	 */
+	private CollisionMask randomMask(Random random, boolean[][] data) {
+		Vec2d center = new Vec2d(random.nextDouble() * 80 - 40, random.nextDouble() * 80 - 40);
+		CollisionMask cm = new CollisionMask(center,
+				10 + random.nextDouble() * 60, 10 + random.nextDouble() * 40, data, 0.5);
+		cm.setRotation(random.nextDouble() * 360);
+		return cm;
+	}
+
+	/**
+	 * @param cm
+	 * 		the CollisionMask.
+	 * @param data
+	 * 		the collision data of the CollisionMask.
+	 *
+	 * @return
+	 * 		a BitMask in screen space with the same pixels as the given
+	 * 		CollisionMask.
+	 */
+	private BitMask toBitMask(CollisionMask cm, boolean[][] data) {
+		double radius = 0.5 * Math.sqrt(cm.getWidth() * cm.getWidth() + cm.getHeight() * cm.getHeight());
+		int originX = (int) Math.floor(cm.getCenterX() - radius) - 1;
+		int originY = (int) Math.floor(cm.getCenterY() - radius) - 1;
+		int size = (int) Math.ceil(2 * radius) + 3;
+
+		BitMask bitMask = new BitMask(originX, originY, size, size);
+		CollisionMask.rasterise(data, cm.getWidth(), cm.getHeight(), cm.getRotation(), cm.isReversed(),
+				cm.getCenterX(), cm.getCenterY(), bitMask::set);
+		return bitMask;
+	}
+}
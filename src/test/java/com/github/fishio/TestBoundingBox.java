@@ -3,6 +3,12 @@ package com.github.fishio;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
 import org.junit.Test;
 
 /**
@@ -156,4 +162,49 @@ public class TestBoundingBox extends TestICollisionArea {
 		
 		assertNotEquals(bb1, bb2);
 	}
+
+	/**
+	 * Test for {@link BoundingBox#getExtentX()} and
+	 * {@link BoundingBox#getExtentY()}. The extents should be updated as
+	 * soon as the box is rotated or resized.
+	 */
+	@Test
+	public void testExtents() {
+		BoundingBox bb = new BoundingBox(new Vec2d(0, 0), 40, 20);
+		assertEquals(20, bb.getExtentX(), 1E-9);
+		assertEquals(10, bb.getExtentY(), 1E-9);
+
+		bb.setRotation(90);
+		assertEquals(10, bb.getExtentX(), 1E-9);
+		assertEquals(20, bb.getExtentY(), 1E-9);
+
+		bb.setWidth(60);
+		assertEquals(30, bb.getExtentY(), 1E-9);
+	}
+
+	/**
+	 * The extents of a deserialized box should match its size and
+	 * rotation.
+	 *
+	 * @throws IOException
+	 * 		if serializing fails.
+	 * @throws ClassNotFoundException
+	 * 		if deserializing fails.
+	 */
+	@Test
+	public void testExtentsSerialized() throws IOException, ClassNotFoundException {
+		BoundingBox bb = new BoundingBox(new Vec2d(0, 0), 40, 20);
+		bb.setRotation(90);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(bb);
+		}
+
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			BoundingBox read = (BoundingBox) in.readObject();
+			assertEquals(10, read.getExtentX(), 1E-9);
+			assertEquals(20, read.getExtentY(), 1E-9);
+		}
+	}
 }
@@ -0,0 +1,123 @@
+package com.github.fishio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import javafx.beans.property.SimpleBooleanProperty;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.fishio.CollisionStatistics.Stage;
+import com.github.fishio.settings.Settings;
+
+/**
+ * Test class for the CollisionStatistics class.
+ */
+public class TestCollisionStatistics {
+	private CollisionStatistics stats = CollisionStatistics.getInstance();
+	private SimpleBooleanProperty pixelPerfect;
+	private boolean oldPixelPerfect;
+
+	/**
+	 * Resets the statistics and enables pixel perfect collisions.
+	 */
+	@Before
+	public void before() {
+		stats.reset();
+
+		pixelPerfect = Settings.getInstance().getBooleanProperty("PIXEL_PERFECT_COLLISIONS");
+		oldPixelPerfect = pixelPerfect.get();
+		pixelPerfect.set(true);
+	}
+
+	/**
+	 * Restores the pixel perfect collisions setting.
+	 */
+	@After
+	public void after() {
+		pixelPerfect.set(oldPixelPerfect);
+		stats.reset();
+	}
+
+	/**
+	 * Test for {@link CollisionStatistics#record(Stage, boolean)}.
+	 */
+	@Test
+	public void testRecord() {
+		assertTrue(stats.record(Stage.PIXEL, true));
+		assertFalse(stats.record(Stage.PIXEL, false));
+		stats.record(Stage.PIXEL, false);
+
+		assertEquals(3, stats.getTests(Stage.PIXEL));
+		assertEquals(1, stats.getHits(Stage.PIXEL));
+		assertEquals(2, stats.getMisses(Stage.PIXEL));
+		assertEquals(0, stats.getTests(Stage.BOX));
+	}
+
+	/**
+	 * Test for {@link CollisionStatistics#reset()}.
+	 */
+	@Test
+	public void testReset() {
+		stats.record(Stage.BOX, true);
+		stats.reset();
+
+		assertEquals(0, stats.getTests(Stage.BOX));
+		assertEquals(0, stats.getHits(Stage.BOX));
+	}
+
+	/**
+	 * Test that {@link CollisionMask#intersects(ICollisionArea)} records
+	 * every stage it passes through, and that the rotated box stage never
+	 * rejects masks that have pixels in common.
+	 */
+	@Test
+	public void testIntersectsStages() {
+		Random random = new Random(42);
+		boolean[][] data = new boolean[6][4];
+		for (boolean[] column : data) {
+			for (int y = 0; y < column.length; y++) {
+				column[y] = random.nextInt(4) != 0;
+			}
+		}
+
+		int collisions = 0;
+		for (int i = 0; i < 500; i++) {
+			CollisionMask a = randomMask(random, data);
+			CollisionMask b = randomMask(random, data);
+
+			boolean pixels = a.pixelsIntersect(b);
+			assertEquals(pixels, a.intersects(b));
+			if (pixels) {
+				collisions++;
+			}
+		}
+
+		assertEquals(500, stats.getTests(Stage.BOX));
+		assertEquals(stats.getHits(Stage.BOX), stats.getTests(Stage.ORIENTED_BOX));
+		assertEquals(stats.getHits(Stage.ORIENTED_BOX), stats.getTests(Stage.PIXEL));
+		assertEquals(collisions, stats.getHits(Stage.PIXEL));
+	}
+
+	/**
+	 * @param random
+	 * 		the random to use.
+	 * @param data
+	 * 		the collision data to use.
+	 *
+	 * @return
+	 * 		a CollisionMask with a random position, size and rotation.
+	 */
+	private CollisionMask randomMask(Random random, boolean[][] data) {
+		Vec2d center = new Vec2d(random.nextDouble() * 100, random.nextDouble() * 100);
+		CollisionMask cm = new CollisionMask(center,
+				5 + random.nextDouble() * 60, 5 + random.nextDouble() * 30, data, 0.75);
+		cm.setRotation(random.nextDouble() * 360);
+		return cm;
+	}
+}
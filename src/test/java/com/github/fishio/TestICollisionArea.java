@@ -347,4 +347,124 @@ public abstract class TestICollisionArea {
 	public void testIsOutside_maxY() {
 		assertTrue(ca.isOutside(-5.1, -2.6, 5.1, 2.4));
 	}
+	
+	/**
+	 * Test for {@link ICollisionArea#getMinX()}, {@link ICollisionArea#getMaxX()},
+	 * {@link ICollisionArea#getMinY()} and {@link ICollisionArea#getMaxY()}.
+	 */
+	@Test
+	public void testGetMinMax() {
+		assertEquals(-5.0, ca.getMinX(), DELTA);
+		assertEquals(5.0, ca.getMaxX(), DELTA);
+		assertEquals(-2.5, ca.getMinY(), DELTA);
+		assertEquals(2.5, ca.getMaxY(), DELTA);
+	}
+	
+	/**
+	 * Test for {@link ICollisionArea#getMinX()}, {@link ICollisionArea#getMaxX()},
+	 * {@link ICollisionArea#getMinY()} and {@link ICollisionArea#getMaxY()}.
+	 * Check if the bounds are correct after rotation.
+	 */
+	@Test
+	public void testGetMinMaxRotated() {
+		ca.setRotation(90);
+		assertEquals(-2.5, ca.getMinX(), 1E-9);
+		assertEquals(2.5, ca.getMaxX(), 1E-9);
+		assertEquals(-5.0, ca.getMinY(), 1E-9);
+		assertEquals(5.0, ca.getMaxY(), 1E-9);
+		
+		ca.setRotation(45);
+		double e = 7.5 * Math.cos(Math.toRadians(45));
+		assertEquals(-e, ca.getMinX(), 1E-9);
+		assertEquals(e, ca.getMaxY(), 1E-9);
+	}
+	
+	/**
+	 * Test for {@link ICollisionArea#getMinX()} and {@link ICollisionArea#getMaxY()}.
+	 * Check if the bounds follow moving and resizing.
+	 */
+	@Test
+	public void testGetMinMaxChanged() {
+		assertEquals(-5.0, ca.getMinX(), DELTA);
+		
+		ca.move(new Vec2d(3, 1));
+		assertEquals(-2.0, ca.getMinX(), DELTA);
+		assertEquals(1.5, ca.getMaxY(), DELTA);
+		
+		ca.setSize(200);
+		assertEquals(3 - 0.5 * ca.getWidth(), ca.getMinX(), 1E-9);
+		assertEquals(-1 + 0.5 * ca.getHeight(), ca.getMaxY(), 1E-9);
+	}
+	
+	/**
+	 * Test for {@link ICollisionArea#boxIntersects(ICollisionArea).
+	 * Test for an intersection that only exists because of rotation.
+	 */
+	@Test
+	public void testBoxIntersectsRotated() {
+		ICollisionArea ca2 = getCollisionArea(new Vec2d(0, 6), 10, 5);
+		assertFalse(ca.boxIntersects(ca2));
+		
+		ca.setRotation(90);
+		assertTrue(ca.boxIntersects(ca2));
+		assertTrue(ca2.boxIntersects(ca));
+	}
+	
+	/**
+	 * Test for {@link ICollisionArea#orientedBoxIntersects(ICollisionArea, double)}.
+	 * Test for two rotated boxes of which only the axis aligned boxes intersect.
+	 */
+	@Test
+	public void testOrientedBoxIntersectsRotatedNot() {
+		ICollisionArea line = getCollisionArea(new Vec2d(0, 0), 10, 1);
+		line.setRotation(45);
+		ICollisionArea ca2 = getCollisionArea(new Vec2d(3, 3), 1, 1);
+		
+		assertTrue(line.boxIntersects(ca2));
+		assertFalse(line.orientedBoxIntersects(ca2, 0));
+		assertFalse(ca2.orientedBoxIntersects(line, 0));
+	}
+	
+	/**
+	 * Test for {@link ICollisionArea#orientedBoxIntersects(ICollisionArea, double)}.
+	 * Test for two rotated boxes that intersect.
+	 */
+	@Test
+	public void testOrientedBoxIntersectsRotated() {
+		ICollisionArea line = getCollisionArea(new Vec2d(0, 0), 10, 1);
+		line.setRotation(45);
+		ICollisionArea ca2 = getCollisionArea(new Vec2d(3, -3), 1, 1);
+		
+		assertTrue(line.orientedBoxIntersects(ca2, 0));
+		assertTrue(ca2.orientedBoxIntersects(line, 0));
+	}
+	
+	/**
+	 * Test for {@link ICollisionArea#orientedBoxIntersects(ICollisionArea, double)}.
+	 * Test that the margin grows both boxes.
+	 */
+	@Test
+	public void testOrientedBoxIntersectsMargin() {
+		ICollisionArea ca2 = getCollisionArea(new Vec2d(11, 0), 10, 5);
+		
+		assertFalse(ca.orientedBoxIntersects(ca2, 0));
+		assertTrue(ca.orientedBoxIntersects(ca2, 0.5));
+	}
+	
+	/**
+	 * Test for {@link ICollisionArea#orientedBoxIntersects(ICollisionArea, double)}.
+	 * The rotated boxes should only intersect if the axis aligned boxes do.
+	 */
+	@Test
+	public void testOrientedBoxIntersectsWithinBox() {
+		for (int i = 0; i < 36; i++) {
+			ICollisionArea ca2 = getCollisionArea(new Vec2d(8, 6), 10, 5);
+			ca.setRotation(10 * i);
+			ca2.setRotation(25 * i);
+			
+			if (ca.orientedBoxIntersects(ca2, 0)) {
+				assertTrue(ca.boxIntersects(ca2));
+			}
+		}
+	}
 }
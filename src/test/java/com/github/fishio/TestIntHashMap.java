@@ -0,0 +1,102 @@
+package com.github.fishio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for {@link IntHashMap}.
+ */
+public class TestIntHashMap {
+	private IntHashMap<String> map;
+
+	/**
+	 * Creates an empty map.
+	 */
+	@Before
+	public void setUp() {
+		map = new IntHashMap<>();
+	}
+
+	/**
+	 * Test for {@link IntHashMap#put(int, Object)} and
+	 * {@link IntHashMap#get(int)}.
+	 */
+	@Test
+	public void testPutGet() {
+		assertNull(map.put(1, "a"));
+		assertNull(map.put(-5, "b"));
+		assertEquals("a", map.put(1, "c"));
+
+		assertEquals("c", map.get(1));
+		assertEquals("b", map.get(-5));
+		assertNull(map.get(2));
+		assertEquals(2, map.size());
+	}
+
+	/**
+	 * Test for {@link IntHashMap#remove(int)}.
+	 */
+	@Test
+	public void testRemove() {
+		map.put(1, "a");
+
+		assertEquals("a", map.remove(1));
+		assertNull(map.remove(1));
+		assertFalse(map.containsKey(1));
+		assertTrue(map.isEmpty());
+	}
+
+	/**
+	 * Test that null values are rejected.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testPutNull() {
+		map.put(1, null);
+	}
+
+	/**
+	 * Test for {@link IntHashMap#clear()}.
+	 */
+	@Test
+	public void testClear() {
+		for (int i = 0; i < 100; i++) {
+			map.put(i, "v" + i);
+		}
+
+		map.clear();
+		assertEquals(0, map.size());
+		assertNull(map.get(50));
+	}
+
+	/**
+	 * Test that the map behaves like a HashMap for many random
+	 * operations, which exercises growing and shifting back entries.
+	 */
+	@Test
+	public void testRandomOperations() {
+		HashMap<Integer, String> expected = new HashMap<>();
+		Random random = new Random(42);
+
+		for (int i = 0; i < 100_000; i++) {
+			int key = random.nextInt(2000);
+			if (random.nextBoolean()) {
+				assertEquals(expected.put(key, "v" + i), map.put(key, "v" + i));
+			} else {
+				assertEquals(expected.remove(key), map.remove(key));
+			}
+		}
+
+		assertEquals(expected.size(), map.size());
+		for (int key = 0; key < 2000; key++) {
+			assertEquals(expected.get(key), map.get(key));
+		}
+	}
+}
@@ -0,0 +1,235 @@
+package com.github.fishio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the MaskCache class.
+ */
+public class TestMaskCache {
+	private MaskCache cache;
+	private boolean[][] data;
+
+	/**
+	 * Creates a cache that can hold 2 masks, and a filled 4x4 sprite.
+	 */
+	@Before
+	public void before() {
+		cache = new MaskCache(2);
+
+		data = new boolean[4][4];
+		for (boolean[] column : data) {
+			Arrays.fill(column, true);
+		}
+	}
+
+	/**
+	 * Test for the constructor with an invalid size.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidSize() {
+		new MaskCache(0);
+	}
+
+	/**
+	 * Test for {@link MaskCache#getMask(boolean[][], double, double, double, boolean)}.
+	 * Masks with about the same size and rotation should be shared.
+	 */
+	@Test
+	public void testGetMaskShared() {
+		BitMask mask = cache.getMask(data, 20, 10, 45, false);
+
+		assertSame(mask, cache.getMask(data, 20.2, 9.9, 45.3, false));
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getHits());
+		assertEquals(0.5, cache.getHitRate(), 1E-12);
+	}
+
+	/**
+	 * Test for {@link MaskCache#getMask(boolean[][], double, double, double, boolean)}.
+	 * Masks of different sprites should not be shared.
+	 */
+	@Test
+	public void testGetMaskDifferentData() {
+		boolean[][] data2 = new boolean[4][4];
+
+		assertNotSame(cache.getMask(data, 20, 10, 0, false), cache.getMask(data2, 20, 10, 0, false));
+		assertEquals(0, cache.getHits());
+	}
+
+	/**
+	 * Test for {@link MaskCache#getMask(boolean[][], double, double, double, boolean)}.
+	 * The mask should be in local space.
+	 */
+	@Test
+	public void testGetMaskLocal() {
+		BitMask mask = cache.getMask(data, 20, 10, 0, false);
+
+		assertTrue(mask.get(0, 0));
+		assertTrue(mask.get(9, 3));
+		assertTrue(mask.get(-9, -3));
+		assertFalse(mask.get(11, 0));
+		assertFalse(mask.get(0, 6));
+	}
+
+	/**
+	 * Test for {@link MaskCache#getMask(boolean[][], double, double, double, boolean)}.
+	 * The cache should never hold more masks than its maximum, and should
+	 * evict a mask that was not used since it was created before one that
+	 * was.
+	 */
+	@Test
+	public void testEviction() {
+		BitMask mask10 = cache.getMask(data, 10, 10, 0, false);
+		BitMask mask20 = cache.getMask(data, 20, 20, 0, false);
+		assertSame(mask10, cache.getMask(data, 10, 10, 0, false));
+		BitMask mask30 = cache.getMask(data, 30, 30, 0, false);
+
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getHits());
+		assertEquals(3, cache.getMisses());
+
+		//The 20x20 mask was not used since it was created, so it was evicted.
+		assertSame(mask10, cache.getMask(data, 10, 10, 0, false));
+		assertSame(mask30, cache.getMask(data, 30, 30, 0, false));
+		assertEquals(3, cache.getHits());
+
+		assertNotSame(mask20, cache.getMask(data, 20, 20, 0, false));
+		assertEquals(4, cache.getMisses());
+	}
+
+	/**
+	 * Test for {@link MaskCache#getMask(boolean[][], double, double, double, boolean)}.
+	 * A mask that was just created should not be evicted, even if it is
+	 * the only one in the cache.
+	 */
+	@Test
+	public void testEvictionKeepsNewMask() {
+		MaskCache single = new MaskCache(1);
+		single.getMask(data, 10, 10, 0, false);
+		BitMask mask = single.getMask(data, 20, 20, 0, false);
+
+		assertEquals(1, single.size());
+		assertSame(mask, single.getMask(data, 20, 20, 0, false));
+		assertEquals(1, single.getHits());
+	}
+
+	/**
+	 * Test for {@link MaskCache#getMask(boolean[][], double, double, double, boolean)}.
+	 * Masks requested by many threads at once should be shared, and the
+	 * cache should stay within its bounds.
+	 */
+	@Test
+	public void testGetMaskConcurrent() throws InterruptedException {
+		MaskCache shared = new MaskCache(8);
+		BitMask[] masks = new BitMask[4];
+		Thread[] threads = new Thread[masks.length];
+		for (int i = 0; i < threads.length; i++) {
+			final int index = i;
+			threads[i] = new Thread(() -> {
+				for (int j = 0; j < 1000; j++) {
+					shared.getMask(data, 10 + j % 16, 10, 0, false);
+				}
+				masks[index] = shared.getMask(data, 10, 10, 90, false);
+			});
+			threads[i].start();
+		}
+
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertTrue(shared.size() <= 8);
+		assertEquals(4004, shared.getHits() + shared.getMisses());
+		for (BitMask mask : masks) {
+			assertTrue(mask.get(0, 4));
+			assertFalse(mask.get(0, 6));
+		}
+	}
+
+	/**
+	 * Test for {@link MaskCache#clear()}.
+	 */
+	@Test
+	public void testClear() {
+		cache.getMask(data, 10, 10, 0, false);
+		cache.getMask(data, 10, 10, 0, false);
+		cache.clear();
+
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getHits());
+		assertEquals(0.0, cache.getHitRate(), 0.0);
+	}
+
+	/**
+	 * Test for {@link CollisionMask#pixelsIntersect(CollisionMask)}.
+	 * Unrotated masks with whole sizes should give the same result as the
+	 * exact masks.
+	 */
+	@Test
+	public void testPixelsIntersectTranslated() {
+		CollisionMask a = new CollisionMask(new Vec2d(50.5, 50.5), 20, 10, data, 1.0);
+		CollisionMask b = new CollisionMask(new Vec2d(69.5, 50.5), 20, 10, data, 1.0);
+		CollisionMask c = new CollisionMask(new Vec2d(71.5, 50.5), 20, 10, data, 1.0);
+
+		assertEquals(overlaps(a, b), a.pixelsIntersect(b));
+		assertEquals(overlaps(a, c), a.pixelsIntersect(c));
+		assertTrue(a.pixelsIntersect(b));
+	}
+
+	/**
+	 * Test for {@link MaskCache#getMask(boolean[][], double, double, double, boolean)}.
+	 * Fish just past 90 or just before 270 degrees are flipped, while the
+	 * bucket their rotation is rounded to is not. The cached mask should
+	 * still be flipped like the fish.
+	 */
+	@Test
+	public void testGetMaskReversedNearBucket() {
+		//Only the top half of the sprite is filled, so a flipped mask has other pixels.
+		boolean[][] half = new boolean[4][4];
+		for (boolean[] column : half) {
+			column[0] = true;
+			column[1] = true;
+		}
+
+		for (double rotation : new double[] {90.3, 269.7}) {
+			CollisionMask cm = new CollisionMask(new Vec2d(0, 0), 40, 20, half, 1.0);
+			cm.setRotation(rotation);
+			assertTrue(cm.isReversed());
+
+			BitMask cached = cache.getMask(half, 40, 20, rotation, cm.isReversed());
+			BitMask direct = new BitMask(cached.getOriginX(), cached.getOriginY(),
+					cached.getWidth(), cached.getHeight());
+			CollisionMask.rasterise(half, 40, 20, rotation, true, 0, 0, direct::set);
+
+			//Rounding the rotation moves a few pixels at the edges, flipping moves half of them.
+			assertTrue(cached.countOverlap(direct) > 0.9 * direct.cardinality());
+			assertNotSame(cached, cache.getMask(half, 40, 20, rotation, false));
+		}
+	}
+
+	/**
+	 * @param a
+	 * 		the first mask.
+	 * @param b
+	 * 		the second mask.
+	 *
+	 * @return
+	 * 		if the exact masks of the given CollisionMasks have pixels in
+	 * 		common.
+	 */
+	private boolean overlaps(CollisionMask a, CollisionMask b) {
+		HashSet<Vec2d> pixels = a.getMask();
+		pixels.retainAll(b.getMask());
+		return !pixels.isEmpty();
+	}
+}
@@ -2,6 +2,8 @@ package com.github.fishio;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
@@ -212,6 +214,20 @@ public abstract class TestPlayingField extends SlimGuiTest {
 		assertEquals(amount, field.getEntities().size());
 	}
 	
+	/**
+	 * Tests that added entities can be found by id until they are removed.
+	 */
+	@Test
+	public void testGetEntity() {
+		PlayerFish player = new PlayerFish(null, mock(Scene.class), null);
+		
+		field.add(player);
+		assertSame(player, field.getEntity(player.getEntityId()));
+		
+		field.remove(player);
+		assertNull(field.getEntity(player.getEntityId()));
+	}
+	
 	/**
 	 * Tests the clear method.
 	 */
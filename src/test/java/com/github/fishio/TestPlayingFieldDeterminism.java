@@ -0,0 +1,208 @@
+package com.github.fishio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.github.fishio.multiplayer.server.MultiplayerServerPlayingField;
+
+/**
+ * Tests the deterministic mode of the PlayingField.
+ */
+public class TestPlayingFieldDeterminism {
+	private static final int TICKS = 600;
+
+	/**
+	 * Do not load any images.
+	 */
+	@BeforeClass
+	public static void setUpClass() {
+		SpriteStore.setHeadless(true);
+	}
+
+	/**
+	 * Load images again for other tests.
+	 */
+	@AfterClass
+	public static void tearDownClass() {
+		SpriteStore.setHeadless(false);
+	}
+
+	/**
+	 * @param seed
+	 * 		the seed of the field.
+	 *
+	 * @return
+	 * 		a new deterministic playing field with one player.
+	 */
+	private static MultiplayerServerPlayingField createField(long seed) {
+		MultiplayerServerPlayingField field = new MultiplayerServerPlayingField(1280, 720);
+		field.setSeed(seed);
+		field.getEnemyFishSpawner().setMaxEnemies(40);
+
+		PlayerFish player = field.createClientPlayer();
+		player.setInvincible(Long.MAX_VALUE);
+		return field;
+	}
+
+	/**
+	 * Runs the given amount of ticks on the given field.
+	 *
+	 * @param field
+	 * 		the playing field.
+	 * @param ticks
+	 * 		the amount of ticks.
+	 */
+	private static void runTicks(PlayingField field, int ticks) {
+		for (int i = 0; i < ticks; i++) {
+			field.moveMovables();
+			field.addEntities();
+			field.checkPlayerCollisions();
+			field.cleanupDead();
+		}
+	}
+
+	/**
+	 * @param field
+	 * 		the playing field.
+	 *
+	 * @return
+	 * 		the type, position, size and speed of all entities on the
+	 * 		field, in the order of their entity ids.
+	 */
+	private static List<Object> getState(PlayingField field) {
+		List<Entity> entities = new ArrayList<>(field.getEntities());
+		entities.sort((a, b) -> Integer.compare(a.getEntityId(), b.getEntityId()));
+
+		List<Object> state = new ArrayList<>();
+		for (Entity entity : entities) {
+			CollisionMask mask = entity.getBoundingArea();
+			Vec2d speed = entity.getBehaviour().getSpeedVector();
+			state.add(entity.getClass().getSimpleName());
+			state.add(mask.getCenterX());
+			state.add(mask.getCenterY());
+			state.add(mask.getWidth());
+			state.add(mask.getHeight());
+			state.add(speed.x);
+			state.add(speed.y);
+		}
+
+		return state;
+	}
+
+	/**
+	 * Test for {@link PlayingField#setSeed(long)}.
+	 */
+	@Test
+	public void testSetSeed() {
+		MultiplayerServerPlayingField field = new MultiplayerServerPlayingField(1280, 720);
+		assertFalse(field.isDeterministic());
+
+		field.setSeed(1L);
+		assertTrue(field.isDeterministic());
+	}
+
+	/**
+	 * Entities added to a field should use the random of that field.
+	 */
+	@Test
+	public void testAddSetsRandom() {
+		MultiplayerServerPlayingField field = createField(1L);
+
+		for (Entity entity : field.getEntities()) {
+			assertSame(field.getRandom(), entity.getRandom());
+		}
+	}
+
+	/**
+	 * Two fields with the same seed should be exactly the same after
+	 * running the same amount of ticks.
+	 */
+	@Test
+	public void testSameSeed() {
+		MultiplayerServerPlayingField field1 = createField(42L);
+		MultiplayerServerPlayingField field2 = createField(42L);
+
+		runTicks(field1, TICKS);
+		runTicks(field2, TICKS);
+
+		List<Object> state = getState(field1);
+		assertTrue(state.size() > 1);
+		assertEquals(state, getState(field2));
+	}
+
+	/**
+	 * Two fields with different seeds should not be the same.
+	 */
+	@Test
+	public void testDifferentSeed() {
+		MultiplayerServerPlayingField field1 = createField(42L);
+		MultiplayerServerPlayingField field2 = createField(43L);
+
+		runTicks(field1, TICKS);
+		runTicks(field2, TICKS);
+
+		assertNotEquals(getState(field1), getState(field2));
+	}
+
+	/**
+	 * Fields in deterministic mode should number their own entities, so
+	 * entities created elsewhere in the JVM do not change the ids.
+	 */
+	@Test
+	public void testEntityIdsPerField() {
+		MultiplayerServerPlayingField field1 = createField(42L);
+		runTicks(field1, 10);
+
+		//Entities created in between use up ids of the shared counter
+		for (int i = 0; i < 5; i++) {
+			new MultiplayerServerPlayingField(1280, 720).createClientPlayer();
+		}
+
+		MultiplayerServerPlayingField field2 = createField(42L);
+		runTicks(field2, 10);
+
+		List<Integer> ids = new ArrayList<>();
+		for (Entity entity : field1.getEntities()) {
+			ids.add(entity.getEntityId());
+			assertSame(entity, field1.getEntity(entity.getEntityId()));
+		}
+
+		List<Integer> ids2 = new ArrayList<>();
+		for (Entity entity : field2.getEntities()) {
+			ids2.add(entity.getEntityId());
+		}
+
+		ids.sort(null);
+		ids2.sort(null);
+		assertEquals(0, (int) ids.get(0));
+		assertEquals(ids, ids2);
+	}
+
+	/**
+	 * The hue of a player should be drawn from the random of the field
+	 * when the player is added, not when it is first drawn.
+	 */
+	@Test
+	public void testHueAssignedOnAdd() {
+		PlayerFish player1 = createField(42L).getPlayers().iterator().next();
+		PlayerFish player2 = createField(42L).getPlayers().iterator().next();
+
+		assertEquals(player1.getHue(), player2.getHue(), 0.0);
+		assertTrue(player1.getHue() > -1 && player1.getHue() < 1);
+
+		CollisionMask cm = new CollisionMask(new Vec2d(0, 0), 60, 30, (boolean[][]) null, 0.7);
+		PlayerFish unadded = new PlayerFish(cm, null);
+		assertEquals(0.0, unadded.getHue(), 0.0);
+		assertTrue(unadded.getRandom() == null);
+	}
+}
@@ -7,6 +7,8 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Random;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -37,6 +39,7 @@ public class TestPowerUpSpawner extends SlimGuiTest {
 		when(pf.getGameThread()).thenReturn(gt); //Preventing nullPointerExceptions from the gameThread
 		when(pf.getFPS()).thenReturn(60); //Making sure our PowerUpSpawner doesn't think the FPS is 0.
 		when(pf.getWidth()).thenReturn(100); //Same as above
+		when(pf.getRandom()).thenReturn(new Random()); //The spawner uses the random of the field
 		
 		this.pus = Mockito.spy(new PowerUpSpawner(pf));
 	}
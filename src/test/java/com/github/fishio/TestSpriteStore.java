@@ -0,0 +1,78 @@
+package com.github.fishio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+import org.junit.Test;
+
+import javafx.scene.image.Image;
+
+/**
+ * Tests the hue shifting of the {@link SpriteStore} class.
+ */
+public class TestSpriteStore {
+	private static final int RED = 0xFFFF0000;
+	private static final int GREEN = 0xFF00FF00;
+	private static final int BLUE = 0xFF0000FF;
+
+	/**
+	 * Test for {@link SpriteStore#quantiseHue(double)}.
+	 */
+	@Test
+	public void testQuantiseHue() {
+		int half = SpriteStore.HUE_STEPS / 2;
+
+		assertEquals(0, SpriteStore.quantiseHue(0));
+		assertEquals(0, SpriteStore.quantiseHue(0.1 / half));
+		assertEquals(1, SpriteStore.quantiseHue(0.9 / half));
+		assertEquals(half, SpriteStore.quantiseHue(1));
+		assertEquals(-half, SpriteStore.quantiseHue(-1));
+		assertEquals(half, SpriteStore.quantiseHue(5));
+	}
+
+	/**
+	 * Test for {@link SpriteStore#getHueDegrees(int)}.
+	 */
+	@Test
+	public void testGetHueDegrees() {
+		int half = SpriteStore.HUE_STEPS / 2;
+
+		assertEquals(0D, SpriteStore.getHueDegrees(0), 0D);
+		assertEquals(180D, SpriteStore.getHueDegrees(half), 0D);
+		assertEquals(-90D, SpriteStore.getHueDegrees(-half / 2), 0D);
+	}
+
+	/**
+	 * Test for {@link SpriteStore#shiftHue(int, double)}.
+	 */
+	@Test
+	public void testShiftHue() {
+		assertEquals(RED, SpriteStore.shiftHue(RED, 0));
+		assertEquals(GREEN, SpriteStore.shiftHue(RED, 120));
+		assertEquals(BLUE, SpriteStore.shiftHue(RED, -120));
+		assertEquals(RED, SpriteStore.shiftHue(BLUE, 480));
+	}
+
+	/**
+	 * Shifting the hue should not change the alpha, or the color of gray
+	 * and transparent pixels.
+	 */
+	@Test
+	public void testShiftHueUnchanged() {
+		assertEquals(0x80FF0000 & 0xFF000000, SpriteStore.shiftHue(0x80FF0000, 120) & 0xFF000000);
+		assertEquals(0xFF808080, SpriteStore.shiftHue(0xFF808080, 120));
+		assertEquals(0x00FF0000, SpriteStore.shiftHue(0x00FF0000, 120));
+	}
+
+	/**
+	 * A hue that rounds to no shift should return the sprite itself.
+	 */
+	@Test
+	public void testGetTintedSpriteNoShift() {
+		Image sprite = mock(Image.class);
+
+		assertSame(sprite, SpriteStore.getTintedSprite(sprite, 0));
+		assertSame(sprite, SpriteStore.getTintedSprite(sprite, 0.1 / SpriteStore.HUE_STEPS));
+	}
+}
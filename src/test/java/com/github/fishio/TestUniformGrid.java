@@ -0,0 +1,184 @@
+package com.github.fishio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the UniformGrid class.
+ */
+public class TestUniformGrid {
+	private UniformGrid grid;
+	private boolean[][] data;
+
+	/**
+	 * Creates a 1000x800 grid with cells of 100 pixels.
+	 */
+	@Before
+	public void before() {
+		grid = new UniformGrid(1000, 800, 100);
+
+		data = new boolean[4][4];
+		for (boolean[] column : data) {
+			Arrays.fill(column, true);
+		}
+	}
+
+	/**
+	 * Test for the constructor with an invalid cell size.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidCellSize() {
+		new UniformGrid(100, 100, 0);
+	}
+
+	/**
+	 * Test for {@link UniformGrid#query(ICollisionArea, java.util.Collection)}.
+	 * Collidables that are far away should not be returned.
+	 */
+	@Test
+	public void testQueryFarAway() {
+		ICollidable near = collidable(110, 110, 20, 20);
+		ICollidable far = collidable(900, 700, 20, 20);
+		grid.update(Arrays.asList(near, far));
+
+		List<ICollidable> result = new ArrayList<>();
+		grid.query(area(100, 100, 20, 20), result);
+
+		assertTrue(result.contains(near));
+		assertFalse(result.contains(far));
+	}
+
+	/**
+	 * Test for {@link UniformGrid#query(ICollisionArea, java.util.Collection)}.
+	 * A large collidable in a distant cell should still be returned when it
+	 * reaches the queried area.
+	 */
+	@Test
+	public void testQueryLargeNeighbour() {
+		ICollidable large = collidable(450, 100, 600, 100);
+		grid.update(Arrays.asList(large));
+
+		List<ICollidable> result = new ArrayList<>();
+		grid.query(area(180, 100, 10, 10), result);
+
+		assertEquals(Arrays.asList(large), result);
+	}
+
+	/**
+	 * Test for {@link UniformGrid#query(ICollisionArea, java.util.Collection)}.
+	 * Collidables outside of the playing field should still be found.
+	 */
+	@Test
+	public void testQueryOutside() {
+		ICollidable outside = collidable(-30, 850, 40, 40);
+		grid.update(Arrays.asList(outside));
+
+		List<ICollidable> result = new ArrayList<>();
+		grid.query(area(5, 790, 40, 40), result);
+
+		assertEquals(Arrays.asList(outside), result);
+	}
+
+	/**
+	 * Test for {@link UniformGrid#update(java.util.Collection)}.
+	 * Collidables that are no longer given should be removed.
+	 */
+	@Test
+	public void testUpdateRemoves() {
+		ICollidable c = collidable(110, 110, 20, 20);
+		grid.update(Arrays.asList(c));
+		grid.update(new ArrayList<ICollidable>());
+
+		List<ICollidable> result = new ArrayList<>();
+		grid.query(area(110, 110, 20, 20), result);
+
+		assertTrue(result.isEmpty());
+	}
+
+	/**
+	 * Test that the grid finds every pair that a brute force check finds.
+	 */
+	@Test
+	public void testSameAsBruteForce() {
+		Random random = new Random(42);
+		List<ICollidable> collidables = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			CollisionMask cm = new CollisionMask(
+					new Vec2d(random.nextDouble() * 1200 - 100, random.nextDouble() * 1000 - 100),
+					4 + random.nextDouble() * 150, 4 + random.nextDouble() * 80, data, 1.0);
+			cm.setRotation(random.nextDouble() * 360);
+			collidables.add(collidable(cm));
+		}
+		grid.update(collidables);
+
+		for (ICollidable a : collidables) {
+			HashSet<ICollidable> candidates = new HashSet<>();
+			grid.query(a.getBoundingArea(), candidates);
+
+			for (ICollidable b : collidables) {
+				if (a != b && a.getBoundingArea().boxIntersects(b.getBoundingArea())) {
+					assertTrue(candidates.contains(b));
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param x
+	 * 		the x coordinate of the center.
+	 * @param y
+	 * 		the y coordinate of the center.
+	 * @param width
+	 * 		the width of the area.
+	 * @param height
+	 * 		the height of the area.
+	 *
+	 * @return
+	 * 		a new CollisionMask with the given center and size.
+	 */
+	private CollisionMask area(double x, double y, double width, double height) {
+		return new CollisionMask(new Vec2d(x, y), width, height, data, 1.0);
+	}
+
+	/**
+	 * @param x
+	 * 		the x coordinate of the center.
+	 * @param y
+	 * 		the y coordinate of the center.
+	 * @param width
+	 * 		the width of the collidable.
+	 * @param height
+	 * 		the height of the collidable.
+	 *
+	 * @return
+	 * 		a mocked collidable with the given center and size.
+	 */
+	private ICollidable collidable(double x, double y, double width, double height) {
+		return collidable(area(x, y, width, height));
+	}
+
+	/**
+	 * @param area
+	 * 		the bounding area of the collidable.
+	 *
+	 * @return
+	 * 		a mocked collidable with the given bounding area.
+	 */
+	private ICollidable collidable(CollisionMask area) {
+		ICollidable c = mock(ICollidable.class);
+		when(c.getBoundingArea()).thenReturn(area);
+		return c;
+	}
+}
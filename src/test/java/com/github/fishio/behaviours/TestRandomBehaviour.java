@@ -1,8 +1,11 @@
 package com.github.fishio.behaviours;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.mockito.Mockito.mock;
 
+import java.util.Random;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -134,4 +137,23 @@ public class TestRandomBehaviour {
 		behaviour.updateTo(mock(IMoveBehaviour.class));
 	}
 	
+	/**
+	 * Test for {@link RandomBehaviour#setRandom(Random)}, behaviours with
+	 * equally seeded randoms should change their speed in the same way.
+	 */
+	@Test
+	public void testSetRandom() {
+		RandomBehaviour other = new RandomBehaviour(3.0, 5.0, 0.1);
+		behaviour.setRandom(new Random(42));
+		other.setRandom(new Random(42));
+		
+		for (int i = 0; i < 1000; i++) {
+			behaviour.preMove();
+			other.preMove();
+		}
+		
+		assertEquals(other.getSpeedVector(), behaviour.getSpeedVector());
+		assertNotEquals(new Vec2d(3.0, 5.0), behaviour.getSpeedVector());
+	}
+	
 }
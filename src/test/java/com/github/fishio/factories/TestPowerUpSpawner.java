@@ -5,6 +5,8 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Mockito.times;
 
+import java.util.Random;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -36,6 +38,7 @@ public class TestPowerUpSpawner extends SlimGuiTest {
 		when(pf.getGameThread()).thenReturn(gt); //Preventing nullPointerExceptions from the gameThread
 		when(pf.getFPS()).thenReturn(60); //Making sure our PowerUpSpawner doesn't think the FPS is 0.
 		when(pf.getWidth()).thenReturn(100); //Same as above
+		when(pf.getRandom()).thenReturn(new Random()); //The spawner uses the random of the field
 		
 		this.pus = Mockito.spy(new PowerUpSpawner(pf));
 	}
@@ -1,18 +1,24 @@
 package com.github.fishio.game;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.junit.After;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import com.github.fishio.SinglePlayerPlayingField;
+import com.github.fishio.game.TickProfiler.Phase;
 import com.github.fishio.listeners.Listenable;
 import com.github.fishio.listeners.TestListenable;
+import com.github.fishio.listeners.TickListener;
 
 /**
  * Test for the {@link GameThread} class.
@@ -176,4 +182,180 @@ public class TestGameThread extends TestListenable {
 		
 		assertTrue(gameThread.isRunning());
 	}
+	
+	/**
+	 * Test for {@link GameThread#setMaxCatchUpTicks(int)} with an invalid
+	 * amount.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetMaxCatchUpTicksInvalid() {
+		new GameThread(sppf).setMaxCatchUpTicks(0);
+	}
+	
+	/**
+	 * Test for {@link GameThread#run()}.
+	 * The game should tick at a constant rate.
+	 * 
+	 * @throws InterruptedException
+	 * 		if we are interrupted while waiting.
+	 */
+	@Test
+	public void testTickRate() throws InterruptedException {
+		gameThread.startAndWait();
+		Thread.sleep(500L);
+		gameThread.stopAndWait();
+		
+		//500 ms at 60 TPS is 30 ticks, allow for slow start ups.
+		long ticks = gameThread.getTickStatistics().getTicks();
+		assertTrue("Ticks: " + ticks, ticks >= 20 && ticks <= 40);
+	}
+	
+	/**
+	 * Test for {@link GameThread#run()}.
+	 * After a slow tick, at most the maximum amount of ticks should be
+	 * caught up, and the rest should be dropped.
+	 * 
+	 * @throws InterruptedException
+	 * 		if we are interrupted while waiting.
+	 */
+	@Test
+	public void testCatchUp() throws InterruptedException {
+		GameThread slow = new GameThread(sppf) {
+			private boolean first = true;
+			
+			@Override
+			protected void gameTick() {
+				if (first) {
+					first = false;
+					try {
+						Thread.sleep(200L);
+					} catch (InterruptedException ex) {
+						fail(ex.getMessage());
+					}
+				}
+			}
+		};
+		slow.setMaxCatchUpTicks(3);
+		
+		slow.startAndWait();
+		Thread.sleep(300L);
+		slow.stopAndWait();
+		
+		TickStatistics stats = slow.getTickStatistics();
+		assertTrue(stats.getOverruns() >= 1);
+		assertTrue(stats.getDroppedTicks() >= 5);
+		assertTrue(stats.getMaxNanos() >= 200000000L);
+	}
+	
+	/**
+	 * Test that {@link GameThread#sendUpdates()} is called in every tick,
+	 * and recorded as its own phase when profiling.
+	 * 
+	 * @throws InterruptedException
+	 * 		if we are interrupted while waiting.
+	 */
+	@Test
+	public void testSendUpdates() throws InterruptedException {
+		AtomicInteger sent = new AtomicInteger();
+		GameThread game = new GameThread(sppf) {
+			@Override
+			protected void sendUpdates() {
+				sent.incrementAndGet();
+				try {
+					Thread.sleep(5L);
+				} catch (InterruptedException ex) {
+					fail(ex.getMessage());
+				}
+			}
+		};
+		
+		game.gameTick();
+		assertEquals(1, sent.get());
+		
+		TickProfiler profiler = new TickProfiler();
+		game.setProfiler(profiler);
+		game.gameTick();
+		assertEquals(2, sent.get());
+		assertTrue(profiler.getMax(Phase.SEND) >= 5000000L);
+		assertTrue(profiler.getMax(Phase.SNAPSHOT) < 5000000L);
+	}
+	
+	/**
+	 * Test for {@link GameThread#setExecutor(java.util.concurrent.ScheduledExecutorService)}.
+	 * Two games should be able to share a single thread.
+	 * 
+	 * @throws InterruptedException
+	 * 		if we are interrupted while waiting.
+	 */
+	@Test
+	public void testExecutor() throws InterruptedException {
+		GameLoopPool pool = new GameLoopPool(1);
+		GameThread first = new GameThread(sppf);
+		GameThread second = new GameThread(sppf);
+		pool.add(first);
+		pool.add(second);
+		
+		first.startAndWait();
+		second.startAndWait();
+		assertSame(GameState.RUNNING, first.getState());
+		Thread.sleep(500L);
+		first.stopAndWait();
+		second.stopAndWait();
+		
+		assertTrue(first.isStopped());
+		assertSame(GameState.STOPPED, second.getState());
+		long ticks = first.getTickStatistics().getTicks();
+		assertTrue("Ticks: " + ticks, ticks >= 20 && ticks <= 40);
+		assertTrue(second.getTickStatistics().getTicks() >= 20);
+		
+		//No ticks are run after stopping
+		Thread.sleep(100L);
+		assertTrue(first.getTickStatistics().getTicks() == ticks);
+		
+		//A stopped game can be started again
+		first.startAndWait();
+		assertTrue(first.isRunning());
+		first.stopAndWait();
+		
+		assertTrue(pool.shutdown(1000L));
+	}
+	
+	/**
+	 * Test for {@link GameThread#setFailureHandler(java.util.function.Consumer)}.
+	 * An error in a scheduled tick should stop the game and be passed to
+	 * the failure handler.
+	 * 
+	 * @throws InterruptedException
+	 * 		if we are interrupted while waiting.
+	 */
+	@Test
+	public void testScheduledTickError() throws InterruptedException {
+		GameLoopPool pool = new GameLoopPool(1);
+		GameThread game = new GameThread(sppf);
+		pool.add(game);
+		
+		Error error = new StackOverflowError();
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		game.setFailureHandler(failure::set);
+		game.registerListener(new TickListener() {
+			@Override
+			public void preTick() {
+				throw error;
+			}
+			
+			@Override
+			public void postTick() { }
+		});
+		
+		game.start();
+		long deadline = System.currentTimeMillis() + 5000L;
+		while (failure.get() == null && System.currentTimeMillis() < deadline) {
+			Thread.sleep(25L);
+		}
+		
+		assertSame(error, failure.get());
+		assertTrue(game.isStopped());
+		assertSame(GameState.STOPPED, game.getState());
+		assertTrue(pool.shutdown(1000L));
+	}
 }
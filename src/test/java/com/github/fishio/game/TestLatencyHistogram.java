@@ -0,0 +1,124 @@
+package com.github.fishio.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the {@link LatencyHistogram} class.
+ */
+public class TestLatencyHistogram {
+	private LatencyHistogram histogram;
+	
+	/**
+	 * Creates a new histogram before every test.
+	 */
+	@Before
+	public void setUp() {
+		histogram = new LatencyHistogram();
+	}
+	
+	/**
+	 * Test for {@link LatencyHistogram#getValueAtPercentile(double)} without
+	 * recorded values.
+	 */
+	@Test
+	public void testEmpty() {
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getValueAtPercentile(50.0));
+		assertEquals(0, histogram.getMax());
+	}
+	
+	/**
+	 * Test for {@link LatencyHistogram#getValueAtPercentile(double)} with
+	 * small values, which are counted exactly.
+	 */
+	@Test
+	public void testSmallValuesExact() {
+		for (int i = 1; i <= 50; i++) {
+			histogram.record(i);
+		}
+		
+		assertEquals(50, histogram.getCount());
+		assertEquals(25, histogram.getValueAtPercentile(50.0));
+		assertEquals(50, histogram.getValueAtPercentile(100.0));
+		assertEquals(1, histogram.getValueAtPercentile(0.0));
+	}
+	
+	/**
+	 * Test for {@link LatencyHistogram#getValueAtPercentile(double)} with
+	 * large values, which should be within the precision of the histogram.
+	 */
+	@Test
+	public void testLargeValuesPrecision() {
+		for (long i = 1; i <= 1000; i++) {
+			histogram.record(i * 1000000L);
+		}
+		
+		long p50 = histogram.getValueAtPercentile(50.0);
+		long p99 = histogram.getValueAtPercentile(99.0);
+		assertTrue("p50: " + p50, Math.abs(p50 - 500000000L) <= 500000000L / 32);
+		assertTrue("p99: " + p99, Math.abs(p99 - 990000000L) <= 990000000L / 32);
+		assertEquals(1000000000L, histogram.getMax());
+	}
+	
+	/**
+	 * Test that every value is counted in a bucket that contains it.
+	 */
+	@Test
+	public void testBuckets() {
+		long[] values = {0, 63, 64, 65, 127, 128, 1000, 123456789L, Long.MAX_VALUE};
+		for (long value : values) {
+			int index = LatencyHistogram.getIndex(value);
+			assertTrue(value <= LatencyHistogram.getHighestValue(index));
+			if (index > 0) {
+				assertTrue(value > LatencyHistogram.getHighestValue(index - 1));
+			}
+		}
+	}
+	
+	/**
+	 * Test for {@link LatencyHistogram#reset()}.
+	 */
+	@Test
+	public void testReset() {
+		histogram.record(100);
+		histogram.reset();
+		
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMax());
+		assertEquals(0, histogram.getValueAtPercentile(99.0));
+	}
+	
+	/**
+	 * Test for {@link LatencyHistogram#record(long)} with latencies of
+	 * seconds, which should not be clamped.
+	 */
+	@Test
+	public void testLongLatencies() {
+		histogram.record(5000000000L);
+		
+		long p50 = histogram.getValueAtPercentile(50.0);
+		assertTrue("p50: " + p50, Math.abs(p50 - 5000000000L) <= 5000000000L * 0.04);
+		assertEquals(5000000000L, histogram.getMax());
+	}
+	
+	/**
+	 * Test for {@link LatencyHistogram#add(LatencyHistogram)}.
+	 */
+	@Test
+	public void testAdd() {
+		LatencyHistogram other = new LatencyHistogram();
+		histogram.record(10);
+		other.record(30);
+		other.record(30);
+		
+		histogram.add(other);
+		assertEquals(3, histogram.getCount());
+		assertEquals(30, histogram.getValueAtPercentile(50.0));
+		assertEquals(30, histogram.getMax());
+		assertEquals(2, other.getCount());
+	}
+}
@@ -0,0 +1,99 @@
+package com.github.fishio.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.fishio.SinglePlayerPlayingField;
+import com.github.fishio.game.TickProfiler.Phase;
+import com.github.fishio.listeners.TickListener;
+
+/**
+ * Test class for the {@link TickProfiler} class.
+ */
+public class TestTickProfiler {
+	private TickProfiler profiler;
+	
+	/**
+	 * Creates a new profiler before every test.
+	 */
+	@Before
+	public void setUp() {
+		profiler = new TickProfiler();
+	}
+	
+	/**
+	 * Test for {@link TickProfiler#record(Phase, long)}.
+	 */
+	@Test
+	public void testRecord() {
+		profiler.record(Phase.MOVE, 10);
+		profiler.record(Phase.MOVE, 30);
+		
+		assertEquals(2, profiler.getHistogram(Phase.MOVE).getCount());
+		assertEquals(10, profiler.getP50(Phase.MOVE));
+		assertEquals(30, profiler.getP99(Phase.MOVE));
+		assertEquals(30, profiler.getMax(Phase.MOVE));
+		assertEquals(0, profiler.getHistogram(Phase.COLLISIONS).getCount());
+	}
+	
+	/**
+	 * Test for {@link TickProfiler#recordPreTick(TickListener, long)} and
+	 * {@link TickProfiler#recordPostTick(TickListener, long)}.
+	 */
+	@Test
+	public void testRecordListener() {
+		TickListener tl = mock(TickListener.class);
+		profiler.recordPreTick(tl, 5);
+		
+		assertEquals(5, profiler.getPreTickHistogram(tl).getMax());
+		assertNull(profiler.getPostTickHistogram(tl));
+	}
+	
+	/**
+	 * Test for {@link TickProfiler#reset()}.
+	 */
+	@Test
+	public void testReset() {
+		TickListener tl = mock(TickListener.class);
+		profiler.record(Phase.TOTAL, 10);
+		profiler.recordPostTick(tl, 5);
+		profiler.reset();
+		
+		assertEquals(0, profiler.getHistogram(Phase.TOTAL).getCount());
+		assertNull(profiler.getPostTickHistogram(tl));
+	}
+	
+	/**
+	 * Test that a GameThread with a profiler records every phase and every
+	 * listener.
+	 * 
+	 * @throws InterruptedException
+	 * 		if we are interrupted while waiting.
+	 */
+	@Test
+	public void testGameThread() throws InterruptedException {
+		GameThread gameThread = new GameThread(mock(SinglePlayerPlayingField.class));
+		TickListener tl = mock(TickListener.class);
+		gameThread.registerListener(tl);
+		gameThread.setProfiler(profiler);
+		
+		gameThread.startAndWait();
+		Thread.sleep(100L);
+		gameThread.stopAndWait();
+		
+		long ticks = gameThread.getTickStatistics().getTicks();
+		assertTrue(ticks > 0);
+		for (Phase phase : Phase.values()) {
+			assertEquals(ticks, profiler.getHistogram(phase).getCount());
+		}
+		
+		assertNotNull(profiler.getPreTickHistogram(tl));
+		assertEquals(ticks, profiler.getPostTickHistogram(tl).getCount());
+	}
+}
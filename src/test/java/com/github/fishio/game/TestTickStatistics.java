@@ -0,0 +1,73 @@
+package com.github.fishio.game;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the {@link TickStatistics} class.
+ */
+public class TestTickStatistics {
+	private static final double DELTA = 1E-9;
+	
+	private TickStatistics stats;
+	
+	/**
+	 * Creates new statistics before every test.
+	 */
+	@Before
+	public void setUp() {
+		stats = new TickStatistics();
+	}
+	
+	/**
+	 * Test for {@link TickStatistics#recordTick(long, long)}.
+	 */
+	@Test
+	public void testRecordTick() {
+		stats.recordTick(10, 15);
+		stats.recordTick(20, 15);
+		stats.recordTick(15, 15);
+		
+		assertEquals(3, stats.getTicks());
+		assertEquals(1, stats.getOverruns());
+		assertEquals(20, stats.getMaxNanos());
+		assertEquals(15.0, stats.getAverageNanos(), DELTA);
+	}
+	
+	/**
+	 * Test for {@link TickStatistics#recordDropped(long)}.
+	 */
+	@Test
+	public void testRecordDropped() {
+		stats.recordDropped(3);
+		stats.recordDropped(2);
+		
+		assertEquals(5, stats.getDroppedTicks());
+		assertEquals(0, stats.getTicks());
+	}
+	
+	/**
+	 * Test for {@link TickStatistics#getAverageNanos()} without ticks.
+	 */
+	@Test
+	public void testAverageNoTicks() {
+		assertEquals(0.0, stats.getAverageNanos(), DELTA);
+	}
+	
+	/**
+	 * Test for {@link TickStatistics#reset()}.
+	 */
+	@Test
+	public void testReset() {
+		stats.recordTick(20, 15);
+		stats.recordDropped(2);
+		stats.reset();
+		
+		assertEquals(0, stats.getTicks());
+		assertEquals(0, stats.getOverruns());
+		assertEquals(0, stats.getDroppedTicks());
+		assertEquals(0, stats.getMaxNanos());
+	}
+}
@@ -0,0 +1,88 @@
+package com.github.fishio.gui;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the {@link FrameStatistics} class.
+ */
+public class TestFrameStatistics {
+	private static final double DELTA = 1E-9;
+	
+	private FrameStatistics stats;
+	
+	/**
+	 * Creates new statistics before every test.
+	 */
+	@Before
+	public void setUp() {
+		stats = new FrameStatistics();
+	}
+	
+	/**
+	 * Test for {@link FrameStatistics#recordFrame(long, long)}.
+	 */
+	@Test
+	public void testRecordFrame() {
+		stats.recordFrame(1000, 10);
+		stats.recordFrame(2000, 20);
+		stats.recordFrame(3000, 15);
+		
+		assertEquals(3, stats.getFrames());
+		assertEquals(20, stats.getMaxNanos());
+		assertEquals(15.0, stats.getAverageNanos(), DELTA);
+	}
+	
+	/**
+	 * Test for {@link FrameStatistics#recordSkipped()}.
+	 */
+	@Test
+	public void testRecordSkipped() {
+		stats.recordSkipped();
+		stats.recordSkipped();
+		
+		assertEquals(2, stats.getSkippedPulses());
+		assertEquals(0, stats.getFrames());
+	}
+	
+	/**
+	 * Test for {@link FrameStatistics#getFramesPerSecond()}.
+	 */
+	@Test
+	public void testFramesPerSecond() {
+		assertEquals(0.0, stats.getFramesPerSecond(), DELTA);
+		
+		stats.recordFrame(5000000000L, 10);
+		assertEquals(0.0, stats.getFramesPerSecond(), DELTA);
+		
+		for (int i = 1; i <= 60; i++) {
+			stats.recordFrame(5000000000L + i * 50000000L, 10);
+		}
+		assertEquals(20.0, stats.getFramesPerSecond(), DELTA);
+	}
+	
+	/**
+	 * Test for {@link FrameStatistics#getAverageNanos()} without frames.
+	 */
+	@Test
+	public void testAverageNoFrames() {
+		assertEquals(0.0, stats.getAverageNanos(), DELTA);
+	}
+	
+	/**
+	 * Test for {@link FrameStatistics#reset()}.
+	 */
+	@Test
+	public void testReset() {
+		stats.recordFrame(1000, 20);
+		stats.recordSkipped();
+		stats.reset();
+		
+		assertEquals(0, stats.getFrames());
+		assertEquals(0, stats.getSkippedPulses());
+		assertEquals(0, stats.getMaxNanos());
+		assertEquals(0.0, stats.getFramesPerSecond(), DELTA);
+	}
+}
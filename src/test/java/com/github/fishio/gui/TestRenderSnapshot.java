@@ -0,0 +1,130 @@
+package com.github.fishio.gui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.fishio.CollisionMask;
+import com.github.fishio.EnemyFish;
+import com.github.fishio.IDrawable;
+import com.github.fishio.Vec2d;
+import com.github.fishio.game.GameThread;
+
+/**
+ * Tests the {@link RenderSnapshot} class.
+ */
+public class TestRenderSnapshot {
+	private static final double DELTA = 1E-9;
+	private static final long TICK = GameThread.TICK_NANOS;
+
+	private EnemyFish fish;
+	private List<IDrawable> drawables;
+
+	/**
+	 * Creates a fish moving to the right before every test.
+	 */
+	@Before
+	public void setUp() {
+		fish = new EnemyFish(new CollisionMask(new Vec2d(100, 100), 40, 20, null, 1.0), null, 1, 0);
+		drawables = new ArrayList<>();
+		drawables.add(fish);
+	}
+
+	/**
+	 * @param previous
+	 * 		the previous snapshot.
+	 * @param time
+	 * 		the time of the snapshot.
+	 *
+	 * @return
+	 * 		a snapshot of the drawables.
+	 */
+	private RenderSnapshot capture(RenderSnapshot previous, long time) {
+		return RenderSnapshot.capture(drawables.iterator(), 0, 0, time, previous);
+	}
+
+	/**
+	 * Test for {@link RenderSnapshot#capture(java.util.Iterator, double, double, long, RenderSnapshot)}.
+	 */
+	@Test
+	public void testCapture() {
+		RenderSnapshot first = capture(null, 0);
+		RenderSnapshot second = capture(first, TICK);
+		RenderSnapshot third = capture(second, 2 * TICK);
+
+		assertEquals(1, third.size());
+		assertEquals(TICK, third.getPrevious().getNanoTime());
+
+		//Only two snapshots should be kept.
+		assertNull(third.getPrevious().getPrevious());
+	}
+
+	/**
+	 * Dead entities should not be in a snapshot.
+	 */
+	@Test
+	public void testCaptureDead() {
+		fish.kill();
+
+		assertEquals(0, capture(null, 0).size());
+	}
+
+	/**
+	 * Test for {@link RenderSnapshot#getAlpha(long)}.
+	 */
+	@Test
+	public void testGetAlpha() {
+		RenderSnapshot first = capture(null, 0);
+		assertEquals(1, first.getAlpha(0), DELTA);
+
+		RenderSnapshot second = capture(first, TICK);
+		assertEquals(0, second.getAlpha(TICK - 100), DELTA);
+		assertEquals(0.5, second.getAlpha(TICK + TICK / 2), 1E-6);
+		assertEquals(1, second.getAlpha(3 * TICK), DELTA);
+	}
+
+	/**
+	 * Snapshots that are too far apart should not be interpolated.
+	 */
+	@Test
+	public void testGetAlphaGap() {
+		RenderSnapshot first = capture(null, 0);
+		RenderSnapshot second = capture(first, (RenderSnapshot.MAX_INTERPOLATION_TICKS + 1) * TICK);
+
+		assertEquals(1, second.getAlpha(second.getNanoTime()), DELTA);
+	}
+
+	/**
+	 * Test for {@link RenderSnapshot#getState(int, double)}.
+	 */
+	@Test
+	public void testGetState() {
+		RenderSnapshot first = capture(null, 0);
+		fish.getBoundingArea().move(new Vec2d(10, 0));
+		RenderSnapshot second = capture(first, TICK);
+
+		assertEquals(105, second.getState(0, 0.5).getCenterX(), DELTA);
+		assertEquals(110, second.getState(0, 1).getCenterX(), DELTA);
+		assertSame(fish, second.getState(0, 0.5).getDrawable());
+	}
+
+	/**
+	 * Test for {@link RenderSnapshot#getViewX(double)} and
+	 * {@link RenderSnapshot#getViewY(double)}.
+	 */
+	@Test
+	public void testGetView() {
+		RenderSnapshot first = RenderSnapshot.capture(drawables.iterator(), 0, 100, 0, null);
+		RenderSnapshot second = RenderSnapshot.capture(drawables.iterator(), 20, 50, TICK, first);
+
+		assertEquals(10, second.getViewX(0.5), DELTA);
+		assertEquals(75, second.getViewY(0.5), DELTA);
+		assertEquals(0, first.getViewX(0.5), DELTA);
+	}
+}
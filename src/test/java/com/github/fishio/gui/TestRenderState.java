@@ -0,0 +1,137 @@
+package com.github.fishio.gui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import org.junit.Test;
+
+import com.github.fishio.CollisionMask;
+import com.github.fishio.EnemyFish;
+import com.github.fishio.IDrawable;
+import com.github.fishio.Vec2d;
+
+/**
+ * Tests the {@link RenderState} class.
+ */
+public class TestRenderState {
+	private static final double DELTA = 1E-9;
+
+	/**
+	 * @param x
+	 * 		the x coordinate of the center.
+	 * @param y
+	 * 		the y coordinate of the center.
+	 * @param rotation
+	 * 		the rotation.
+	 *
+	 * @return
+	 * 		a new state of a 40 by 20 entity with id 1.
+	 */
+	private static RenderState createState(double x, double y, double rotation) {
+		return new RenderState(null, 1, null, x, y, 40, 20, rotation, 800);
+	}
+
+	/**
+	 * Test for {@link RenderState#capture(com.github.fishio.IDrawable)}.
+	 */
+	@Test
+	public void testCapture() {
+		EnemyFish fish = new EnemyFish(new CollisionMask(new Vec2d(100, 200), 40, 20, null, 1.0), null, -1, 0);
+		RenderState state = RenderState.capture(fish);
+
+		assertSame(fish, state.getDrawable());
+		assertEquals(fish.getEntityId(), state.getEntityId());
+		assertEquals(100, state.getCenterX(), DELTA);
+		assertEquals(200, state.getCenterY(), DELTA);
+		assertEquals(40, state.getWidth(), DELTA);
+		assertEquals(20, state.getHeight(), DELTA);
+
+		//The rotation is updated to the speed of the fish.
+		assertEquals(180, state.getRotation(), DELTA);
+	}
+
+	/**
+	 * Dead entities should not be captured.
+	 */
+	@Test
+	public void testCaptureDead() {
+		EnemyFish fish = new EnemyFish(new CollisionMask(new Vec2d(100, 200), 40, 20, null, 1.0), null, 1, 0);
+		fish.kill();
+
+		assertNull(RenderState.capture(fish));
+	}
+
+	/**
+	 * Test for {@link RenderState#interpolate(RenderState, double)}.
+	 */
+	@Test
+	public void testInterpolate() {
+		RenderState previous = createState(0, 0, 350);
+		RenderState current = createState(10, 20, 10);
+
+		RenderState state = current.interpolate(previous, 0.5);
+		assertEquals(5, state.getCenterX(), DELTA);
+		assertEquals(10, state.getCenterY(), DELTA);
+		assertEquals(0, state.getRotation(), DELTA);
+		assertEquals(40, state.getWidth(), DELTA);
+	}
+
+	/**
+	 * Without a previous state, after the end, or after a jump, the state
+	 * itself should be returned.
+	 */
+	@Test
+	public void testInterpolateNot() {
+		RenderState current = createState(10, 20, 10);
+
+		assertSame(current, current.interpolate(null, 0.5));
+		assertSame(current, current.interpolate(createState(0, 0, 0), 1));
+		assertSame(current, current.interpolate(createState(10 + 2 * RenderState.MAX_INTERPOLATION_DISTANCE, 0, 0),
+				0.5));
+	}
+
+	/**
+	 * Test for {@link RenderState#lerpAngle(double, double, double)}.
+	 */
+	@Test
+	public void testLerpAngle() {
+		assertEquals(45, RenderState.lerpAngle(0, 90, 0.5), DELTA);
+		assertEquals(355, RenderState.lerpAngle(10, 340, 0.5), DELTA);
+		assertEquals(90, RenderState.lerpAngle(90, 90, 0.3), DELTA);
+	}
+
+	/**
+	 * Test for the corners of a state.
+	 */
+	@Test
+	public void testCorners() {
+		RenderState state = createState(100, 100, 90);
+
+		assertEquals(110, state.getTopLeft().x, DELTA);
+		assertEquals(80, state.getTopLeft().y, DELTA);
+		assertEquals(90, state.getBottomRight().x, DELTA);
+		assertEquals(120, state.getBottomRight().y, DELTA);
+	}
+
+	/**
+	 * A state is flipped like the collision area it was captured from.
+	 */
+	@Test
+	public void testIsReversed() {
+		assertFalse(createState(0, 0, 0).isReversed());
+		assertTrue(createState(0, 0, 180).isReversed());
+		assertFalse(createState(0, 0, 300).isReversed());
+	}
+
+	/**
+	 * Drawables that are not entities should not be captured.
+	 */
+	@Test
+	public void testCaptureNotEntity() {
+		assertNull(RenderState.capture(mock(IDrawable.class)));
+	}
+}
@@ -1,7 +1,9 @@
 package com.github.fishio.gui;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
@@ -21,7 +23,14 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import com.github.fishio.CollisionMask;
+import com.github.fishio.EnemyFish;
+import com.github.fishio.IDrawable;
 import com.github.fishio.SinglePlayerPlayingField;
+import com.github.fishio.Vec2d;
+import com.github.fishio.game.GameThread;
+import com.github.fishio.game.TickProfiler;
+import com.github.fishio.game.TickStatistics;
 import com.github.fishio.listeners.Listenable;
 import com.github.fishio.listeners.TestListenable;
 
@@ -85,6 +94,169 @@ public class TestRenderer extends TestListenable {
 		verify(canvas, times(1)).getGraphicsContext2D();
 	}
 
+	/**
+	 * Test for {@link Renderer#redraw()}, drawables outside the view
+	 * should not be rendered.
+	 */
+	@Test
+	public void testRedrawCulling() {
+		renderer.getView().setWidth(200);
+		renderer.getView().setHeight(100);
+		renderer.getView().moveTo(new Vec2d(100, 50));
+		
+		EnemyFish inside = createFish(150, 50);
+		EnemyFish outside = createFish(1000, 1000);
+		sppf.getDrawables().add(inside);
+		sppf.getDrawables().add(outside);
+		
+		renderer.redraw();
+		
+		verify(inside).render(Mockito.any());
+		verify(outside, Mockito.never()).render(Mockito.any());
+		assertEquals(1, renderer.getDrawnCount());
+		assertEquals(1, renderer.getCulledCount());
+	}
+	
+	/**
+	 * Test for {@link Renderer#isVisible(IDrawable)}.
+	 */
+	@Test
+	public void testIsVisible() {
+		renderer.getView().setWidth(200);
+		renderer.getView().setHeight(100);
+		renderer.getView().moveTo(new Vec2d(100, 50));
+		
+		assertTrue(renderer.isVisible(createFish(0, 0)));
+		assertTrue(renderer.isVisible(createFish(220, 50)));
+		assertFalse(renderer.isVisible(createFish(300, 50)));
+		assertFalse(renderer.isVisible(createFish(100, -100)));
+		
+		//Drawables without a bounding area are always drawn.
+		assertTrue(renderer.isVisible(Mockito.mock(IDrawable.class)));
+	}
+	
+	/**
+	 * @param x
+	 * 		the x coordinate of the center.
+	 * @param y
+	 * 		the y coordinate of the center.
+	 * 
+	 * @return
+	 * 		a mocked enemy fish of 40 by 20 pixels at the given position.
+	 */
+	private EnemyFish createFish(double x, double y) {
+		EnemyFish fish = Mockito.mock(EnemyFish.class);
+		when(fish.getBoundingArea()).thenReturn(new CollisionMask(new Vec2d(x, y), 40, 20, null, 0.0));
+		return fish;
+	}
+
+	/**
+	 * Test for {@link Renderer#redraw()}, while the game is running the
+	 * published snapshot should be drawn instead of the drawables.
+	 */
+	@Test
+	public void testRedrawSnapshot() {
+		GameThread gameThread = Mockito.mock(GameThread.class);
+		when(gameThread.isRunning()).thenReturn(true);
+		when(sppf.getGameThread()).thenReturn(gameThread);
+		
+		EnemyFish fish = createFish(100, 100);
+		sppf.getDrawables().add(fish);
+		renderer.publishSnapshot(RenderSnapshot.capture(sppf.getDrawables().iterator(), 0, 0, 0L, null));
+		renderer.getView().setWidth(1000);
+		renderer.getView().setHeight(1000);
+		
+		renderer.redraw();
+		assertEquals(1, renderer.getDrawnCount());
+		verify(fish, Mockito.never()).render(Mockito.any());
+		
+		//When the game is not running, the drawables are drawn directly.
+		when(gameThread.isRunning()).thenReturn(false);
+		renderer.redraw();
+		verify(fish).render(Mockito.any());
+	}
+	
+	/**
+	 * Test for {@link Renderer#pulse(long)}, without a running game every
+	 * pulse should draw a frame.
+	 */
+	@Test
+	public void testPulse() {
+		renderer.setFps(0);
+		renderer.pulse(0L);
+		renderer.pulse(1000L);
+		
+		assertEquals(2, renderer.getFrameStatistics().getFrames());
+		assertEquals(0, renderer.getFrameStatistics().getSkippedPulses());
+		verify(canvas, times(2)).getGraphicsContext2D();
+	}
+	
+	/**
+	 * Test for {@link Renderer#pulse(long)}, no frame should be drawn when
+	 * the game has not ticked since the last frame.
+	 */
+	@Test
+	public void testPulseWithoutTick() {
+		TickStatistics ticks = new TickStatistics();
+		GameThread gameThread = Mockito.mock(GameThread.class);
+		when(gameThread.isRunning()).thenReturn(true);
+		when(gameThread.getTickStatistics()).thenReturn(ticks);
+		when(sppf.getGameThread()).thenReturn(gameThread);
+		
+		renderer.setFps(0);
+		ticks.recordTick(0, 1);
+		renderer.pulse(0L);
+		renderer.pulse(1000L);
+		ticks.recordTick(0, 1);
+		renderer.pulse(2000L);
+		
+		assertEquals(2, renderer.getFrameStatistics().getFrames());
+		assertEquals(1, renderer.getFrameStatistics().getSkippedPulses());
+	}
+	
+	/**
+	 * Test for {@link Renderer#pulse(long)}, with the fps as a cap.
+	 */
+	@Test
+	public void testPulseCapped() {
+		renderer.setFps(30);
+		long interval = Renderer.getFrameInterval(30);
+		
+		renderer.pulse(0L);
+		renderer.pulse(interval / 2);
+		renderer.pulse(interval - Renderer.FRAME_TOLERANCE_NANOS / 2);
+		
+		assertEquals(2, renderer.getFrameStatistics().getFrames());
+		assertEquals(1, renderer.getFrameStatistics().getSkippedPulses());
+	}
+	
+	/**
+	 * Test for {@link Renderer#getFrameInterval(int)}.
+	 */
+	@Test
+	public void testGetFrameInterval() {
+		assertEquals(0L, Renderer.getFrameInterval(0));
+		assertEquals(0L, Renderer.getFrameInterval(-1));
+		assertEquals(20000000L, Renderer.getFrameInterval(50));
+	}
+
+	/**
+	 * Test for {@link Renderer#getProfilerLines(TickProfiler, long)}.
+	 */
+	@Test
+	public void testGetProfilerLines() {
+		TickProfiler profiler = new TickProfiler();
+		String[] lines = renderer.getProfilerLines(profiler, 0L);
+		assertEquals(TickProfiler.Phase.values().length + 2, lines.length);
+		
+		//The lines are reused until they are old enough
+		assertSame(lines, renderer.getProfilerLines(profiler, Renderer.PROFILER_REFRESH_NANOS - 1));
+		
+		String[] refreshed = renderer.getProfilerLines(profiler, Renderer.PROFILER_REFRESH_NANOS);
+		assertNotSame(lines, refreshed);
+		assertArrayEquals(lines, refreshed);
+	}
+
 	/**
 	 * Test for {@link Renderer#getFps()}.
 	 */
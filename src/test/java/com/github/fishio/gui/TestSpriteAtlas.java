@@ -0,0 +1,239 @@
+package com.github.fishio.gui;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyDouble;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.powermock.api.mockito.PowerMockito.mock;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import com.github.fishio.CollisionMask;
+import com.github.fishio.Vec2d;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+/**
+ * Tests the {@link SpriteAtlas} class.
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(GraphicsContext.class)
+public class TestSpriteAtlas {
+	private static final int RED = 0xFFFF0000;
+	private static final int BLUE = 0xFF0000FF;
+
+	/**
+	 * Clears the atlas after every test.
+	 */
+	@After
+	public void tearDown() {
+		SpriteAtlas.getInstance().clear();
+	}
+
+	/**
+	 * Test for {@link SpriteAtlas#quantiseRotation(double)}.
+	 */
+	@Test
+	public void testQuantiseRotation() {
+		assertEquals(0, SpriteAtlas.quantiseRotation(0));
+		assertEquals(0, SpriteAtlas.quantiseRotation(2.4));
+		assertEquals(5, SpriteAtlas.quantiseRotation(2.6));
+		assertEquals(0, SpriteAtlas.quantiseRotation(359));
+		assertEquals(355, SpriteAtlas.quantiseRotation(-5));
+		assertEquals(90, SpriteAtlas.quantiseRotation(450));
+	}
+
+	/**
+	 * Test for {@link SpriteAtlas#getKey(int, int, int, boolean)}.
+	 */
+	@Test
+	public void testGetKey() {
+		int key = SpriteAtlas.getKey(90, 60, 30, false);
+		assertEquals(key, SpriteAtlas.getKey(90, 60, 30, false));
+
+		assertNotEquals(key, SpriteAtlas.getKey(95, 60, 30, false));
+		assertNotEquals(key, SpriteAtlas.getKey(90, 61, 30, false));
+		assertNotEquals(key, SpriteAtlas.getKey(90, 60, 31, false));
+		assertNotEquals(key, SpriteAtlas.getKey(90, 60, 30, true));
+		assertNotEquals(SpriteAtlas.getKey(355, 512, 512, true), SpriteAtlas.getKey(0, 0, 0, false));
+	}
+
+	/**
+	 * Test for {@link SpriteAtlas#getRotatedWidth(int, int, int)} and
+	 * {@link SpriteAtlas#getRotatedHeight(int, int, int)}.
+	 */
+	@Test
+	public void testRotatedSize() {
+		assertEquals(60, SpriteAtlas.getRotatedWidth(60, 30, 0));
+		assertEquals(30, SpriteAtlas.getRotatedHeight(60, 30, 0));
+
+		assertEquals(30, SpriteAtlas.getRotatedWidth(60, 30, 90));
+		assertEquals(60, SpriteAtlas.getRotatedHeight(60, 30, 90));
+
+		assertEquals(64, SpriteAtlas.getRotatedWidth(60, 30, 45));
+		assertEquals(64, SpriteAtlas.getRotatedHeight(60, 30, 45));
+	}
+
+	/**
+	 * Rendering without rotation or scaling should copy the source.
+	 */
+	@Test
+	public void testRenderIdentity() {
+		int[] src = {RED, BLUE, BLUE, RED};
+		int[] dst = new int[4];
+
+		SpriteAtlas.render(src, 2, 2, 0, 2, 2, false, dst, 2, 2);
+		assertArrayEquals(src, dst);
+	}
+
+	/**
+	 * Reversed sprites should be flipped vertically.
+	 */
+	@Test
+	public void testRenderReversed() {
+		int[] src = {RED, RED, BLUE, BLUE};
+		int[] dst = new int[4];
+
+		SpriteAtlas.render(src, 2, 2, 0, 2, 2, true, dst, 2, 2);
+		assertArrayEquals(new int[] {BLUE, BLUE, RED, RED}, dst);
+	}
+
+	/**
+	 * A rotation of 90 degrees should turn the top row into the left
+	 * column, like drawRotatedImage does.
+	 */
+	@Test
+	public void testRenderRotated() {
+		int[] src = {RED, RED, BLUE, BLUE};
+		int[] dst = new int[4];
+
+		SpriteAtlas.render(src, 2, 2, 90, 2, 2, false, dst, 2, 2);
+		assertArrayEquals(new int[] {RED, BLUE, RED, BLUE}, dst);
+	}
+
+	/**
+	 * Scaling up should keep the colour of the source, with a border
+	 * that is transparent.
+	 */
+	@Test
+	public void testRenderScaled() {
+		int[] src = {RED};
+		int[] dst = new int[6 * 6];
+
+		SpriteAtlas.render(src, 1, 1, 0, 4, 4, false, dst, 6, 6);
+		assertEquals(0, dst[0]);
+		assertEquals(RED, dst[6 * 2 + 2]);
+		assertEquals(RED, dst[6 * 3 + 3]);
+	}
+
+	/**
+	 * Test for {@link SpriteAtlas#draw(GraphicsContext, Image, com.github.fishio.ICollisionArea)}.
+	 */
+	@Test
+	public void testDraw() {
+		WritableImage image = new WritableImage(4, 2);
+		image.getPixelWriter().setPixels(0, 0, 4, 2, PixelFormat.getIntArgbInstance(), new int[] {
+			RED, RED, RED, RED,
+			BLUE, BLUE, BLUE, BLUE
+		}, 0, 4);
+
+		GraphicsContext gc = mock(GraphicsContext.class);
+		CollisionMask area = new CollisionMask(new Vec2d(100, 100), 40, 20, new boolean[4][2], 1.0);
+
+		SpriteAtlas atlas = SpriteAtlas.getInstance();
+		assertTrue(atlas.draw(gc, image, area));
+		assertTrue(atlas.draw(gc, image, area));
+
+		assertEquals(1, atlas.getMisses());
+		assertEquals(1, atlas.getHits());
+		assertEquals(1, atlas.getPageCount());
+		verify(gc, times(2)).drawImage(any(Image.class), anyDouble(), anyDouble(),
+				eq(40D), eq(20D), eq(80D), eq(90D), eq(40D), eq(20D));
+	}
+
+	/**
+	 * A sprite that does not fit in a page should not change where the
+	 * next sprite is placed in that page.
+	 */
+	@Test
+	public void testDrawAfterNoFit() {
+		WritableImage image = new WritableImage(4, 2);
+		GraphicsContext gc = mock(GraphicsContext.class);
+		SpriteAtlas atlas = SpriteAtlas.getInstance();
+
+		//Each of these fills the first shelf of a page, and the second does not fit below it
+		assertTrue(atlas.draw(gc, image, new CollisionMask(new Vec2d(0, 0), 512, 512, new boolean[4][2], 1.0)));
+		assertTrue(atlas.draw(gc, image, new CollisionMask(new Vec2d(0, 0), 512, 511, new boolean[4][2], 1.0)));
+		assertEquals(2, atlas.getPageCount());
+
+		//There is still room next to the first sprite
+		assertTrue(atlas.draw(gc, image, new CollisionMask(new Vec2d(0, 0), 100, 100, new boolean[4][2], 1.0)));
+		assertEquals(2, atlas.getPageCount());
+		verify(gc).drawImage(any(Image.class), eq(515D), eq(1D), eq(100D), eq(100D),
+				anyDouble(), anyDouble(), eq(100D), eq(100D));
+	}
+
+	/**
+	 * When all pages are full, sprites should not be drawn from the atlas
+	 * until a page is cleared at the start of a frame.
+	 */
+	@Test
+	public void testDrawFull() {
+		WritableImage image = new WritableImage(4, 2);
+		GraphicsContext gc = mock(GraphicsContext.class);
+		SpriteAtlas atlas = SpriteAtlas.getInstance();
+
+		//Every sprite needs a page of its own
+		for (int i = 0; i < SpriteAtlas.MAX_PAGES; i++) {
+			assertTrue(atlas.draw(gc, image, new CollisionMask(new Vec2d(0, 0), 512 - i / 2, 512 - i % 2,
+					new boolean[4][2], 1.0)));
+		}
+
+		CollisionMask area = new CollisionMask(new Vec2d(0, 0), 512, 512, new boolean[4][2], 1.0);
+		area.setRotation(90);
+		assertFalse(atlas.draw(gc, image, area));
+		assertEquals(SpriteAtlas.MAX_PAGES, atlas.getPageCount());
+
+		//Sprites that are in the atlas are still drawn from it
+		assertTrue(atlas.draw(gc, image, new CollisionMask(new Vec2d(0, 0), 511, 511, new boolean[4][2], 1.0)));
+
+		atlas.nextFrame();
+		assertTrue(atlas.draw(gc, image, area));
+
+		//Pages are not cleared again in the next frames
+		CollisionMask other = new CollisionMask(new Vec2d(0, 0), 512, 512, new boolean[4][2], 1.0);
+		other.setRotation(180);
+		assertFalse(atlas.draw(gc, image, other));
+		atlas.nextFrame();
+		assertFalse(atlas.draw(gc, image, other));
+	}
+
+	/**
+	 * Sprites that are too large should not be drawn from the atlas.
+	 */
+	@Test
+	public void testDrawTooLarge() {
+		WritableImage image = new WritableImage(4, 2);
+		GraphicsContext gc = mock(GraphicsContext.class);
+		CollisionMask area = new CollisionMask(new Vec2d(0, 0), SpriteAtlas.MAX_VARIANT_SIZE + 1, 20,
+				new boolean[4][2], 1.0);
+
+		assertFalse(SpriteAtlas.getInstance().draw(gc, image, area));
+		verify(gc, never()).drawImage(any(Image.class), anyDouble(), anyDouble(), anyDouble(), anyDouble(),
+				anyDouble(), anyDouble(), anyDouble(), anyDouble());
+	}
+}
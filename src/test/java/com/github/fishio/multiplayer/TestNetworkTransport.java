@@ -0,0 +1,101 @@
+package com.github.fishio.multiplayer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.net.InetSocketAddress;
+
+import org.junit.Test;
+
+import com.github.fishio.settings.Settings;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+
+/**
+ * Test class for {@link NetworkTransport}.
+ */
+public class TestNetworkTransport {
+
+	/**
+	 * Test that the event loops are shared, and shut down when the last
+	 * user releases them.
+	 */
+	@Test
+	public void testShared() {
+		NetworkTransport transport = NetworkTransport.getInstance();
+		transport.acquire();
+		transport.acquire();
+
+		EventLoopGroup workers = transport.getWorkerGroup();
+		assertNotNull(workers);
+		assertNotNull(transport.getBossGroup());
+
+		transport.release();
+		assertSame(workers, transport.getWorkerGroup());
+
+		transport.release();
+		assertNull(transport.getWorkerGroup());
+		assertTrue(workers.isShuttingDown());
+	}
+
+	/**
+	 * Test that connections between a server and a client over the
+	 * transport are configured for low latency.
+	 *
+	 * @throws InterruptedException
+	 * 		if we are interrupted while connecting.
+	 */
+	@Test
+	public void testConfigure() throws InterruptedException {
+		NetworkTransport transport = NetworkTransport.getInstance();
+		transport.acquire();
+
+		Channel server = null;
+		Channel client = null;
+		try {
+			ServerBootstrap sb = new ServerBootstrap();
+			sb.group(transport.getBossGroup(), transport.getWorkerGroup())
+			.channel(transport.getServerChannelClass())
+			.childHandler(new ChannelInitializer<SocketChannel>() {
+				@Override
+				public void initChannel(SocketChannel ch) throws Exception {
+					NetworkTransport.configure(ch);
+				}
+			});
+			server = sb.bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+
+			Bootstrap b = new Bootstrap();
+			b.group(transport.getWorkerGroup())
+			.channel(transport.getChannelClass())
+			.handler(new ChannelHandlerAdapter());
+			client = b.connect(server.localAddress()).sync().channel();
+			NetworkTransport.configure((SocketChannel) client);
+
+			Settings settings = Settings.getInstance();
+			assertTrue(client.config().getOption(ChannelOption.TCP_NODELAY));
+			assertSame(NetworkTransport.ALLOCATOR, client.config().getAllocator());
+			assertEquals(settings.getInteger("WRITE_BUFFER_LOW_WATER_MARK"),
+					client.config().getWriteBufferLowWaterMark());
+			assertEquals(settings.getInteger("WRITE_BUFFER_HIGH_WATER_MARK"),
+					client.config().getWriteBufferHighWaterMark());
+		} finally {
+			if (client != null) {
+				client.close().sync();
+			}
+			if (server != null) {
+				server.close().sync();
+			}
+			transport.release();
+		}
+	}
+}
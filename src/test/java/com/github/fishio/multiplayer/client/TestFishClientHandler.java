@@ -7,6 +7,8 @@ import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 
@@ -20,13 +22,16 @@ import org.junit.Before;
 import org.junit.Test;
 import org.powermock.reflect.Whitebox;
 
+import com.github.fishio.Entity;
 import com.github.fishio.PlayerFish;
 import com.github.fishio.Preloader;
 import com.github.fishio.behaviours.KeyListenerBehaviour;
 import com.github.fishio.gui.SlimGuiTest;
-import com.github.fishio.multiplayer.server.FishServerEntitiesMessage;
+import com.github.fishio.multiplayer.codec.EntitySnapshot;
+import com.github.fishio.multiplayer.codec.FishMessageCodec;
 import com.github.fishio.multiplayer.server.FishServerPlayerMessage;
 import com.github.fishio.multiplayer.server.FishServerSettingsMessage;
+import com.github.fishio.multiplayer.server.FishServerSnapshotMessage;
 
 /**
  * Test class for the {@link FishClientHandler}.
@@ -68,22 +73,28 @@ public class TestFishClientHandler extends SlimGuiTest {
 	}
 
 	/**
-	 * Test method for {@link FishClientHandler#handleEntitiesMessage(FishServerEntitiesMessage)}.
+	 * Test method for {@link FishClientHandler#handleSnapshotMessage(FishServerSnapshotMessage)}.
 	 * 
 	 * @throws Exception
 	 * 		if an exception occurs in messageReceived.
 	 */
 	@Test
-	public void testHandleEntitiesMessage() throws Exception {
+	public void testHandleSnapshotMessage() throws Exception {
 		FishClientHandler fch = new FishClientHandler();
 		ChannelHandlerContext ctx = getChannelHandlerContext();
-		FishServerEntitiesMessage fsem = new FishServerEntitiesMessage(new ArrayList<>());
+		
+		//Send an empty snapshot through the codec, like the server does
+		ByteBuf buf = Unpooled.buffer();
+		FishMessageCodec.encode(new FishServerSnapshotMessage(
+				EntitySnapshot.capture(1, new ArrayList<Entity>()), null, 3), buf);
+		buf.readInt();
+		FishServerSnapshotMessage fssm = (FishServerSnapshotMessage) FishMessageCodec.decode(buf);
 		
 		//Call message received
-		fch.messageReceived(ctx, fsem);
+		fch.messageReceived(ctx, fssm);
 		
 		//UpdateEntities should have been called on the playing field.
-		verify(playingField).updateEntities(fsem);
+		verify(playingField).updateEntities(fssm.getDelta(), 3);
 	}
 
 	/**
@@ -0,0 +1,172 @@
+package com.github.fishio.multiplayer.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.fishio.CollisionMask;
+import com.github.fishio.EnemyFish;
+import com.github.fishio.Entity;
+import com.github.fishio.SpriteStore;
+import com.github.fishio.Vec2d;
+import com.github.fishio.game.GameThread;
+import com.github.fishio.multiplayer.codec.EntitySnapshot;
+
+/**
+ * Test class for {@link InterpolationBuffer}.
+ */
+public class TestInterpolationBuffer {
+	private static final double DELTA = 0.2;
+
+	private InterpolationBuffer buffer;
+	private EnemyFish fish;
+	private EnemyFish copy;
+	private ArrayList<Entity> entities;
+
+	/**
+	 * Creates a fish that moves 1 pixel to the right every tick, and a
+	 * copy of it as it would be on the client.
+	 */
+	@Before
+	public void setUp() {
+		SpriteStore.setHeadless(true);
+
+		buffer = new InterpolationBuffer();
+		fish = createFish();
+		copy = createFish();
+		copy.setEntityId(fish.getEntityId());
+
+		entities = new ArrayList<>();
+		entities.add(fish);
+	}
+
+	/**
+	 * Restores the SpriteStore.
+	 */
+	@After
+	public void tearDown() {
+		SpriteStore.setHeadless(false);
+	}
+
+	/**
+	 * @return
+	 * 		a new fish at (100, 100), moving right.
+	 */
+	private EnemyFish createFish() {
+		CollisionMask cm = new CollisionMask(new Vec2d(100, 100), 40, 20, (boolean[][]) null, 1.0);
+		return new EnemyFish(cm, "sprites/fish/fish0.png", 1, 0);
+	}
+
+	/**
+	 * @param ticks
+	 * 		an amount of ticks.
+	 *
+	 * @return
+	 * 		the time of the given amount of ticks, in nanoseconds.
+	 */
+	private static long at(double ticks) {
+		return Math.round(ticks * GameThread.TICK_NANOS);
+	}
+
+	/**
+	 * Captures the fish at the given tick, after moving it there.
+	 *
+	 * @param tick
+	 * 		the tick.
+	 *
+	 * @return
+	 * 		the snapshot.
+	 */
+	private EntitySnapshot captureAt(int tick) {
+		fish.getBoundingArea().updateTo(100 + tick, 100, 40, 20, 0);
+		return EntitySnapshot.capture(tick, tick, entities);
+	}
+
+	/**
+	 * Test that entities are shown two intervals behind the server,
+	 * between two snapshots.
+	 */
+	@Test
+	public void testInterpolate() {
+		assertNull(buffer.getFrame(0));
+
+		//Snapshots every 3 ticks, received without any delay
+		for (int tick = 0; tick <= 9; tick += 3) {
+			buffer.add(captureAt(tick), at(tick));
+		}
+
+		assertEquals(6, buffer.getDelay(), 1E-9);
+		assertEquals(4.5, buffer.getRenderTick(at(10.5)), 1E-6);
+
+		InterpolationBuffer.Frame frame = buffer.getFrame(at(10.5));
+		assertTrue(frame.apply(copy));
+		assertFalse(frame.isExtrapolating());
+		assertEquals(104.5, copy.getBoundingArea().getCenterX(), DELTA);
+		assertEquals(100, copy.getBoundingArea().getCenterY(), DELTA);
+	}
+
+	/**
+	 * Test that entities are extrapolated with their speed when no new
+	 * snapshot arrives, for a limited time.
+	 */
+	@Test
+	public void testExtrapolate() {
+		buffer.add(captureAt(0), at(0));
+		buffer.add(captureAt(3), at(3));
+
+		//Render tick 4: one tick past the newest snapshot
+		InterpolationBuffer.Frame frame = buffer.getFrame(at(10));
+		assertTrue(frame.isExtrapolating());
+		frame.apply(copy);
+		assertEquals(104, copy.getBoundingArea().getCenterX(), DELTA);
+
+		//Far past the newest snapshot
+		buffer.getFrame(at(1000)).apply(copy);
+		assertEquals(103 + InterpolationBuffer.MAX_EXTRAPOLATION, copy.getBoundingArea().getCenterX(), DELTA);
+	}
+
+	/**
+	 * Test that late snapshots do not make the render time jump back.
+	 */
+	@Test
+	public void testJitter() {
+		buffer.add(captureAt(0), at(0));
+		buffer.add(captureAt(3), at(3));
+		double before = buffer.getRenderTick(at(6));
+
+		//This one arrives 2 ticks late
+		buffer.add(captureAt(6), at(8));
+		assertEquals(before, buffer.getRenderTick(at(6)), 0.2);
+	}
+
+	/**
+	 * Test that an entity that is not in any snapshot is not moved.
+	 */
+	@Test
+	public void testUnknownEntity() {
+		buffer.add(captureAt(0), at(0));
+
+		EnemyFish other = createFish();
+		assertFalse(buffer.getFrame(at(0)).apply(other));
+		assertEquals(100, other.getBoundingArea().getCenterX(), DELTA);
+	}
+
+	/**
+	 * Test that the buffer starts over when the ticks go back.
+	 */
+	@Test
+	public void testRestart() {
+		buffer.add(captureAt(300), at(0));
+		buffer.add(captureAt(3), at(3));
+
+		buffer.getFrame(at(3)).apply(copy);
+		assertEquals(103, copy.getBoundingArea().getCenterX(), DELTA);
+	}
+}
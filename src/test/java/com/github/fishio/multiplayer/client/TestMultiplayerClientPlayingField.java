@@ -1,5 +1,10 @@
 package com.github.fishio.multiplayer.client;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
@@ -16,10 +21,12 @@ import com.github.fishio.CollisionMask;
 import com.github.fishio.EnemyFish;
 import com.github.fishio.Entity;
 import com.github.fishio.PlayerFish;
+import com.github.fishio.SpriteStore;
+import com.github.fishio.Vec2d;
 import com.github.fishio.behaviours.FrozenBehaviour;
 import com.github.fishio.behaviours.IMoveBehaviour;
 import com.github.fishio.multiplayer.TestMultiplayerPlayingField;
-import com.github.fishio.multiplayer.server.FishServerEntitiesMessage;
+import com.github.fishio.multiplayer.codec.EntitySnapshot;
 
 /**
  * Test class for the MultiplayerClientPlayingField.
@@ -64,130 +71,70 @@ public class TestMultiplayerClientPlayingField extends TestMultiplayerPlayingFie
 	}
 	
 	/**
-	 * @return
-	 * 		a new spied EnemyFish with a mocked collision mask and a
-	 * 		spied FrozenBehaviour.
-	 */
-	private EnemyFish spyEntity(int id) {
-		//Mock a collision mask
-		CollisionMask collisionMask = mock(CollisionMask.class);
-		when(collisionMask.getSize()).thenReturn(13.2);
-		
-		//Spy a Frozen Behaviour
-		IMoveBehaviour moveBehaviour = spy(new FrozenBehaviour());
-		
-		EnemyFish enemyFish = new EnemyFish(collisionMask, null, 0, 0);
-		enemyFish.setBehaviour(moveBehaviour);
-		
-		//Spy on the fish
-		EnemyFish spiedFish = spy(enemyFish);
-		
-		//"Set" the entity id.
-		when(spiedFish.getEntityId()).thenReturn(id);
-		return spiedFish;
-	}
-	
-	
-	/**
-	 * Test for {@link MultiplayerClientPlayingField#updateEntity(Entity, Entity)}.
-	 */
-	@Test
-	public void testUpdateEntity() {
-		Entity current = mockEntity(Entity.class);
-		Entity updated = mockEntity(Entity.class);
-		
-		getField().updateEntity(current, updated);
-		
-		verify(current.getBoundingArea()).updateTo(updated.getBoundingArea());
-		verify(current.getBehaviour()).updateTo(updated.getBehaviour());
-	}
-	
-	/**
-	 * Test for {@link MultiplayerClientPlayingField#updateEntity(Entity, Entity)},
-	 * when the updated entity is dead.
-	 */
-	@Test
-	public void testUpdateEntityDead() {
-		Entity current = mockEntity(Entity.class);
-		Entity updated = mockEntity(Entity.class);
-		when(updated.isDead()).thenReturn(true);
-		
-		getField().updateEntity(current, updated);
-		
-		verify(current).kill();
-		verify(current.getBoundingArea()).updateTo(updated.getBoundingArea());
-		verify(current.getBehaviour()).updateTo(updated.getBehaviour());
-	}
-	
-	/**
-	 * Test for {@link MultiplayerClientPlayingField#updateEntity(Entity, Entity)},
-	 * when the entity being updated is a PlayerFish.
-	 */
-	@Test
-	public void testUpdateEntityPlayer() {
-		PlayerFish current = mockEntity(PlayerFish.class);
-		PlayerFish updated = mockEntity(PlayerFish.class);
-		
-		getField().updateEntity(current, updated);
-		
-		//Updating an entity that is not our own player should not impact things
-		verify(current.getBoundingArea()).updateTo(updated.getBoundingArea());
-		verify(current.getBehaviour()).updateTo(updated.getBehaviour());
-	}
-	
-	/**
-	 * Test for {@link MultiplayerClientPlayingField#updateEntity(Entity, Entity)},
-	 * when the entity being updated is our own playerfish.
+	 * Test that adding a player does not draw a hue for it, since the
+	 * server sends the hue of every player.
 	 */
 	@Test
-	public void testUpdateEntityOwnPlayer() {
-		PlayerFish current = mockEntity(PlayerFish.class);
-		PlayerFish updated = mockEntity(PlayerFish.class);
-		
-		getField().setOwnPlayer(current);
-		
-		getField().updateEntity(current, updated);
+	public void testAddKeepsHue() {
+		PlayerFish player = mockEntity(PlayerFish.class);
 		
-		//Updating our own player should NOT update the bounding area or behaviour.
-		verify(current.getBoundingArea(), never()).updateTo(updated.getBoundingArea());
-		verify(current.getBehaviour(), never()).updateTo(updated.getBehaviour());
+		getField().add(player);
 		
-		//It should update the size of the bounding area.
-		verify(current.getBoundingArea()).setSize(updated.getBoundingArea().getSize());
+		verify(player, never()).assignHue();
 	}
 	
 	/**
 	 * Test for
-	 * {@link MultiplayerClientPlayingField#updateEntities(FishServerEntitiesMessage)}.
+	 * {@link MultiplayerClientPlayingField#updateEntities(EntitySnapshot)}.
 	 */
 	@Test
 	public void testUpdateEntities() {
+		SpriteStore.setHeadless(true);
+		
 		//Create 3 entities with different entityId's
-		Entity entity1 = spyEntity(1);
-		Entity entity2 = spyEntity(2);
-		Entity entity3 = spyEntity(3);
+		EnemyFish entity1 = createEnemy(100);
+		EnemyFish entity2 = createEnemy(200);
+		EnemyFish entity3 = createEnemy(300);
+		
+		//Capture 1 and 2 in the snapshot, with 1 moved and dead on the server
+		EnemyFish server1 = createEnemy(105);
+		server1.setEntityId(entity1.getEntityId());
+		server1.kill();
 		
-		//Add 1 and 2 to the message
 		ArrayList<Entity> list = new ArrayList<>();
-		list.add(entity1);
+		list.add(server1);
 		list.add(entity2);
-		FishServerEntitiesMessage fsem = new FishServerEntitiesMessage(list);
+		EntitySnapshot snapshot = EntitySnapshot.capture(1, list);
 		
 		//Add 1 and 3 to the field
 		getField().add(entity1);
 		getField().add(entity3);
 		
-		//Spy on the field and update the entities
-		MultiplayerClientPlayingField fieldSpy = spy(getField());
-		fieldSpy.updateEntities(fsem);
+		getField().updateEntities(snapshot);
 		
-		//Entity1 should have been updated
-		verify(fieldSpy).updateEntity(entity1, entity1);
+		//Entity1 should have been updated, but not moved
+		assertSame(entity1, getField().getEntity(entity1.getEntityId()));
+		assertTrue(entity1.isDead());
+		assertEquals(100, entity1.getBoundingArea().getCenterX(), 1E-3);
 		
 		//Entity2 should have been added
-		verify(fieldSpy).add(entity2);
+		assertNotNull(getField().getEntity(entity2.getEntityId()));
 		
 		//Entity3 should have been removed
-		verify(fieldSpy).remove(entity3);
+		assertNull(getField().getEntity(entity3.getEntityId()));
+		
+		SpriteStore.setHeadless(false);
+	}
+	
+	/**
+	 * @param x
+	 * 		the x coordinate of the center of the fish.
+	 * 
+	 * @return
+	 * 		a new EnemyFish without a mask.
+	 */
+	private EnemyFish createEnemy(double x) {
+		CollisionMask cm = new CollisionMask(new Vec2d(x, 100), 40, 20, (boolean[][]) null, 0.7);
+		return new EnemyFish(cm, "sprites/fish/fish1.png", 1, 0);
 	}
 }
@@ -0,0 +1,109 @@
+package com.github.fishio.multiplayer.client;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for {@link PredictionBuffer}.
+ */
+public class TestPredictionBuffer {
+	private static final double DELTA = 1E-9;
+
+	private PredictionBuffer buffer;
+
+	/**
+	 * Creates a new, empty buffer.
+	 */
+	@Before
+	public void setUp() {
+		buffer = new PredictionBuffer();
+	}
+
+	/**
+	 * Test that recorded inputs can be looked up by sequence number.
+	 */
+	@Test
+	public void testRecord() {
+		assertEquals(0, buffer.record(1, 0.1, 0));
+		assertEquals(1, buffer.record(5, 0.2, -0.1));
+
+		assertTrue(buffer.contains(1));
+		assertFalse(buffer.contains(2));
+		assertEquals(5, buffer.getInput(1));
+		assertEquals(0.2, buffer.getSpeedX(1), DELTA);
+		assertEquals(-0.1, buffer.getSpeedY(1), DELTA);
+	}
+
+	/**
+	 * Test that only the last inputs are remembered.
+	 */
+	@Test
+	public void testCapacity() {
+		for (int i = 0; i < PredictionBuffer.CAPACITY + 10; i++) {
+			buffer.record(i % 16, i, 0);
+		}
+
+		assertFalse(buffer.contains(9));
+		assertTrue(buffer.contains(10));
+		assertEquals(PredictionBuffer.CAPACITY + 9, buffer.getSpeedX(PredictionBuffer.CAPACITY + 9), DELTA);
+	}
+
+	/**
+	 * Test that every input is sent exactly once.
+	 */
+	@Test
+	public void testTakeUnsent() {
+		assertNull(buffer.takeUnsent());
+
+		buffer.record(1, 0, 0);
+		buffer.record(2, 0, 0);
+		FishClientInputMessage first = buffer.takeUnsent();
+		assertEquals(0, first.getFirstSequence());
+		assertArrayEquals(new byte[] {1, 2}, first.getInputs());
+		assertNull(buffer.takeUnsent());
+
+		buffer.record(4, 0, 0);
+		FishClientInputMessage second = buffer.takeUnsent();
+		assertEquals(2, second.getFirstSequence());
+		assertArrayEquals(new byte[] {4}, second.getInputs());
+	}
+
+	/**
+	 * Test that only the newest correction is kept.
+	 */
+	@Test
+	public void testCorrection() {
+		assertNull(buffer.takeCorrection());
+
+		buffer.setCorrection(3, 10, 20);
+		buffer.setCorrection(2, 30, 40);
+		PredictionBuffer.Correction correction = buffer.takeCorrection();
+		assertEquals(3, correction.getSequence());
+		assertEquals(10, correction.getX(), DELTA);
+		assertEquals(20, correction.getY(), DELTA);
+		assertNull(buffer.takeCorrection());
+	}
+
+	/**
+	 * Test that clearing the buffer forgets the inputs, but does not
+	 * reuse sequence numbers.
+	 */
+	@Test
+	public void testClear() {
+		buffer.record(1, 0, 0);
+		buffer.setCorrection(0, 1, 1);
+		buffer.clear();
+
+		assertFalse(buffer.contains(0));
+		assertNull(buffer.takeUnsent());
+		assertNull(buffer.takeCorrection());
+		assertEquals(1, buffer.getStartSequence());
+		assertEquals(1, buffer.record(2, 0, 0));
+	}
+}
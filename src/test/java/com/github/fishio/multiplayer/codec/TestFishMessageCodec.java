@@ -0,0 +1,256 @@
+package com.github.fishio.multiplayer.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.fishio.CollisionMask;
+import com.github.fishio.EnemyFish;
+import com.github.fishio.Entity;
+import com.github.fishio.PlayerFish;
+import com.github.fishio.SpriteStore;
+import com.github.fishio.Vec2d;
+import com.github.fishio.behaviours.KeyListenerBehaviour;
+import com.github.fishio.multiplayer.FishMessage;
+import com.github.fishio.multiplayer.client.FishClientJoinRoomMessage;
+import com.github.fishio.multiplayer.client.FishClientRequestPlayerMessage;
+import com.github.fishio.multiplayer.server.FishServerSettingsMessage;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.CorruptedFrameException;
+
+/**
+ * Test class for {@link FishMessageCodec} and {@link EntityCodec}.
+ */
+public class TestFishMessageCodec {
+	private static final double DELTA = 1E-3;
+
+	private long invincible = System.currentTimeMillis() + 60_000L;
+
+	/**
+	 * Makes sure no sprites are loaded.
+	 */
+	@Before
+	public void setUp() {
+		SpriteStore.setHeadless(true);
+	}
+
+	/**
+	 * Restores the SpriteStore.
+	 */
+	@After
+	public void tearDown() {
+		SpriteStore.setHeadless(false);
+	}
+
+	/**
+	 * @param i
+	 * 		used to vary the properties of the fish.
+	 *
+	 * @return
+	 * 		a new enemy fish.
+	 */
+	private EnemyFish createEnemy(int i) {
+		CollisionMask cm = new CollisionMask(new Vec2d(100 + i, 200 - i), 40, 20, (boolean[][]) null, 0.7);
+		return new EnemyFish(cm, "sprites/fish/fish" + (i % 28) + ".png", 1.5, -2.5);
+	}
+
+	/**
+	 * @return
+	 * 		a new player fish, that is invincible for a minute.
+	 */
+	private PlayerFish createPlayer() {
+		CollisionMask cm = new CollisionMask(new Vec2d(300, 400), 60, 30, (boolean[][]) null, 0.5);
+		cm.setRotation(45);
+
+		PlayerFish player = new PlayerFish(cm, null);
+		player.scoreProperty().set(12);
+		player.livesProperty().set(2);
+		player.setInvincible(invincible);
+		player.setHue(0.25);
+		((KeyListenerBehaviour) player.getBehaviour()).setSpeedVector(new Vec2d(3, 4));
+		return player;
+	}
+
+	/**
+	 * Encodes the given message and decodes it again.
+	 *
+	 * @param message
+	 * 		the message to encode.
+	 *
+	 * @return
+	 * 		the decoded message.
+	 */
+	private FishMessage roundTrip(FishMessage message) {
+		ByteBuf buf = Unpooled.buffer();
+		FishMessageCodec.encode(message, buf);
+
+		assertEquals(buf.readableBytes() - 4, buf.readInt());
+		FishMessage decoded = FishMessageCodec.decode(buf);
+		assertFalse(buf.isReadable());
+		return decoded;
+	}
+
+	/**
+	 * Test for writing and reading entities with the {@link EntityCodec}.
+	 */
+	@Test
+	public void testEntities() {
+		EnemyFish enemy = createEnemy(3);
+		enemy.kill();
+		PlayerFish player = createPlayer();
+
+		ByteBuf buf = Unpooled.buffer();
+		EntityCodec.write(enemy, buf);
+		EntityCodec.write(player, buf);
+
+		EnemyFish dEnemy = (EnemyFish) EntityCodec.read(buf);
+		assertEquals(enemy.getEntityId(), dEnemy.getEntityId());
+		assertTrue(dEnemy.isDead());
+		assertEquals("sprites/fish/fish3.png", dEnemy.getSpriteLocation());
+		assertEquals(103, dEnemy.getBoundingArea().getCenterX(), DELTA);
+		assertEquals(197, dEnemy.getBoundingArea().getCenterY(), DELTA);
+		assertEquals(enemy.getBoundingArea().getSize(), dEnemy.getBoundingArea().getSize(), DELTA);
+		assertEquals(1.5, dEnemy.getBehaviour().getSpeedVector().x, DELTA);
+		assertEquals(-2.5, dEnemy.getBehaviour().getSpeedVector().y, DELTA);
+
+		PlayerFish dPlayer = (PlayerFish) EntityCodec.read(buf);
+		assertFalse(buf.isReadable());
+		assertEquals(player.getEntityId(), dPlayer.getEntityId());
+		assertFalse(dPlayer.isDead());
+		assertEquals(45, dPlayer.getBoundingArea().getRotation(), DELTA);
+		assertEquals(12, dPlayer.scoreProperty().get());
+		assertEquals(2, dPlayer.getLives());
+		assertEquals(invincible, dPlayer.getInvincible());
+		assertEquals(0.25, dPlayer.getHue(), DELTA);
+		assertEquals(3, dPlayer.getBehaviour().getSpeedVector().x, DELTA);
+		assertEquals(4, dPlayer.getBehaviour().getSpeedVector().y, DELTA);
+	}
+
+	/**
+	 * Test for encoding and decoding a {@link FishServerSettingsMessage}.
+	 */
+	@Test
+	public void testSettingsMessage() {
+		FishServerSettingsMessage message = new FishServerSettingsMessage();
+		message.setSetting("WIDTH", 1000);
+		message.setSetting("SPEED", 2.5);
+		message.setSetting("ENABLED", true);
+		message.setSetting("NAME", "fish");
+
+		FishServerSettingsMessage decoded = (FishServerSettingsMessage) roundTrip(message);
+		assertEquals(message.getSettings(), decoded.getSettings());
+	}
+
+	/**
+	 * Test for encoding and decoding the client messages.
+	 */
+	@Test
+	public void testClientMessages() {
+		assertTrue(roundTrip(new FishClientRequestPlayerMessage()) instanceof FishClientRequestPlayerMessage);
+
+		FishClientJoinRoomMessage join = (FishClientJoinRoomMessage) roundTrip(new FishClientJoinRoomMessage("arena 7"));
+		assertEquals("arena 7", join.getRoom());
+	}
+
+	/**
+	 * Test that a frame with a different version is rejected.
+	 */
+	@Test(expected = CorruptedFrameException.class)
+	public void testWrongVersion() {
+		ByteBuf buf = Unpooled.buffer();
+		buf.writeByte(FishMessageCodec.VERSION + 1);
+		buf.writeByte(FishMessageCodec.TYPE_CLIENT_REQUEST_PLAYER);
+
+		FishMessageCodec.decode(buf);
+	}
+
+	/**
+	 * Test that a frame with an unknown type is rejected.
+	 */
+	@Test(expected = CorruptedFrameException.class)
+	public void testUnknownType() {
+		ByteBuf buf = Unpooled.buffer();
+		buf.writeByte(FishMessageCodec.VERSION);
+		buf.writeByte(100);
+
+		FishMessageCodec.decode(buf);
+	}
+
+	/**
+	 * Test that clients can no longer send their player, the server only
+	 * accepts their inputs.
+	 */
+	@Test(expected = CorruptedFrameException.class)
+	public void testPlayerFishTypeRejected() {
+		ByteBuf buf = Unpooled.buffer();
+		buf.writeByte(FishMessageCodec.VERSION);
+		buf.writeByte(4);
+
+		FishMessageCodec.decode(buf);
+	}
+
+	/**
+	 * Test that enemy fish use a fixed amount of bytes, which is much
+	 * less than they used with java serialization.
+	 *
+	 * @throws IOException
+	 * 		if serializing fails.
+	 */
+	@Test
+	public void testBytesPerEntity() throws IOException {
+		ArrayList<Entity> entities = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			entities.add(createEnemy(i));
+		}
+
+		ByteBuf buf = Unpooled.buffer();
+		for (Entity entity : entities) {
+			EntityCodec.write(entity, buf);
+		}
+
+		int binary = buf.readableBytes();
+		assertEquals(100 * EntityCodec.ENEMY_FISH_BYTES, binary);
+
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+			oos.writeObject(entities.toArray(new Entity[0]));
+		}
+
+		assertTrue("binary: " + binary + ", serialized: " + baos.size(), binary * 3 < baos.size());
+	}
+
+	/**
+	 * Test that messages can be sent through a pipeline with the codec.
+	 */
+	@Test
+	public void testPipeline() {
+		EmbeddedChannel channel = new EmbeddedChannel(new ChannelInitializer<EmbeddedChannel>() {
+			@Override
+			protected void initChannel(EmbeddedChannel ch) {
+				FishMessageCodec.addCodec(ch.pipeline());
+			}
+		});
+
+		assertTrue(channel.writeOutbound(new FishClientRequestPlayerMessage()));
+		ByteBuf frame = channel.readOutbound();
+
+		assertTrue(channel.writeInbound(frame));
+		Object received = channel.readInbound();
+		assertTrue(received instanceof FishClientRequestPlayerMessage);
+
+		assertFalse(channel.finish());
+	}
+}
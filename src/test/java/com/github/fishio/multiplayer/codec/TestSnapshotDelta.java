@@ -0,0 +1,274 @@
+package com.github.fishio.multiplayer.codec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.fishio.CollisionMask;
+import com.github.fishio.EnemyFish;
+import com.github.fishio.Entity;
+import com.github.fishio.PlayerFish;
+import com.github.fishio.SpriteStore;
+import com.github.fishio.Vec2d;
+import com.github.fishio.multiplayer.client.FishClientInputMessage;
+import com.github.fishio.multiplayer.client.FishClientSnapshotAckMessage;
+import com.github.fishio.multiplayer.server.FishServerSnapshotMessage;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Test class for {@link SnapshotDelta}, {@link EntitySnapshot} and
+ * {@link SnapshotHistory}.
+ */
+public class TestSnapshotDelta {
+	private static final double DELTA = 1E-3;
+
+	private ArrayList<Entity> entities;
+
+	/**
+	 * Creates a list of 200 enemy fish and a player.
+	 */
+	@Before
+	public void setUp() {
+		SpriteStore.setHeadless(true);
+
+		entities = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			CollisionMask cm = new CollisionMask(new Vec2d(10 * i, 2000 - 7 * i), 40, 20, (boolean[][]) null, 0.7);
+			entities.add(new EnemyFish(cm, "sprites/fish/fish" + (i % 28) + ".png", 1 + i % 3, -2.5));
+		}
+
+		CollisionMask cm = new CollisionMask(new Vec2d(300, 400), 60, 30, (boolean[][]) null, 0.5);
+		PlayerFish player = new PlayerFish(cm, null);
+		player.setInvincible(System.currentTimeMillis() + 60_000L);
+		player.setHue(-0.5);
+		entities.add(player);
+	}
+
+	/**
+	 * Restores the SpriteStore.
+	 */
+	@After
+	public void tearDown() {
+		SpriteStore.setHeadless(false);
+	}
+
+	/**
+	 * Moves all entities by one tick.
+	 */
+	private void tick() {
+		for (Entity entity : entities) {
+			entity.getBoundingArea().move(entity.getBehaviour().getSpeedVector());
+		}
+	}
+
+	/**
+	 * Writes and reads the difference between the given snapshots.
+	 *
+	 * @param current
+	 * 		the current snapshot.
+	 * @param baseline
+	 * 		the baseline, or <code>null</code>.
+	 *
+	 * @return
+	 * 		the delta that was read.
+	 */
+	private SnapshotDelta roundTrip(EntitySnapshot current, EntitySnapshot baseline) {
+		ByteBuf buf = Unpooled.buffer();
+		SnapshotDelta.write(current, baseline, buf);
+		SnapshotDelta delta = SnapshotDelta.read(buf);
+		assertFalse(buf.isReadable());
+		return delta;
+	}
+
+	/**
+	 * Asserts that the given snapshots contain the same states.
+	 *
+	 * @param expected
+	 * 		the expected snapshot.
+	 * @param actual
+	 * 		the actual snapshot.
+	 */
+	private void assertSnapshotEquals(EntitySnapshot expected, EntitySnapshot actual) {
+		assertEquals(expected.getSequence(), actual.getSequence());
+		assertEquals(expected.getTick(), actual.getTick());
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i), actual.get(i));
+		}
+	}
+
+	/**
+	 * Test that a full snapshot can be written and applied.
+	 */
+	@Test
+	public void testFull() {
+		EntitySnapshot snapshot = EntitySnapshot.capture(1, entities);
+		SnapshotDelta delta = roundTrip(snapshot, null);
+
+		assertTrue(delta.isFull());
+		assertEquals(entities.size(), delta.getChangedCount());
+		assertSnapshotEquals(snapshot, delta.apply(null));
+	}
+
+	/**
+	 * Test that a delta contains only the changes, and applying it to the
+	 * baseline gives the current snapshot.
+	 */
+	@Test
+	public void testDelta() {
+		EntitySnapshot baseline = EntitySnapshot.capture(1, entities);
+
+		tick();
+		Entity removed = entities.remove(5);
+		entities.get(7).kill();
+		CollisionMask cm = new CollisionMask(new Vec2d(50, 60), 40, 20, (boolean[][]) null, 0.7);
+		entities.add(new EnemyFish(cm, "custom.png", 0, 0));
+		EnemyFish resting = (EnemyFish) entities.get(8);
+		EntitySnapshot current = EntitySnapshot.capture(2, entities);
+
+		SnapshotDelta delta = roundTrip(current, baseline);
+		assertEquals(1, delta.getBaselineSequence());
+		assertEquals(1, delta.getRemovedCount());
+
+		EntitySnapshot applied = delta.apply(baseline);
+		assertSnapshotEquals(current, applied);
+		assertNull(applied.find(removed.getEntityId()));
+		assertTrue(applied.find(entities.get(7).getEntityId()).isDead());
+		assertEquals(resting.getBoundingArea().getCenterX(), applied.find(resting.getEntityId()).getX(), DELTA);
+
+		//Nothing changed, so nothing is sent
+		SnapshotDelta empty = roundTrip(EntitySnapshot.capture(3, entities), applied);
+		assertEquals(0, empty.getChangedCount());
+		assertEquals(0, empty.getRemovedCount());
+	}
+
+	/**
+	 * Test that a delta cannot be applied to a different baseline.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testWrongBaseline() {
+		EntitySnapshot baseline = EntitySnapshot.capture(1, entities);
+		EntitySnapshot current = EntitySnapshot.capture(2, entities);
+
+		roundTrip(current, baseline).apply(null);
+	}
+
+	/**
+	 * Test that a delta with moving entities is an order of magnitude
+	 * smaller than writing all entities with the {@link EntityCodec}.
+	 */
+	@Test
+	public void testBytes() {
+		ByteBuf full = Unpooled.buffer();
+		for (Entity entity : entities) {
+			EntityCodec.write(entity, full);
+		}
+
+		EntitySnapshot baseline = EntitySnapshot.capture(1, entities);
+		tick();
+		EntitySnapshot current = EntitySnapshot.capture(2, entities);
+
+		ByteBuf delta = Unpooled.buffer();
+		FishMessageCodec.encode(new FishServerSnapshotMessage(current, baseline), delta);
+
+		assertTrue("entities: " + full.readableBytes() + ", delta: " + delta.readableBytes(),
+				delta.readableBytes() * 5 < full.readableBytes());
+	}
+
+	/**
+	 * Test for sending snapshots and acknowledgements with the codec.
+	 */
+	@Test
+	public void testMessages() {
+		EntitySnapshot snapshot = EntitySnapshot.capture(4, entities);
+
+		ByteBuf buf = Unpooled.buffer();
+		FishMessageCodec.encode(new FishServerSnapshotMessage(snapshot, null, 17), buf);
+		buf.readInt();
+		FishServerSnapshotMessage received = (FishServerSnapshotMessage) FishMessageCodec.decode(buf);
+		assertSnapshotEquals(snapshot, received.getDelta().apply(null));
+		assertEquals(17, received.getInputSequence());
+
+		buf = Unpooled.buffer();
+		FishMessageCodec.encode(new FishClientSnapshotAckMessage(4), buf);
+		buf.readInt();
+		assertEquals(4, ((FishClientSnapshotAckMessage) FishMessageCodec.decode(buf)).getSequence());
+	}
+
+	/**
+	 * Test that input messages are sent with a few bytes per tick.
+	 */
+	@Test
+	public void testInputMessage() {
+		ByteBuf buf = Unpooled.buffer();
+		FishMessageCodec.encode(new FishClientInputMessage(300, new byte[] {1, 9}), buf);
+		assertEquals(FishMessageCodec.HEADER_BYTES + 4 + 1 + 2, buf.readableBytes());
+
+		buf.readInt();
+		FishClientInputMessage received = (FishClientInputMessage) FishMessageCodec.decode(buf);
+		assertEquals(300, received.getFirstSequence());
+		assertArrayEquals(new byte[] {1, 9}, received.getInputs());
+	}
+
+	/**
+	 * Test that an applied snapshot creates entities with the same state.
+	 */
+	@Test
+	public void testCreateEntity() {
+		EntitySnapshot snapshot = EntitySnapshot.capture(1, entities);
+		for (int i = 0; i < snapshot.size(); i++) {
+			EntityState state = snapshot.get(i);
+			assertEquals(state, EntityState.capture(state.createEntity()));
+		}
+	}
+
+	/**
+	 * Test for {@link SnapshotHistory}.
+	 */
+	@Test
+	public void testHistory() {
+		SnapshotHistory history = new SnapshotHistory(4);
+		for (int i = 0; i < 6; i++) {
+			history.add(EntitySnapshot.capture(i, entities));
+		}
+
+		assertNull(history.get(1));
+		assertNotNull(history.get(5));
+		assertNull(history.getBaseline());
+
+		history.acknowledge(5);
+		history.acknowledge(3);
+		assertEquals(5, history.getAcknowledged());
+		assertEquals(5, history.getBaseline().getSequence());
+
+		history.acknowledge(SnapshotDelta.FULL);
+		assertNull(history.getBaseline());
+	}
+
+	/**
+	 * Test for the variable length integers.
+	 */
+	@Test
+	public void testVarInt() {
+		int[] values = {0, 1, -1, 63, -64, 64, 1 << 20, Integer.MAX_VALUE, Integer.MIN_VALUE};
+		ByteBuf buf = Unpooled.buffer();
+		for (int value : values) {
+			SnapshotDelta.writeVarInt(SnapshotDelta.zigzag(value), buf);
+		}
+
+		for (int value : values) {
+			assertEquals(value, SnapshotDelta.unzigzag(SnapshotDelta.readVarInt(buf)));
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package com.github.fishio.multiplayer.loadtest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.github.fishio.SpriteStore;
+import com.github.fishio.multiplayer.server.FishIOServer;
+
+/**
+ * Test class for {@link LoadTest}, {@link LoadBot} and {@link LoadReport}.
+ */
+public class TestLoadTest {
+
+	/**
+	 * Restores the SpriteStore.
+	 */
+	@After
+	public void tearDown() {
+		SpriteStore.setHeadless(false);
+	}
+
+	/**
+	 * Test for {@link LoadTest#parse(String...)} without arguments.
+	 */
+	@Test
+	public void testParseDefaults() {
+		LoadTest test = LoadTest.parse();
+
+		assertEquals(LoadTest.DEFAULT_CLIENTS, test.getClients());
+		assertEquals(1, test.getRooms());
+		assertEquals(LoadTest.DEFAULT_DURATION, test.getDuration());
+		assertEquals(LoadTest.DEFAULT_WARMUP, test.getWarmup());
+		assertEquals(LoadBot.Movement.RANDOM, test.getMovement());
+	}
+
+	/**
+	 * Test for {@link LoadTest#parse(String...)} with options.
+	 */
+	@Test
+	public void testParse() {
+		LoadTest test = LoadTest.parse("--clients", "200", "--rooms", "4", "--duration", "60",
+				"--warmup", "0", "--port", "0", "--movement", "circle");
+
+		assertEquals(200, test.getClients());
+		assertEquals(4, test.getRooms());
+		assertEquals(60, test.getDuration());
+		assertEquals(0, test.getWarmup());
+		assertEquals(0, test.getPort());
+		assertEquals(LoadBot.Movement.CIRCLE, test.getMovement());
+	}
+
+	/**
+	 * Test for {@link LoadTest#parse(String...)} with an unknown movement.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseUnknownMovement() {
+		LoadTest.parse("--movement", "zigzag");
+	}
+
+	/**
+	 * Test for {@link LoadTest#parse(String...)} without clients.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseNoClients() {
+		LoadTest.parse("--clients", "0");
+	}
+
+	/**
+	 * Test that a short load test over localhost measures the server and
+	 * all bots.
+	 *
+	 * @throws InterruptedException
+	 * 		if we are interrupted while waiting for the test.
+	 */
+	@Test
+	public void testRun() throws InterruptedException {
+		LoadTest test = LoadTest.parse("--clients", "4", "--rooms", "2", "--duration", "2",
+				"--warmup", "1", "--port", "0", "--max-enemies", "20");
+		LoadReport report = test.run();
+
+		assertEquals(4, report.getConnected());
+		assertTrue(report.getTicks() > 0);
+		assertTrue(report.getSnapshots() > 0);
+		assertTrue(report.getBytesReceivedPerClient() > 0);
+		assertTrue(report.getBytesSentPerClient() > 0);
+		assertTrue(report.getLatencies().getCount() > 0);
+		assertTrue(report.toString().startsWith("Load test: 4 clients (4 receiving) in 2 rooms"));
+		assertTrue(test.check(report));
+
+		assertFalse(FishIOServer.getInstance().isRunning());
+	}
+}
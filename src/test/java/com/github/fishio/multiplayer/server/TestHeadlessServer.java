@@ -0,0 +1,191 @@
+package com.github.fishio.multiplayer.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.fishio.ISpriteData;
+import com.github.fishio.PlayerFish;
+import com.github.fishio.SpriteData;
+import com.github.fishio.SpriteStore;
+import com.github.fishio.behaviours.KeyListenerBehaviour;
+import com.github.fishio.multiplayer.codec.EntitySnapshot;
+
+/**
+ * Test class for {@link HeadlessServer} and the headless parts of the
+ * server.
+ */
+public class TestHeadlessServer {
+
+	/**
+	 * Makes the SpriteStore headless.
+	 */
+	@Before
+	public void setUp() {
+		SpriteStore.setHeadless(true);
+	}
+
+	/**
+	 * Restores the SpriteStore.
+	 */
+	@After
+	public void tearDown() {
+		SpriteStore.setHeadless(false);
+	}
+
+	/**
+	 * Test for {@link HeadlessServer#parse(String...)} without arguments.
+	 */
+	@Test
+	public void testParseDefaults() {
+		HeadlessServer server = HeadlessServer.parse();
+
+		assertEquals(HeadlessServer.DEFAULT_PORT, server.getPort());
+		assertEquals(HeadlessServer.DEFAULT_SIZE, server.getWidth());
+		assertEquals(HeadlessServer.DEFAULT_SIZE, server.getHeight());
+		assertEquals(HeadlessServer.DEFAULT_MAX_ENEMIES, server.getMaxEnemies());
+	}
+
+	/**
+	 * Test for {@link HeadlessServer#parse(String...)} with all options.
+	 */
+	@Test
+	public void testParse() {
+		HeadlessServer server = HeadlessServer.parse(
+				"--port", "1234", "--width", "2000", "--height", "1000", "--max-enemies", "50");
+
+		assertEquals(1234, server.getPort());
+		assertEquals(2000, server.getWidth());
+		assertEquals(1000, server.getHeight());
+		assertEquals(50, server.getMaxEnemies());
+	}
+
+	/**
+	 * Test for {@link HeadlessServer#parse(String...)} with an unknown
+	 * option.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseUnknown() {
+		HeadlessServer.parse("--fps", "60");
+	}
+
+	/**
+	 * Test for {@link HeadlessServer#parse(String...)} with an option
+	 * without a value.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseMissingValue() {
+		HeadlessServer.parse("--port");
+	}
+
+	/**
+	 * Test for {@link HeadlessServer#parse(String...)} with a value that
+	 * is not a number.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseNotANumber() {
+		HeadlessServer.parse("--width", "wide");
+	}
+
+	/**
+	 * Test for {@link HeadlessServer#parse(String...)} with a port that
+	 * is out of range.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseInvalidPort() {
+		HeadlessServer.parse("--port", "70000");
+	}
+
+	/**
+	 * Test for {@link SpriteStore#getSpriteDataOrLoad(String)} when
+	 * running headless.
+	 */
+	@Test
+	public void testSpriteData() {
+		ISpriteData data = SpriteStore.getSpriteDataOrLoad(PlayerFish.SPRITE_LOCATION);
+
+		assertTrue(data instanceof SpriteData);
+		assertSame(data, SpriteStore.getSpriteDataOrLoad(PlayerFish.SPRITE_LOCATION));
+		assertEquals(data.getWidth(), data.getPixelData().length, 0.0);
+		assertTrue(data.getAlphaRatio() > 0.0);
+		assertTrue(data.getAlphaRatio() < 1.0);
+
+		assertNull(SpriteStore.getSpriteOrLoad(PlayerFish.SPRITE_LOCATION));
+	}
+
+	/**
+	 * Test that a headless MultiplayerServerPlayingField can create
+	 * players and run the game without a renderer.
+	 *
+	 * @throws InterruptedException
+	 * 		if the test is interrupted while waiting.
+	 */
+	@Test
+	public void testHeadlessPlayingField() throws InterruptedException {
+		MultiplayerServerPlayingField mspf = new MultiplayerServerPlayingField(1000, 1000);
+		assertTrue(mspf.isHeadless());
+		assertNull(mspf.getRenderer());
+		assertEquals(0, mspf.getFPS());
+
+		PlayerFish player = mspf.createClientPlayer();
+		assertTrue(mspf.getPlayers().contains(player));
+		assertNull(mspf.getOwnPlayer());
+
+		mspf.startGameAndWait();
+		Thread.sleep(100);
+		mspf.stopGameAndWait();
+
+		assertFalse(mspf.getGameThread().isRunning());
+		assertTrue(mspf.getGameThread().getTickStatistics().getTicks() > 0);
+	}
+
+	/**
+	 * Test that the players of clients are moved with their inputs.
+	 */
+	@Test
+	public void testInputQueue() {
+		MultiplayerServerPlayingField mspf = new MultiplayerServerPlayingField(1000, 1000);
+		PlayerFish player = mspf.createClientPlayer();
+		InputQueue queue = mspf.createInputQueue(player);
+		double x = player.getBoundingArea().getCenterX();
+
+		queue.add(0, new byte[] {KeyListenerBehaviour.INPUT_RIGHT, KeyListenerBehaviour.INPUT_RIGHT});
+		mspf.moveEntity(player);
+		mspf.moveEntity(player);
+
+		assertEquals(1, queue.getLastProcessed());
+		assertEquals(x + 3 * PlayerFish.FISH_ACCELERATION, player.getBoundingArea().getCenterX(), 1E-9);
+
+		//Without new input, the player keeps swimming to the right
+		mspf.moveEntity(player);
+		assertEquals(1, queue.getLastProcessed());
+		assertTrue(player.getBoundingArea().getCenterX() > x + 3 * PlayerFish.FISH_ACCELERATION);
+	}
+
+	/**
+	 * Test that snapshots record the last processed input of every player
+	 * at the tick they were captured.
+	 */
+	@Test
+	public void testSnapshotInputSequence() {
+		MultiplayerServerPlayingField mspf = new MultiplayerServerPlayingField(1000, 1000);
+		PlayerFish player = mspf.createClientPlayer();
+		InputQueue queue = mspf.createInputQueue(player);
+
+		queue.add(0, new byte[] {KeyListenerBehaviour.INPUT_RIGHT, KeyListenerBehaviour.INPUT_RIGHT});
+		mspf.moveEntity(player);
+		mspf.sendEntitiesUpdate();
+		EntitySnapshot snapshot = mspf.getLatestSnapshot();
+
+		mspf.moveEntity(player);
+		assertEquals(1, queue.getLastProcessed());
+		assertEquals(0, snapshot.getInputSequence(player.getEntityId()));
+		assertEquals(-1, snapshot.getInputSequence(player.getEntityId() + 1));
+	}
+}
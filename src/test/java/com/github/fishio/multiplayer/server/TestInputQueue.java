@@ -0,0 +1,136 @@
+package com.github.fishio.multiplayer.server;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for {@link InputQueue}.
+ */
+public class TestInputQueue {
+	private InputQueue queue;
+
+	/**
+	 * Creates a new, empty queue.
+	 */
+	@Before
+	public void setUp() {
+		queue = new InputQueue();
+	}
+
+	/**
+	 * Test that inputs are taken in order, and the last one is repeated
+	 * when the queue is empty.
+	 */
+	@Test
+	public void testPoll() {
+		assertEquals(0, queue.poll());
+		assertEquals(-1, queue.getLastProcessed());
+
+		queue.add(0, new byte[] {1, 2, 3});
+		assertEquals(3, queue.size());
+		assertEquals(1, queue.poll());
+		assertEquals(2, queue.poll());
+		assertEquals(3, queue.poll());
+		assertEquals(2, queue.getLastProcessed());
+
+		assertEquals(3, queue.poll());
+		assertEquals(2, queue.getLastProcessed());
+	}
+
+	/**
+	 * Test that inputs that were already added are ignored.
+	 */
+	@Test
+	public void testDuplicates() {
+		queue.add(0, new byte[] {1, 2});
+		queue.add(1, new byte[] {2, 4});
+
+		assertEquals(3, queue.size());
+		queue.poll();
+		queue.poll();
+		assertEquals(4, queue.poll());
+		assertEquals(2, queue.getLastProcessed());
+	}
+
+	/**
+	 * Test that a queue continues from the first input it receives.
+	 */
+	@Test
+	public void testStartLater() {
+		queue.add(40, new byte[] {8});
+		assertEquals(39, queue.getLastProcessed());
+
+		assertEquals(8, queue.poll());
+		assertEquals(40, queue.getLastProcessed());
+	}
+
+	/**
+	 * Test that the oldest inputs are dropped if the client is too far
+	 * ahead.
+	 */
+	@Test
+	public void testOverflow() {
+		byte[] inputs = new byte[InputQueue.CAPACITY + 2];
+		for (int i = 0; i < inputs.length; i++) {
+			inputs[i] = (byte) (i % 16);
+		}
+		queue.add(0, inputs);
+
+		assertEquals(InputQueue.CAPACITY, queue.size());
+		assertEquals(1, queue.getLastProcessed());
+		assertEquals(2, queue.poll());
+	}
+
+	/**
+	 * Test that a burst of inputs is kept, and simulated one input per
+	 * tick.
+	 */
+	@Test
+	public void testBurst() {
+		queue.add(0, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+		assertEquals(8, queue.size());
+		assertEquals(-1, queue.getLastProcessed());
+
+		for (int i = 1; i <= 8; i++) {
+			assertEquals(1, queue.getInputsThisTick());
+			assertEquals(i, queue.poll());
+		}
+
+		assertEquals(7, queue.getLastProcessed());
+		assertEquals(1, queue.getInputsThisTick());
+	}
+
+	/**
+	 * Test that a lasting backlog of inputs is drained by taking two
+	 * inputs per tick, without dropping any.
+	 */
+	@Test
+	public void testBacklogDrained() {
+		byte[] backlog = new byte[10];
+		for (int i = 0; i < backlog.length; i++) {
+			backlog[i] = (byte) (i % 16);
+		}
+		queue.add(0, backlog);
+
+		//The client keeps sending one input per tick
+		int sequence = backlog.length;
+		int ticks = 0;
+		while (queue.size() > InputQueue.TARGET_SIZE) {
+			queue.add(sequence, new byte[] {(byte) (sequence % 16)});
+			sequence++;
+
+			int count = queue.getInputsThisTick();
+			assertEquals(ticks + 1 >= InputQueue.BACKLOG_TICKS ? 2 : 1, count);
+			for (int i = 0; i < count; i++) {
+				int expected = queue.getLastProcessed() + 1;
+				assertEquals(expected % 16, queue.poll());
+			}
+			ticks++;
+		}
+
+		assertEquals(sequence - 1 - queue.size(), queue.getLastProcessed());
+		assertEquals(1, queue.getInputsThisTick());
+	}
+}
@@ -0,0 +1,182 @@
+package com.github.fishio.multiplayer.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.fishio.CollisionMask;
+import com.github.fishio.EnemyFish;
+import com.github.fishio.Entity;
+import com.github.fishio.PlayerFish;
+import com.github.fishio.SpriteStore;
+import com.github.fishio.Vec2d;
+import com.github.fishio.multiplayer.codec.EntitySnapshot;
+
+/**
+ * Test class for {@link InterestFilter}.
+ */
+public class TestInterestFilter {
+	private ArrayList<Entity> entities;
+	private PlayerFish player;
+	private EnemyFish near;
+	private EnemyFish edge;
+	private EnemyFish far;
+	private int sequence;
+
+	/**
+	 * Creates a player at the origin with fish at different distances.
+	 */
+	@Before
+	public void setUp() {
+		SpriteStore.setHeadless(true);
+
+		player = new PlayerFish(new CollisionMask(new Vec2d(0, 0), 60, 30, (boolean[][]) null, 0.5), null);
+		near = createEnemy(500);
+		edge = createEnemy(1000);
+		far = createEnemy(5000);
+
+		entities = new ArrayList<>();
+		entities.add(player);
+		entities.add(near);
+		entities.add(edge);
+		entities.add(far);
+	}
+
+	/**
+	 * Restores the SpriteStore.
+	 */
+	@After
+	public void tearDown() {
+		SpriteStore.setHeadless(false);
+	}
+
+	/**
+	 * @param x
+	 * 		the x coordinate of the fish.
+	 *
+	 * @return
+	 * 		a new enemy fish of 20 by 20 at the given x coordinate.
+	 */
+	private EnemyFish createEnemy(double x) {
+		CollisionMask cm = new CollisionMask(new Vec2d(x, 0), 20, 20, (boolean[][]) null, 1.0);
+		return new EnemyFish(cm, "sprites/fish/fish0.png", 0, 0);
+	}
+
+	/**
+	 * @return
+	 * 		a snapshot of all entities.
+	 */
+	private EntitySnapshot capture() {
+		return EntitySnapshot.capture(sequence++, entities);
+	}
+
+	/**
+	 * Test that only entities within the radius are selected.
+	 */
+	@Test
+	public void testRadius() {
+		InterestFilter filter = new InterestFilter(900, 100);
+		filter.setPlayer(player);
+
+		EntitySnapshot filtered = filter.apply(capture());
+		assertEquals(2, filtered.size());
+		assertNotNull(filtered.find(player.getEntityId()));
+		assertNotNull(filtered.find(near.getEntityId()));
+		assertNull(filtered.find(edge.getEntityId()));
+	}
+
+	/**
+	 * Test that entities only leave the area when they are further than
+	 * the margin outside of it.
+	 */
+	@Test
+	public void testHysteresis() {
+		InterestFilter filter = new InterestFilter(1000, 200);
+		filter.setPlayer(player);
+		assertNotNull(filter.apply(capture()).find(edge.getEntityId()));
+
+		//Just outside the radius, but within the margin
+		edge.getBoundingArea().updateTo(1100, 0, 20, 20, 0);
+		assertNotNull(filter.apply(capture()).find(edge.getEntityId()));
+
+		//Outside the margin
+		edge.getBoundingArea().updateTo(1300, 0, 20, 20, 0);
+		assertNull(filter.apply(capture()).find(edge.getEntityId()));
+
+		//Back within the margin, but not yet within the radius
+		edge.getBoundingArea().updateTo(1100, 0, 20, 20, 0);
+		assertNull(filter.apply(capture()).find(edge.getEntityId()));
+	}
+
+	/**
+	 * Test that the area stays where the player died.
+	 */
+	@Test
+	public void testDeadPlayer() {
+		InterestFilter filter = new InterestFilter(900, 100);
+		filter.setPlayer(player);
+		filter.apply(capture());
+
+		player.getDeathProperty().set(true);
+		player.getBoundingArea().updateTo(5000, 0, 60, 30, 0);
+
+		EntitySnapshot filtered = filter.apply(capture());
+		assertNotNull(filtered.find(near.getEntityId()));
+		assertNull(filtered.find(far.getEntityId()));
+	}
+
+	/**
+	 * Test that the area is centered on the player in the snapshot, not on
+	 * where the player is now.
+	 */
+	@Test
+	public void testCenterFromSnapshot() {
+		InterestFilter filter = new InterestFilter(900, 100);
+		filter.setPlayer(player);
+		EntitySnapshot snapshot = capture();
+
+		//The game thread moves the player after the snapshot was captured
+		player.getBoundingArea().updateTo(5000, 0, 60, 30, 0);
+
+		EntitySnapshot filtered = filter.apply(snapshot);
+		assertNotNull(filtered.find(near.getEntityId()));
+		assertNull(filtered.find(far.getEntityId()));
+	}
+
+	/**
+	 * Test that the area stays where it was if the player is not in the
+	 * snapshot.
+	 */
+	@Test
+	public void testPlayerNotInSnapshot() {
+		InterestFilter filter = new InterestFilter(900, 100);
+		filter.setPlayer(player);
+		filter.apply(capture());
+
+		entities.remove(player);
+		player.getBoundingArea().updateTo(5000, 0, 60, 30, 0);
+
+		EntitySnapshot filtered = filter.apply(capture());
+		assertNotNull(filtered.find(near.getEntityId()));
+		assertNull(filtered.find(far.getEntityId()));
+	}
+
+	/**
+	 * Test that all entities are selected without a player or without a
+	 * radius.
+	 */
+	@Test
+	public void testUnfiltered() {
+		assertEquals(4, new InterestFilter(900, 100).apply(capture()).size());
+
+		InterestFilter disabled = new InterestFilter(0, 100);
+		disabled.setPlayer(player);
+		assertEquals(4, disabled.apply(capture()).size());
+	}
+}
@@ -0,0 +1,196 @@
+package com.github.fishio.multiplayer.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.fishio.SpriteStore;
+import com.github.fishio.game.GameLoopPool;
+import com.github.fishio.listeners.TickListener;
+import com.github.fishio.multiplayer.codec.SnapshotHistory;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+
+/**
+ * Test class for {@link RoomManager}.
+ */
+public class TestRoomManager {
+	private MultiplayerServerPlayingField defaultField;
+	private RoomManager rooms;
+
+	/**
+	 * Creates a RoomManager with at most three rooms, run by two threads.
+	 */
+	@Before
+	public void setUp() {
+		SpriteStore.setHeadless(true);
+
+		defaultField = new MultiplayerServerPlayingField(1000, 1000);
+		rooms = new RoomManager(defaultField, 10, 3, new GameLoopPool(2));
+	}
+
+	/**
+	 * Closes all rooms and restores the SpriteStore.
+	 *
+	 * @throws InterruptedException
+	 * 		if we are interrupted while waiting for the pool.
+	 */
+	@After
+	public void tearDown() throws InterruptedException {
+		rooms.closeAll();
+		SpriteStore.setHeadless(false);
+	}
+
+	/**
+	 * Test that the default room is the playing field of the server, and
+	 * is run by the pool.
+	 */
+	@Test
+	public void testDefaultRoom() {
+		EmbeddedChannel channel = new EmbeddedChannel();
+		Room room = rooms.join(RoomManager.DEFAULT_ROOM, channel);
+		assertSame(rooms.getDefaultRoom(), room);
+		assertSame(defaultField, room.getPlayingField());
+		assertSame(rooms.getPool().getExecutor(), defaultField.getGameThread().getExecutor());
+		assertTrue(room.getChannels().contains(channel));
+
+		//The default room stays open without clients
+		rooms.leave(room, channel);
+		assertSame(room, rooms.getRoom(RoomManager.DEFAULT_ROOM));
+	}
+
+	/**
+	 * Test that rooms are created on the first join, and closed after the
+	 * last client leaves.
+	 *
+	 * @throws InterruptedException
+	 * 		if we are interrupted while waiting.
+	 */
+	@Test
+	public void testJoinAndLeave() throws InterruptedException {
+		EmbeddedChannel first = new EmbeddedChannel();
+		EmbeddedChannel second = new EmbeddedChannel();
+		Room arena = rooms.join("arena", first);
+		assertSame(arena, rooms.join("arena", second));
+		assertEquals(2, arena.getMembers());
+		assertEquals(2, rooms.getRoomCount());
+		assertNotSame(defaultField, arena.getPlayingField());
+
+		//Wait for the first snapshot of the room
+		long deadline = System.currentTimeMillis() + 5000L;
+		while (arena.getPlayingField().getLatestSnapshot() == null && System.currentTimeMillis() < deadline) {
+			Thread.sleep(25L);
+		}
+
+		assertTrue(arena.getPlayingField().getGameThread().isRunning());
+		assertTrue(arena.getPlayingField().getGameThread().getTickStatistics().getTicks() > 0);
+		assertTrue(arena.getPlayingField().getLatestSnapshot() != null);
+
+		rooms.leave(arena, first);
+		assertSame(arena, rooms.getRoom("arena"));
+		rooms.leave(arena, second);
+		assertNull(rooms.getRoom("arena"));
+		assertFalse(arena.getPlayingField().getGameThread().isRunning());
+	}
+
+	/**
+	 * Test that no more rooms are created than the maximum.
+	 */
+	@Test
+	public void testMaxRooms() {
+		rooms.join("a", new EmbeddedChannel());
+		rooms.join("b", new EmbeddedChannel());
+
+		assertNull(rooms.join("c", new EmbeddedChannel()));
+		assertEquals(3, rooms.getRoomCount());
+	}
+
+	/**
+	 * Test that a room is closed when its game fails, that its clients are
+	 * moved to the default room, and that a new room with the same name
+	 * can be created.
+	 *
+	 * @throws InterruptedException
+	 * 		if we are interrupted while waiting.
+	 */
+	@Test
+	public void testGameFails() throws InterruptedException {
+		EmbeddedChannel channel = new EmbeddedChannel();
+		Room arena = rooms.join("arena", channel);
+		SnapshotHistory history = new SnapshotHistory();
+		channel.attr(FishIOServer.ROOM).set(arena);
+		channel.attr(FishIOServer.SNAPSHOT_HISTORY).set(history);
+		channel.attr(FishIOServer.PLAYER).set(arena.getPlayingField().createClientPlayer());
+		breakGame(arena);
+
+		long deadline = System.currentTimeMillis() + 5000L;
+		while (rooms.getRoom("arena") != null && System.currentTimeMillis() < deadline) {
+			Thread.sleep(25L);
+		}
+
+		assertNull(rooms.getRoom("arena"));
+		assertTrue(arena.getPlayingField().getGameThread().isStopped());
+		assertEquals(1, rooms.getRoomCount());
+
+		//The client continues in the default room, without its player and snapshots
+		channel.runPendingTasks();
+		assertSame(rooms.getDefaultRoom(), channel.attr(FishIOServer.ROOM).get());
+		assertTrue(rooms.getDefaultRoom().getChannels().contains(channel));
+		assertEquals(0, arena.getMembers());
+		assertNull(channel.attr(FishIOServer.PLAYER).get());
+		assertNotSame(history, channel.attr(FishIOServer.SNAPSHOT_HISTORY).get());
+		assertTrue(channel.attr(FishIOServer.INTEREST_FILTER).get() != null);
+
+		Room next = rooms.join("arena", channel);
+		assertNotSame(arena, next);
+		assertTrue(next.getPlayingField().getGameThread().isRunning());
+	}
+
+	/**
+	 * Test that the clients of the default room are disconnected when its
+	 * game fails, and that new clients are refused.
+	 *
+	 * @throws InterruptedException
+	 * 		if we are interrupted while waiting.
+	 */
+	@Test
+	public void testDefaultGameFails() throws InterruptedException {
+		EmbeddedChannel channel = new EmbeddedChannel();
+		rooms.join(RoomManager.DEFAULT_ROOM, channel);
+		breakGame(rooms.getDefaultRoom());
+		defaultField.startGame();
+
+		long deadline = System.currentTimeMillis() + 5000L;
+		while (channel.isOpen() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(25L);
+		}
+
+		assertFalse(channel.isOpen());
+		assertNull(rooms.join(RoomManager.DEFAULT_ROOM, new EmbeddedChannel()));
+	}
+
+	/**
+	 * Makes the next tick of the game of the given room fail.
+	 *
+	 * @param room
+	 * 		the room.
+	 */
+	private void breakGame(Room room) {
+		room.getPlayingField().getGameThread().registerListener(new TickListener() {
+			@Override
+			public void preTick() {
+				throw new StackOverflowError();
+			}
+
+			@Override
+			public void postTick() { }
+		});
+	}
+}
@@ -0,0 +1,212 @@
+package com.github.fishio.multiplayer.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.fishio.CollisionMask;
+import com.github.fishio.EnemyFish;
+import com.github.fishio.Entity;
+import com.github.fishio.PlayerFish;
+import com.github.fishio.SpriteStore;
+import com.github.fishio.Vec2d;
+import com.github.fishio.multiplayer.codec.EntitySnapshot;
+import com.github.fishio.multiplayer.codec.SnapshotHistory;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+
+/**
+ * Test class for {@link SnapshotScheduler}.
+ */
+public class TestSnapshotScheduler {
+	private static final double DELTA = 1E-9;
+
+	private ArrayList<Entity> entities;
+	private EmbeddedChannel channel;
+	private EntitySnapshot latest;
+	private int sequence;
+	private SnapshotScheduler scheduler;
+
+	/**
+	 * Creates a channel with a scheduler that sends at most 20 and at
+	 * least 5 snapshots per second.
+	 */
+	@Before
+	public void setUp() {
+		SpriteStore.setHeadless(true);
+
+		entities = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			CollisionMask cm = new CollisionMask(new Vec2d(10 * i, 10 * i), 40, 20, (boolean[][]) null, 0.7);
+			entities.add(new EnemyFish(cm, "sprites/fish/fish0.png", 1, 0));
+		}
+
+		channel = new EmbeddedChannel();
+		channel.attr(FishIOServer.SNAPSHOT_HISTORY).set(new SnapshotHistory());
+		scheduler = new SnapshotScheduler(channel, () -> latest, 20, 5);
+	}
+
+	/**
+	 * Restores the SpriteStore.
+	 */
+	@After
+	public void tearDown() {
+		channel.finish();
+		SpriteStore.setHeadless(false);
+	}
+
+	/**
+	 * Publishes a new snapshot.
+	 */
+	private void publish() {
+		latest = EntitySnapshot.capture(sequence++, entities);
+	}
+
+	/**
+	 * @param writable
+	 * 		if the channel should be writable.
+	 */
+	private void setWritable(boolean writable) {
+		channel.unsafe().outboundBuffer().setUserDefinedWritability(1, writable);
+	}
+
+	/**
+	 * Test that every snapshot is sent once.
+	 */
+	@Test
+	public void testSend() {
+		scheduler.run();
+		assertNull(channel.readOutbound());
+
+		publish();
+		scheduler.run();
+		scheduler.run();
+
+		FishServerSnapshotMessage msg = channel.readOutbound();
+		assertEquals(latest.size(), msg.getSnapshot().size());
+		assertEquals(latest.getTick(), msg.getSnapshot().getTick());
+		assertEquals(-1, msg.getInputSequence());
+		assertNull(channel.readOutbound());
+		assertEquals(1, scheduler.getSentCount());
+	}
+
+	/**
+	 * Test that polling more often than snapshots are published sends
+	 * every snapshot once, without skipping any.
+	 */
+	@Test
+	public void testPollFasterThanPublish() {
+		for (int i = 0; i < 10; i++) {
+			publish();
+			for (int j = 0; j < SnapshotScheduler.POLLS_PER_SNAPSHOT; j++) {
+				scheduler.run();
+			}
+
+			FishServerSnapshotMessage msg = channel.readOutbound();
+			assertEquals(latest.getTick(), msg.getSnapshot().getTick());
+			assertNull(channel.readOutbound());
+		}
+		assertEquals(10, scheduler.getSentCount());
+	}
+
+	/**
+	 * Test that snapshots are numbered per client.
+	 */
+	@Test
+	public void testSequence() {
+		sequence = 100;
+		for (int i = 0; i < 3; i++) {
+			publish();
+			scheduler.run();
+
+			FishServerSnapshotMessage msg = channel.readOutbound();
+			assertEquals(i, msg.getSnapshot().getSequence());
+		}
+	}
+
+	/**
+	 * Test that the message includes the last processed input of the
+	 * player of the client, as recorded in the snapshot.
+	 */
+	@Test
+	public void testInputSequence() {
+		PlayerFish player = mock(PlayerFish.class);
+		when(player.getEntityId()).thenReturn(42);
+		channel.attr(FishIOServer.PLAYER).set(player);
+
+		publish();
+		latest = latest.withInputSequences(new int[] {41, 42}, new int[] {3, 7});
+		scheduler.run();
+
+		FishServerSnapshotMessage msg = channel.readOutbound();
+		assertEquals(7, msg.getInputSequence());
+	}
+
+	/**
+	 * Test that a newer input in the queue of the client is not sent with
+	 * an older snapshot.
+	 */
+	@Test
+	public void testInputSequenceNotFromQueue() {
+		PlayerFish player = mock(PlayerFish.class);
+		when(player.getEntityId()).thenReturn(42);
+		channel.attr(FishIOServer.PLAYER).set(player);
+
+		InputQueue queue = new InputQueue();
+		queue.add(9, new byte[] {1});
+		queue.poll();
+		channel.attr(FishIOServer.INPUT_QUEUE).set(queue);
+
+		publish();
+		scheduler.run();
+
+		FishServerSnapshotMessage msg = channel.readOutbound();
+		assertEquals(-1, msg.getInputSequence());
+	}
+
+	/**
+	 * Test that the rate is lowered while the channel is not writable,
+	 * and restored afterwards.
+	 */
+	@Test
+	public void testBackOff() {
+		setWritable(false);
+		for (int i = 0; i < 20; i++) {
+			publish();
+			scheduler.run();
+		}
+
+		assertNull(channel.readOutbound());
+		assertEquals(5, scheduler.getRate(), DELTA);
+		assertTrue(scheduler.getCongestedCount() > 0);
+
+		//While congested, only every fourth snapshot is considered
+		setWritable(true);
+		for (int i = 0; i < 4; i++) {
+			publish();
+			scheduler.run();
+		}
+		assertEquals(1, scheduler.getSentCount());
+
+		//Polls without a new snapshot do not count
+		publish();
+		for (int i = 0; i < 8; i++) {
+			scheduler.run();
+		}
+		assertEquals(1, scheduler.getSentCount());
+
+		for (int i = 0; i < 40; i++) {
+			publish();
+			scheduler.run();
+		}
+		assertEquals(20, scheduler.getRate(), DELTA);
+	}
+}